@@ -0,0 +1,45 @@
+-module(recv_mark_bench).
+-export([main/0, calls/2]).
+
+%% Times calls that wait for a reply tagged with a fresh ref, first with
+%% an empty mailbox and then with a backlog of unrelated messages.  With
+%% recv_mark/recv_set (erlc R14 and later) the two should be about the
+%% same, as the receive does not scan the backlog.
+
+-define(BACKLOG, 100000).
+-define(CALLS, 1000).
+
+main() ->
+    Server = spawn(fun server/0),
+    {Empty, ok} = timer:tc(?MODULE, calls, [Server, ?CALLS]),
+    fill(?BACKLOG),
+    {Full, ok} = timer:tc(?MODULE, calls, [Server, ?CALLS]),
+    Server ! stop,
+    io:format("~p calls: ~p us with an empty mailbox, "
+              "~p us with ~p messages queued~n",
+              [?CALLS, Empty, Full, ?BACKLOG]).
+
+calls(_Server, 0) ->
+    ok;
+calls(Server, N) ->
+    N = call(Server, N),
+    calls(Server, N-1).
+
+call(Server, Req) ->
+    Ref = make_ref(),
+    Server ! {self(), Ref, Req},
+    receive
+        {Ref, Reply} -> Reply
+    end.
+
+server() ->
+    receive
+        {From, Ref, Req} ->
+            From ! {Ref, Req},
+            server();
+        stop ->
+            ok
+    end.
+
+fill(0) -> ok;
+fill(N) -> self() ! {junk, ?BACKLOG - N}, fill(N-1).
@@ -249,6 +249,6 @@ public final class EAtom extends EObject implements CharSequence {
 
 	@Override
 	public void encode(EOutputStream eos) {
-		eos.write_atom(this.value);
+		eos.write_atom(this);
 	}
 }
@@ -161,7 +161,7 @@ public class EBigString extends ESeq implements CharSequence {
 				if (seq.testNil() != null)
 					return false;
 
-				if (!seq.head().equalsExactly(new ESmall(charAt(i)))) {
+				if (!seq.head().equalsExactly(ESmall.make(charAt(i)))) {
 					return false;
 				}
 
@@ -291,7 +291,7 @@ public class EBigString extends ESeq implements CharSequence {
 	 */
 	@Override
 	public ESmall head() {
-		return new ESmall(data[off] & 0xff);
+		return ESmall.make(data[off] & 0xff);
 	}
 
 	@Override
@@ -357,7 +357,7 @@ public class EBigString extends ESeq implements CharSequence {
 					return -1; // I AM SHORTER
 				}
 
-				int cmp = (new ESmall(charAt(i++))).compareTo(seq.head());
+				int cmp = ESmall.make(charAt(i++)).compareTo(seq.head());
 				if (cmp != 0)
 					return cmp;
 
@@ -148,7 +148,7 @@ public class EBinList extends ECons {
 
 	@Override
 	public EObject head() {
-		return new ESmall(data[off] & 0xff);
+		return ESmall.make(data[off] & 0xff);
 	}
 
 	@Override
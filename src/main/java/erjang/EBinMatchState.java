@@ -195,7 +195,7 @@ public class EBinMatchState extends EPseudoTerm {
 			if (signed) {
 				value = EBitString.signExtend(value, size);
 			}
-			ESmall res = new ESmall(value);
+			ESmall res = ESmall.make(value);
 			offset += size;
 			return res;
 		}
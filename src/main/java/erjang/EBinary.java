@@ -135,8 +135,7 @@ public class EBinary extends EBitString {
 	 * @return
 	 */
 	public static EBinary read(EInputStream eInputStream) throws IOException {
-	    byte[] data = eInputStream.read_binary();
-	    return new EBinary(data); //TODO: use a make().
+	    return eInputStream.read_binary_term();
 	}
 
 	/**
@@ -162,7 +161,7 @@ public class EBinary extends EBitString {
 
 	@Override
 	public void encode(EOutputStream eos) {
-		eos.write_binary(getByteArray());
+		eos.write_binary(data, byteOffset(), byteSize());
 	}
 	
 	@Override
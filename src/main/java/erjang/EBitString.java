@@ -524,16 +524,7 @@ public class EBitString extends EObject {
 	 * @return
 	 */
 	public static EBitString read(EInputStream eInputStream) throws IOException {
-		int[] pad_bits = new int[1];
-	    byte[] data = eInputStream.read_bitstr(pad_bits);
-		int extra_bits = 8 - pad_bits[0];
-		if (extra_bits==8) {
-			return new EBinary(data); //TODO: use a make().
-		} else {
-			int len = data.length-1;
-			return make(data, 0, data.length-1, extra_bits);
-
-		}
+		return eInputStream.read_bitstr_term();
 	}
 
 	protected int byteOffset() {
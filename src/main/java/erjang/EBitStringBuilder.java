@@ -20,6 +20,7 @@
 package erjang;
 
 import java.math.BigInteger;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * 
@@ -38,15 +39,51 @@ public class EBitStringBuilder {
 	public EBitStringBuilder(int byte_size, int flags) {
 		if (flags != 0) throw new NotImplemented("flags="+flags);
 		data = new byte[byte_size];
-		bs = new EBitString(data, 0, byte_size, 0);
+		bs = new EBinary(data, 0, byte_size);
 	}
 
 	public EBitStringBuilder(int byte_size, int extra_bits, int flags) {
 		if (flags != 0) throw new NotImplemented("flags="+flags);
 		data = new byte[byte_size+(extra_bits>0?1:0)];
-		bs = new EBitString(data, 0, byte_size, extra_bits);
+		bs = EBitString.make(data, 0, byte_size, extra_bits);
 	}
 
+	private EBitStringBuilder(AppendableBinary bin, int byte_pos) {
+		this.data = bin.data;
+		this.bs = bin;
+		this.byte_pos = byte_pos;
+	}
+
+	/**
+	 * A binary made by {@link EBitStringBuilder#bs_append}, which has spare
+	 * room after its end in its data array.  <code>used</code> is the end
+	 * of the last binary built in that array; bytes before it are never
+	 * changed again.  Appending to the binary that ends there claims the
+	 * next bytes with a compare-and-set, and writes them in place.
+	 */
+	static final class AppendableBinary extends EBinary {
+		final AtomicInteger used;
+
+		AppendableBinary(byte[] data, int byte_size, AtomicInteger used) {
+			super(data, 0, byte_size);
+			this.used = used;
+		}
+
+		/** @return a builder writing the next bytes bytes, or null */
+		EBitStringBuilder append(int bytes) {
+			int end = byteSize();
+			int new_end = end + bytes;
+			if (new_end > data.length || new_end < end
+					|| !used.compareAndSet(end, new_end))
+				return null;
+			return new EBitStringBuilder(new AppendableBinary(data, new_end,
+					used), end);
+		}
+	}
+
+	/** smallest spare room given to a binary made by bs_append */
+	static final int MIN_APPEND_CAPACITY = 256;
+
 	/** return bitstring under construction */
 	public EBitString bitstring() {
 		return bs;
@@ -209,11 +246,38 @@ public class EBitStringBuilder {
 		byte_pos += str.length();
 	}
 	
-	/** grow a bitstring by extra_size bits, and return a string builder with position at end of original bitstring */
+	/**
+	 * grow a bitstring by extra_size bits, and return a string builder with
+	 * position at end of original bitstring.
+	 * 
+	 * When both are byte aligned, the result gets room to grow (double its
+	 * size), so appending to it again in a loop, as in
+	 * <code>&lt;&lt;Acc/binary, X&gt;&gt;</code>, writes in place and costs
+	 * amortised O(1) per byte instead of copying the whole accumulator.
+	 */
 	public static EBitStringBuilder bs_append(EObject str_or_builder, int extra_size, int flags)
 	{
 		EBitString ebs = str_or_builder.testBitString();
 		if (ebs == null) throw new NotImplemented();
+
+		if (flags == 0 && ebs.extra_bits == 0 && (extra_size & 7) == 0) {
+			if (ebs instanceof AppendableBinary) {
+				EBitStringBuilder res = ((AppendableBinary) ebs).append(extra_size >> 3);
+				if (res != null)
+					return res;
+			}
+
+			long new_size = ebs.byteSize() + (long) (extra_size >> 3);
+			if (new_size <= Integer.MAX_VALUE) {
+				int size = (int) new_size;
+				long capacity = Math.max(new_size * 2, MIN_APPEND_CAPACITY);
+				byte[] data = new byte[(int) Math.min(capacity, Integer.MAX_VALUE - 8)];
+				System.arraycopy(ebs.data, ebs.byteOffset(), data, 0, ebs.byteSize());
+				AppendableBinary bin = new AppendableBinary(data, size,
+						new AtomicInteger(size));
+				return new EBitStringBuilder(bin, ebs.byteSize());
+			}
+		}
 		
 		long bitSize = ebs.bitSize() + extra_size;
 		int size = (int) (bitSize/8);
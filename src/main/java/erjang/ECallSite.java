@@ -0,0 +1,49 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+/**
+ * The binding of an external function, shared by all modules that call
+ * it.  Compiled code holds on to the site in a static final field, and
+ * calls whatever its <code>target</code> is; until the function's module
+ * is loaded, that is a handler which loads it.  Loading a new version of
+ * the module updates the target of each of its exported functions, which
+ * redirects every caller at once.
+ */
+public final class ECallSite {
+
+	public final FunID fun;
+	public volatile EFun target;
+
+	ECallSite(FunID fun, EFun target) {
+		this.fun = fun;
+		this.target = target;
+	}
+
+	/** Used from the class initializer of compiled modules */
+	public static ECallSite get(String module, String function, int arity) {
+		return EModuleManager.call_site(new FunID(module, function, arity));
+	}
+
+	@Override
+	public String toString() {
+		return "<call site " + fun + " -> " + target + ">";
+	}
+}
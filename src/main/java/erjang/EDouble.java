@@ -110,7 +110,7 @@ public class EDouble extends ENumber {
 
 	public EInteger asInteger() {
 		if (value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE) {
-			return new ESmall((int) value);
+			return ESmall.make((int) value);
 		} else {
 			return new EBig(BigDecimal.valueOf(value).toBigInteger());
 		}
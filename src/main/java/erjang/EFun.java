@@ -25,6 +25,7 @@ import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 
 import kilim.Pausable;
 import kilim.analysis.ClassInfo;
@@ -238,11 +239,25 @@ public abstract class EFun extends EObject implements Opcodes {
 		return data;
 	}
 
-	static Map<Integer, Constructor<? extends EFun>> handlers = new HashMap<Integer, Constructor<? extends EFun>>();
+	static Map<Integer, Constructor<? extends EFun>> handlers = new ConcurrentHashMap<Integer, Constructor<? extends EFun>>();
 
     public static EFun get_fun_with_handler(int arity, EFunHandler handler, ClassLoader loader) {
 		Constructor<? extends EFun> h = handlers.get(arity);
 
+		if (h == null) {
+			h = get_handler_constructor(arity);
+		}
+
+		try {
+			return h.newInstance(handler);
+		} catch (Exception e) {
+			throw new Error(e);
+		}
+	}
+
+	private static synchronized Constructor<? extends EFun> get_handler_constructor(int arity) {
+		Constructor<? extends EFun> h = handlers.get(arity);
+
 		if (h == null) {
 
 			String self_type = EFUN_TYPE.getInternalName() + "Handler" + arity;
@@ -286,7 +301,9 @@ public abstract class EFun extends EObject implements Opcodes {
 
 			data = weave(data);
 
-			Class<? extends EFun> clazz = ERT.defineClass(loader, self_type.replace('/', '.'), data, 0,
+			// shared by all modules, so it must not keep any module's loader alive
+			get_fun_class(arity);
+			Class<? extends EFun> clazz = ERT.defineClass(EFun.class.getClassLoader(), self_type.replace('/', '.'), data, 0,
 					data.length);
 
 			try {
@@ -298,11 +315,7 @@ public abstract class EFun extends EObject implements Opcodes {
 			handlers.put(arity, h);
 		}
 
-		try {
-			return h.newInstance(handler);
-		} catch (Exception e) {
-			throw new Error(e);
-		}
+		return h;
 	}
 
 	public static byte[] weave(byte[] data) {
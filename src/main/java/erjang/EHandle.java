@@ -20,7 +20,6 @@
 package erjang;
 
 import kilim.Pausable;
-import kilim.Task;
 
 /**
  * An EHandle is either an EPort or an EPID.  EHandles can be sent messages
@@ -55,10 +54,10 @@ public abstract class EHandle extends EObject {
 		ETask<?> task = task();
 		if (task != null) {
 			
-			task.reds += task.mbox.size();
-			if (task.reds > 1000) {
-				task.reds = 0;
-				Task.yield();
+			// sending to a long queue costs the sender
+			ETask<?> self = sender == null ? null : sender.task();
+			if (self != null) {
+				self.bump_reds(task.mbox.size());
 			}
 			
 			task.mbox_send(msg);
@@ -70,7 +69,7 @@ public abstract class EHandle extends EObject {
 	public void sendb(EObject msg) {
 		ETask<?> task = task();
 		if (task != null) {
-			task.mbox().putb(msg);
+			task.mbox().put(msg);
 		}
 	}
 
@@ -0,0 +1,150 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang;
+
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * The links or monitors of a task: a map from terms (handles or refs) to
+ * handles, which may be updated from any thread.
+ *
+ * Most processes have no more than a couple of links and monitors, so up
+ * to {@link #INLINE} entries are kept as key/value pairs in one small
+ * array; beyond that the table switches to a TreeMap.  Keys are compared
+ * with {@link EObject#compareTo(EObject)}, as in the sorted set and map
+ * this replaces.
+ */
+final class EHandleTable<K extends EObject> {
+
+	static final int INLINE = 4;
+
+	/** key/value pairs, while there are at most INLINE entries */
+	private Object[] pairs;
+	private int count;
+
+	/** all entries, once there have been more than INLINE */
+	private TreeMap<K, EHandle> map;
+
+	/** @return the previous value for key, or null */
+	synchronized EHandle put(K key, EHandle value) {
+		if (map != null)
+			return map.put(key, value);
+
+		int i = find(key);
+		if (i >= 0) {
+			EHandle old = (EHandle) pairs[i + 1];
+			pairs[i + 1] = value;
+			return old;
+		}
+
+		if (count == INLINE) {
+			map = new TreeMap<K, EHandle>();
+			for (i = 0; i < 2 * count; i += 2) {
+				map.put(key_at(i), (EHandle) pairs[i + 1]);
+			}
+			map.put(key, value);
+			pairs = null;
+			count = 0;
+			return null;
+		}
+
+		if (pairs == null || 2 * count == pairs.length) {
+			Object[] np = new Object[2 * (count + 1)];
+			if (pairs != null)
+				System.arraycopy(pairs, 0, np, 0, 2 * count);
+			pairs = np;
+		}
+		pairs[2 * count] = key;
+		pairs[2 * count + 1] = value;
+		count += 1;
+		return null;
+	}
+
+	/** @return the removed value for key, or null */
+	synchronized EHandle remove(K key) {
+		if (map != null)
+			return map.remove(key);
+
+		int i = find(key);
+		if (i < 0)
+			return null;
+		EHandle old = (EHandle) pairs[i + 1];
+		int last = 2 * (count - 1);
+		pairs[i] = pairs[last];
+		pairs[i + 1] = pairs[last + 1];
+		pairs[last] = pairs[last + 1] = null;
+		count -= 1;
+		return old;
+	}
+
+	synchronized EHandle get(K key) {
+		if (map != null)
+			return map.get(key);
+		int i = find(key);
+		return i < 0 ? null : (EHandle) pairs[i + 1];
+	}
+
+	synchronized int size() {
+		return map != null ? map.size() : count;
+	}
+
+	/** @return a copy of the table, as alternating keys and values */
+	synchronized Object[] snapshot() {
+		if (map == null) {
+			Object[] res = new Object[2 * count];
+			if (count > 0)
+				System.arraycopy(pairs, 0, res, 0, res.length);
+			return res;
+		}
+
+		Object[] res = new Object[2 * map.size()];
+		int i = 0;
+		for (Map.Entry<K, EHandle> ent : map.entrySet()) {
+			res[i++] = ent.getKey();
+			res[i++] = ent.getValue();
+		}
+		return res;
+	}
+
+	/** @return an estimate of the heap used by this table, in bytes */
+	synchronized long memory() {
+		long res = ObjectSize.shallow(this);
+		if (pairs != null)
+			res += ObjectSize.shallow(pairs);
+		if (map != null)
+			res += ObjectSize.shallow(map) + map.size()
+					* ObjectSize.TREE_MAP_ENTRY;
+		return res;
+	}
+
+	private int find(K key) {
+		for (int i = 0; i < 2 * count; i += 2) {
+			EObject k = (EObject) pairs[i];
+			if (k == key || k.compareTo(key) == 0)
+				return i;
+		}
+		return -1;
+	}
+
+	@SuppressWarnings("unchecked")
+	private K key_at(int i) {
+		return (K) pairs[i];
+	}
+}
@@ -46,6 +46,15 @@ public class EInputStream extends ByteArrayInputStream {
 
 	private EAtom[] atom_cache_refs;
 
+	/**
+	 * Binaries of at least this many bytes are decoded as slices of an
+	 * immutable input buffer; smaller ones are copied, so that they do not
+	 * keep a large buffer alive.
+	 */
+	public static final int SHARE_THRESHOLD = 64;
+
+	private boolean immutable;
+
 	/**
 	 * @param buf
 	 */
@@ -431,6 +440,84 @@ public class EInputStream extends ByteArrayInputStream {
 		return bin;
 	}
 
+	/**
+	 * Read an Erlang binary from the stream.  If the stream is
+	 * {@link #setImmutable(boolean) immutable}, the result may share the
+	 * stream's buffer.
+	 * 
+	 * @exception IOException
+	 *                if the next term in the stream is not a binary.
+	 */
+	public EBinary read_binary_term() throws IOException {
+		final int tag = read1skip_version();
+
+		if (tag != EExternal.binTag) {
+			throw new IOException("Wrong tag encountered, expected "
+					+ EExternal.binTag + ", got " + tag);
+		}
+
+		return take(read4BE());
+	}
+
+	/**
+	 * Read an Erlang bitstr (or binary) from the stream.  If the stream is
+	 * {@link #setImmutable(boolean) immutable}, the result may share the
+	 * stream's buffer.
+	 * 
+	 * @exception IOException
+	 *                if the next term in the stream is not a bitstr.
+	 */
+	public EBitString read_bitstr_term() throws IOException {
+		final int tag = read1skip_version();
+
+		if (tag == EExternal.binTag) {
+			return take(read4BE());
+		}
+		if (tag != EExternal.bitBinTag) {
+			throw new IOException("Wrong tag encountered, expected "
+					+ EExternal.bitBinTag + ", got " + tag);
+		}
+
+		final int len = read4BE();
+		final int tail_bits = read1();
+		if (tail_bits < 0 || 7 < tail_bits) {
+			throw new IOException("Wrong tail bit count in bitstr: "
+					+ tail_bits);
+		}
+		if (len == 0 && tail_bits != 0) {
+			throw new IOException("Length 0 on bitstr with tail bit count: "
+					+ tail_bits);
+		}
+
+		final EBinary bytes = take(len);
+		if (tail_bits == 0) {
+			return bytes;
+		}
+		return EBitString.make(bytes.data, bytes.byteOffset(), len - 1,
+				tail_bits);
+	}
+
+	/**
+	 * @return the next len bytes, as a slice of the buffer if that is
+	 *         allowed and worthwhile, and as a copy otherwise
+	 */
+	private EBinary take(final int len) throws IOException {
+		if (len < 0 || len > super.count - super.pos) {
+			throw new IOException("Cannot read from input stream");
+		}
+
+		final EBinary res;
+		if (immutable && len >= SHARE_THRESHOLD) {
+			res = new EBinary(super.buf, super.pos, len);
+		} else {
+			final byte[] bin = new byte[len];
+			System.arraycopy(super.buf, super.pos, bin, 0, len);
+			res = new EBinary(bin);
+		}
+		super.pos += len;
+		return res;
+	}
+
 	/**
 	 * Read an Erlang bitstr from the stream.
 	 * 
@@ -694,8 +781,8 @@ public class EInputStream extends ByteArrayInputStream {
 		int tag = read1skip_version();
 
 		switch (tag) {
-		case EExternal.smallIntTag: return new ESmall(read1());
-		case EExternal.intTag:      return new ESmall(read4BE());
+		case EExternal.smallIntTag: return ESmall.make(read1());
+		case EExternal.intTag:      return ESmall.make(read4BE());
 		default: setPos(getPos()-1); return ERT.box(new BigInteger(read_integer_byte_array()));
 		} // switch
 	}
@@ -1129,6 +1216,7 @@ public class EInputStream extends ByteArrayInputStream {
 		final byte[] buf = read_size_and_inflate();
 
 		final EInputStream ois = new EInputStream(buf, flags);
+		ois.setImmutable(true);
 		return ois.read_any();
 	}
 
@@ -1232,6 +1320,16 @@ public class EInputStream extends ByteArrayInputStream {
 		}
 	}
 
+	/**
+	 * Declare whether the bytes this stream reads from may change after
+	 * decoding.  If they cannot, binaries of at least
+	 * {@link #SHARE_THRESHOLD} bytes are decoded as slices of them rather
+	 * than as copies.
+	 */
+	public void setImmutable(boolean immutable) {
+		this.immutable = immutable;
+	}
+
 	public void setAtomCacheRefs(EAtom[] atomCacheRefs) {
 		this.atom_cache_refs = atomCacheRefs;		
 	}
@@ -21,7 +21,6 @@ package erjang;
 
 import erjang.m.erlang.DistEntry;
 import kilim.Pausable;
-import kilim.Task;
 
 /**
  * This is a PID on this node
@@ -88,10 +87,10 @@ public class EInternalPID extends EPID implements ELocalHandle {
 		EProc task = this.task;
 		if (task != null) {
 			
-			task.reds += task.mbox.size();
-			if (task.reds > 1000) {
-				task.reds = 0;
-				Task.yield();
+			// sending to a long queue costs the sender
+			ETask<?> self = sender == null ? null : sender.task();
+			if (self != null) {
+				self.bump_reds(task.mbox.size());
 			}
 
 			task.mbox.put(msg);
@@ -0,0 +1,337 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
+
+import kilim.Pausable;
+import kilim.PauseReason;
+import kilim.Task;
+
+/**
+ * An Erlang process mailbox.
+ *
+ * Unlike kilim's <code>Mailbox</code> this is unbounded, so senders never
+ * block or pause.  Any number of tasks or threads may {@link #put} messages,
+ * but only the owning task may peek, remove or wait for messages.
+ *
+ * Senders append to a lock-free linked queue (one exchange on the tail plus
+ * one node per message).  The owner moves messages from that queue into a
+ * private ring buffer when it needs to look at them; that buffer is what
+ * provides indexed {@link #peek(int)} and {@link #remove(int)} for the
+ * selective receive in {@link ERT#loop_rec(EProc)} and friends.
+ */
+public final class EMailbox implements PauseReason {
+
+	static final class Node {
+		EObject msg;
+		volatile Node next;
+
+		Node(EObject msg) {
+			this.msg = msg;
+		}
+	}
+
+	private static final AtomicReferenceFieldUpdater<EMailbox, Node> TAIL = AtomicReferenceFieldUpdater
+			.newUpdater(EMailbox.class, Node.class, "tail");
+	private static final AtomicIntegerFieldUpdater<EMailbox> SIZE = AtomicIntegerFieldUpdater
+			.newUpdater(EMailbox.class, "size");
+	private static final AtomicIntegerFieldUpdater<EMailbox> WAITING = AtomicIntegerFieldUpdater
+			.newUpdater(EMailbox.class, "waiting");
+
+	private static final int INITIAL_CAPACITY = 8;
+	private static final EObject[] NO_MESSAGES = new EObject[0];
+
+	private final Task owner;
+
+	/** producer side; last node appended */
+	private volatile Node tail;
+
+	/** consumer side; last node moved into buf (its msg is already cleared) */
+	private Node head;
+
+	/**
+	 * consumer side; messages in arrival order, starting at buf[first].
+	 * Allocated when the first message is moved in.
+	 */
+	private EObject[] buf = NO_MESSAGES;
+	private int first;
+	private int count;
+
+	/** total number of messages, including those not yet moved into buf */
+	private volatile int size;
+
+	/** 1 when the owner is paused waiting for a message */
+	private volatile int waiting;
+
+	/** consumer side; receive marker, see ERT.recv_mark / recv_set */
+	private Object mark_code;
+	private int mark_label;
+	private int mark_idx;
+
+	public EMailbox(Task owner) {
+		this.owner = owner;
+		this.head = this.tail = new Node(null);
+	}
+
+	/**
+	 * Append a message; never blocks, and may be called from any thread.
+	 */
+	public void put(EObject msg) {
+		if (msg == null)
+			throw new NullPointerException("null message");
+
+		Node node = new Node(msg);
+		Node prev = TAIL.getAndSet(this, node);
+		prev.next = node;
+		SIZE.incrementAndGet(this);
+
+		if (waiting != 0 && WAITING.compareAndSet(this, 1, 0)) {
+			owner.resume();
+		}
+	}
+
+	/** Number of messages in the mailbox.  Safe to call from any thread. */
+	public int size() {
+		return size;
+	}
+
+	/** Move all messages published by senders into the ring buffer */
+	private void drain() {
+		Node h = head;
+		Node n;
+		while ((n = h.next) != null) {
+			append(n.msg);
+			n.msg = null;
+			h = n;
+		}
+		head = h;
+	}
+
+	private void append(EObject msg) {
+		EObject[] b = buf;
+		if (count == b.length) {
+			EObject[] nb = new EObject[Math.max(INITIAL_CAPACITY, b.length * 2)];
+			int n = b.length - first;
+			System.arraycopy(b, first, nb, 0, n);
+			System.arraycopy(b, 0, nb, n, first);
+			buf = b = nb;
+			first = 0;
+		}
+		b[(first + count) & (b.length - 1)] = msg;
+		count += 1;
+	}
+
+	/**
+	 * @return the idx'th message, or null if there are not that many
+	 */
+	public EObject peek(int idx) {
+		if (idx >= count) {
+			drain();
+			if (idx >= count)
+				return null;
+		}
+		return buf[(first + idx) & (buf.length - 1)];
+	}
+
+	/**
+	 * Remove the idx'th message; moves whichever side of the buffer is
+	 * shorter, so removing near either end is cheap.
+	 *
+	 * @return the removed message, or null if there are not that many
+	 */
+	public EObject remove(int idx) {
+		if (idx >= count) {
+			drain();
+			if (idx >= count)
+				return null;
+		}
+
+		EObject[] b = buf;
+		int mask = b.length - 1;
+		EObject res = b[(first + idx) & mask];
+
+		if (idx < count / 2) {
+			for (int i = idx; i > 0; i--) {
+				b[(first + i) & mask] = b[(first + i - 1) & mask];
+			}
+			b[first] = null;
+			first = (first + 1) & mask;
+		} else {
+			for (int i = idx; i < count - 1; i++) {
+				b[(first + i) & mask] = b[(first + i + 1) & mask];
+			}
+			b[(first + count - 1) & mask] = null;
+		}
+
+		if (idx < mark_idx)
+			mark_idx -= 1;
+
+		count -= 1;
+		SIZE.decrementAndGet(this);
+		return res;
+	}
+
+	/**
+	 * Record the current end of the mailbox for the receive at label in
+	 * code, the loaded module it is in; labels are only unique within one
+	 * module.  Messages that arrive after this call will be found at or
+	 * after {@link #marked(Object, int)}; removing earlier messages moves
+	 * the mark along.
+	 */
+	public void mark(Object code, int label) {
+		mark_code = code;
+		mark_label = label;
+		mark_idx = size;
+	}
+
+	/**
+	 * @return the index saved by {@link #mark(Object, int)} for the receive
+	 *         at label in code, or 0 if the most recent mark was for some
+	 *         other receive
+	 */
+	public int marked(Object code, int label) {
+		return code == mark_code && label == mark_label ? mark_idx : 0;
+	}
+
+	/** remove the first message, or return null if there is none */
+	public EObject getnb() {
+		return remove(0);
+	}
+
+	public EObject get() throws Pausable {
+		untilHasMessages(1);
+		return remove(0);
+	}
+
+	/** @return the first message, or null if none arrived within millis */
+	public EObject get(long millis) throws Pausable {
+		if (untilHasMessages(1, millis)) {
+			return remove(0);
+		}
+		return null;
+	}
+
+	public boolean hasMessage() {
+		return hasMessages(1);
+	}
+
+	public boolean hasMessages(int n) {
+		if (count >= n)
+			return true;
+		drain();
+		return count >= n;
+	}
+
+	public void untilHasMessage() throws Pausable {
+		untilHasMessages(1);
+	}
+
+	public boolean untilHasMessage(long millis) throws Pausable {
+		return untilHasMessages(1, millis);
+	}
+
+	public void untilHasMessages(int n) throws Pausable {
+		while (!hasMessages(n)) {
+			waiting = 1;
+			if (hasMessages(n)) {
+				waiting = 0;
+				return;
+			}
+			Task.pause(this);
+		}
+	}
+
+	public boolean untilHasMessages(int n, long millis) throws Pausable {
+		long deadline = System.currentTimeMillis() + millis;
+		while (!hasMessages(n)) {
+			long left = deadline - System.currentTimeMillis();
+			if (left <= 0) {
+				return false;
+			}
+
+			waiting = 1;
+			if (hasMessages(n)) {
+				waiting = 0;
+				return true;
+			}
+
+			ETimerWheel.Entry wakeup = new ETimerWheel.Entry() {
+				@Override
+				protected void fire() {
+					if (WAITING.compareAndSet(EMailbox.this, 1, 0)) {
+						owner.resume();
+					}
+				}
+			};
+
+			ETimerWheel.schedule(wakeup, left);
+			Task.pause(this);
+			wakeup.cancel();
+		}
+		return true;
+	}
+
+	/* (non-Javadoc)
+	 * @see kilim.PauseReason#isValid(kilim.Task)
+	 */
+	@Override
+	public boolean isValid(Task t) {
+		return waiting != 0;
+	}
+
+	/**
+	 * Snapshot of the messages in the mailbox.  When called from anything
+	 * but the owning task, the result may be slightly out of date.
+	 */
+	public EObject[] messages() {
+		List<EObject> res = new ArrayList<EObject>();
+		EObject[] b = buf;
+		int f = first, c = count, mask = b.length - 1;
+		for (int i = 0; i < c; i++) {
+			EObject msg = b[(f + i) & mask];
+			if (msg != null)
+				res.add(msg);
+		}
+		for (Node n = head.next; n != null; n = n.next) {
+			EObject msg = n.msg;
+			if (msg != null)
+				res.add(msg);
+		}
+		return res.toArray(new EObject[res.size()]);
+	}
+
+	/**
+	 * @return an estimate of the heap used by the mailbox, not counting the
+	 *         messages themselves, in bytes
+	 */
+	public long memory() {
+		return ObjectSize.shallow(this) + ObjectSize.shallow(buf)
+				+ Math.max(1, size - count + 1)
+				* ObjectSize.instance(Node.class);
+	}
+
+	@Override
+	public String toString() {
+		return "EMailbox[size=" + size + "]";
+	}
+}
@@ -60,6 +60,18 @@ public abstract class EModule {
 
         public abstract ClassLoader getModuleClassLoader();
 
+	/**
+	 * Used to find the processes that run a module's old code.
+	 * 
+	 * @return true if o, the object a suspended frame runs in or a fun it
+	 *         refers to, is part of this module's code
+	 */
+	public boolean owns(Object o) {
+		ClassLoader cl = getModuleClassLoader();
+		return cl instanceof EModuleClassLoader
+				&& o.getClass().getClassLoader() == cl;
+	}
+
     protected void load_native_bifs() throws Exception {
 		Class<? extends ENative> natives;
 
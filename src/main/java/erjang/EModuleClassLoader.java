@@ -25,16 +25,31 @@ import java.net.URL;
 import java.net.URLClassLoader;
 
 /**
- * Each module has it's own class loader.
+ * Each module has it's own class loader.  It loads the module's classes
+ * either from a jar, or from a {@link ClassSource} shared by many modules.
  */
 public class EModuleClassLoader extends URLClassLoader {
 
+	/** Where to get class files from, other than a URL */
+	public interface ClassSource {
+		/** @return the class file for internal_name, or null */
+		byte[] class_bytes(String internal_name) throws IOException;
+	}
+
+	private final ClassSource source;
+
 	/**
 	 * @param urls
 	 */
 	public EModuleClassLoader(URL loadFrom) {
 		super(loadFrom == null ? new URL[0] : new URL[] { loadFrom },
 				EObject.class.getClassLoader());
+		this.source = null;
+	}
+
+	public EModuleClassLoader(ClassSource source) {
+		super(new URL[0], EObject.class.getClassLoader());
+		this.source = source;
 	}
 
 	/**
@@ -69,6 +84,20 @@ public class EModuleClassLoader extends URLClassLoader {
 			return EFun.get_fun_class(arity);
 		}
 		
+		if (source != null) {
+			byte[] bb;
+			try {
+				bb = source.class_bytes(name.replace('.', '/'));
+			} catch (IOException ex) {
+				throw new ClassNotFoundException(name, ex);
+			}
+			if (bb == null)
+				throw new ClassNotFoundException(name);
+			if (name.startsWith("kilim.S_"))
+				return ERT.defineClass(EModuleClassLoader.class.getClassLoader(), name, bb, 0, bb.length);
+			return defineClass(name, bb, 0, bb.length);
+		}
+
 		if (name.startsWith("kilim.S_")) {
 			String classFileName = name.replace('.', File.separatorChar) + ".class";
 			InputStream resource = super.getResourceAsStream(classFileName);
@@ -20,13 +20,22 @@ package erjang;
 
 import erjang.beam.BeamFileData;
 import erjang.beam.BeamLoader;
+import erjang.beam.CodeArchive;
+import erjang.beam.CodeCache;
 import erjang.beam.Compiler;
 import erjang.beam.EUtil;
 
+import erjang.beam.interpreter.AbstractInterpreter;
 import erjang.beam.loader.ErjangBeamDisLoader;
 
 import java.util.List;
 import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import java.io.IOException;
 import java.io.FileNotFoundException;
@@ -45,10 +54,24 @@ import java.net.URL;
  *  - File reading: from beam file name to raw beam data.
  *  - Beam parsing: From raw beam data to beam representation (BeamFileData).
  *  - Module creation: From beam representation to executable module (EModule).
+ *
+ *  How modules are created is selected with <code>-Derj.load=</code>:
+ *  - <code>compile</code> (the default): compile to JVM bytecode at once.
+ *  - <code>interpret</code>: run the BEAM code in the interpreter.
+ *  - <code>tiered</code>: use the compiled code if it is in the code cache
+ *    already; otherwise start in the interpreter, and once the module has
+ *    been called <code>erj.load.hot</code> times (default 10000), compile
+ *    it on a background thread and switch its exports over to the compiled
+ *    code.  Modules the interpreter cannot handle are compiled at once.
  */
 class EModuleLoader {
+	static Logger log = Logger.getLogger(EModuleLoader.class.getName());
+
 	public static final boolean DEBUG_MODULE_LOAD = false;
 
+	static final String LOAD_MODE = System.getProperty("erj.load", "compile");
+	static final int HOT_CALLS = Integer.getInteger("erj.load.hot", 10000);
+
 	final static BeamLoader beamParser = new ErjangBeamDisLoader();
 
 	/*==================== API ====================*/
@@ -67,20 +90,54 @@ class EModuleLoader {
 	static long acc_int_load = 0;
 	static long acc_load = 0;
 	public static EModule load_module(String moduleName, EBinary beamBin) throws IOException {
+		CodeArchive archive = CodeArchive.runtime();
+		if (archive != null && archive.contains(moduleName, beamBin)) {
+			return load_compiled_module(moduleName, new EModuleClassLoader(archive));
+		}
+
 		// This is where the module creation mode is selected.
-		boolean use_interpreter = false;
+		boolean use_interpreter = LOAD_MODE.equals("interpret");
+		File jarFile = null;
+
+		if (LOAD_MODE.equals("tiered")) {
+			jarFile = CodeCache.cached(moduleName, beamBin);
+			use_interpreter = jarFile == null;
+		}
 
 		long before = System.currentTimeMillis();
 		long after;
-		EModule loaded_module;
+		EModule loaded_module = null;
 		if (use_interpreter) {
-			BeamFileData bfd = beamParser.load(beamBin.toByteArray());
-			loaded_module = erjang.beam.interpreter.Interpreter.beamFileToEModule(bfd);
-			after = System.currentTimeMillis();
-		} else { // Use compiler
-			File jarFile = Compiler.compile(moduleName, beamBin, beamParser);
+			try {
+				BeamFileData bfd = beamParser.load(beamBin.toByteArray());
+				loaded_module = erjang.beam.interpreter.Interpreter.beamFileToEModule(bfd);
+			} catch (RuntimeException e) {
+				if (!LOAD_MODE.equals("tiered"))
+					throw e;
+				log.log(Level.FINE, "cannot interpret " + moduleName, e);
+			} catch (Error e) {
+				if (!LOAD_MODE.equals("tiered"))
+					throw e;
+				log.log(Level.FINE, "cannot interpret " + moduleName, e);
+			}
+
+			if (loaded_module != null) {
+				interpreted.incrementAndGet();
+				if (LOAD_MODE.equals("tiered")) {
+					tier_up_when_hot((AbstractInterpreter.Module) loaded_module, moduleName, beamBin);
+				}
+			} else {
+				use_interpreter = false;
+			}
+		}
+
+		if (loaded_module == null) { // Use compiler
+			if (jarFile == null)
+				jarFile = Compiler.compile(moduleName, beamBin, beamParser);
 			after = System.currentTimeMillis();
 			loaded_module = load_compiled_module(moduleName, jarFile.toURI().toURL());
+		} else {
+			after = System.currentTimeMillis();
 		}
 
 		if (DEBUG_MODULE_LOAD) {
@@ -100,6 +157,81 @@ class EModuleLoader {
 		return loaded_module;
 	}
 
+	/*==================== TIERED LOADING ====================*/
+
+	static final AtomicInteger interpreted = new AtomicInteger();
+	static final AtomicInteger tiered_up = new AtomicInteger();
+	static final AtomicLong tier_up_time = new AtomicLong();
+
+	private static final LinkedBlockingQueue<Runnable> tier_up_queue = new LinkedBlockingQueue<Runnable>();
+
+	/** compiles hot modules, one at a time, at low priority */
+	private static final Thread tier_up_thread = new Thread("erjang-tier-up") {
+		{
+			setDaemon(true);
+			setPriority(Thread.MIN_PRIORITY);
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					tier_up_queue.take().run();
+				} catch (InterruptedException e) {
+					// continue //
+				} catch (Throwable e) {
+					log.log(Level.WARNING, "tier-up failed", e);
+				}
+			}
+		}
+	};
+
+	private static void tier_up_when_hot(final AbstractInterpreter.Module mod,
+			final String moduleName, final EBinary beamBin) {
+		synchronized (tier_up_thread) {
+			if (!tier_up_thread.isAlive())
+				tier_up_thread.start();
+		}
+
+		mod.on_hot(HOT_CALLS, new Runnable() {
+			public void run() {
+				tier_up_queue.add(new Runnable() {
+					public void run() {
+						tier_up(mod, moduleName, beamBin);
+					}
+				});
+			}
+		});
+	}
+
+	/** Compile an interpreted module, and replace it by the compiled one */
+	static void tier_up(AbstractInterpreter.Module mod, final String moduleName,
+			EBinary beamBin) {
+		long before = System.currentTimeMillis();
+		try {
+			final File jarFile = Compiler.compile(moduleName, beamBin, beamParser);
+			EModule compiled = EModuleManager.replace_module(mod, new Callable<EModule>() {
+				public EModule call() throws Exception {
+					return load_compiled_module(moduleName, jarFile.toURI().toURL());
+				}
+			});
+			if (compiled == null)
+				return;
+		} catch (Exception e) {
+			log.log(Level.WARNING, "cannot compile " + moduleName
+					+ "; it stays interpreted", e);
+			return;
+		}
+
+		long time = System.currentTimeMillis() - before;
+		tiered_up.incrementAndGet();
+		tier_up_time.addAndGet(time);
+		if (log.isLoggable(Level.FINE)) {
+			log.fine("compiled " + moduleName + " after " + mod.calls()
+					+ " calls in " + time + "ms; hot: " + mod.hot_functions(5));
+		}
+	}
+
 	/*==================== BEAM FILE RESOLUTION STEP ====================*/
 
 	private static File findBeamFile(String module) {
@@ -136,12 +268,15 @@ class EModuleLoader {
 
 	/*==================== MODULE CREATION STEP ====================*/
 
-	@SuppressWarnings("unchecked")
 	public static EModule load_compiled_module(String mod, URL jarUrl) {
 // 		System.err.println("EML| load_compiled_module: "+mod+" @ "+jarUrl);
+		return load_compiled_module(mod, new EModuleClassLoader(jarUrl));
+	}
+
+	@SuppressWarnings("unchecked")
+	static EModule load_compiled_module(String mod, EModuleClassLoader loader) {
 		String internalName = erjang.beam.Compiler.moduleClassName(mod);
 		String java_name = internalName.replace('/', '.');
-		EModuleClassLoader loader = new EModuleClassLoader(jarUrl);
 		Class<? extends EModule> clazz;
 		try {
 			clazz = (Class<? extends EModule>) loader.loadClass(java_name);
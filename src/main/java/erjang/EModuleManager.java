@@ -21,10 +21,14 @@ package erjang;
 import java.io.File;
 import java.io.IOException;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.Comparator;
 import java.util.Map;
 import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
@@ -44,6 +48,8 @@ public class EModuleManager {
 
 	static FunctionInfo undefined_function = null;
 
+	private static final EAtom am_kill = EAtom.intern("kill");
+
 	static {
 		FunID uf = new FunID("error_handler", "undefined_function", 3);
 		undefined_function = get_module_info(uf.module).get_function_info(uf);
@@ -63,12 +69,13 @@ public class EModuleManager {
 		EFun resolved_value;
 		Collection<FunctionBinder> resolve_points = new HashSet<FunctionBinder>();
 		private EFun error_handler;
+		private ECallSite call_site;
 
 	        private ClassLoader getModuleClassLoader() {
 		    if (defining_module != null) {
 			return defining_module.getModuleClassLoader();
 		    } else {
-			return new EModuleClassLoader(null);
+			return new EModuleClassLoader((URL) null);
 		    }
 	        }
 
@@ -88,6 +95,12 @@ public class EModuleManager {
 			}
 		}
 
+		synchronized ECallSite call_site() {
+			if (call_site == null)
+				call_site = new ECallSite(fun, getFunction());
+			return call_site;
+		}
+
 		private EFun getFunction() {
 			if (resolved_value != null) {
 				return resolved_value;
@@ -159,12 +172,31 @@ public class EModuleManager {
 			this.resolved_value = value;
 			this.defining_module = definer;
 
+			if (call_site != null)
+				call_site.target = value;
+
 			for (FunctionBinder f : resolve_points) {
 				// System.out.println("binding " + fun2 + " " + value + " -> " + f);
 				f.bind(value);
 			}
 		}
 
+		/**
+		 * Forget the exported value, when the current code of its module
+		 * no longer exports it.
+		 */
+		synchronized void remove_export() throws Exception {
+			this.resolved_value = null;
+			this.defining_module = null;
+
+			EFun h = getFunErrorHandler();
+			if (call_site != null)
+				call_site.target = h;
+			for (FunctionBinder f : resolve_points) {
+				f.bind(h);
+			}
+		}
+
 		/**
 		 * @return
 		 * 
@@ -183,12 +215,27 @@ public class EModuleManager {
 
 	static class ModuleInfo {
 
+		private final EAtom name;
+
 		private EModule resident;
 
+		/**
+		 * The instances of the current code: the resident one, and those
+		 * it replaced in a tier-up.  Guarded by this.
+		 */
+		private List<EModule> current_code = new ArrayList<EModule>(1);
+
+		/** The instances of the old code, until purged.  Guarded by this. */
+		private List<EModule> old_code = Collections.emptyList();
+
+		/** true while replace_module loads the current code again */
+		private boolean replacing;
+
 		/**
 		 * @param module
 		 */
 		public ModuleInfo(EAtom module) {
+			this.name = module;
 		}
 
 		Map<FunID, FunctionInfo> binding_points = new ConcurrentHashMap<FunID, FunctionInfo>();
@@ -223,12 +270,77 @@ public class EModuleManager {
 		}
 
 		/**
+		 * Make eModule the current code.  Unless this is a tier-up, the
+		 * code it replaces becomes old code, and any old code that was
+		 * not purged is dropped.
+		 * 
 		 * @param eModule
 		 */
-		public void setModule(EModule eModule) {
+		public synchronized void setModule(EModule eModule) {
+			if (!replacing) {
+				if (!current_code.isEmpty()) {
+					if (!old_code.isEmpty())
+						log.fine("dropping old code of " + name
+								+ ", which was not purged");
+					old_code = current_code;
+				}
+				current_code = new ArrayList<EModule>(1);
+			}
+			current_code.add(eModule);
 			this.resident = eModule;
 		}
 
+		/**
+		 * Remove the exports that the current code no longer has.
+		 */
+		synchronized void remove_old_exports() throws Exception {
+			for (FunctionInfo fi : binding_points.values()) {
+				EModule definer = fi.defining_module;
+				if (definer != null && !current_code.contains(definer))
+					fi.remove_export();
+			}
+		}
+
+		synchronized boolean has_old_code() {
+			return !old_code.isEmpty();
+		}
+
+		synchronized List<EModule> old_code() {
+			return old_code;
+		}
+
+		/**
+		 * Make the current code old, and remove all exports.
+		 * 
+		 * @return false if the module is not loaded
+		 */
+		synchronized boolean delete() throws Exception {
+			if (resident == null)
+				return false;
+			old_code = current_code;
+			current_code = new ArrayList<EModule>(1);
+			resident = null;
+			remove_old_exports();
+			return true;
+		}
+
+		/**
+		 * Drop the old code, so its classes can be unloaded once the
+		 * processes that ran it are gone.
+		 * 
+		 * @return false if there was no old code
+		 */
+		synchronized boolean purge() {
+			if (old_code.isEmpty())
+				return false;
+			old_code = Collections.emptyList();
+			return true;
+		}
+
+		synchronized EModule getModule() {
+			return resident;
+		}
+
 		/**
 		 * @param start
 		 * @return
@@ -297,6 +409,13 @@ public class EModuleManager {
 		get_module_info(fun.module).add_import(fun, ref);
 	}
 
+	/**
+	 * @return the call site of fun, shared by all modules that call it
+	 */
+	public static ECallSite call_site(FunID fun) {
+		return get_module_info(fun.module).get_function_info(fun).call_site();
+	}
+
 	private static ModuleInfo get_module_info(EAtom module) {
 		ModuleInfo mi;
 		synchronized (infos) {
@@ -322,6 +441,7 @@ public class EModuleManager {
 
 		try {
 			mod_inst.registerImportsAndExports();
+			module_info.remove_old_exports();
 		} catch (Exception e) {
 			throw new Error(e);
 		}
@@ -329,6 +449,88 @@ public class EModuleManager {
 		module_info.warn_about_unresolved();
 	}
 
+	/**
+	 * Replace <code>old</code> by the module that <code>loader</code>
+	 * creates, unless another version of the module was loaded since
+	 * <code>old</code>.  Loading the new module rebinds all its exports.
+	 * 
+	 * @return the new module, or null if old is no longer current
+	 */
+	static EModule replace_module(EModule old, Callable<EModule> loader)
+			throws Exception {
+		ModuleInfo mi = get_module_info(EAtom.intern(old.module_name()));
+		synchronized (mi) {
+			if (mi.getModule() != old)
+				return null;
+			mi.replacing = true;
+			try {
+				return loader.call();
+			} finally {
+				mi.replacing = false;
+			}
+		}
+	}
+
+	/**
+	 * @return true if mod has old code, that is not yet purged
+	 */
+	public static boolean check_old_code(EAtom mod) {
+		return get_module_info(mod).has_old_code();
+	}
+
+	/**
+	 * @return true if proc is suspended in old code of mod, or refers to
+	 *         it from a suspended frame
+	 */
+	public static boolean check_process_code(EProc proc, EAtom mod) {
+		for (EModule old : get_module_info(mod).old_code()) {
+			if (proc.runs_code_of(old))
+				return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Kill the processes that still run old code of mod, other than
+	 * <code>self</code>, and drop the old code.
+	 * 
+	 * @return false if mod has no old code
+	 */
+	public static boolean purge_module(EHandle self, EAtom mod) {
+		ModuleInfo mi = get_module_info(mod);
+		List<EModule> old_code = mi.old_code();
+		if (old_code.isEmpty())
+			return false;
+
+		for (EProc proc : EProc.all_processes()) {
+			if (!proc.is_alive() || proc.self_handle() == self)
+				continue;
+			for (EModule old : old_code) {
+				if (proc.runs_code_of(old)) {
+					log.fine("killing " + proc.self_handle()
+							+ ", which runs old code of " + mod);
+					proc.send_exit(self, am_kill);
+					break;
+				}
+			}
+		}
+
+		return mi.purge();
+	}
+
+	/**
+	 * Make the current code of mod old, and remove its exports.
+	 * 
+	 * @return false if mod is not loaded
+	 */
+	public static boolean delete_module(EAtom mod) {
+		try {
+			return get_module_info(mod).delete();
+		} catch (Exception e) {
+			throw new Error(e);
+		}
+	}
+
 	/**
 	 * @param start
 	 * @return
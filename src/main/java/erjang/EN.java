@@ -35,7 +35,7 @@ public class EN {
 		if (unsigned_offset >= 0x100000000L) {
 			return new EBig(l);
 		} else {
-			return new ESmall((int) l);
+			return ESmall.make((int) l);
 		}
 		
 	}
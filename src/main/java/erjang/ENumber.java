@@ -40,7 +40,7 @@ public abstract class ENumber extends EObject {
 	public static ENumber parseInt(String str) {
         try {     
         	int val = java.lang.Integer.parseInt(str);
-        	return new ESmall(val);
+        	return ESmall.make(val);
          } catch (NumberFormatException e) {
         	 BigInteger val = new java.math.BigInteger(str);
         	 return new EBig(val);
@@ -26,6 +26,7 @@ import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.text.DecimalFormat;
+import java.util.Arrays;
 import java.util.zip.Deflater;
 
 import erjang.driver.IO;
@@ -38,13 +39,20 @@ import erjang.driver.IO;
  * Note that this class is not synchronized, if you need synchronization you
  * must provide it yourself.
  * 
+ * <p>
+ * The buffer at least doubles whenever it has to grow, so encoding a term
+ * costs amortized O(1) per byte.  Short-lived encoders can borrow a
+ * per-thread stream with {@link #scratch(int)} instead of allocating one, and
+ * {@link #encoded_size(EObject)} computes the size of an encoding without
+ * producing it.  {@link #encode_binary(EObject)} uses both to allocate the
+ * array of a large binary once, at its final size.
  */
 public class EOutputStream extends ByteArrayOutputStream {
     /** The default initial size of the stream. * */
     public static final int defaultInitialSize = 2048;
 
-    /** The default increment used when growing the stream. * */
-    public static final int defaultIncrement = 2048;
+    /** Scratch streams that grew beyond this are not kept for reuse. * */
+    static final int maxScratchSize = 64 * 1024;
 
     // static formats, used to encode floats and doubles
     private static final DecimalFormat eform = new DecimalFormat("e+00;e-00");
@@ -53,6 +61,117 @@ public class EOutputStream extends ByteArrayOutputStream {
 
 	private int flags;
 
+	/** the buffer may not grow beyond this; see {@link #encode_binary(EObject)} */
+	private int limit = Integer.MAX_VALUE;
+
+	/** number of slots in a distribution connection's atom cache */
+	static final int ATOM_CACHE_SIZE = 2048;
+
+	/** max number of atom cache references in one distribution message */
+	static final int MAX_ATOM_CACHE_REFS = 255;
+
+	/** when encoding for an atom cache, the atoms referenced so far */
+	private EAtom[] atom_refs;
+	private int atom_ref_count;
+
+	private static final ThreadLocal<EOutputStream> scratch = new ThreadLocal<EOutputStream>() {
+		@Override
+		protected EOutputStream initialValue() {
+			return new EOutputStream();
+		}
+	};
+
+	/**
+	 * Borrow this thread's scratch stream, emptied.  The stream is handed out
+	 * again by the next call on the same thread, so the caller must copy out
+	 * what it needs (e.g. with {@link #toByteArray()}) before that, and must
+	 * not keep references to its buffer.
+	 */
+	public static EOutputStream scratch(int flags) {
+		EOutputStream eos = scratch.get();
+		if (eos.buf.length > maxScratchSize) {
+			eos.buf = new byte[defaultInitialSize];
+		}
+		eos.count = 0;
+		eos.flags = flags;
+		eos.atom_refs = null;
+		return eos;
+	}
+
+	/** Thrown when a stream would grow beyond its limit. */
+	static final class Overflow extends RuntimeException {
+		static final Overflow INSTANCE = new Overflow();
+
+		private Overflow() {
+			super(null, null, false, false);
+		}
+	}
+
+	/**
+	 * Encode a term, as <code>write_any(o)</code> does, into a binary of its
+	 * own.  A term that fits in a scratch stream is encoded there and copied
+	 * out.  A larger one is sized first, then encoded into an array of
+	 * exactly that size, which becomes the binary without a copy; the
+	 * scratch stream does not grow to hold it.
+	 */
+	public static EBinary encode_binary(EObject o) {
+		EOutputStream eos = scratch(0);
+		eos.limit = maxScratchSize;
+		try {
+			eos.write_any(o);
+			return new EBinary(eos.toByteArray());
+		} catch (Overflow e) {
+			// too large for the scratch stream
+		} finally {
+			eos.limit = Integer.MAX_VALUE;
+		}
+
+		EOutputStream exact = new EOutputStream(encoded_size(o));
+		exact.write_any(o);
+		return exact.getBinaryContent();
+	}
+
+	/**
+	 * @return the number of bytes that <code>write_any(o)</code> would
+	 *         produce, computed without building the encoding
+	 */
+	public static int encoded_size(EObject o) {
+		Sizer s = new Sizer();
+		s.write_any(o);
+		return s.size();
+	}
+
+	/** A stream that only counts what is written to it. */
+	static final class Sizer extends EOutputStream {
+		Sizer() {
+			super(0);
+		}
+
+		@Override
+		public void write(final byte b) {
+			count += 1;
+		}
+
+		@Override
+		public void write(final int b) {
+			count += 1;
+		}
+
+		@Override
+		public void write(final byte[] buf) {
+			count += buf.length;
+		}
+
+		@Override
+		public void write(final byte[] buf, final int off, final int len) {
+			count += len;
+		}
+
+		@Override
+		public void poke4BE(final int offset, final long n) {
+		}
+	}
+
     /**
      * Create a stream with the default initial size (2048 bytes).
      */
@@ -118,15 +237,32 @@ public class EOutputStream extends ByteArrayOutputStream {
      */
     public void write(final byte b) {
 	if (super.count >= super.buf.length) {
-	    // System.err.println("Expanding buffer from " + this.buf.length
-	    // + " to " + (this.buf.length+defaultIncrement));
-	    final byte[] tmp = new byte[super.buf.length + defaultIncrement];
-	    System.arraycopy(super.buf, 0, tmp, 0, super.count);
-	    super.buf = tmp;
+	    ensure(1);
 	}
 	super.buf[super.count++] = b;
     }
 
+    /**
+     * Make room for n more bytes, at least doubling the buffer if it has to
+     * grow, but not beyond the limit.
+     */
+    private void ensure(final int n) {
+	final int need = super.count + n;
+	if (need > super.buf.length) {
+	    if (need > limit) {
+		throw Overflow.INSTANCE;
+	    }
+	    int cap = Math.max(need, super.buf.length << 1);
+	    if (cap < 0) {
+		cap = need; // overflow
+	    }
+	    if (cap > limit) {
+		cap = limit;
+	    }
+	    super.buf = Arrays.copyOf(super.buf, cap);
+	}
+    }
+
     /**
      * Write an array of bytes to the stream.
      * 
@@ -137,16 +273,24 @@ public class EOutputStream extends ByteArrayOutputStream {
 
     @Override
     public void write(final byte[] buf) {
-	if (super.count + buf.length > super.buf.length) {
-	    // System.err.println("Expanding buffer from " + super.buf.length
-	    // + " to " + (buf.length + super.buf.lengt + defaultIncrement));
-	    final byte[] tmp = new byte[super.buf.length + buf.length
-		    + defaultIncrement];
-	    System.arraycopy(super.buf, 0, tmp, 0, super.count);
-	    super.buf = tmp;
-	}
-	System.arraycopy(buf, 0, super.buf, super.count, buf.length);
-	super.count += buf.length;
+	write(buf, 0, buf.length);
+    }
+
+    /**
+     * Write part of an array of bytes to the stream.
+     * 
+     * @param buf
+     *            the array of bytes to write.
+     * @param off
+     *            where in buf to start.
+     * @param len
+     *            the number of bytes to write.
+     */
+    @Override
+    public void write(final byte[] buf, final int off, final int len) {
+	ensure(len);
+	System.arraycopy(buf, off, super.buf, super.count, len);
+	super.count += len;
     }
 
     /**
@@ -328,6 +472,68 @@ public class EOutputStream extends ByteArrayOutputStream {
 	}
     }
 
+    /**
+     * @return the atom cache slot used for atom a, from 0 to
+     *         {@link #ATOM_CACHE_SIZE}-1; the top three bits are the segment
+     *         index of the distribution header
+     */
+    static int atom_cache_index(final EAtom a) {
+	return (a.hashCode() & 0x7fffffff) % ATOM_CACHE_SIZE;
+    }
+
+    /**
+     * From now on, write atoms as references into a distribution header's
+     * atom cache refs, as far as possible.  The atoms referenced are
+     * returned by {@link #atom_cache_refs()}, in reference order.
+     */
+    public void use_atom_cache() {
+	atom_refs = new EAtom[MAX_ATOM_CACHE_REFS];
+	atom_ref_count = 0;
+    }
+
+    /**
+     * @return the atoms referenced since {@link #use_atom_cache()}
+     */
+    public EAtom[] atom_cache_refs() {
+	if (atom_refs == null) {
+	    return new EAtom[0];
+	}
+	return Arrays.copyOf(atom_refs, atom_ref_count);
+    }
+
+    /**
+     * Write an atom to the stream, as an atom cache reference if an atom
+     * cache is being used.  Atoms that would share a cache slot with another
+     * atom of the same message, and atoms past the
+     * {@link #MAX_ATOM_CACHE_REFS}th, are written in full.
+     * 
+     * @param atom
+     *            the atom to write.
+     */
+    public void write_atom(final EAtom atom) {
+	if (atom_refs != null) {
+	    final int slot = atom_cache_index(atom);
+	    int i;
+	    for (i = 0; i < atom_ref_count; i++) {
+		if (atom_refs[i] == atom) {
+		    write1(EExternal.atomCacheRef);
+		    write1(i);
+		    return;
+		}
+		if (atom_cache_index(atom_refs[i]) == slot) {
+		    break;
+		}
+	    }
+	    if (i == atom_ref_count && i < MAX_ATOM_CACHE_REFS) {
+		atom_refs[atom_ref_count++] = atom;
+		write1(EExternal.atomCacheRef);
+		write1(i);
+		return;
+	    }
+	}
+	write_atom(atom.getName());
+    }
+
     /**
      * Write a string to the stream as an Erlang atom.
      * 
@@ -360,9 +566,23 @@ public class EOutputStream extends ByteArrayOutputStream {
      *            the array of bytes to write.
      */
     public void write_binary(final byte[] bin) {
+	write_binary(bin, 0, bin.length);
+    }
+
+    /**
+     * Write part of an array of bytes to the stream as an Erlang binary.
+     * 
+     * @param bin
+     *            the array holding the bytes to write.
+     * @param off
+     *            where in bin the binary starts.
+     * @param len
+     *            the size of the binary.
+     */
+    public void write_binary(final byte[] bin, final int off, final int len) {
 	write1(EExternal.binTag);
-	write4BE(bin.length);
-	writeN(bin);
+	write4BE(len);
+	write(bin, off, len);
     }
 
     /**
@@ -627,7 +847,7 @@ public class EOutputStream extends ByteArrayOutputStream {
     public void write_pid(final EAtom node, final int id, final int serial,
 	    final int creation) {
 	write1(EExternal.pidTag);
-	write_atom(node.getName());
+	write_atom(node);
 	write4BE(id & 0x7fff); // 15 bits
 	write4BE(serial & 0x1fff); // 13 bits
 	write1(creation & 0x3); // 2 bits
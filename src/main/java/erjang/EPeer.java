@@ -22,12 +22,19 @@ import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import kilim.Pausable;
 
 /**
  * This corresponds to a DistEntry in BEAM
+ * 
+ * Outgoing messages are encoded by the sending process, using the
+ * connection's atom cache if the other node supports distribution headers.
+ * They are then queued, and the port writes everything queued by the time it
+ * gets to run as one batch.
  */
 public class EPeer extends EAbstractNode {
 
@@ -58,6 +65,13 @@ public class EPeer extends EAbstractNode {
 	static ConcurrentHashMap<EAtom, EPeer> peers = new ConcurrentHashMap<EAtom, EPeer>();
 	private EInternalPort port;
 
+	/** the atoms we have told the other node about; guards out_queue order */
+	private final EAtom[] out_cache = new EAtom[EOutputStream.ATOM_CACHE_SIZE];
+
+	/** encoded messages, in atom cache order, waiting for the port */
+	private final ConcurrentLinkedQueue<ByteBuffer[]> out_queue = new ConcurrentLinkedQueue<ByteBuffer[]>();
+	private final AtomicBoolean flush_scheduled = new AtomicBoolean();
+
 	public EPeer(EAtom node, int creation, EInternalPort port, int flags,
 			int version) {
 
@@ -122,6 +136,9 @@ public class EPeer extends EAbstractNode {
 		EInputStream ibuf = new EInputStream(buf.array(), buf.arrayOffset()
 				+ buf.position(), buf.remaining(), flags);
 
+		// the driver hands over each frame's buffer and never reuses it
+		ibuf.setImmutable(true);
+
 		int start = ibuf.getPos();
 
 		receive_loop: do {
@@ -395,52 +412,111 @@ public class EPeer extends EAbstractNode {
 	}
 
 	void dsig_cast(EHandle sender, ETuple hdr) throws Pausable {
+		dsig_cast(sender, hdr, null);
+	}
 
-		ByteBuffer disthdr = ByteBuffer.allocate(3);
-		disthdr.put((byte) 131);
-		disthdr.put((byte) 68);
-		disthdr.put((byte) 0);
-		disthdr.flip();
-
-		EOutputStream eos = new EOutputStream(1024,flags);
-		hdr.encode(eos);
-
-		ByteBuffer barr = eos.toByteBuffer();
+	void dsig_cast(EHandle sender, ETuple hdr, EObject payload) throws Pausable {
 
-		ByteBuffer[] ev = new ByteBuffer[] { disthdr, barr };
+		EOutputStream eos = encode_message(hdr, payload);
+		ByteBuffer body = ByteBuffer.wrap(eos.toByteArray());
+		EAtom[] refs = eos.atom_cache_refs();
 
-		try {
-			this.port.task().outputv(null, ev);
-		} catch (IOException e) {
-			e.printStackTrace();
-			close_and_finish(port);
+		synchronized (out_cache) {
+			out_queue.add(new ByteBuffer[] { frame_head(refs), body });
 		}
 
+		if (flush_scheduled.compareAndSet(false, true)) {
+			this.port.task().outputv_batch(null, out_queue, flush_scheduled);
+		}
 	}
 
-	void dsig_cast(EHandle sender, ETuple hdr, EObject payload) throws Pausable {
-
-		ByteBuffer disthdr = ByteBuffer.allocate(3);
-		disthdr.put((byte) 131);
-		disthdr.put((byte) 68);
-		disthdr.put((byte) 0);
-		disthdr.flip();
-
-		EOutputStream eos = new EOutputStream();
+	/**
+	 * Encode a control message, and its payload if there is one.  After a
+	 * distribution header the terms have no version magic; in a
+	 * pass-through frame each term has its own.
+	 */
+	EOutputStream encode_message(ETuple hdr, EObject payload) {
+		boolean use_cache = (flags & dFDistHdrAtomCache) != 0;
+
+		EOutputStream eos = EOutputStream.scratch(flags);
+		if (use_cache) {
+			eos.use_atom_cache();
+		} else {
+			eos.write1(EExternal.versionTag);
+		}
 		hdr.encode(eos);
-		payload.encode(eos);
+		if (payload != null) {
+			if (!use_cache) {
+				eos.write1(EExternal.versionTag);
+			}
+			payload.encode(eos);
+		}
+		return eos;
+	}
 
-		ByteBuffer barr = eos.toByteBuffer();
+	/**
+	 * @return what goes in front of a message encoded with
+	 *         {@link #encode_message(ETuple, EObject)}: the distribution
+	 *         header, or the pass-through tag.  Must be called with
+	 *         out_cache locked, as for {@link #dist_header(EAtom[])}.
+	 */
+	ByteBuffer frame_head(EAtom[] refs) {
+		if ((flags & dFDistHdrAtomCache) != 0)
+			return dist_header(refs);
+		return ByteBuffer.wrap(new byte[] { passThrough });
+	}
 
-		ByteBuffer[] ev = new ByteBuffer[] { disthdr, barr };
+	/**
+	 * Make the distribution header for a message referring to the given
+	 * atoms, and record them in out_cache.  Must be called with out_cache
+	 * locked, and the message queued before unlocking, so that the other
+	 * node sees cache updates in the order we make them.
+	 */
+	private ByteBuffer dist_header(EAtom[] refs) {
+		int n = refs.length;
+		EOutputStream out = new EOutputStream(3 + n / 2 + 1 + n * 8);
+		out.write(distHeader);
+		out.write((byte) 68);
+		out.write1(n);
+
+		if (n == 0) {
+			return out.toByteBuffer();
+		}
 
-		try {
-			this.port.task().outputv(null, ev);
-		} catch (IOException e) {
-			e.printStackTrace();
-			close_and_finish(port);
+		// flags, two per byte (low nibble first), patched in below; the
+		// last nibble stays 0, as atoms never need two length bytes
+		int flags_pos = out.getPos();
+		byte[] nibbles = new byte[n + 1];
+		for (int i = 0; i < n / 2 + 1; i++) {
+			out.write((byte) 0);
+		}
+
+		for (int i = 0; i < n; i++) {
+			EAtom a = refs[i];
+			int idx = EOutputStream.atom_cache_index(a);
+			nibbles[i] = (byte) (idx >> 8);
+			out.write1(idx & 0xff);
+
+			if (out_cache[idx] != a) {
+				out_cache[idx] = a;
+				nibbles[i] |= 8;
+
+				String name = a.getName();
+				int len = Math.min(name.length(), EExternal.maxAtomLength);
+				out.write1(len);
+				for (int c = 0; c < len; c++) {
+					out.write1(name.charAt(c));
+				}
+			}
 		}
 
+		ByteBuffer res = out.toByteBuffer();
+		for (int i = 0; i < n + 1; i += 2) {
+			int lo = nibbles[i];
+			int hi = i + 1 <= n ? nibbles[i + 1] : 0;
+			res.put(flags_pos + i / 2, (byte) (lo | (hi << 4)));
+		}
+		return res;
 	}
 
 	public void dsig_send(EHandle sender, EExternalPID pid, EObject msg) throws Pausable {
@@ -19,7 +19,9 @@
 
 package erjang;
 
+import java.lang.reflect.Field;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -61,6 +63,7 @@ public final class EProc extends ETask<EInternalPID> {
 	public static final EAtom am_priority = EAtom.intern("priority");
 	public static final EAtom am_monitor_nodes = EAtom.intern("monitor_nodes");
 	public static final EAtom am_registered_name = EAtom.intern("registered_name");
+	public static final EAtom am_memory = EAtom.intern("memory");
 
 	public static final EAtom am_nodedown_reason = EAtom.intern("nodedown_reason");
 	public static final EAtom am_node_type = EAtom.intern("node_type");
@@ -98,8 +101,8 @@ public final class EProc extends ETask<EInternalPID> {
 
 	private int spawn_args;
 
-	// For interpreter use:
-	public EObject[] stack = new EObject[10];
+	// For interpreter use; allocated when interpreted code first runs:
+	public EObject[] stack;
 	public int sp = 0;
 
 	/**
@@ -161,15 +164,16 @@ public final class EProc extends ETask<EInternalPID> {
 	 * @return
 	 */
 
-	Map<EObject, EObject> pdict = new HashMap<EObject, EObject>();
+	/** the process dictionary; created on first put */
+	Map<EObject, EObject> pdict;
 
 	private EAtom trap_exit = ERT.FALSE;
 	private EAtom sensitive = ERT.FALSE;
 
 	public int midx = 0;
 
-	/** monitor nodes[option] -> true/false */
-	private Map<Integer,EAtom> monitor_nodes = new HashMap<Integer, EAtom>();
+	/** monitor nodes[option] -> true/false; created on first use */
+	private Map<Integer,EAtom> monitor_nodes;
 
 	protected void link_failure(EHandle h) {
 		if (trap_exit == ERT.TRUE || h.testLocalHandle()==null) {
@@ -186,7 +190,7 @@ public final class EProc extends ETask<EInternalPID> {
 		super.do_proc_termination(result);
 		
 		ExitHook[] hooks = NO_HOOKS;
-		synchronized (exit_hooks) {
+		synchronized (this) {
 			if (exit_hooks == null || exit_hooks.isEmpty()) {
 				// do nothing //
 			} else {
@@ -220,7 +224,7 @@ public final class EProc extends ETask<EInternalPID> {
 			// reason} to self
 			ETuple msg = ETuple.make(ERT.am_EXIT, from, reason);
 			// System.err.println("kill message to self: "+msg);
-			mbox.putb(msg);
+			mbox.put(msg);
 			
 		} else if (reason != am_normal) {
 			// System.err.println("kill signal: " +reason + " from "+from);
@@ -234,6 +238,8 @@ public final class EProc extends ETask<EInternalPID> {
 	// private Thread runner;
 
 	public EObject put(EObject key, EObject value) {
+		if (pdict == null)
+			pdict = new HashMap<EObject, EObject>();
 		EObject res = pdict.put(key, value);
 		if (res == null)
 			return ERT.am_undefined;
@@ -241,6 +247,8 @@ public final class EProc extends ETask<EInternalPID> {
 	}
 
 	public EObject get(EObject key) {
+		if (pdict == null)
+			return ERT.am_undefined;
 		EObject res = pdict.get(key);
 		return (res == null) ? ERT.am_undefined : res;
 	}
@@ -250,6 +258,8 @@ public final class EProc extends ETask<EInternalPID> {
 	 */
 	public ESeq get() {
 		ESeq res = ERT.NIL;
+		if (pdict == null)
+			return res;
 		for (Map.Entry<EObject, EObject> ent : pdict.entrySet()) {
 			res = res.cons(ETuple.make(ent.getKey(), ent.getValue()));
 		}
@@ -261,7 +271,7 @@ public final class EProc extends ETask<EInternalPID> {
 	 * @return
 	 */
 	public EObject erase(EObject key) {
-		EObject res = pdict.remove(key);
+		EObject res = pdict == null ? null : pdict.remove(key);
 		if (res == null)
 			res = ERT.am_undefined;
 		return res;
@@ -272,7 +282,7 @@ public final class EProc extends ETask<EInternalPID> {
 	 */
     public EObject erase() {
 		EObject res = get();
-		pdict.clear();
+		pdict = null;
 		return res;
 	}
 
@@ -418,6 +428,12 @@ public final class EProc extends ETask<EInternalPID> {
 		Integer iopts = new Integer(opts);
 		EAtom old = null;
 
+		if (monitor_nodes == null) {
+			if (value != ERT.TRUE)
+				return ERT.FALSE;
+			monitor_nodes = new HashMap<Integer, EAtom>(4);
+		}
+
 		synchronized(monitor_nodes) {
 			
 			if (value == ERT.TRUE) {
@@ -518,12 +534,122 @@ public final class EProc extends ETask<EInternalPID> {
 	 */
 	private ESeq links() {
 		ESeq res = ERT.NIL;
-		for (EHandle h : super.links) {
+		for (EHandle h : linked()) {
 			res = res.cons(h);
 		}
 		return res;
 	}
 
+	/**
+	 * @return an estimate of the heap used by this process, in bytes: the
+	 *         process and its bookkeeping, the suspended stack frames, and
+	 *         the mailbox, but not the terms it refers to
+	 */
+	public long memory() {
+		long res = ObjectSize.shallow(this) + ObjectSize.shallow(self)
+				+ links_memory() + mbox.memory();
+
+		if (fiber != null)
+			res += fiber_memory(fiber);
+		EObject[] st = stack;
+		if (st != null)
+			res += ObjectSize.shallow(st);
+		Map<EObject, EObject> pd = pdict;
+		if (pd != null)
+			res += ObjectSize.hash_map(pd);
+		Map<Integer, EAtom> mn = monitor_nodes;
+		if (mn != null)
+			res += ObjectSize.hash_map(mn);
+		synchronized (this) {
+			if (exit_hooks != null)
+				res += ObjectSize.shallow(exit_hooks)
+						+ ObjectSize.shallow(new Object[exit_hooks.size()]);
+		}
+		return res;
+	}
+
+	/** kilim.Fiber's saved frames, and its self and pc stacks */
+	private static final Field[] FIBER_STACKS;
+	static {
+		String[] names = { "stateStack", "selfStack", "pcStack" };
+		Field[] fields = new Field[names.length];
+		try {
+			for (int i = 0; i < names.length; i++) {
+				fields[i] = kilim.Fiber.class.getDeclaredField(names[i]);
+				fields[i].setAccessible(true);
+			}
+		} catch (Exception e) {
+			log.log(Level.FINE, "cannot inspect kilim fibers", e);
+			fields = new Field[0];
+		}
+		FIBER_STACKS = fields;
+	}
+
+	/** @return the size of a fiber, its stacks and the saved frames */
+	private static long fiber_memory(kilim.Fiber f) {
+		long res = ObjectSize.shallow(f);
+		try {
+			for (int i = 0; i < FIBER_STACKS.length; i++) {
+				Object a = FIBER_STACKS[i].get(f);
+				if (a == null)
+					continue;
+				res += ObjectSize.shallow(a);
+				if (i == 0) {
+					for (Object state : (Object[]) a) {
+						if (state != null)
+							res += ObjectSize.shallow(state);
+					}
+				}
+			}
+		} catch (IllegalAccessException e) {
+			// not counted //
+		}
+		return res;
+	}
+
+	/**
+	 * @return true if a frame this process is suspended in is code of mod,
+	 *         or refers to one of its funs.  Frames are only saved while
+	 *         suspended, so this sees the stack as of the process' last
+	 *         pause, typically in a receive; a process that is running has
+	 *         no frames to look at.
+	 */
+	public boolean runs_code_of(EModule mod) {
+		kilim.Fiber f = fiber;
+		if (f == null || FIBER_STACKS.length == 0)
+			return false;
+
+		try {
+			Object[] selves = (Object[]) FIBER_STACKS[1].get(f);
+			if (selves != null) {
+				for (Object self : selves) {
+					if (self != null && mod.owns(self))
+						return true;
+				}
+			}
+
+			Object[] states = (Object[]) FIBER_STACKS[0].get(f);
+			if (states != null) {
+				for (Object state : states) {
+					if (state == null)
+						continue;
+					for (Field local : state.getClass().getFields()) {
+						if (local.getType().isPrimitive())
+							continue;
+						Object value = local.get(state);
+						if (value instanceof EFun && mod.owns(value))
+							return true;
+					}
+				}
+			}
+		} catch (IllegalAccessException e) {
+			// not seen //
+		}
+
+		EFun t = tail;
+		return t != null && mod.owns(t);
+	}
+
 	/**
 	 * @param spec
 	 * @return
@@ -537,7 +663,7 @@ public final class EProc extends ETask<EInternalPID> {
 			return new ETuple2(am_trap_exit, trap_exit);
 		} else if (spec == am_message_queue_len) {
 			return new ETuple2(am_message_queue_len,
-					   new ESmall(mbox.size()));
+					   ESmall.make(mbox.size()));
 		} else if (spec == am_messages) {
 			ESeq messages = EList.make((Object[])mbox.messages());
 			return new ETuple2(am_messages, messages);
@@ -565,8 +691,11 @@ public final class EProc extends ETask<EInternalPID> {
 			return new ETuple2(am_stack_size, 
 							   ERT.box(0));
 			
+		} else if (spec == am_memory) {
+			return new ETuple2(am_memory, ERT.box(memory()));
+
 		} else if (spec == am_reductions) {
-			return new ETuple2(am_reductions, ERT.box(this.reds));
+			return new ETuple2(am_reductions, ERT.box(this.reductions()));
 			
 		} else if (spec == am_initial_call) {
 			return new ETuple2(am_initial_call, 
@@ -609,6 +738,11 @@ public final class EProc extends ETask<EInternalPID> {
 		return res;
 	}
 
+	/** @return all processes, including those that are exiting */
+	static Collection<EProc> all_processes() {
+		return all_tasks.values();
+	}
+
 	/**
 	 * @return
 	 */
@@ -617,13 +751,16 @@ public final class EProc extends ETask<EInternalPID> {
 		return ps == State.INIT || ps == State.RUNNING;
 	}
 
-	List<ExitHook> exit_hooks = new ArrayList<ExitHook>();
+	/** created on first add; guarded by this */
+	List<ExitHook> exit_hooks;
 	
 	/**
 	 * @param hook
 	 */
 	public void add_exit_hook(ExitHook hook) {
-		synchronized(exit_hooks) {
+		synchronized(this) {
+			if (exit_hooks == null)
+				exit_hooks = new ArrayList<ExitHook>(2);
 			exit_hooks.add(hook);
 		}
 	}
@@ -632,8 +769,9 @@ public final class EProc extends ETask<EInternalPID> {
 	 * @param hook
 	 */
 	public void remove_exit_hook(ExitHook hook) {
-		synchronized(exit_hooks) {
-			exit_hooks.remove(hook);
+		synchronized(this) {
+			if (exit_hooks != null)
+				exit_hooks.remove(hook);
 		}
 	}
 
@@ -27,6 +27,7 @@ import java.math.BigInteger;
 import java.nio.ByteBuffer;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -35,6 +36,7 @@ import kilim.Task;
 import erjang.beam.Compiler;
 import erjang.driver.Drivers;
 import erjang.driver.EAsync;
+import erjang.driver.EAsyncPool;
 import erjang.driver.EDriver;
 import erjang.driver.EDriverTask;
 import erjang.m.erlang.ErlDist;
@@ -190,7 +192,7 @@ public class ERT {
 	}
 
 	public static ESmall box(int i) {
-		return new ESmall(i);
+		return ESmall.make(i);
 	}
 
 	/**
@@ -206,7 +208,7 @@ public class ERT {
 
 		int intVal = (int) longVal;
 		if (longVal == (long) intVal) {
-			return new ESmall(intVal);
+			return ESmall.make(intVal);
 		} else {
 			return new EBig(longVal);
 		}
@@ -223,7 +225,7 @@ public class ERT {
 		if (unsigned_offset >= 0x100000000L) {
 			return new EBig(longVal);
 		} else {
-			return new ESmall((int) longVal);
+			return ESmall.make((int) longVal);
 		}
 
 	}
@@ -252,7 +254,7 @@ public class ERT {
 		if (res.compareTo(INT_MAX_AS_BIG) > 0)
 			return new EBig(res);
 
-		return new ESmall(res.intValue());
+		return ESmall.make(res.intValue());
 	}
 
 	/**
@@ -710,7 +712,7 @@ public class ERT {
 		throw new ErlangError(ETuple.make(am_try_case_clause, val));
 	}
 
-	static kilim.Scheduler scheduler = new kilim.Scheduler(threadPoolSize());
+	static EScheduler scheduler = new EScheduler(threadPoolSize());
 	public static EAtom am_io = EAtom.intern("io");
 	public static EAtom am_attributes = EAtom.intern("attributes");
 	public static EAtom am_exports = EAtom.intern("exports");
@@ -731,6 +733,11 @@ public class ERT {
 	public static EAtom am_DOWN = EAtom.intern("DOWN");
 	public static EAtom am_killed = EAtom.intern("killed");
 
+	/** @return the scheduler that runs all processes and ports */
+	public static EScheduler scheduler() {
+		return scheduler;
+	}
+
 	public static void run(Task task) {
 		task.setScheduler(scheduler);
 		task.start();
@@ -803,6 +810,29 @@ public class ERT {
 		if (DEBUG_WAIT) System.err.println("WAIT| "+proc+" wakes up after timeout; now has "+(idx));
 	}
 
+	/**
+	 * Remember how many messages are in the mailbox right now (BEAM's
+	 * <code>recv_mark</code>).  Emitted by the compiler just before a
+	 * <code>make_ref()</code> whose result is matched by a following
+	 * receive; anything already queued cannot contain the new ref.
+	 * 
+	 * @param code
+	 *            identifies the loaded module the receive is in: its class
+	 *            when compiled, its instance when interpreted
+	 */
+	public static void recv_mark(EProc proc, Object code, int label) {
+		proc.mbox.mark(code, label);
+	}
+
+	/**
+	 * Start the receive loop for <code>label</code> at the position saved
+	 * by {@link #recv_mark(EProc, Object, int)}, in stead of at the first
+	 * message.
+	 */
+	public static void recv_set(EProc proc, Object code, int label) {
+		proc.midx = proc.mbox.marked(code, label);
+	}
+
 	/** message reception timed out, reset message index */
 	public static void timeout(EProc proc) {
 		if (DEBUG_WAIT) System.err.println("WAIT| "+proc+" timed out");
@@ -879,16 +909,10 @@ public class ERT {
 	}
 
 	/**
-	 * @param job
+	 * Run job on the async thread pool; see {@link EAsyncPool}.
 	 */
 	public static void run_async(final EAsync job, final EDriverTask dt) {
-		run(new Task() {
-			@Override
-			public void execute() throws Pausable, Exception {
-				job.async();
-				dt.async_done(job);
-			}
-		});
+		EAsyncPool.submit(job, dt);
 	}
 
 	/**
@@ -910,6 +934,15 @@ public class ERT {
 			return Runtime.getRuntime().availableProcessors();
 	}
 
+	/**
+	 * Reductions a process may use before it yields; set with
+	 * <code>-Derj.reductions=N</code>.
+	 */
+	public static final int MAX_REDS = Integer.getInteger("erj.reductions", 2000);
+
+	/** reductions used by all processes, updated at the end of each slice */
+	public static final AtomicLong reductions = new AtomicLong();
+
 	public static ESeq registered() {
 		ESeq res = ERT.NIL;
 		for (EAtom reg : register.keySet()) {
@@ -0,0 +1,284 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import kilim.Scheduler;
+import kilim.Task;
+import kilim.WorkerThread;
+
+/**
+ * Scheduler for Erlang processes and ports.
+ *
+ * Each scheduler thread has its own run queues, one per priority
+ * (<code>max</code>, <code>high</code>, <code>normal</code> and
+ * <code>low</code>, as kilim's <code>Task.PRIORITY_*</code>).  A task that
+ * becomes runnable on a scheduler thread is queued on that thread; tasks
+ * resumed from other threads (timers, I/O) are spread round-robin.  A
+ * thread that runs out of work steals from the others before going idle.
+ *
+ * As in BEAM, <code>max</code> and <code>high</code> tasks always run
+ * before <code>normal</code> and <code>low</code> ones, and a
+ * <code>low</code> task gets every {@link #LOW_SLOT}th turn while there is
+ * also <code>normal</code> work.
+ */
+public final class EScheduler extends Scheduler {
+
+	static Logger log = Logger.getLogger(EScheduler.class.getName());
+
+	static final int PRIORITIES = 4;
+	static final int LOW_SLOT = 8;
+
+	static final Method run_execute;
+	static {
+		try {
+			run_execute = Task.class.getDeclaredMethod("_runExecute",
+					WorkerThread.class);
+			run_execute.setAccessible(true);
+		} catch (Exception e) {
+			throw new Error("incompatible kilim version", e);
+		}
+	}
+
+	final class Worker extends Thread {
+
+		final int id;
+
+		@SuppressWarnings("unchecked")
+		final ConcurrentLinkedQueue<Task>[] queues = new ConcurrentLinkedQueue[PRIORITIES];
+
+		/** true while looking for work or parked */
+		volatile boolean idle;
+
+		/** true while this worker is in idle_workers */
+		final AtomicBoolean listed = new AtomicBoolean();
+
+		/** number of normal tasks run since the last low one */
+		int normal_run;
+
+		final long started = System.nanoTime();
+		volatile long idle_time;
+
+		EScheduler scheduler() {
+			return EScheduler.this;
+		}
+
+		Worker(int id) {
+			super("erjang-scheduler-" + (id + 1));
+			this.id = id;
+			setDaemon(true);
+			for (int i = 0; i < PRIORITIES; i++) {
+				queues[i] = new ConcurrentLinkedQueue<Task>();
+			}
+		}
+
+		@Override
+		public void run() {
+			while (!stopped) {
+				Task t = next();
+				if (t == null) {
+					idle = true;
+					if (listed.compareAndSet(false, true)) {
+						idle_workers.add(this);
+					}
+					t = next();
+					if (t == null && !stopped) {
+						long start = System.nanoTime();
+						LockSupport.parkNanos(this, 100000000L);
+						idle_time += System.nanoTime() - start;
+						t = next();
+					}
+					idle = false;
+					if (t == null)
+						continue;
+				}
+				execute(t);
+			}
+		}
+
+		/** @return the next task to run here, or null if there is none */
+		private Task next() {
+			Task t;
+			for (int p = Task.PRIORITY_MAX; p <= Task.PRIORITY_HIGH; p++) {
+				if ((t = poll(p)) != null
+						|| (urgent.get() > 0 && (t = steal(p)) != null)) {
+					return t;
+				}
+			}
+
+			int first = Task.PRIORITY_NORMAL, second = Task.PRIORITY_LOW;
+			if (normal_run >= LOW_SLOT) {
+				first = Task.PRIORITY_LOW;
+				second = Task.PRIORITY_NORMAL;
+			}
+
+			if ((t = poll(first)) != null || (t = poll(second)) != null
+					|| (t = steal(first)) != null
+					|| (t = steal(second)) != null) {
+				if (t.getPriority() == Task.PRIORITY_LOW) {
+					normal_run = 0;
+				} else {
+					normal_run += 1;
+				}
+			}
+			return t;
+		}
+
+		private Task poll(int p) {
+			Task t = queues[p].poll();
+			if (t != null) {
+				dequeued(p);
+			}
+			return t;
+		}
+
+		private Task steal(int p) {
+			int n = workers.length;
+			for (int i = 1; i < n; i++) {
+				Worker victim = workers[(id + i) % n];
+				Task t = victim.queues[p].poll();
+				if (t != null) {
+					victim.dequeued(p);
+					return t;
+				}
+			}
+			return null;
+		}
+
+		void dequeued(int p) {
+			queued.decrementAndGet();
+			if (p <= Task.PRIORITY_HIGH)
+				urgent.decrementAndGet();
+		}
+
+		void enqueue(Task t) {
+			int p = t.getPriority();
+			if (p < 0 || p >= PRIORITIES)
+				p = Task.PRIORITY_NORMAL;
+			if (p <= Task.PRIORITY_HIGH)
+				urgent.incrementAndGet();
+			queued.incrementAndGet();
+			queues[p].add(t);
+		}
+
+		/** @return busy and total time since start, in nanoseconds */
+		long[] wall_time() {
+			long total = System.nanoTime() - started;
+			return new long[] { Math.max(0, total - idle_time), total };
+		}
+	}
+
+	private final Worker[] workers;
+	private final ConcurrentLinkedQueue<Worker> idle_workers = new ConcurrentLinkedQueue<Worker>();
+	private final AtomicInteger next_worker = new AtomicInteger();
+	private volatile boolean stopped;
+
+	/** number of tasks in all run queues */
+	private final AtomicInteger queued = new AtomicInteger();
+
+	/** number of max and high priority tasks in all run queues */
+	private final AtomicInteger urgent = new AtomicInteger();
+
+	public EScheduler(int threads) {
+		workers = new Worker[Math.max(1, threads)];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(i);
+		}
+		for (Worker w : workers) {
+			w.start();
+		}
+	}
+
+	@Override
+	public void schedule(Task t) {
+		Thread current = Thread.currentThread();
+		Worker w;
+		if (current instanceof Worker && ((Worker) current).scheduler() == this) {
+			w = (Worker) current;
+		} else {
+			int n = next_worker.getAndIncrement() & 0x7fffffff;
+			w = workers[n % workers.length];
+		}
+
+		w.enqueue(t);
+
+		if (w.idle) {
+			LockSupport.unpark(w);
+		} else if (!idle_workers.isEmpty()) {
+			wake_one();
+		}
+	}
+
+	/** wake an idle worker, which will then steal work */
+	private void wake_one() {
+		Worker w;
+		while ((w = idle_workers.poll()) != null) {
+			w.listed.set(false);
+			if (w.idle) {
+				LockSupport.unpark(w);
+				return;
+			}
+		}
+	}
+
+	private void execute(Task t) {
+		try {
+			run_execute.invoke(t, (Object) null);
+		} catch (Throwable e) {
+			log.log(Level.SEVERE, "failed to run " + t, e);
+		}
+	}
+
+	@Override
+	public void shutdown() {
+		shutdown = stopped = true;
+		for (Worker w : workers) {
+			LockSupport.unpark(w);
+		}
+	}
+
+	/** @return the number of scheduler threads */
+	public int size() {
+		return workers.length;
+	}
+
+	/** @return the number of tasks waiting to run */
+	public int run_queue() {
+		return Math.max(0, queued.get());
+	}
+
+	/**
+	 * @return for each scheduler thread, its busy and total time since it
+	 *         started, in nanoseconds
+	 */
+	public long[][] wall_time() {
+		long[][] res = new long[workers.length][];
+		for (int i = 0; i < workers.length; i++) {
+			res[i] = workers[i].wall_time();
+		}
+		return res;
+	}
+}
@@ -29,10 +29,32 @@ import org.objectweb.asm.Type;
 public final class ESmall extends EInteger {
 
 	private static final Type ESMALL_TYPE = Type.getType(ESmall.class);
-	public static final ESmall ZERO = new ESmall(0);
-	public static final ESmall MINUS_ONE = new ESmall(-1);
+
+	/**
+	 * Preallocated values for {@link #make(int)}; the range can be widened
+	 * with <code>-Derj.small_cache.low=N</code> and
+	 * <code>-Derj.small_cache.high=N</code>, but always covers -128..1023.
+	 */
+	static final int CACHE_LOW = Math.min(-128, Integer.getInteger("erj.small_cache.low", -128));
+	static final int CACHE_HIGH = Math.max(1023, Integer.getInteger("erj.small_cache.high", 1023));
+	private static final ESmall[] CACHE = new ESmall[CACHE_HIGH - CACHE_LOW + 1];
+	static {
+		for (int i = 0; i < CACHE.length; i++) {
+			CACHE[i] = new ESmall(CACHE_LOW + i);
+		}
+	}
+
+	public static final ESmall ZERO = make(0);
+	public static final ESmall MINUS_ONE = make(-1);
 	public final int value;
 
+	/** @return an ESmall for value, shared if value is in the cached range */
+	public static ESmall make(int value) {
+		if (value >= CACHE_LOW && value <= CACHE_HIGH)
+			return CACHE[value - CACHE_LOW];
+		return new ESmall(value);
+	}
+
 	public ESmall testSmall() {
 		return this;
 	}
@@ -142,11 +164,9 @@ public final class ESmall extends EInteger {
 
 		Type type = ESMALL_TYPE;
 
-		fa.visitTypeInsn(Opcodes.NEW, type.getInternalName());
-		fa.visitInsn(Opcodes.DUP);
 		fa.visitLdcInsn(new Integer(value));
-		fa.visitMethodInsn(Opcodes.INVOKESPECIAL, type.getInternalName(),
-				"<init>", "(I)V");
+		fa.visitMethodInsn(Opcodes.INVOKESTATIC, type.getInternalName(),
+				"make", "(I)" + type.getDescriptor());
 
 		return type;
 	}
@@ -157,14 +177,6 @@ public final class ESmall extends EInteger {
 		return ERT.box(Math.abs((long)value));
 	}
 
-	/**
-	 * @param arity
-	 * @return
-	 */
-	public static ESmall make(int arity) {
-		return ERT.box(arity);
-	}
-
 	//
 	// Arithmetic
 	//
@@ -237,7 +249,7 @@ public final class ESmall extends EInteger {
 
 	@Override
 	public ENumber negate() {
-		return new ESmall(-value);
+		return ERT.box(-(long) value);
 	}
 	
 	// integer division erlang:div/2
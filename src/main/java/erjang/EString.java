@@ -161,7 +161,7 @@ public class EString extends ESeq implements CharSequence {
 				if (seq.testNil() != null)
 					return false;
 
-				if (!seq.head().equalsExactly(new ESmall(charAt(i)))) {
+				if (!seq.head().equalsExactly(ESmall.make(charAt(i)))) {
 					return false;
 				}
 
@@ -318,7 +318,7 @@ public class EString extends ESeq implements CharSequence {
 	 */
 	@Override
 	public ESmall head() {
-		return new ESmall(data[off] & 0xff);
+		return ESmall.make(data[off] & 0xff);
 	}
 
 	@Override
@@ -384,7 +384,7 @@ public class EString extends ESeq implements CharSequence {
 					return 1; // I AM LONGER
 				}
 
-				int cmp = (new ESmall(charAt(i++))).compareTo(rseq.head());
+				int cmp = ESmall.make(charAt(i++)).compareTo(rseq.head());
 				if (cmp != 0)
 					return cmp;
 
@@ -22,16 +22,14 @@ package erjang;
 
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Set;
-import java.util.concurrent.ConcurrentHashMap;
-import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicReferenceFieldUpdater;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import erjang.m.erlang.ErlProc;
 
-import kilim.Mailbox;
 import kilim.Pausable;
+import kilim.Task;
 
 /**
  * An ETask is what is common for processes and open ports
@@ -51,12 +49,61 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	 */
 	public abstract H self_handle();
 
-	protected Set<EHandle> links = new ConcurrentSkipListSet<EHandle>();
-	protected Map<ERef,EHandle> monitors = new ConcurrentHashMap<ERef, EHandle>();
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ETask, EHandleTable> LINKS = AtomicReferenceFieldUpdater
+			.newUpdater(ETask.class, EHandleTable.class, "links");
+	@SuppressWarnings("rawtypes")
+	private static final AtomicReferenceFieldUpdater<ETask, EHandleTable> MONITORS = AtomicReferenceFieldUpdater
+			.newUpdater(ETask.class, EHandleTable.class, "monitors");
+
+	/**
+	 * Linked handles (each mapped to itself), and handles monitoring this
+	 * task by monitor ref.  Both are created on first use, since most
+	 * tasks never need them.
+	 */
+	private volatile EHandleTable<EHandle> links;
+	private volatile EHandleTable<ERef> monitors;
+
+	@SuppressWarnings("unchecked")
+	private EHandleTable<EHandle> links() {
+		EHandleTable<EHandle> res = links;
+		if (res == null) {
+			LINKS.compareAndSet(this, null, new EHandleTable<EHandle>());
+			res = links;
+		}
+		return res;
+	}
+
+	@SuppressWarnings("unchecked")
+	private EHandleTable<ERef> monitors() {
+		EHandleTable<ERef> res = monitors;
+		if (res == null) {
+			MONITORS.compareAndSet(this, null, new EHandleTable<ERef>());
+			res = monitors;
+		}
+		return res;
+	}
 
 	public void unlink(EHandle handle) {
-		links.remove(handle);
+		EHandleTable<EHandle> l = links;
+		if (l != null)
+			l.remove(handle);
 	}
+
+	/** @return the handles linked to this task */
+	public EHandle[] linked() {
+		EHandleTable<EHandle> l = links;
+		if (l == null)
+			return NO_HANDLES;
+		Object[] pairs = l.snapshot();
+		EHandle[] res = new EHandle[pairs.length / 2];
+		for (int i = 0; i < res.length; i++) {
+			res[i] = (EHandle) pairs[2 * i];
+		}
+		return res;
+	}
+
+	private static final EHandle[] NO_HANDLES = new EHandle[0];
 	
 	/**
 	 * @param task
@@ -76,7 +123,7 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 		// TODO: check if h is valid.
 		
 		if (h.exists()) {
-			links.add(h);
+			links().put(h, h);
 			return true;
 		} else {
 			return false;
@@ -96,20 +143,24 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	protected void do_proc_termination(EObject exit_reason) throws Pausable {
 		this.exit_reason = exit_reason;
 		H me = self_handle();
-		for (EHandle handle : links) {
+		for (EHandle handle : linked()) {
 			handle.exit_signal(me, exit_reason);
 		}
-		for (Map.Entry<ERef, EHandle> ent : monitors.entrySet()) {
-			EHandle pid = ent.getValue();
-			ERef ref = ent.getKey();
-
-			pid.send_monitor_exit((EHandle)me, ref, exit_reason);
+		EHandleTable<ERef> m = monitors;
+		if (m != null) {
+			Object[] pairs = m.snapshot();
+			for (int i = 0; i < pairs.length; i += 2) {
+				ERef ref = (ERef) pairs[i];
+				EHandle pid = (EHandle) pairs[i + 1];
+
+				pid.send_monitor_exit((EHandle)me, ref, exit_reason);
+			}
 		}
 	}
 	
 
 	public void send_monitor_exit(EHandle from, ERef ref, EObject reason) throws Pausable {
-		ETuple2 pair = is_monitoring.get(ref);
+		ETuple2 pair = is_monitoring == null ? null : is_monitoring.get(ref);
 		if (pair != null) {
 			mbox_send(ETuple.make(am_DOWN, ref, am_process, pair.elem2, reason));
 		}
@@ -117,8 +168,15 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	
 	
 
-	// this is not synchronized, as we only mess with it from this proc
-	Map<ERef,ETuple2> is_monitoring = new HashMap<ERef, ETuple2>();
+	// this is not synchronized, as we only mess with it from this proc;
+	// created on first monitor
+	Map<ERef,ETuple2> is_monitoring;
+
+	private Map<ERef,ETuple2> is_monitoring() {
+		if (is_monitoring == null)
+			is_monitoring = new HashMap<ERef, ETuple2>(4);
+		return is_monitoring;
+	}
 
 	/**
 	 * @param object
@@ -132,12 +190,12 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 			System.err.println("unable to add monitor to self="+self_handle()+" pid="+observed+" ref="+ref);
 			return false;
 		}
-		this.is_monitoring.put(ref, new ETuple2(observed, object));
+		is_monitoring().put(ref, new ETuple2(observed, object));
 		return true;
 	}
 
 	public boolean monitor(EObject object, ERef ref) throws Pausable {
-		this.is_monitoring.put(ref, new ETuple2(object, object));
+		is_monitoring().put(ref, new ETuple2(object, object));
 		return true;
 	}
 
@@ -147,7 +205,7 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	 * @throws Pausable 
 	 */
 	public EObject demonitor(ERef r) throws Pausable {
-		ETuple2 pair = is_monitoring.remove(r);
+		ETuple2 pair = is_monitoring == null ? null : is_monitoring.remove(r);
 		if (pair == null) {
 			return null;
 		}
@@ -161,7 +219,7 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	 * @return
 	 */
 	public boolean add_monitor(EHandle target, ERef ref) {
-		monitors.put(ref, target);
+		monitors().put(ref, target);
 		return true;
 	}
 	
@@ -169,28 +227,29 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	 * @param r
 	 */
 	public void remove_monitor(ERef r, boolean flush) {
-		EHandle val = monitors.remove(r);
+		EHandleTable<ERef> m = monitors;
+		if (m != null)
+			m.remove(r);
 		if (flush) {
 			// TODO: do we need to represent flush somehow?
 		}
 	}
 	
 	public EHandle get_monitored_process(ERef monitor) {
-		ETuple2 tup = is_monitoring.get(monitor);
+		ETuple2 tup = is_monitoring == null ? null : is_monitoring.get(monitor);
 		if (tup == null) return null;
 		return tup.elem1.testHandle();
 	}
 
 	public EObject get_monitored_object(ERef monitor) {
-		ETuple2 tup = is_monitoring.get(monitor);
+		ETuple2 tup = is_monitoring().get(monitor);
 		return tup.elem2;
 	}
 
 
 
 
-	static final int MAX_MAILBOX_SIZE = 1000;
-	protected Mailbox<EObject> mbox = new Mailbox<EObject>(10, MAX_MAILBOX_SIZE);
+	protected final EMailbox mbox = new EMailbox(this);
 
 	protected static enum State {
 		INIT, // has not started yet
@@ -204,8 +263,40 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 	protected State pstate = State.INIT;
 	protected EObject exit_reason;
 
+	/** reductions used in the current time slice */
 	public int reds;
 
+	/** reductions used in earlier time slices */
+	private long old_reds;
+
+	/** @return the total number of reductions used by this task */
+	public long reductions() {
+		return old_reds + reds;
+	}
+
+	/**
+	 * Use n reductions, yielding if that exhausts the time slice.  Must be
+	 * called from this task.
+	 */
+	public final void bump_reds(int n) throws Pausable {
+		reds += n;
+		if (reds >= ERT.MAX_REDS) {
+			yield_reds();
+		}
+	}
+
+	/**
+	 * End the current time slice.  Called by compiled code when the
+	 * reduction budget is used up.
+	 */
+	public final void yield_reds() throws Pausable {
+		int used = reds;
+		reds = 0;
+		old_reds += used;
+		ERT.reductions.addAndGet(used);
+		Task.yield();
+	}
+
 	/**
 	 * @throws Pausable
 	 * 
@@ -251,7 +342,7 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 		}
 		
 		// make sure we don't also send him an exit signal
-		links.remove(from);
+		unlink(from);
 
 		synchronized (this) {
 			switch (pstate) {
@@ -309,10 +400,29 @@ public abstract class ETask<H extends EHandle> extends kilim.Task {
 		check_exit();
 	}
 
+	/**
+	 * @return an estimate of the heap used for this task's links and
+	 *         monitors, in bytes
+	 */
+	protected long links_memory() {
+		long res = 0;
+		EHandleTable<EHandle> l = links;
+		if (l != null)
+			res += l.memory();
+		EHandleTable<ERef> m = monitors;
+		if (m != null)
+			res += m.memory();
+		Map<ERef,ETuple2> im = is_monitoring;
+		if (im != null)
+			res += ObjectSize.hash_map(im) + im.size()
+					* ObjectSize.instance(ETuple2.class);
+		return res;
+	}
+
 	/**
 	 * @return
 	 */
-	public Mailbox<EObject> mbox() {
+	public EMailbox mbox() {
 		return mbox;
 	}
 
@@ -19,21 +19,16 @@
 
 package erjang;
 
-import java.util.Timer;
-import java.util.TimerTask;
-import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
- * 
+ * An Erlang timer (send_after / start_timer), scheduled on the
+ * {@link ETimerWheel}.  on_timeout runs on a timer thread, but since
+ * mailboxes are unbounded delivering a message never blocks there.
  */
-public abstract class ETimerTask extends TimerTask implements ExitHook {
-	// TODO: implement a Kilim timer, that allows Pausable in on_timeout.
-	// for now, we will live with the risk of having a 
-	// blocking send in a timer...
-				
+public abstract class ETimerTask extends ETimerWheel.Entry implements ExitHook {
 
-	static WeakHashMap<ERef, ETimerTask> timer_refs = new WeakHashMap<ERef, ETimerTask>();
-	static Timer send_timer = new Timer();
+	static ConcurrentHashMap<ERef, ETimerTask> timer_refs = new ConcurrentHashMap<ERef, ETimerTask>();
 	
 	final ERef ref;
 	private final EInternalPID pid;
@@ -56,7 +51,7 @@ public abstract class ETimerTask extends TimerTask implements ExitHook {
 	
 	/** called when the timer fires */
 	@Override
-	public synchronized final void run() {
+	protected final void fire() {
 		if (timer_refs.remove(ref) == null) {
 			return;
 		}
@@ -73,7 +68,7 @@ public abstract class ETimerTask extends TimerTask implements ExitHook {
 		return cancel_timer() >= 0;
 	}
 	
-	public synchronized long cancel_timer() {
+	public long cancel_timer() {
 		if (super.cancel()) {
 			timer_refs.remove(ref);
 			if (pid != null) {
@@ -95,7 +90,7 @@ public abstract class ETimerTask extends TimerTask implements ExitHook {
 		return -1;
 	}
 	
-	public synchronized final void on_exit(EInternalPID pid) {
+	public final void on_exit(EInternalPID pid) {
 		assert (pid == this.pid) : "received on_exit callback from inknown pid";
 		timer_refs.remove(ref);
 		this.cancel();
@@ -108,7 +103,8 @@ public abstract class ETimerTask extends TimerTask implements ExitHook {
 	 */
 	public void schedule(long ms_delay) {
 		when = System.currentTimeMillis() + ms_delay;
-		send_timer.schedule(this, ms_delay);
+		timer_refs.put(ref, this);
+		ETimerWheel.schedule(this, ms_delay);
 	}
 
 	/**
@@ -0,0 +1,350 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Sharded, hierarchical timing wheel used for all Erlang timers
+ * (<code>send_after</code>, <code>start_timer</code>, receive timeouts and
+ * driver timeouts).
+ *
+ * There is one shard per scheduler thread; each thread that schedules a
+ * timer is bound to a shard round-robin, so the scheduler threads do not
+ * contend with each other.  Each shard is driven by its own ticker thread
+ * with a resolution of one millisecond.
+ *
+ * Scheduling and cancelling are O(1) and lock-free: new and cancelled
+ * entries are pushed onto intrusive stacks that the ticker drains before
+ * each tick, and only the ticker ever touches the wheel itself.  The wheel
+ * has five levels (256 x 64 x 64 x 64 x 64 slots), which covers the full
+ * 2^32 ms range allowed for Erlang timers.
+ */
+public final class ETimerWheel {
+
+	static Logger log = Logger.getLogger(ETimerWheel.class.getName());
+
+	static final int NEW = 0, SCHEDULED = 1, FIRED = 2, CANCELLED = 3;
+
+	/**
+	 * Something that can be scheduled on the wheel.
+	 */
+	public static abstract class Entry {
+
+		private static final AtomicIntegerFieldUpdater<Entry> STATE = AtomicIntegerFieldUpdater
+				.newUpdater(Entry.class, "state");
+
+		private volatile int state = NEW;
+		private Shard shard;
+
+		/** absolute expiry tick */
+		long tick;
+
+		/** slot list; only touched by the ticker */
+		Entry prev, next;
+
+		/** intrusive links for the shard's pending and cancelled stacks */
+		Entry pending_link, cancel_link;
+
+		/** called on the ticker thread when the timer expires; must not block */
+		protected abstract void fire();
+
+		/**
+		 * @return true if the timer was cancelled before it fired
+		 */
+		public boolean cancel() {
+			if (STATE.compareAndSet(this, SCHEDULED, CANCELLED)) {
+				shard.cancelled(this);
+				return true;
+			}
+			return STATE.compareAndSet(this, NEW, CANCELLED);
+		}
+
+		public boolean isCancelled() {
+			return state == CANCELLED;
+		}
+	}
+
+	static final class Head extends Entry {
+		Head() {
+			prev = next = this;
+		}
+
+		@Override
+		protected void fire() {
+			throw new Error("list head fired");
+		}
+	}
+
+	static final int L0_BITS = 8, LN_BITS = 6, LEVELS = 5;
+	static final int L0_SIZE = 1 << L0_BITS, LN_SIZE = 1 << LN_BITS;
+	static final long MAX_DELTA = (1L << (L0_BITS + (LEVELS - 1) * LN_BITS)) - 1;
+
+	static final long EPOCH = System.nanoTime();
+
+	/** @return the current time, in ticks (milliseconds) */
+	static long now() {
+		return (System.nanoTime() - EPOCH) / 1000000L;
+	}
+
+	static final class Shard implements Runnable {
+
+		final Head[][] wheel = new Head[LEVELS][];
+		final AtomicReference<Entry> pending = new AtomicReference<Entry>();
+		final AtomicReference<Entry> cancelled = new AtomicReference<Entry>();
+
+		/** the last tick that has been fully processed */
+		long current = now();
+
+		/** number of entries linked into the wheel */
+		int count;
+
+		/** tick at which the ticker will wake up by itself */
+		volatile long wake_at = Long.MAX_VALUE;
+
+		final Thread thread;
+
+		Shard(int n) {
+			for (int level = 0; level < LEVELS; level++) {
+				int size = level == 0 ? L0_SIZE : LN_SIZE;
+				wheel[level] = new Head[size];
+				for (int i = 0; i < size; i++) {
+					wheel[level][i] = new Head();
+				}
+			}
+			thread = new Thread(this, "erjang-timer-" + n);
+			thread.setDaemon(true);
+			thread.start();
+		}
+
+		void schedule(Entry e) {
+			Entry top;
+			do {
+				top = pending.get();
+				e.pending_link = top;
+			} while (!pending.compareAndSet(top, e));
+
+			if (e.tick < wake_at) {
+				LockSupport.unpark(thread);
+			}
+		}
+
+		void cancelled(Entry e) {
+			Entry top;
+			do {
+				top = cancelled.get();
+				e.cancel_link = top;
+			} while (!cancelled.compareAndSet(top, e));
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				try {
+					drain();
+					advance(now());
+				} catch (Throwable ex) {
+					log.log(Level.SEVERE, "timer wheel failure", ex);
+				}
+
+				long next = next_expiry();
+				wake_at = next;
+				if (pending.get() != null) {
+					continue;
+				}
+
+				if (next == Long.MAX_VALUE) {
+					LockSupport.park(this);
+				} else {
+					long delay = next - now();
+					if (delay > 0) {
+						LockSupport.parkNanos(this, delay * 1000000L);
+					}
+				}
+				wake_at = Long.MAX_VALUE;
+			}
+		}
+
+		/** move newly scheduled entries into the wheel and unlink cancelled ones */
+		private void drain() {
+			Entry e = pending.getAndSet(null);
+			while (e != null) {
+				Entry n = e.pending_link;
+				e.pending_link = null;
+				if (e.state == SCHEDULED) {
+					insert(e);
+				}
+				e = n;
+			}
+
+			e = cancelled.getAndSet(null);
+			while (e != null) {
+				Entry n = e.cancel_link;
+				e.cancel_link = null;
+				if (e.next != null) {
+					unlink(e);
+				}
+				e = n;
+			}
+		}
+
+		private void insert(Entry e) {
+			long delta = e.tick - current;
+			if (delta <= 0) {
+				expire(e);
+				return;
+			}
+
+			long t = delta > MAX_DELTA ? current + MAX_DELTA : e.tick;
+			Head head;
+			if (delta < L0_SIZE) {
+				head = wheel[0][(int) (t & (L0_SIZE - 1))];
+			} else {
+				int level = 1;
+				int shift = L0_BITS;
+				while (level < LEVELS - 1
+						&& delta >= (1L << (shift + LN_BITS))) {
+					level += 1;
+					shift += LN_BITS;
+				}
+				head = wheel[level][(int) ((t >>> shift) & (LN_SIZE - 1))];
+			}
+
+			e.prev = head.prev;
+			e.next = head;
+			head.prev.next = e;
+			head.prev = e;
+			count += 1;
+		}
+
+		private void unlink(Entry e) {
+			e.prev.next = e.next;
+			e.next.prev = e.prev;
+			e.prev = e.next = null;
+			count -= 1;
+		}
+
+		private void expire(Entry e) {
+			if (Entry.STATE.compareAndSet(e, SCHEDULED, FIRED)) {
+				try {
+					e.fire();
+				} catch (Throwable ex) {
+					log.log(Level.WARNING, "timer " + e + " failed", ex);
+				}
+			}
+		}
+
+		private void advance(long now) {
+			if (count == 0) {
+				if (now > current)
+					current = now;
+				return;
+			}
+
+			while (current < now) {
+				long t = ++current;
+				int idx = (int) (t & (L0_SIZE - 1));
+
+				if (idx == 0) {
+					int shift = L0_BITS;
+					for (int level = 1; level < LEVELS; level++) {
+						int li = (int) ((t >>> shift) & (LN_SIZE - 1));
+						cascade(wheel[level][li]);
+						if (li != 0)
+							break;
+						shift += LN_BITS;
+					}
+				}
+
+				Head head = wheel[0][idx];
+				Entry e;
+				while ((e = head.next) != head) {
+					unlink(e);
+					expire(e);
+				}
+
+				if (count == 0) {
+					current = now;
+					return;
+				}
+			}
+		}
+
+		private void cascade(Head head) {
+			Entry e;
+			while ((e = head.next) != head) {
+				unlink(e);
+				insert(e);
+			}
+		}
+
+		/** @return a tick at or before the next expiry */
+		private long next_expiry() {
+			if (count == 0)
+				return Long.MAX_VALUE;
+
+			for (long t = current + 1; ; t++) {
+				int idx = (int) (t & (L0_SIZE - 1));
+				if (idx == 0 || wheel[0][idx].next != wheel[0][idx])
+					return t;
+			}
+		}
+	}
+
+	static final Shard[] shards;
+	static final AtomicInteger next_shard = new AtomicInteger();
+
+	static final ThreadLocal<Shard> my_shard = new ThreadLocal<Shard>() {
+		@Override
+		protected Shard initialValue() {
+			int n = next_shard.getAndIncrement() & 0x7fffffff;
+			return shards[n % shards.length];
+		}
+	};
+
+	static {
+		int n = ERT.threadPoolSize();
+		String prop = System.getProperty("erj.timer.shards");
+		if (prop != null)
+			n = Integer.parseInt(prop);
+		shards = new Shard[Math.max(1, n)];
+		for (int i = 0; i < shards.length; i++) {
+			shards[i] = new Shard(i);
+		}
+	}
+
+	/**
+	 * Schedule <code>e</code> to fire after <code>millis</code>
+	 * milliseconds.  An entry can only be scheduled once.
+	 */
+	public static void schedule(Entry e, long millis) {
+		e.tick = now() + Math.max(0, millis);
+		e.shard = my_shard.get();
+		if (Entry.STATE.compareAndSet(e, NEW, SCHEDULED)) {
+			e.shard.schedule(e);
+		} else if (e.state != CANCELLED) {
+			throw new IllegalStateException("timer already scheduled");
+		}
+	}
+}
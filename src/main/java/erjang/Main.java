@@ -22,6 +22,8 @@ import java.io.File;
 import java.io.IOException;
 import java.util.ArrayList;
 
+import erjang.beam.CodeCache;
+
 public class Main {
 
 	static String erts_version = "erts-5.7.3";
@@ -101,6 +103,12 @@ public class Main {
 		
 		String root = setup(cmd_line_root);
 
+		if ("warm".equals(System.getProperty("erj.cache"))) {
+			// precompile all of OTP into the code cache, and exit
+			int failed = CodeCache.warm(CodeCache.otp_ebin_dirs(root));
+			System.exit(failed == 0 ? 0 : 1);
+		}
+
 		if (cmd_line_root == null) {
 			ra.add("-root");
 			ra.add(root);
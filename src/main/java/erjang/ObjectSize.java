@@ -0,0 +1,108 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Estimates of object sizes on the Java heap, for
+ * <code>process_info(Pid, memory)</code>.
+ *
+ * The layout assumed is HotSpot's: 8-byte aligned objects, with compressed
+ * references and class pointers when the maximum heap is below 32GB.
+ * Field padding inside an object is not modelled, so the results may be a
+ * few bytes low.
+ */
+final class ObjectSize {
+
+	static final boolean COMPRESSED = Runtime.getRuntime().maxMemory() < (32L << 30);
+	static final int REF = COMPRESSED ? 4 : 8;
+	static final int HEADER = COMPRESSED ? 12 : 16;
+	static final int ARRAY_HEADER = 16;
+
+	/** a TreeMap.Entry: key, value, left, right, parent and color */
+	static final long TREE_MAP_ENTRY = align(HEADER + 5 * REF + 1);
+
+	/** a HashMap.Node: hash, key, value and next */
+	static final long HASH_MAP_NODE = align(HEADER + 4 + 3 * REF);
+
+	private static final ConcurrentHashMap<Class<?>, Long> sizes = new ConcurrentHashMap<Class<?>, Long>();
+
+	private ObjectSize() {
+	}
+
+	/** @return the size of o itself, not counting the objects it refers to */
+	static long shallow(Object o) {
+		Class<?> c = o.getClass();
+		if (c.isArray()) {
+			int n = java.lang.reflect.Array.getLength(o);
+			return align(ARRAY_HEADER + (long) n * slot(c.getComponentType()));
+		}
+
+		return instance(c);
+	}
+
+	/** @return the size of an instance of class c */
+	static long instance(Class<?> c) {
+		Long size = sizes.get(c);
+		if (size == null) {
+			long fields = 0;
+			for (Class<?> k = c; k != null; k = k.getSuperclass()) {
+				for (Field f : k.getDeclaredFields()) {
+					if (!Modifier.isStatic(f.getModifiers()))
+						fields += slot(f.getType());
+				}
+			}
+			sizes.put(c, size = align(HEADER + fields));
+		}
+		return size;
+	}
+
+	/**
+	 * @return the size of a HashMap with default load factor, and its
+	 *         table and nodes, not counting keys and values
+	 */
+	static long hash_map(java.util.Map<?, ?> map) {
+		int n = map.size();
+		long table = 0;
+		if (n > 0) {
+			int cap = Integer.highestOneBit(Math.max(1, n * 4 / 3 - 1)) << 1;
+			table = align(ARRAY_HEADER + (long) cap * REF);
+		}
+		return shallow(map) + table + n * HASH_MAP_NODE;
+	}
+
+	static long align(long size) {
+		return (size + 7) & ~7L;
+	}
+
+	private static int slot(Class<?> type) {
+		if (!type.isPrimitive())
+			return REF;
+		if (type == long.class || type == double.class)
+			return 8;
+		if (type == int.class || type == float.class)
+			return 4;
+		if (type == short.class || type == char.class)
+			return 2;
+		return 1;
+	}
+}
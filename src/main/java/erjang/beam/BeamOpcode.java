@@ -143,6 +143,8 @@ public enum BeamOpcode {
 	bs_utf16_size		(0x92),
 	bs_put_utf16		(0x93),
 	bs_put_utf32		(0x94),
+	recv_mark		(0x96),
+	recv_set		(0x97),
 	
 	// Opcode groups
 	
@@ -0,0 +1,337 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.beam;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+import java.util.zip.ZipOutputStream;
+
+import erjang.EBinary;
+import erjang.EModuleClassLoader;
+import erjang.beam.loader.ErjangBeamDisLoader;
+
+/**
+ * One archive with the compiled, woven code of a whole code path, made
+ * ahead of time.
+ *
+ * The archive is a zip file of uncompressed class files, plus an index
+ * (<code>META-INF/erjang.index</code>) with one line per module:
+ * <code>module key class...</code>, where the key is the one
+ * {@link CodeCache} uses.  At runtime the archive is opened once, and
+ * modules whose BEAM code still matches their key are loaded straight from
+ * it through {@link EModuleClassLoader.ClassSource}; any other module is
+ * compiled as usual.  kilim's state classes are shared between modules, and
+ * stored once.
+ *
+ * <ul>
+ * <li><code>erj.archive</code> - archive to load modules from</li>
+ * </ul>
+ *
+ * To build one, compiling all modules in parallel:
+ *
+ * <pre>
+ *   java erjang.beam.CodeArchive archive.jar [ebin-dir...]
+ * </pre>
+ *
+ * which compiles the directories given, or else those in
+ * <code>ERJ_PATH</code> and <code>-Derjpath</code>.
+ */
+public final class CodeArchive implements EModuleClassLoader.ClassSource {
+
+	static Logger log = Logger.getLogger(CodeArchive.class.getName());
+
+	static final String INDEX = "META-INF/erjang.index";
+
+	private final ZipFile zip;
+	private final Map<String, String> keys = new HashMap<String, String>();
+
+	private static CodeArchive runtime;
+	private static boolean runtime_opened;
+
+	public CodeArchive(File file) throws IOException {
+		zip = new ZipFile(file);
+		ZipEntry index = zip.getEntry(INDEX);
+		if (index == null)
+			throw new IOException(file + " has no " + INDEX);
+
+		BufferedReader r = new BufferedReader(new InputStreamReader(zip
+				.getInputStream(index), "UTF-8"));
+		try {
+			String line;
+			while ((line = r.readLine()) != null) {
+				String[] fields = line.split(" ");
+				if (fields.length >= 2)
+					keys.put(fields[0], fields[1]);
+			}
+		} finally {
+			r.close();
+		}
+	}
+
+	/**
+	 * @return the archive given by <code>erj.archive</code>, or null if
+	 *         there is none
+	 */
+	public static synchronized CodeArchive runtime() {
+		if (!runtime_opened) {
+			runtime_opened = true;
+			String name = System.getProperty("erj.archive");
+			if (name != null) {
+				try {
+					runtime = new CodeArchive(new File(name));
+					log.fine("using " + name + " with "
+							+ runtime.keys.size() + " modules");
+				} catch (IOException e) {
+					log.log(Level.WARNING, "cannot open code archive "
+							+ name, e);
+				}
+			}
+		}
+		return runtime;
+	}
+
+	/**
+	 * @return true if the archive has the code compiled from beam_data
+	 */
+	public boolean contains(String module, EBinary beam_data) {
+		String key = keys.get(module);
+		return key != null && key.equals(CodeCache.key(beam_data));
+	}
+
+	/** @return the number of modules in the archive */
+	public int size() {
+		return keys.size();
+	}
+
+	@Override
+	public byte[] class_bytes(String internal_name) throws IOException {
+		ZipEntry ent = zip.getEntry(internal_name + ".class");
+		if (ent == null)
+			return null;
+
+		byte[] data = new byte[(int) ent.getSize()];
+		InputStream in = zip.getInputStream(ent);
+		try {
+			int off = 0, n;
+			while (off < data.length
+					&& (n = in.read(data, off, data.length - off)) > 0) {
+				off += n;
+			}
+			if (off < data.length)
+				throw new IOException("short read of " + ent);
+		} finally {
+			in.close();
+		}
+		return data;
+	}
+
+	public void close() throws IOException {
+		zip.close();
+	}
+
+	/*==================== BUILDING ====================*/
+
+	static final class Compiled implements ClassRepo {
+		final String module;
+		final String key;
+		final Map<String, byte[]> classes = new LinkedHashMap<String, byte[]>();
+
+		Compiled(String module, String key) {
+			this.module = module;
+			this.key = key;
+		}
+
+		@Override
+		public void store(String internal_name, byte[] data) {
+			classes.put(internal_name, data);
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+
+	/**
+	 * @return the .beam files in dirs by module name; where a module is in
+	 *         more than one directory, the first one wins, as when loading
+	 */
+	static Map<String, File> find_beams(List<File> dirs) {
+		Map<String, File> res = new LinkedHashMap<String, File>();
+		for (File dir : dirs) {
+			File[] files = dir.listFiles();
+			if (files == null)
+				continue;
+			for (File f : files) {
+				String name = f.getName();
+				if (!name.endsWith(".beam"))
+					continue;
+				name = name.substring(0, name.length() - 5);
+				if (!res.containsKey(name))
+					res.put(name, f);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Compile all modules in dirs on a fork-join pool, and write them to
+	 * one archive.
+	 *
+	 * @return the number of modules that failed to compile
+	 */
+	public static int build(List<File> dirs, File out) throws Exception {
+		final BeamLoader beam_parser = new ErjangBeamDisLoader();
+		Map<String, File> beams = find_beams(dirs);
+
+		ForkJoinPool pool = new ForkJoinPool();
+		List<Future<Compiled>> jobs = new ArrayList<Future<Compiled>>();
+		for (final Map.Entry<String, File> ent : beams.entrySet()) {
+			jobs.add(pool.submit(new Callable<Compiled>() {
+				@Override
+				public Compiled call() throws Exception {
+					EBinary beam_data = EUtil.readFile(ent.getValue());
+					Compiled res = new Compiled(ent.getKey(), CodeCache
+							.key(beam_data));
+					Compiler.compile(beam_parser.load(beam_data
+							.getByteArray()), res);
+					return res;
+				}
+			}));
+		}
+
+		int failed = 0;
+		File tmp = new File(out.getPath() + ".tmp");
+		ZipOutputStream zo = new ZipOutputStream(new FileOutputStream(tmp));
+		try {
+			ByteArrayOutputStream index = new ByteArrayOutputStream();
+			Map<String, Boolean> written = new HashMap<String, Boolean>();
+
+			for (Future<Compiled> job : jobs) {
+				Compiled c;
+				try {
+					c = job.get();
+				} catch (Exception e) {
+					failed += 1;
+					log.log(Level.WARNING, "cannot compile", e.getCause());
+					continue;
+				}
+
+				StringBuilder line = new StringBuilder();
+				line.append(c.module).append(' ').append(c.key);
+				for (Map.Entry<String, byte[]> cls : c.classes.entrySet()) {
+					String name = cls.getKey();
+					line.append(' ').append(name);
+					if (written.put(name, Boolean.TRUE) == null)
+						put_stored(zo, name + ".class", cls.getValue());
+				}
+				line.append('\n');
+				index.write(line.toString().getBytes("UTF-8"));
+			}
+
+			put_stored(zo, INDEX, index.toByteArray());
+			zo.close();
+			zo = null;
+
+			if (out.exists() && !out.delete())
+				throw new IOException("cannot replace " + out);
+			if (!tmp.renameTo(out))
+				throw new IOException("cannot rename " + tmp + " to " + out);
+		} finally {
+			pool.shutdown();
+			if (zo != null) {
+				try {
+					zo.close();
+				} catch (IOException e) {
+				}
+			}
+			tmp.delete();
+		}
+
+		log.info("compiled " + (jobs.size() - failed) + " modules into "
+				+ out + "; " + failed + " failed");
+		return failed;
+	}
+
+	private static void put_stored(ZipOutputStream zo, String name,
+			byte[] data) throws IOException {
+		CRC32 crc = new CRC32();
+		crc.update(data);
+		ZipEntry ent = new ZipEntry(name);
+		ent.setMethod(ZipEntry.STORED);
+		ent.setSize(data.length);
+		ent.setCompressedSize(data.length);
+		ent.setCrc(crc.getValue());
+		zo.putNextEntry(ent);
+		zo.write(data);
+		zo.closeEntry();
+	}
+
+	/** @return the directories in ERJ_PATH and -Derjpath */
+	static List<File> code_path() {
+		List<File> res = new ArrayList<File>();
+		String sys_path = System.getenv("ERJ_PATH");
+		String[] paths = { sys_path == null ? "" : sys_path,
+				System.getProperty("erjpath", ".") };
+		for (String path : paths) {
+			for (String s : path.split(File.pathSeparator)) {
+				File elem = new File(s);
+				if (s.length() > 0 && elem.isDirectory())
+					res.add(elem);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Usage: <code>CodeArchive archive [ebin-dir...]</code>
+	 */
+	public static void main(String[] args) throws Exception {
+		if (args.length == 0) {
+			System.err.println("usage: CodeArchive archive [ebin-dir...]");
+			System.exit(2);
+		}
+
+		List<File> dirs = new ArrayList<File>();
+		for (int i = 1; i < args.length; i++) {
+			dirs.add(new File(args[i]));
+		}
+		if (dirs.isEmpty())
+			dirs = code_path();
+
+		System.exit(build(dirs, new File(args[0])) == 0 ? 0 : 1);
+	}
+}
@@ -0,0 +1,392 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.beam;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.SortedSet;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.jar.JarEntry;
+import java.util.jar.JarFile;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import erjang.EBinary;
+import erjang.beam.loader.ErjangBeamDisLoader;
+import erjang.util.Progress;
+
+/**
+ * Cache of compiled modules, which may be shared by any number of nodes.
+ * 
+ * A module is stored as <code>&lt;name&gt;-&lt;key&gt;.jar</code>, where
+ * the key is a SHA-1 digest of the BEAM code and of the compiler's own
+ * classes (all of <code>erjang.beam</code> and kilim's weaver), so jars
+ * made by another version of Erjang are never used.
+ * Jars are written to a temporary file and then renamed into place, so
+ * nobody ever loads a partially written jar; two nodes compiling the same
+ * module at once just do the work twice.
+ * 
+ * <ul>
+ * <li><code>erj.cache.dir</code> - location of the cache (default
+ * <code>.erj</code>)</li>
+ * <li><code>erj.cache.size</code> - maximum size in megabytes (default
+ * 1024); when exceeded, the least recently used jars are removed</li>
+ * </ul>
+ * 
+ * With <code>-Derj.cache=warm</code>, {@link erjang.Main} fills the cache
+ * from the OTP <code>lib/*&#47;ebin</code> directories and exits.
+ */
+public final class CodeCache {
+
+	static Logger log = Logger.getLogger(CodeCache.class.getName());
+
+	static final File dir = new File(System.getProperty("erj.cache.dir",
+			".erj"));
+
+	static final long max_size = Long.getLong("erj.cache.size", 1024) * 1024 * 1024;
+
+	/**
+	 * packages whose classes, inner classes included, determine what the
+	 * compiler produces; each with a class to find the package by
+	 */
+	static final String[][] COMPILER_PACKAGES = {
+			{ "erjang/beam/", "erjang/beam/Compiler" },
+			{ "kilim/analysis/", "kilim/analysis/ClassWeaver" },
+			{ "kilim/mirrors/", "kilim/mirrors/Mirrors" } };
+
+	static final byte[] compiler_digest = compiler_digest();
+
+	static final AtomicInteger tmp_counter = new AtomicInteger();
+
+	private CodeCache() {
+	}
+
+	/**
+	 * @return the jar for the given module, compiling it if it is not in
+	 *         the cache already
+	 */
+	public static File compile(String name, EBinary beam_data,
+			BeamLoader beam_parser) throws IOException {
+		File jar = cached(name, beam_data);
+		if (jar != null)
+			return jar;
+		jar = new File(cache_dir(), name + "-" + key(beam_data) + ".jar");
+
+		Progress.activity();
+
+		File tmp = new File(jar.getParentFile(), jar.getName() + "."
+				+ tmp_counter.incrementAndGet() + "-"
+				+ Long.toHexString(System.nanoTime()) + ".tmp");
+		JarClassRepo repo = new JarClassRepo(tmp);
+		try {
+			Compiler.compile(beam_parser.load(beam_data.getByteArray()), repo);
+			repo.close();
+			repo = null;
+
+			if (!tmp.renameTo(jar) && !jar.exists()) {
+				throw new IOException("cannot rename " + tmp + " to " + jar);
+			}
+		} finally {
+			if (repo != null) {
+				try {
+					repo.close();
+				} catch (Exception e) {
+				}
+			}
+			tmp.delete();
+		}
+
+		evict(jar);
+		return jar;
+	}
+
+	/**
+	 * @return the jar for the given module, or null if it has not been
+	 *         compiled yet
+	 */
+	public static File cached(String name, EBinary beam_data)
+			throws IOException {
+		File jar = new File(cache_dir(), name + "-" + key(beam_data) + ".jar");
+
+		if (jar.exists()) {
+			// mark as recently used
+			jar.setLastModified(System.currentTimeMillis());
+			return jar;
+		}
+		return null;
+	}
+
+	static File cache_dir() throws IOException {
+		if (!dir.exists()) {
+			if (!dir.mkdirs() && !dir.isDirectory())
+				throw new IOException("cannot create " + dir);
+
+		} else if (!dir.canWrite()) {
+			throw new IOException("cannot write to " + dir);
+		}
+
+		return dir;
+	}
+
+	static String key(EBinary beam_data) {
+		MessageDigest md = sha1();
+		md.update(compiler_digest);
+		md.update(beam_data.getByteArray());
+		return hex(md.digest());
+	}
+
+	private static byte[] compiler_digest() {
+		ClassLoader loader = CodeCache.class.getClassLoader();
+		MessageDigest md = sha1();
+		byte[] buf = new byte[8192];
+		for (String[] pkg : COMPILER_PACKAGES) {
+			for (String cls : compiler_classes(loader, pkg[0], pkg[1])) {
+				md.update(cls.getBytes());
+				InputStream in = loader.getResourceAsStream(cls);
+				if (in == null)
+					continue;
+				try {
+					int n;
+					while ((n = in.read(buf)) > 0) {
+						md.update(buf, 0, n);
+					}
+				} catch (IOException e) {
+					throw new Error(e);
+				} finally {
+					try {
+						in.close();
+					} catch (IOException e) {
+					}
+				}
+			}
+		}
+		return md.digest();
+	}
+
+	/**
+	 * @return the sorted names of all .class resources under prefix, in the
+	 *         directory or jar that anchor is loaded from
+	 */
+	static SortedSet<String> compiler_classes(ClassLoader loader,
+			String prefix, String anchor) {
+		SortedSet<String> res = new TreeSet<String>();
+		URL url = loader.getResource(anchor + ".class");
+		try {
+			if (url == null) {
+				// fall through to the warning
+
+			} else if ("file".equals(url.getProtocol())) {
+				File root = new File(url.toURI());
+				for (int i = anchor.split("/").length; i > 0; i--) {
+					root = root.getParentFile();
+				}
+				list_classes(new File(root, prefix), prefix, res);
+
+			} else if ("jar".equals(url.getProtocol())) {
+				JarURLConnection conn = (JarURLConnection) url.openConnection();
+				JarFile jar = conn.getJarFile();
+				try {
+					for (Enumeration<JarEntry> e = jar.entries(); e
+							.hasMoreElements();) {
+						String name = e.nextElement().getName();
+						if (name.startsWith(prefix) && name.endsWith(".class"))
+							res.add(name);
+					}
+				} finally {
+					if (!conn.getUseCaches())
+						jar.close();
+				}
+			}
+		} catch (IOException e) {
+			log.log(Level.WARNING, "cannot list " + prefix, e);
+		} catch (URISyntaxException e) {
+			log.log(Level.WARNING, "cannot list " + prefix, e);
+		}
+
+		if (res.isEmpty()) {
+			log.warning("cannot find the classes in " + prefix
+					+ "; cache key may not detect upgrades");
+		}
+		return res;
+	}
+
+	private static void list_classes(File dir, String path,
+			SortedSet<String> res) {
+		File[] files = dir.listFiles();
+		if (files == null)
+			return;
+		for (File f : files) {
+			if (f.isDirectory()) {
+				list_classes(f, path + f.getName() + "/", res);
+			} else if (f.getName().endsWith(".class")) {
+				res.add(path + f.getName());
+			}
+		}
+	}
+
+	private static MessageDigest sha1() {
+		try {
+			return MessageDigest.getInstance("SHA-1");
+		} catch (NoSuchAlgorithmException e) {
+			throw new Error(e);
+		}
+	}
+
+	private static String hex(byte[] bytes) {
+		StringBuilder sb = new StringBuilder();
+		for (byte b : bytes) {
+			sb.append(Character.forDigit((b >> 4) & 0xf, 16));
+			sb.append(Character.forDigit(b & 0xf, 16));
+		}
+		return sb.toString();
+	}
+
+	/** remove the least recently used jars, until the cache is small enough */
+	static synchronized void evict(File keep) {
+		File[] jars = dir.listFiles(new FileFilter() {
+			@Override
+			public boolean accept(File f) {
+				return f.isFile() && f.getName().endsWith(".jar");
+			}
+		});
+		if (jars == null)
+			return;
+
+		long size = 0;
+		final long[] used = new long[jars.length];
+		Integer[] order = new Integer[jars.length];
+		for (int i = 0; i < jars.length; i++) {
+			size += jars[i].length();
+			used[i] = jars[i].lastModified();
+			order[i] = i;
+		}
+		if (size <= max_size)
+			return;
+
+		Arrays.sort(order, new Comparator<Integer>() {
+			@Override
+			public int compare(Integer i1, Integer i2) {
+				long m1 = used[i1], m2 = used[i2];
+				return m1 < m2 ? -1 : m1 == m2 ? 0 : 1;
+			}
+		});
+
+		for (int i = 0; i < order.length && size > max_size; i++) {
+			File jar = jars[order[i]];
+			if (jar.equals(keep))
+				continue;
+			long len = jar.length();
+			// a node that has the jar open can still read it
+			if (jar.delete()) {
+				size -= len;
+			}
+		}
+	}
+
+	/**
+	 * Compile all .beam files in the given directories, using one thread
+	 * per processor.
+	 * 
+	 * @return the number of modules that failed to compile
+	 */
+	public static int warm(List<File> ebin_dirs) throws InterruptedException {
+		final BeamLoader beam_parser = new ErjangBeamDisLoader();
+		final AtomicInteger failed = new AtomicInteger();
+		final AtomicInteger done = new AtomicInteger();
+
+		ExecutorService pool = Executors.newFixedThreadPool(Runtime
+				.getRuntime().availableProcessors());
+
+		for (File ebin : ebin_dirs) {
+			File[] beams = ebin.listFiles(new FileFilter() {
+				@Override
+				public boolean accept(File f) {
+					return f.getName().endsWith(".beam");
+				}
+			});
+			if (beams == null)
+				continue;
+
+			for (final File beam : beams) {
+				pool.execute(new Runnable() {
+					@Override
+					public void run() {
+						String name = beam.getName();
+						name = name.substring(0, name.length() - 5);
+						try {
+							compile(name, EUtil.readFile(beam), beam_parser);
+							done.incrementAndGet();
+						} catch (Throwable e) {
+							failed.incrementAndGet();
+							log.log(Level.WARNING, "cannot compile " + beam, e);
+						}
+					}
+				});
+			}
+		}
+
+		pool.shutdown();
+		pool.awaitTermination(Long.MAX_VALUE, TimeUnit.SECONDS);
+
+		log.info("compiled " + done.get() + " modules into " + dir + "; "
+				+ failed.get() + " failed");
+		return failed.get();
+	}
+
+	/** @return the ebin directories of all applications in an OTP root */
+	public static List<File> otp_ebin_dirs(String otp_root) {
+		List<File> res = new ArrayList<File>();
+		File[] apps = new File(otp_root, "lib").listFiles();
+		if (apps != null) {
+			for (File app : apps) {
+				File ebin = new File(app, "ebin");
+				if (ebin.isDirectory())
+					res.add(ebin);
+			}
+		}
+		return res;
+	}
+
+	/**
+	 * Usage: <code>CodeCache ebin-dir...</code>
+	 */
+	public static void main(String[] args) throws Exception {
+		List<File> dirs = new ArrayList<File>();
+		for (String arg : args) {
+			dirs.add(new File(arg));
+		}
+		System.exit(warm(dirs) == 0 ? 0 : 1);
+	}
+}
@@ -49,11 +49,13 @@ import erjang.ETuple;
 import erjang.beam.analysis.BeamTypeAnalysis;
 
 import erjang.beam.loader.ErjangBeamDisLoader;
-import erjang.util.Progress;
 
 public class Compiler implements Opcodes {
 	private ClassRepo classRepo;
 
+	/** kilim's weaver keeps caches that are not thread safe */
+	private static final Object weave_lock = new Object();
+
 	/**
 	 * @param repo
 	 * @throws IOException
@@ -100,8 +102,11 @@ public class Compiler implements Opcodes {
 		}
 		*/
 		boolean written = false;
-		ClassWeaver cwe = new ClassWeaver(byteArray, new ErjangDetector(
-				cv.getInternalClassName(), cv.non_pausable_methods));
+		ClassWeaver cwe;
+		synchronized (weave_lock) {
+			cwe = new ClassWeaver(byteArray, new ErjangDetector(
+					cv.getInternalClassName(), cv.non_pausable_methods));
+		}
 		for (ClassInfo ci : cwe.getClassInfos()) {
 			String name = ci.className;
 			byte[] bytes = ci.bytes;
@@ -257,47 +262,7 @@ public class Compiler implements Opcodes {
 	}
 
 	public static File compile(String name, EBinary beam_data, BeamLoader beam_parser) throws IOException {
-
-		Progress.activity();
-		
-		long crc = beam_data.crc();
-
-		File jarFile = new File(erjdir(), name + "-" + Long.toHexString(crc)
-				+ ".jar");
-
-		if (!jarFile.exists()) {
-			JarClassRepo repo = new JarClassRepo(jarFile);
-
-
-			try {
-				compile(beam_parser.load(beam_data.getByteArray()), repo);
-
-				repo.close();
-				repo = null;
-			} finally {
-				if (repo != null) {
-					try {repo.close();
-					jarFile.delete();
-					} catch (Exception e) {}
-				}
-			}
-			
-		}
-
-		return jarFile;
-	}
-
-	static File erjdir() throws IOException {
-		File dir = new File(".erj");
-		if (!dir.exists()) {
-			if (!dir.mkdirs())
-				throw new IOException("cannot create " + dir);
-
-		} else if (!dir.canWrite()) {
-			throw new IOException("cannot write to " + dir);
-		}
-
-		return dir;
+		return CodeCache.compile(name, beam_data, beam_parser);
 	}
 
 }
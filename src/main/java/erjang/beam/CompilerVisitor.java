@@ -51,6 +51,7 @@ import erjang.EBitString;
 import erjang.EBitStringBuilder;
 import erjang.ECons;
 import erjang.EDouble;
+import erjang.ECallSite;
 import erjang.EFun;
 import erjang.EInteger;
 import erjang.EList;
@@ -71,7 +72,6 @@ import erjang.ErlFun;
 import erjang.ErlangException;
 import erjang.Export;
 import erjang.FunID;
-import erjang.Import;
 import erjang.Module;
 import erjang.NotImplemented;
 
@@ -146,12 +146,14 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 	static final Type ESEQ_TYPE = Type.getType(ESeq.class);
 	static final Type ELIST_TYPE = Type.getType(EList.class);
 	static final Type EFUN_TYPE = Type.getType(EFun.class);
+	static final Type ECALLSITE_TYPE = Type.getType(ECallSite.class);
 	/**
 	 * 
 	 */
 	static final String EFUN_NAME = EFUN_TYPE.getInternalName();
 	static final String EOBJECT_NAME = EOBJECT_TYPE.getInternalName();
 	static final String ETUPLE_NAME = ETUPLE_TYPE.getInternalName();
+	static final String EATOM_NAME = EATOM_TYPE.getInternalName();
 	static final String ERT_NAME = ERT_TYPE.getInternalName();
 	static final String EDOUBLE_NAME = EDOUBLE_TYPE.getInternalName();
 	static final String EINTEGER_NAME = EINTEGER_TYPE.getInternalName();
@@ -173,7 +175,6 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 
 	static final Type MODULE_ANN_TYPE = Type.getType(Module.class);
 	static final Type ERLFUN_ANN_TYPE = Type.getType(ErlFun.class);
-	static final Type IMPORT_ANN_TYPE = Type.getType(Import.class);
 	static final Type EXPORT_ANN_TYPE = Type.getType(Export.class);
 	private final ClassRepo classRepo;
 
@@ -252,18 +253,11 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 		// wow, this is where we generate <clinit>
 
 		for (Map.Entry<String, ExtFun> ent : imported.entrySet()) {
-			String field_name = ent.getKey();
 			ExtFun f = ent.getValue();
 
-			FieldVisitor fv = cv.visitField(ACC_STATIC, ent.getKey(), "L"
-					+ EFUN_NAME + f.arity + ";", null, null);
+			FieldVisitor fv = cv.visitField(ACC_STATIC | ACC_FINAL, ent
+					.getKey(), ECALLSITE_TYPE.getDescriptor(), null, null);
 			EFun.ensure(f.arity);
-			AnnotationVisitor av = fv.visitAnnotation(IMPORT_ANN_TYPE
-					.getDescriptor(), true);
-			av.visit("module", f.mod.getName());
-			av.visit("fun", f.fun.getName());
-			av.visit("arity", f.arity);
-			av.visitEnd();
 			fv.visitEnd();
 		}
 
@@ -294,6 +288,19 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 
 		}
 
+		for (Map.Entry<String, ExtFun> ent : imported.entrySet()) {
+			ExtFun f = ent.getValue();
+
+			mv.visitLdcInsn(f.mod.getName());
+			mv.visitLdcInsn(f.fun.getName());
+			mv.visitLdcInsn(Integer.valueOf(f.arity));
+			mv.visitMethodInsn(INVOKESTATIC, ECALLSITE_TYPE.getInternalName(),
+					"get", "(Ljava/lang/String;Ljava/lang/String;I)"
+							+ ECALLSITE_TYPE.getDescriptor());
+			mv.visitFieldInsn(PUTSTATIC, self_type.getInternalName(), ent
+					.getKey(), ECALLSITE_TYPE.getDescriptor());
+		}
+
 		for (Map.Entry<EObject, String> ent : constants.entrySet()) {
 
 			EObject term = ent.getKey();
@@ -459,9 +466,37 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 
 			mv.visitLabel(start);
 
+			count_reds();
 			mv.visitJumpInsn(GOTO, getLabel(startLabel));
 		}
 
+		/**
+		 * Use up a reduction.  Pausable functions yield when the process has
+		 * used {@link ERT#MAX_REDS}; others only count, since they cannot
+		 * loop (see {@link ModuleAnalyzer#mark_loops()}).
+		 */
+		void count_reds() {
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitInsn(DUP);
+			mv.visitFieldInsn(GETFIELD, EPROC_NAME, "reds", "I");
+			mv.visitInsn(ICONST_1);
+			mv.visitInsn(IADD);
+
+			if (!funInfo.is_pausable) {
+				mv.visitFieldInsn(PUTFIELD, EPROC_NAME, "reds", "I");
+				return;
+			}
+
+			Label ok = new Label();
+			mv.visitInsn(DUP_X1);
+			mv.visitFieldInsn(PUTFIELD, EPROC_NAME, "reds", "I");
+			mv.visitFieldInsn(GETSTATIC, ERT_NAME, "MAX_REDS", "I");
+			mv.visitJumpInsn(IF_ICMPLT, ok);
+			mv.visitVarInsn(ALOAD, 0);
+			mv.visitMethodInsn(INVOKEVIRTUAL, EPROC_NAME, "yield_reds", "()V");
+			mv.visitLabel(ok);
+		}
+
 		/*
 		 * (non-Javadoc)
 		 * 
@@ -1717,6 +1752,17 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 					mv.visitJumpInsn(GOTO, getLabel(val));
 					return;
 				}
+
+				case recv_mark:
+				case recv_set:
+					// labels are per module; the class is unique to this load
+					mv.visitVarInsn(ALOAD, 0);
+					mv.visitLdcInsn(self_type);
+					push_int(val);
+					mv.visitMethodInsn(INVOKESTATIC, ERT_NAME, opcode.name(),
+							"(" + EPROC_TYPE.getDescriptor()
+									+ "Ljava/lang/Object;I)V");
+					return;
 				}
 				throw new Error("unhandled: " + opcode);
 			}
@@ -2308,131 +2354,227 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 			public void visitSelectValue(Arg in, int failLabel, Arg[] values,
 					int[] targets) {
 
-				boolean all_small_ints = true;
+				// select_val matches exactly, so an atom can only match one
+				// of the atom values, and a small integer one of the small
+				// integer values.  Those are dispatched on an int of their
+				// own (the atom's hash, the integer's value) after a type
+				// test; only what is left needs hashCode() and equals().
+
+				List<Integer> atoms = new ArrayList<Integer>();
+				List<Integer> smalls = new ArrayList<Integer>();
+				List<Integer> others = new ArrayList<Integer>();
 				for (int i = 0; i < values.length; i++) {
-					if (!(values[i].value instanceof ESmall)) {
-						all_small_ints = false;
-						break;
-					}
+					if (values[i].value instanceof EAtom)
+						atoms.add(i);
+					else if (values[i].value instanceof ESmall)
+						smalls.add(i);
+					else
+						others.add(i);
 				}
 
-				if (all_small_ints) {
-					int[] ivals = new int[values.length];
-					Label[] label = new Label[values.length];
+				Label fail = getLabel(failLabel);
 
-					for (int i = 0; i < values.length; i++) {
-						ivals[i] = values[i].value.asInt();
-						label[i] = getLabel(targets[i]);
-					}
-					push(in, Type.INT_TYPE);
-
-					sort(ivals, label);
+				if (EATOM_TYPE.equals(in.type)) {
+					smalls.clear();
+					others.clear();
+				} else if (ESMALL_TYPE.equals(in.type)
+						|| Type.INT_TYPE.equals(in.type)) {
+					atoms.clear();
+					others.clear();
+				}
 
-					mv.visitLookupSwitchInsn(getLabel(failLabel), ivals, label);
-					return;
+				if (!atoms.isEmpty()) {
+					boolean last = smalls.isEmpty() && others.isEmpty();
+					Label next = last ? fail : new Label();
+					select_atom(in, values, targets, atoms, next, fail);
+					if (!last)
+						mv.visitLabel(next);
 				}
 
-				class Case implements Comparable<Case> {
+				if (!smalls.isEmpty()) {
+					boolean last = others.isEmpty();
+					Label next = last ? fail : new Label();
+					select_small(in, values, targets, smalls, next, fail);
+					if (!last)
+						mv.visitLabel(next);
+				}
 
-					final Arg arg;
-					final Label label;
+				if (!others.isEmpty()) {
+					select_other(in, values, targets, others, fail);
+				} else if (atoms.isEmpty() && smalls.isEmpty()) {
+					mv.visitJumpInsn(GOTO, fail);
+				}
+			}
 
-					/**
-					 * @param arg
-					 * @param label2
-					 */
-					public Case(Arg arg, Label label) {
-						this.arg = arg;
-						this.label = label;
+			/**
+			 * Push <code>in</code> as an atom, or go to <code>not_atom</code>,
+			 * and switch on the atom's hash.  The hash is that of the atom's
+			 * name, so it is the same in every run and can be compiled into
+			 * cached code.
+			 */
+			private void select_atom(Arg in, Arg[] values, int[] targets,
+					List<Integer> atoms, Label not_atom, Label fail) {
+
+				Map<Integer, List<Integer>> buckets = new TreeMap<Integer, List<Integer>>();
+				for (int i : atoms) {
+					int hash = ((EAtom) values[i].value).hash;
+					List<Integer> b = buckets.get(hash);
+					if (b == null) {
+						buckets.put(hash, b = new ArrayList<Integer>());
 					}
+					b.add(i);
+				}
 
-					EObject value() {
-						return arg.value;
-					}
+				int[] hashes = new int[buckets.size()];
+				Label[] tests = new Label[buckets.size()];
+				int idx = 0;
+				for (Integer hash : buckets.keySet()) {
+					hashes[idx] = hash;
+					tests[idx++] = new Label();
+				}
+
+				push_tested(in, EATOM_TYPE, IS_ATOM_TEST, not_atom);
+				mv.visitFieldInsn(GETFIELD, EATOM_NAME, "hash", "I");
+				emit_int_switch(fail, hashes, tests);
 
-					/*
-					 * (non-Javadoc)
-					 * 
-					 * @see java.lang.Comparable#compareTo(java.lang.Object)
-					 */
-					@Override
-					public int compareTo(Case o) {
-						int h = hashCode();
-						int ho = o.hashCode();
-						if (h < ho)
-							return -1;
-						if (h > ho)
-							return 1;
-						return value().compareTo(o.value());
+				idx = 0;
+				for (List<Integer> b : buckets.values()) {
+					mv.visitLabel(tests[idx++]);
+					for (int i : b) {
+						push(in, in.type);
+						push(values[i], values[i].type);
+						mv.visitJumpInsn(IF_ACMPEQ, getLabel(targets[i]));
 					}
+					mv.visitJumpInsn(GOTO, fail);
+				}
+			}
 
+			/**
+			 * Push <code>in</code> as an int, or go to
+			 * <code>not_small</code>, and switch on it.
+			 */
+			private void select_small(Arg in, Arg[] values, int[] targets,
+					List<Integer> smalls, Label not_small, Label fail) {
+
+				int[] ivals = new int[smalls.size()];
+				Label[] label = new Label[smalls.size()];
+				for (int i = 0; i < ivals.length; i++) {
+					ivals[i] = values[smalls.get(i)].value.asInt();
+					label[i] = getLabel(targets[smalls.get(i)]);
 				}
+				sort(ivals, label);
 
-				Map<Integer, List<Case>> cases = new TreeMap<Integer, List<Case>>();
+				if (ESMALL_TYPE.equals(in.type)
+						|| Type.INT_TYPE.equals(in.type)) {
+					push(in, Type.INT_TYPE);
+				} else {
+					push_tested(in, ESMALL_TYPE, IS_SMALL_TEST, not_small);
+					mv.visitFieldInsn(GETFIELD, ESMALL_NAME, "value", "I");
+				}
 
-				for (int i = 0; i < values.length; i++) {
+				emit_int_switch(fail, ivals, label);
+			}
+
+			/**
+			 * Switch on <code>in.hashCode()</code> over the constant hash
+			 * codes of the values, and test each value with that hash for
+			 * equality.
+			 */
+			private void select_other(Arg in, Arg[] values, int[] targets,
+					List<Integer> others, Label fail) {
+
+				Map<Integer, List<Integer>> cases = new TreeMap<Integer, List<Integer>>();
+				for (int i : others) {
 					int hash = values[i].value.hashCode();
-					List<Case> c = cases.get(hash);
+					List<Integer> c = cases.get(hash);
 					if (c == null) {
-						cases.put(hash, c = new ArrayList<Case>());
+						cases.put(hash, c = new ArrayList<Integer>());
 					}
-					c.add(new Case(values[i], getLabel(targets[i])));
+					c.add(i);
 				}
 
 				int[] hashes = new int[cases.size()];
 				Label[] tests = new Label[cases.size()];
-				List<Case>[] idx_cases = new List[cases.size()];
-
 				int idx = 0;
-				for (Map.Entry<Integer, List<Case>> c : cases.entrySet()) {
-					hashes[idx] = c.getKey();
-					idx_cases[idx] = c.getValue();
+				for (Integer hash : cases.keySet()) {
+					hashes[idx] = hash;
 					tests[idx++] = new Label();
 				}
 
 				push(in, EOBJECT_TYPE);
 				mv.visitMethodInsn(INVOKEVIRTUAL, "java/lang/Object",
 						"hashCode", "()I");
-				mv.visitLookupSwitchInsn(getLabel(failLabel), hashes, tests);
-
-				for (int i = 0; i < idx_cases.length; i++) {
+				mv.visitLookupSwitchInsn(fail, hashes, tests);
 
-					mv.visitLabel(tests[i]);
+				idx = 0;
+				for (List<Integer> c : cases.values()) {
 
-					for (Case c : idx_cases[i]) {
-						Arg val_j = c.arg;
-						Label target_j = c.label;
+					mv.visitLabel(tests[idx++]);
 
-						if (val_j.type.equals(EATOM_TYPE)) {
+					for (int j : c) {
+						Arg val_j = values[j];
+						Label target_j = getLabel(targets[j]);
 
+						if (in.type == val_j.type) {
 							push(in, in.type);
 							push(val_j, val_j.type);
-							mv.visitJumpInsn(IF_ACMPEQ, target_j);
 
+							mv.visitMethodInsn(INVOKESTATIC, ERT_NAME, "eq",
+									"(" + in.type.getDescriptor()
+											+ in.type.getDescriptor() + ")Z");
 						} else {
-
-							if (in.type == val_j.type) {
-								push(in, in.type);
-								push(val_j, val_j.type);
-
-								mv.visitMethodInsn(INVOKESTATIC, ERT_NAME,
-										"eq", "(" + in.type.getDescriptor()
-												+ in.type.getDescriptor()
-												+ ")Z");
-							} else {
-								push(in, EOBJECT_TYPE);
-								push(val_j, EOBJECT_TYPE);
-								mv.visitMethodInsn(INVOKEVIRTUAL,
-										"java/lang/Object", "equals",
-										"(Ljava/lang/Object;)Z");
-							}
-							mv.visitJumpInsn(IFNE, target_j);
+							push(in, EOBJECT_TYPE);
+							push(val_j, EOBJECT_TYPE);
+							mv.visitMethodInsn(INVOKEVIRTUAL,
+									"java/lang/Object", "equals",
+									"(Ljava/lang/Object;)Z");
 						}
+						mv.visitJumpInsn(IFNE, target_j);
 					}
 
-					mv.visitJumpInsn(GOTO, getLabel(failLabel));
+					mv.visitJumpInsn(GOTO, fail);
 				}
+			}
+
+			/**
+			 * Push <code>in</code> as <code>type</code>, using
+			 * <code>test</code> when it may be something else, in which case
+			 * go to <code>miss</code>.
+			 */
+			private void push_tested(Arg in, Type type, Method test, Label miss) {
+				if (type.equals(in.type)) {
+					push(in, type);
+					return;
+				}
+
+				push(in, EOBJECT_TYPE);
+				mv.visitMethodInsn(INVOKEVIRTUAL, EOBJECT_NAME, test.getName(),
+						test.getDescriptor());
+				mv.visitInsn(DUP);
+				mv.visitVarInsn(ASTORE, scratch_reg);
+				mv.visitJumpInsn(IFNULL, miss);
+				mv.visitVarInsn(ALOAD, scratch_reg);
+			}
 
+			/**
+			 * Switch on the int on the stack; a <code>tableswitch</code> when
+			 * the (sorted) keys are dense enough, else a
+			 * <code>lookupswitch</code>.
+			 */
+			private void emit_int_switch(Label dflt, int[] keys, Label[] labels) {
+				int n = keys.length;
+				long range = n == 0 ? 0 : (long) keys[n - 1] - keys[0] + 1;
+
+				if (n > 2 && range <= 2L * n) {
+					Label[] table = new Label[(int) range];
+					Arrays.fill(table, dflt);
+					for (int i = 0; i < n; i++) {
+						table[keys[i] - keys[0]] = labels[i];
+					}
+					mv.visitTableSwitchInsn(keys[0], keys[n - 1], dflt, table);
+				} else {
+					mv.visitLookupSwitchInsn(dflt, keys, labels);
+				}
 			}
 
 			/**
@@ -2514,7 +2656,7 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 					casts[i] = cases[i].cast_label;
 				}
 
-				mv.visitLookupSwitchInsn(getLabel(failLabel), values, casts);
+				emit_int_switch(getLabel(failLabel), values, casts);
 				for (int i = 0; i < cases.length; i++) {
 					mv.visitLabel(cases[i].cast_label);
 					
@@ -2573,8 +2715,11 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 						String funTypeName = EFUN_NAME + args.length;
 						EFun.ensure(args.length);
 						mv.visitFieldInsn(GETSTATIC, self_type
-								.getInternalName(), field, "L" + funTypeName
-								+ ";");
+								.getInternalName(), field, ECALLSITE_TYPE
+								.getDescriptor());
+						mv.visitFieldInsn(GETFIELD, ECALLSITE_TYPE
+								.getInternalName(), "target", EFUN_DESCRIPTOR);
+						mv.visitTypeInsn(CHECKCAST, funTypeName);
 						mv.visitVarInsn(ALOAD, 0);
 						for (int i = 0; i < args.length; i++) {
 							push(args[i], EOBJECT_TYPE);
@@ -2641,6 +2786,8 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 						mv.visitMethodInsn(INVOKEVIRTUAL, EPROC_NAME,
 								"check_exit", "()V");
 
+						count_reds();
+
 						// System.out.println("self-recursive in " + fun);
 						mv.visitJumpInsn(GOTO,
 								getLabel(ASMFunctionAdapter.this.startLabel));
@@ -2697,6 +2844,7 @@ public class CompilerVisitor implements ModuleVisitor, Opcodes {
 	final static Method IS_INTEGER_TEST = Method
 			.getMethod("erjang.EInteger testInteger()");
 	final static Method IS_ATOM_TEST = Method.getMethod("erjang.EAtom testAtom()");
+	final static Method IS_SMALL_TEST = Method.getMethod("erjang.ESmall testSmall()");
 	final static Method IS_FLOAT_TEST = Method
 			.getMethod("erjang.EDouble testFloat()");
 	final static Method IS_NIL_TEST = Method.getMethod("erjang.ENil testNil()");
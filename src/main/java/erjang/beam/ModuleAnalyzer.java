@@ -1,7 +1,9 @@
 package erjang.beam;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
@@ -75,6 +77,31 @@ public class ModuleAnalyzer implements ModuleVisitor {
 		return effect;
 	}
 
+	/**
+	 * Functions that can reach themselves through local calls must be
+	 * pausable, so that they can yield when their reductions run out.
+	 */
+	void mark_loops() {
+		for (FunInfo fi : result.values()) {
+			if (!fi.is_pausable && calls_itself(fi)) {
+				fi.is_pausable = true;
+			}
+		}
+	}
+
+	private static boolean calls_itself(FunInfo fi) {
+		Set<FunInfo> seen = new HashSet<FunInfo>();
+		List<FunInfo> work = new ArrayList<FunInfo>(fi.callers);
+		while (!work.isEmpty()) {
+			FunInfo caller = work.remove(work.size() - 1);
+			if (caller == fi)
+				return true;
+			if (seen.add(caller))
+				work.addAll(caller.callers);
+		}
+		return false;
+	}
+
 	FunInfo get(Label label) {
 		FunInfo fi = result.get(label);
 		if (fi == null) {
@@ -99,6 +126,7 @@ public class ModuleAnalyzer implements ModuleVisitor {
 
 	@Override
 	public void visitEnd() {
+		mark_loops();
 		propagate();
 
 		if (ERT.DEBUG2) {
@@ -871,6 +871,14 @@ public class BeamTypeAnalysis extends ModuleAdapter {
 						break;
 					}
 
+					case recv_mark:
+					case recv_set: {
+						// the label only identifies the receive; it is not a branch
+						Insn.L insn = (Insn.L) insn_;
+						vis.visitInsn(opcode, insn.label.nr, null);
+						break;
+					}
+
 					case wait_timeout: {
 						Insn.LS insn = (Insn.LS) insn_;
 						vis.visitInsn(opcode,
@@ -1690,7 +1698,9 @@ public class BeamTypeAnalysis extends ModuleAdapter {
 						continue next_insn;
 
 					case loop_rec_end:
-					case timeout: {
+					case timeout:
+					case recv_mark:
+					case recv_set: {
 						// System.err.println(insn);
 						continue next_insn;
 					}
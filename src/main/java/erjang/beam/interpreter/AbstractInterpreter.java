@@ -21,6 +21,8 @@ package erjang.beam.interpreter;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.concurrent.atomic.AtomicIntegerFieldUpdater;
+import java.net.URL;
 
 import erjang.EModule;
 import erjang.EModuleManager;
@@ -49,6 +51,8 @@ import erjang.beam.repr.FunctionInfo;
 import kilim.Pausable;
 
 public class AbstractInterpreter {
+	static final boolean DEBUG = false;
+
 	public static abstract class Encoder implements ModuleVisitor {
 		private EAtom moduleName;
 		final HashMap<Integer,Insn> insn_start = new HashMap<Integer,Insn>();
@@ -64,7 +68,7 @@ public class AbstractInterpreter {
 		final ArrayList<FunctionInfo>	raw_exports = new ArrayList<FunctionInfo>();
 
 		public void visitModule(EAtom name) {
-			System.err.println("Interpreter.Encoder| doing module "+name);
+			if (DEBUG) System.err.println("Interpreter.Encoder| doing module "+name);
 			this.moduleName = name;
 		}
 
@@ -75,13 +79,12 @@ public class AbstractInterpreter {
 		public void visitAttribute(EAtom att, EObject value) {}
 
 		public void visitEnd() {
-			System.err.println("Interpreter code for module '"+moduleName+"':");
-
 			for (Backpatch bp : backpatches) {
 				bp.patch(label_map.get(bp.label));
 			}
 
-			for (int i=0; i<code.size(); i++) {
+			if (DEBUG) System.err.println("Interpreter code for module '"+moduleName+"':");
+			if (DEBUG) for (int i=0; i<code.size(); i++) {
 				Insn insn = insn_start.get(i);
 				System.err.println((insn!=null? "*" : " ") + i +
 								   ": " + code.get(i) +
@@ -95,7 +98,7 @@ public class AbstractInterpreter {
 			ValueJumpTable[] valueJumpTableArray = value_jump_tables.toArray(new ValueJumpTable[value_jump_tables.size()]);
 			ArityJumpTable[] arityJumpTableArray = arity_jump_tables.toArray(new ArityJumpTable[arity_jump_tables.size()]);
 			List<FunIDWithEntry> exports = convertExports(raw_exports);
-			System.err.println("INT| Constructing module for "+moduleName.getName());
+			if (DEBUG) System.err.println("INT| Constructing module for "+moduleName.getName());
 			return makeModule(moduleName.getName(),
 							  codeArray, constArray,
 							  valueJumpTableArray, arityJumpTableArray,
@@ -228,13 +231,22 @@ public class AbstractInterpreter {
 	}
 
     public static abstract class Module extends EModule {
+		private static final AtomicIntegerFieldUpdater<Module> HOT =
+			AtomicIntegerFieldUpdater.newUpdater(Module.class, "hot");
+
 		final protected String name;
         final protected ClassLoader module_class_loader;
 
+		/** calls into this module; updated without synchronization, so approximate */
+		protected int calls;
+		private int hot_threshold = Integer.MAX_VALUE;
+		private Runnable on_hot;
+		private volatile int hot;
+
 		protected Module(String name, boolean delay_setup) {
 			super(delay_setup);
 			this.name = name;
-			this.module_class_loader = new EModuleClassLoader(null);
+			this.module_class_loader = new EModuleClassLoader((URL) null);
 		}
 
         public ClassLoader getModuleClassLoader() {
@@ -245,6 +257,28 @@ public class AbstractInterpreter {
 			return name;
 		}
 
+		/**
+		 * Run action (once) when this module has been called threshold
+		 * times.  Used for tiered loading, to compile hot modules.
+		 */
+		public void on_hot(int threshold, Runnable action) {
+			this.on_hot = action;
+			this.hot_threshold = threshold;
+		}
+
+		protected final void count_call() {
+			if (++calls >= hot_threshold && HOT.compareAndSet(this, 0, 1)) {
+				on_hot.run();
+			}
+		}
+
+		/** @return the number of calls into this module so far */
+		public int calls() {
+			return calls;
+		}
+
+		/** @return calls per exported function, most called first */
+		public abstract List<String> hot_functions(int max);
 	}
 
 	//---------- Utility functions for interpreter: --------------------
@@ -0,0 +1,5072 @@
+/** -*- mode:java; tab-width: 4 -*-
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.beam.interpreter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+import erjang.EModule;
+import erjang.EModuleManager;
+import erjang.EFun;
+import erjang.EFunHandler;
+import erjang.FunID;
+
+import erjang.ERT;
+import erjang.EProc;
+
+import erjang.EObject;
+import erjang.EAtom;
+import erjang.ESmall;
+import erjang.ESeq;
+import erjang.ECons;
+import erjang.ETuple;
+import erjang.EBinary;
+import erjang.EBitString;
+
+import erjang.EBinMatchState;
+import erjang.ErlangException;
+
+import erjang.beam.BeamFileData;
+import erjang.beam.FunctionVisitor;
+import erjang.beam.BlockVisitor;
+import erjang.beam.BIFUtil;
+import erjang.beam.BuiltInFunction;
+
+import erjang.beam.repr.Insn;
+import erjang.beam.repr.Operands;
+import erjang.beam.repr.ExtFun;
+
+import kilim.Pausable;
+
+public class Interpreter extends AbstractInterpreter {
+	public static final short K_return = 0;
+	public static final short send = 100;
+	public static final short remove_message = 200;
+	public static final short if_end = 400;
+	public static final short func_info_1c_2c_3I = 500;
+	public static final short badmatch_1c = 600;
+	public static final short badmatch_1x = 601;
+	public static final short badmatch_1y = 602;
+	public static final short case_end_1c = 700;
+	public static final short case_end_1x = 701;
+	public static final short case_end_1y = 702;
+	public static final short try_case_end_1c = 800;
+	public static final short try_case_end_1x = 801;
+	public static final short try_case_end_1y = 802;
+	public static final short allocate_1I = 900;
+	public static final short deallocate_1I = 1000;
+	public static final short allocate_zero_1I = 1100;
+	public static final short allocate_heap_1I = 1200;
+	public static final short allocate_heap_zero_1I = 1300;
+	public static final short init_1x = 1500;
+	public static final short init_1y = 1501;
+	public static final short trim_1I = 1600;
+	public static final short move_1c_2x = 1700;
+	public static final short move_1c_2y = 1701;
+	public static final short move_1x_2x = 1702;
+	public static final short move_1x_2y = 1703;
+	public static final short move_1y_2x = 1704;
+	public static final short move_1y_2y = 1705;
+	public static final short put_list_1c_2c_3x = 1800;
+	public static final short put_list_1c_2c_3y = 1801;
+	public static final short put_list_1c_2x_3x = 1802;
+	public static final short put_list_1c_2x_3y = 1803;
+	public static final short put_list_1c_2y_3x = 1804;
+	public static final short put_list_1c_2y_3y = 1805;
+	public static final short put_list_1x_2c_3x = 1806;
+	public static final short put_list_1x_2c_3y = 1807;
+	public static final short put_list_1x_2x_3x = 1808;
+	public static final short put_list_1x_2x_3y = 1809;
+	public static final short put_list_1x_2y_3x = 1810;
+	public static final short put_list_1x_2y_3y = 1811;
+	public static final short put_list_1y_2c_3x = 1812;
+	public static final short put_list_1y_2c_3y = 1813;
+	public static final short put_list_1y_2x_3x = 1814;
+	public static final short put_list_1y_2x_3y = 1815;
+	public static final short put_list_1y_2y_3x = 1816;
+	public static final short put_list_1y_2y_3y = 1817;
+	public static final short get_list_1c_2x_3x = 1900;
+	public static final short get_list_1c_2x_3y = 1901;
+	public static final short get_list_1c_2y_3x = 1902;
+	public static final short get_list_1c_2y_3y = 1903;
+	public static final short get_list_1x_2x_3x = 1904;
+	public static final short get_list_1x_2x_3y = 1905;
+	public static final short get_list_1x_2y_3x = 1906;
+	public static final short get_list_1x_2y_3y = 1907;
+	public static final short get_list_1y_2x_3x = 1908;
+	public static final short get_list_1y_2x_3y = 1909;
+	public static final short get_list_1y_2y_3x = 1910;
+	public static final short get_list_1y_2y_3y = 1911;
+	public static final short get_tuple_element_1c_2I_3x = 2000;
+	public static final short get_tuple_element_1c_2I_3y = 2001;
+	public static final short get_tuple_element_1x_2I_3x = 2002;
+	public static final short get_tuple_element_1x_2I_3y = 2003;
+	public static final short get_tuple_element_1y_2I_3x = 2004;
+	public static final short get_tuple_element_1y_2I_3y = 2005;
+	public static final short put_tuple_1I_2x = 2100;
+	public static final short put_tuple_1I_2y = 2101;
+	public static final short put_1c = 2200;
+	public static final short put_1x = 2201;
+	public static final short put_1y = 2202;
+	public static final short set_tuple_element_2x_3I_1c = 2300;
+	public static final short set_tuple_element_2x_3I_1x = 2301;
+	public static final short set_tuple_element_2x_3I_1y = 2302;
+	public static final short set_tuple_element_2y_3I_1c = 2303;
+	public static final short set_tuple_element_2y_3I_1x = 2304;
+	public static final short set_tuple_element_2y_3I_1y = 2305;
+	public static final short jump_1L = 2400;
+	public static final short is_integer_2x_1L = 2500;
+	public static final short is_integer_2y_1L = 2501;
+	public static final short is_float_2x_1L = 2600;
+	public static final short is_float_2y_1L = 2601;
+	public static final short is_number_2x_1L = 2700;
+	public static final short is_number_2y_1L = 2701;
+	public static final short is_atom_2x_1L = 2800;
+	public static final short is_atom_2y_1L = 2801;
+	public static final short is_pid_2x_1L = 2900;
+	public static final short is_pid_2y_1L = 2901;
+	public static final short is_reference_2x_1L = 3000;
+	public static final short is_reference_2y_1L = 3001;
+	public static final short is_port_2x_1L = 3100;
+	public static final short is_port_2y_1L = 3101;
+	public static final short is_nil_2x_1L = 3200;
+	public static final short is_nil_2y_1L = 3201;
+	public static final short is_binary_2x_1L = 3300;
+	public static final short is_binary_2y_1L = 3301;
+	public static final short is_list_2x_1L = 3400;
+	public static final short is_list_2y_1L = 3401;
+	public static final short is_nonempty_list_2x_1L = 3500;
+	public static final short is_nonempty_list_2y_1L = 3501;
+	public static final short is_tuple_2x_1L = 3600;
+	public static final short is_tuple_2y_1L = 3601;
+	public static final short is_function_2x_1L = 3700;
+	public static final short is_function_2y_1L = 3701;
+	public static final short is_boolean_2x_1L = 3800;
+	public static final short is_boolean_2y_1L = 3801;
+	public static final short is_bitstr_2x_1L = 3900;
+	public static final short is_bitstr_2y_1L = 3901;
+	public static final short test_arity_2x_3I_1L = 4000;
+	public static final short test_arity_2y_3I_1L = 4001;
+	public static final short is_eq_exact_2c_3c_1L = 4100;
+	public static final short is_eq_exact_2c_3x_1L = 4101;
+	public static final short is_eq_exact_2c_3y_1L = 4102;
+	public static final short is_eq_exact_2x_3c_1L = 4103;
+	public static final short is_eq_exact_2x_3x_1L = 4104;
+	public static final short is_eq_exact_2x_3y_1L = 4105;
+	public static final short is_eq_exact_2y_3c_1L = 4106;
+	public static final short is_eq_exact_2y_3x_1L = 4107;
+	public static final short is_eq_exact_2y_3y_1L = 4108;
+	public static final short is_ne_exact_2c_3c_1L = 4200;
+	public static final short is_ne_exact_2c_3x_1L = 4201;
+	public static final short is_ne_exact_2c_3y_1L = 4202;
+	public static final short is_ne_exact_2x_3c_1L = 4203;
+	public static final short is_ne_exact_2x_3x_1L = 4204;
+	public static final short is_ne_exact_2x_3y_1L = 4205;
+	public static final short is_ne_exact_2y_3c_1L = 4206;
+	public static final short is_ne_exact_2y_3x_1L = 4207;
+	public static final short is_ne_exact_2y_3y_1L = 4208;
+	public static final short is_eq_2c_3c_1L = 4300;
+	public static final short is_eq_2c_3x_1L = 4301;
+	public static final short is_eq_2c_3y_1L = 4302;
+	public static final short is_eq_2x_3c_1L = 4303;
+	public static final short is_eq_2x_3x_1L = 4304;
+	public static final short is_eq_2x_3y_1L = 4305;
+	public static final short is_eq_2y_3c_1L = 4306;
+	public static final short is_eq_2y_3x_1L = 4307;
+	public static final short is_eq_2y_3y_1L = 4308;
+	public static final short is_ne_2c_3c_1L = 4400;
+	public static final short is_ne_2c_3x_1L = 4401;
+	public static final short is_ne_2c_3y_1L = 4402;
+	public static final short is_ne_2x_3c_1L = 4403;
+	public static final short is_ne_2x_3x_1L = 4404;
+	public static final short is_ne_2x_3y_1L = 4405;
+	public static final short is_ne_2y_3c_1L = 4406;
+	public static final short is_ne_2y_3x_1L = 4407;
+	public static final short is_ne_2y_3y_1L = 4408;
+	public static final short is_lt_2c_3c_1L = 4500;
+	public static final short is_lt_2c_3x_1L = 4501;
+	public static final short is_lt_2c_3y_1L = 4502;
+	public static final short is_lt_2x_3c_1L = 4503;
+	public static final short is_lt_2x_3x_1L = 4504;
+	public static final short is_lt_2x_3y_1L = 4505;
+	public static final short is_lt_2y_3c_1L = 4506;
+	public static final short is_lt_2y_3x_1L = 4507;
+	public static final short is_lt_2y_3y_1L = 4508;
+	public static final short is_ge_2c_3c_1L = 4600;
+	public static final short is_ge_2c_3x_1L = 4601;
+	public static final short is_ge_2c_3y_1L = 4602;
+	public static final short is_ge_2x_3c_1L = 4603;
+	public static final short is_ge_2x_3x_1L = 4604;
+	public static final short is_ge_2x_3y_1L = 4605;
+	public static final short is_ge_2y_3c_1L = 4606;
+	public static final short is_ge_2y_3x_1L = 4607;
+	public static final short is_ge_2y_3y_1L = 4608;
+	public static final short select_val_1c_3L_2JV = 4700;
+	public static final short select_val_1x_3L_2JV = 4701;
+	public static final short select_val_1y_3L_2JV = 4702;
+	public static final short select_tuple_arity_1c_3L_2JA = 4800;
+	public static final short select_tuple_arity_1x_3L_2JA = 4801;
+	public static final short select_tuple_arity_1y_3L_2JA = 4802;
+	public static final short call_only_2L = 4900;
+	public static final short call_1I_2L = 5000;
+	public static final short call_ext_2E = 5100;
+	public static final short call_ext_only_2E = 5200;
+	public static final short call_ext_last_3I_2E = 5300;
+	public static final short apply_1I = 5400;
+	public static final short call_fun_1I = 5500;
+	public static final short apply_last_2I_1I = 5600;
+	public static final short call_last_3I_2L = 5700;
+	public static final short make_fun2_2I_1I_3IL = 5800;
+	public static final short bif0_1E_2x_3L = 5900;
+	public static final short bif0_1E_2x_2nolabel = 5901;
+	public static final short bif0_1E_2y_3L = 5902;
+	public static final short bif0_1E_2y_2nolabel = 5903;
+	public static final short bif1_1E_2c_3x_4L = 6000;
+	public static final short bif1_1E_2c_3x_3nolabel = 6001;
+	public static final short bif1_1E_2c_3y_4L = 6002;
+	public static final short bif1_1E_2c_3y_3nolabel = 6003;
+	public static final short bif1_1E_2x_3x_4L = 6004;
+	public static final short bif1_1E_2x_3x_3nolabel = 6005;
+	public static final short bif1_1E_2x_3y_4L = 6006;
+	public static final short bif1_1E_2x_3y_3nolabel = 6007;
+	public static final short bif1_1E_2y_3x_4L = 6008;
+	public static final short bif1_1E_2y_3x_3nolabel = 6009;
+	public static final short bif1_1E_2y_3y_4L = 6010;
+	public static final short bif1_1E_2y_3y_3nolabel = 6011;
+	public static final short bif2_1E_2c_3c_4x_5L = 6100;
+	public static final short bif2_1E_2c_3c_4x_4nolabel = 6101;
+	public static final short bif2_1E_2c_3c_4y_5L = 6102;
+	public static final short bif2_1E_2c_3c_4y_4nolabel = 6103;
+	public static final short bif2_1E_2c_3x_4x_5L = 6104;
+	public static final short bif2_1E_2c_3x_4x_4nolabel = 6105;
+	public static final short bif2_1E_2c_3x_4y_5L = 6106;
+	public static final short bif2_1E_2c_3x_4y_4nolabel = 6107;
+	public static final short bif2_1E_2c_3y_4x_5L = 6108;
+	public static final short bif2_1E_2c_3y_4x_4nolabel = 6109;
+	public static final short bif2_1E_2c_3y_4y_5L = 6110;
+	public static final short bif2_1E_2c_3y_4y_4nolabel = 6111;
+	public static final short bif2_1E_2x_3c_4x_5L = 6112;
+	public static final short bif2_1E_2x_3c_4x_4nolabel = 6113;
+	public static final short bif2_1E_2x_3c_4y_5L = 6114;
+	public static final short bif2_1E_2x_3c_4y_4nolabel = 6115;
+	public static final short bif2_1E_2x_3x_4x_5L = 6116;
+	public static final short bif2_1E_2x_3x_4x_4nolabel = 6117;
+	public static final short bif2_1E_2x_3x_4y_5L = 6118;
+	public static final short bif2_1E_2x_3x_4y_4nolabel = 6119;
+	public static final short bif2_1E_2x_3y_4x_5L = 6120;
+	public static final short bif2_1E_2x_3y_4x_4nolabel = 6121;
+	public static final short bif2_1E_2x_3y_4y_5L = 6122;
+	public static final short bif2_1E_2x_3y_4y_4nolabel = 6123;
+	public static final short bif2_1E_2y_3c_4x_5L = 6124;
+	public static final short bif2_1E_2y_3c_4x_4nolabel = 6125;
+	public static final short bif2_1E_2y_3c_4y_5L = 6126;
+	public static final short bif2_1E_2y_3c_4y_4nolabel = 6127;
+	public static final short bif2_1E_2y_3x_4x_5L = 6128;
+	public static final short bif2_1E_2y_3x_4x_4nolabel = 6129;
+	public static final short bif2_1E_2y_3x_4y_5L = 6130;
+	public static final short bif2_1E_2y_3x_4y_4nolabel = 6131;
+	public static final short bif2_1E_2y_3y_4x_5L = 6132;
+	public static final short bif2_1E_2y_3y_4x_4nolabel = 6133;
+	public static final short bif2_1E_2y_3y_4y_5L = 6134;
+	public static final short bif2_1E_2y_3y_4y_4nolabel = 6135;
+	public static final short gc_bif1_1E_2c_3x_4L = 6200;
+	public static final short gc_bif1_1E_2c_3y_4L = 6201;
+	public static final short gc_bif1_1E_2x_3x_4L = 6202;
+	public static final short gc_bif1_1E_2x_3y_4L = 6203;
+	public static final short gc_bif1_1E_2y_3x_4L = 6204;
+	public static final short gc_bif1_1E_2y_3y_4L = 6205;
+	public static final short gc_bif2_1E_2c_3c_4x_5L = 6300;
+	public static final short gc_bif2_1E_2c_3c_4y_5L = 6301;
+	public static final short gc_bif2_1E_2c_3x_4x_5L = 6302;
+	public static final short gc_bif2_1E_2c_3x_4y_5L = 6303;
+	public static final short gc_bif2_1E_2c_3y_4x_5L = 6304;
+	public static final short gc_bif2_1E_2c_3y_4y_5L = 6305;
+	public static final short gc_bif2_1E_2x_3c_4x_5L = 6306;
+	public static final short gc_bif2_1E_2x_3c_4y_5L = 6307;
+	public static final short gc_bif2_1E_2x_3x_4x_5L = 6308;
+	public static final short gc_bif2_1E_2x_3x_4y_5L = 6309;
+	public static final short gc_bif2_1E_2x_3y_4x_5L = 6310;
+	public static final short gc_bif2_1E_2x_3y_4y_5L = 6311;
+	public static final short gc_bif2_1E_2y_3c_4x_5L = 6312;
+	public static final short gc_bif2_1E_2y_3c_4y_5L = 6313;
+	public static final short gc_bif2_1E_2y_3x_4x_5L = 6314;
+	public static final short gc_bif2_1E_2y_3x_4y_5L = 6315;
+	public static final short gc_bif2_1E_2y_3y_4x_5L = 6316;
+	public static final short gc_bif2_1E_2y_3y_4y_5L = 6317;
+	public static final short loop_rec_2x_1L = 6400;
+	public static final short loop_rec_2y_1L = 6401;
+	public static final short wait_1L = 6500;
+	public static final short loop_rec_end_1L = 6600;
+	public static final short recv_mark_1L = 6700;
+	public static final short recv_set_1L = 6800;
+	public static final short wait_timeout_2c_1L = 6900;
+	public static final short wait_timeout_2x_1L = 6901;
+	public static final short wait_timeout_2y_1L = 6902;
+	public static final short timeout = 7000;
+	public static final short bs_start_match2_2x_4I_5x_1L = 7100;
+	public static final short bs_start_match2_2x_4I_5y_1L = 7101;
+	public static final short bs_start_match2_2y_4I_5x_1L = 7102;
+	public static final short bs_start_match2_2y_4I_5y_1L = 7103;
+	public static final short bs_match_string_2x_3c_1L = 7200;
+	public static final short bs_match_string_2y_3c_1L = 7201;
+	public static final short bs_get_integer2_2x_4c_6I_7x_1L = 7300;
+	public static final short bs_get_integer2_2x_4c_6I_7y_1L = 7301;
+	public static final short bs_get_integer2_2x_4x_6I_7x_1L = 7302;
+	public static final short bs_get_integer2_2x_4x_6I_7y_1L = 7303;
+	public static final short bs_get_integer2_2x_4y_6I_7x_1L = 7304;
+	public static final short bs_get_integer2_2x_4y_6I_7y_1L = 7305;
+	public static final short bs_get_integer2_2y_4c_6I_7x_1L = 7306;
+	public static final short bs_get_integer2_2y_4c_6I_7y_1L = 7307;
+	public static final short bs_get_integer2_2y_4x_6I_7x_1L = 7308;
+	public static final short bs_get_integer2_2y_4x_6I_7y_1L = 7309;
+	public static final short bs_get_integer2_2y_4y_6I_7x_1L = 7310;
+	public static final short bs_get_integer2_2y_4y_6I_7y_1L = 7311;
+	public static final short bs_test_tail2_2x_3I_1L = 7400;
+	public static final short bs_test_tail2_2y_3I_1L = 7401;
+	public static final short K_catch_2L_1y = 7500;
+	public static final short K_try_2L_1y = 7600;
+	public static final short catch_end_1y = 7700;
+	public static final short try_end_1y = 7800;
+	public static final short try_case = 7900;
+	public static final short raise_1c_2c = 8000;
+	public static final short raise_1c_2x = 8001;
+	public static final short raise_1c_2y = 8002;
+	public static final short raise_1x_2c = 8003;
+	public static final short raise_1x_2x = 8004;
+	public static final short raise_1x_2y = 8005;
+	public static final short raise_1y_2c = 8006;
+	public static final short raise_1y_2x = 8007;
+	public static final short raise_1y_2y = 8008;
+	public static final short MAX_OPCODE = 8100;
+
+	public static final short ENSURE_REG_CAPACITY = MAX_OPCODE + 1;
+
+	public static EModule beamFileToEModule(BeamFileData bfd) {
+		Encoder encoder = new Encoder();
+		bfd.accept(encoder);
+		return encoder.toEModule();
+	}
+
+	public static class Encoder extends AbstractInterpreter.Encoder {
+
+		protected EModule makeModule(String name,
+									 short[] code, EObject[] consts,
+									 ValueJumpTable[] value_jump_tables,
+									 ArityJumpTable[] arity_jump_tables,
+									 List<FunIDWithEntry> exports, List<FunID> imports)
+		{
+			return new Module(name, code, consts,
+							  value_jump_tables, arity_jump_tables,
+							  exports, imports);
+		}
+
+		public FunctionVisitor visitFunction(EAtom name, int arity, int startLabel) {
+			return new FunctionEncoder(name, arity, startLabel);
+		}
+
+		//--------------------------------------------------
+
+		class FunctionEncoder implements FunctionVisitor, BlockVisitor {
+			final EAtom name;
+			final int arity;
+			final int startLabel;
+			private int tuple_pos;
+
+			public FunctionEncoder(EAtom name, int arity, int startLabel) {
+				this.name = name;
+				this.arity = arity;
+				this.startLabel = startLabel;
+			}
+
+			/** Common for FunctionVisitor and BlockVisitor... */
+			public void visitEnd() {}
+
+			public BlockVisitor visitLabeledBlock(int label) {
+				registerLabel(label);
+				return this;
+			}
+
+			public void visitInsn(Insn insn) {
+				int opcode_pos = codePos();
+				emit(-12345); // Place holder.
+				insn_start.put(opcode_pos, insn);
+
+				//System.err.println("@ "+opcode_pos+": "+insn.toSymbolic());
+				switch (insn.opcode()) {
+case K_return: {
+	Insn typed_insn = (Insn) insn;
+	emitAt(opcode_pos, K_return);
+
+} break;
+case send: {
+	Insn typed_insn = (Insn) insn;
+	emitAt(opcode_pos, send);
+
+} break;
+case remove_message: {
+	Insn typed_insn = (Insn) insn;
+	emitAt(opcode_pos, remove_message);
+
+} break;
+case int_code_end: {
+	Insn typed_insn = (Insn) insn;
+	nop(opcode_pos);
+} break;
+case if_end: {
+	Insn typed_insn = (Insn) insn;
+	emitAt(opcode_pos, if_end);
+
+} break;
+case func_info: {
+	Insn.AAI typed_insn = (Insn.AAI) insn;
+	/*Nonprim: c*/if (typed_insn.a1 instanceof Operands.Literal) {
+		Operands.Literal typed_mod = (Operands.Literal)typed_insn.a1;
+		emit(encodeLiteral(typed_mod));
+		/*Nonprim: c*/if (typed_insn.a2 instanceof Operands.Literal) {
+			Operands.Literal typed_fun = (Operands.Literal)typed_insn.a2;
+			emit(encodeLiteral(typed_fun));
+			/*Prim: I*/	int typed_arity = (int)typed_insn.i3;
+				emit(typed_arity);
+				emitAt(opcode_pos, func_info_1c_2c_3I);
+			// throw new Error("Unrecognized operand: "+typed_insn.i3);
+		} else throw new Error("Unrecognized operand: "+typed_insn.a2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.a1);
+
+} break;
+case badmatch: {
+	Insn.S typed_insn = (Insn.S) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		emitAt(opcode_pos, badmatch_1c);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		emitAt(opcode_pos, badmatch_1x);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		emitAt(opcode_pos, badmatch_1y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case case_end: {
+	Insn.S typed_insn = (Insn.S) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		emitAt(opcode_pos, case_end_1c);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		emitAt(opcode_pos, case_end_1x);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		emitAt(opcode_pos, case_end_1y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case try_case_end: {
+	Insn.S typed_insn = (Insn.S) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		emitAt(opcode_pos, try_case_end_1c);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		emitAt(opcode_pos, try_case_end_1x);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		emitAt(opcode_pos, try_case_end_1y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case allocate: {
+	Insn.I typed_insn = (Insn.I) insn;
+	/*Prim: I*/	int typed_slots = (int)typed_insn.i1;
+		emit(typed_slots);
+		emitAt(opcode_pos, allocate_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case deallocate: {
+	Insn.I typed_insn = (Insn.I) insn;
+	/*Prim: I*/	int typed_slots = (int)typed_insn.i1;
+		emit(typed_slots);
+		emitAt(opcode_pos, deallocate_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case allocate_zero: {
+	Insn.II typed_insn = (Insn.II) insn;
+	/*Prim: I*/	int typed_slots = (int)typed_insn.i1;
+		emit(typed_slots);
+		emitAt(opcode_pos, allocate_zero_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case allocate_heap: {
+	Insn.IWI typed_insn = (Insn.IWI) insn;
+	/*Prim: I*/	int typed_stacksize = (int)typed_insn.i1;
+		emit(typed_stacksize);
+		emitAt(opcode_pos, allocate_heap_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case allocate_heap_zero: {
+	Insn.IWI typed_insn = (Insn.IWI) insn;
+	/*Prim: I*/	int typed_stacksize = (int)typed_insn.i1;
+		emit(typed_stacksize);
+		emitAt(opcode_pos, allocate_heap_zero_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case test_heap: {
+	Insn.WI typed_insn = (Insn.WI) insn;
+	nop(opcode_pos);
+} break;
+case init: {
+	Insn.D typed_insn = (Insn.D) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+		emit(typed_dest.nr);
+		emitAt(opcode_pos, init_1x);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+		emit(typed_dest.nr);
+		emitAt(opcode_pos, init_1y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case trim: {
+	Insn.II typed_insn = (Insn.II) insn;
+	/*Prim: I*/	int typed_amount = (int)typed_insn.i1;
+		emit(typed_amount);
+		emitAt(opcode_pos, trim_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case move: {
+	Insn.SD typed_insn = (Insn.SD) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+			Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, move_1c_2x);
+		} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+			Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, move_1c_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+			Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, move_1x_2x);
+		} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+			Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, move_1x_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+			Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, move_1y_2x);
+		} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+			Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, move_1y_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case put_list: {
+	Insn.SSD typed_insn = (Insn.SSD) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_h = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_h));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_t = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_t));
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1c_2c_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1c_2c_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_t = (Operands.XReg)typed_insn.src2;
+			emit(typed_t.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1c_2x_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1c_2x_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_t = (Operands.YReg)typed_insn.src2;
+			emit(typed_t.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1c_2y_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1c_2y_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_h = (Operands.XReg)typed_insn.src1;
+		emit(typed_h.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_t = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_t));
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1x_2c_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1x_2c_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_t = (Operands.XReg)typed_insn.src2;
+			emit(typed_t.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1x_2x_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1x_2x_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_t = (Operands.YReg)typed_insn.src2;
+			emit(typed_t.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1x_2y_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1x_2y_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_h = (Operands.YReg)typed_insn.src1;
+		emit(typed_h.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_t = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_t));
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1y_2c_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1y_2c_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_t = (Operands.XReg)typed_insn.src2;
+			emit(typed_t.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1y_2x_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1y_2x_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_t = (Operands.YReg)typed_insn.src2;
+			emit(typed_t.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1y_2y_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, put_list_1y_2y_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case get_list: {
+	Insn.SDD typed_insn = (Insn.SDD) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		/*Nonprim: x*/if (typed_insn.dest1 instanceof Operands.XReg) {
+			Operands.XReg typed_h = (Operands.XReg)typed_insn.dest1;
+			emit(typed_h.nr);
+			/*Nonprim: x*/if (typed_insn.dest2 instanceof Operands.XReg) {
+				Operands.XReg typed_t = (Operands.XReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1c_2x_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest2 instanceof Operands.YReg) {
+				Operands.YReg typed_t = (Operands.YReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1c_2x_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest2);
+		} else /*Nonprim: y*/if (typed_insn.dest1 instanceof Operands.YReg) {
+			Operands.YReg typed_h = (Operands.YReg)typed_insn.dest1;
+			emit(typed_h.nr);
+			/*Nonprim: x*/if (typed_insn.dest2 instanceof Operands.XReg) {
+				Operands.XReg typed_t = (Operands.XReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1c_2y_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest2 instanceof Operands.YReg) {
+				Operands.YReg typed_t = (Operands.YReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1c_2y_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest2);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest1);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: x*/if (typed_insn.dest1 instanceof Operands.XReg) {
+			Operands.XReg typed_h = (Operands.XReg)typed_insn.dest1;
+			emit(typed_h.nr);
+			/*Nonprim: x*/if (typed_insn.dest2 instanceof Operands.XReg) {
+				Operands.XReg typed_t = (Operands.XReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1x_2x_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest2 instanceof Operands.YReg) {
+				Operands.YReg typed_t = (Operands.YReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1x_2x_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest2);
+		} else /*Nonprim: y*/if (typed_insn.dest1 instanceof Operands.YReg) {
+			Operands.YReg typed_h = (Operands.YReg)typed_insn.dest1;
+			emit(typed_h.nr);
+			/*Nonprim: x*/if (typed_insn.dest2 instanceof Operands.XReg) {
+				Operands.XReg typed_t = (Operands.XReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1x_2y_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest2 instanceof Operands.YReg) {
+				Operands.YReg typed_t = (Operands.YReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1x_2y_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest2);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest1);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: x*/if (typed_insn.dest1 instanceof Operands.XReg) {
+			Operands.XReg typed_h = (Operands.XReg)typed_insn.dest1;
+			emit(typed_h.nr);
+			/*Nonprim: x*/if (typed_insn.dest2 instanceof Operands.XReg) {
+				Operands.XReg typed_t = (Operands.XReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1y_2x_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest2 instanceof Operands.YReg) {
+				Operands.YReg typed_t = (Operands.YReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1y_2x_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest2);
+		} else /*Nonprim: y*/if (typed_insn.dest1 instanceof Operands.YReg) {
+			Operands.YReg typed_h = (Operands.YReg)typed_insn.dest1;
+			emit(typed_h.nr);
+			/*Nonprim: x*/if (typed_insn.dest2 instanceof Operands.XReg) {
+				Operands.XReg typed_t = (Operands.XReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1y_2y_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest2 instanceof Operands.YReg) {
+				Operands.YReg typed_t = (Operands.YReg)typed_insn.dest2;
+				emit(typed_t.nr);
+				emitAt(opcode_pos, get_list_1y_2y_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest2);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest1);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case get_tuple_element: {
+	Insn.SID typed_insn = (Insn.SID) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		/*Prim: I*/	int typed_pos = (int)typed_insn.i;
+			emit(typed_pos);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, get_tuple_element_1c_2I_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, get_tuple_element_1c_2I_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Prim: I*/	int typed_pos = (int)typed_insn.i;
+			emit(typed_pos);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, get_tuple_element_1x_2I_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, get_tuple_element_1x_2I_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Prim: I*/	int typed_pos = (int)typed_insn.i;
+			emit(typed_pos);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, get_tuple_element_1y_2I_3x);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+				emit(typed_dst.nr);
+				emitAt(opcode_pos, get_tuple_element_1y_2I_3y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case put_tuple: {
+	Insn.ID typed_insn = (Insn.ID) insn;
+{tuple_pos=0;}
+	/*Prim: I*/	int typed_size = (int)typed_insn.i1;
+		emit(typed_size);
+		/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+			Operands.XReg typed_dst = (Operands.XReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, put_tuple_1I_2x);
+		} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+			Operands.YReg typed_dst = (Operands.YReg)typed_insn.dest;
+			emit(typed_dst.nr);
+			emitAt(opcode_pos, put_tuple_1I_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case put: {
+	Insn.S typed_insn = (Insn.S) insn;
+emit(++tuple_pos);
+		/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+			Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+			emit(encodeLiteral(typed_src));
+			emitAt(opcode_pos, put_1c);
+		} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+			Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+			emit(typed_src.nr);
+			emitAt(opcode_pos, put_1x);
+		} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+			Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+			emit(typed_src.nr);
+			emitAt(opcode_pos, put_1y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case set_tuple_element: {
+	Insn.SDI typed_insn = (Insn.SDI) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+		emit(typed_dest.nr);
+		/*Prim: I*/	int typed_index = (int)typed_insn.i;
+			emit(typed_index);
+			/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+				Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+				emit(encodeLiteral(typed_src));
+				emitAt(opcode_pos, set_tuple_element_2x_3I_1c);
+			} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+				Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+				emit(typed_src.nr);
+				emitAt(opcode_pos, set_tuple_element_2x_3I_1x);
+			} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+				Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+				emit(typed_src.nr);
+				emitAt(opcode_pos, set_tuple_element_2x_3I_1y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.src);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+		emit(typed_dest.nr);
+		/*Prim: I*/	int typed_index = (int)typed_insn.i;
+			emit(typed_index);
+			/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+				Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+				emit(encodeLiteral(typed_src));
+				emitAt(opcode_pos, set_tuple_element_2y_3I_1c);
+			} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+				Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+				emit(typed_src.nr);
+				emitAt(opcode_pos, set_tuple_element_2y_3I_1x);
+			} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+				Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+				emit(typed_src.nr);
+				emitAt(opcode_pos, set_tuple_element_2y_3I_1y);
+			} else throw new Error("Unrecognized operand: "+typed_insn.src);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case jump: {
+	Insn.L typed_insn = (Insn.L) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_lbl.nr));
+		emitAt(opcode_pos, jump_1L);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case is_integer: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_integer_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_integer_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_float: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_float_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_float_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_number: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_number_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_number_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_atom: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_atom_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_atom_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_pid: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_pid_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_pid_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_reference: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_reference_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_reference_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_port: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_port_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_port_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_nil: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_nil_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_nil_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_binary: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_binary_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_binary_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_list: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_list_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_list_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_nonempty_list: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_nonempty_list_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_nonempty_list_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_tuple: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_tuple_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_tuple_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_function: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_function_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_function_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_boolean: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_boolean_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_boolean_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_bitstr: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_bitstr_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, is_bitstr_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case test_arity: {
+	Insn.LDI typed_insn = (Insn.LDI) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_arg = (Operands.XReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Prim: I*/	int typed_arity = (int)typed_insn.i;
+			emit(typed_arity);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, test_arity_2x_3I_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_arg = (Operands.YReg)typed_insn.dest;
+		emit(typed_arg.nr);
+		/*Prim: I*/	int typed_arity = (int)typed_insn.i;
+			emit(typed_arity);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, test_arity_2y_3I_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case is_eq_exact: {
+	Insn.LSS typed_insn = (Insn.LSS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_a = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_a));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2c_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2c_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2c_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_a = (Operands.XReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2x_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2x_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_a = (Operands.YReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2y_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_exact_2y_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case is_ne_exact: {
+	Insn.LSS typed_insn = (Insn.LSS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_a = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_a));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2c_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2c_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2c_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_a = (Operands.XReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2x_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2x_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_a = (Operands.YReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2y_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_exact_2y_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case is_eq: {
+	Insn.LSS typed_insn = (Insn.LSS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_a = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_a));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2c_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2c_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2c_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_a = (Operands.XReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2x_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2x_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_a = (Operands.YReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2y_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_eq_2y_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case is_ne: {
+	Insn.LSS typed_insn = (Insn.LSS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_a = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_a));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2c_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2c_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2c_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_a = (Operands.XReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2x_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2x_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_a = (Operands.YReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2y_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ne_2y_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case is_lt: {
+	Insn.LSS typed_insn = (Insn.LSS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_a = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_a));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2c_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2c_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2c_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_a = (Operands.XReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2x_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2x_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_a = (Operands.YReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2y_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_lt_2y_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case is_ge: {
+	Insn.LSS typed_insn = (Insn.LSS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_a = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_a));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2c_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2c_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2c_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_a = (Operands.XReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2x_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2x_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_a = (Operands.YReg)typed_insn.src1;
+		emit(typed_a.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_b = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_b));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_b = (Operands.XReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2y_3x_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_b = (Operands.YReg)typed_insn.src2;
+			emit(typed_b.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_lbl.nr));
+				emitAt(opcode_pos, is_ge_2y_3y_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+case select_val: {
+	Insn.Select typed_insn = (Insn.Select) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		/*Nonprim: L*/if (typed_insn.defaultLabel instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.defaultLabel;
+			emit(encodeLabel(typed_lbl.nr));
+			/*Nonprim: JV*/if (typed_insn.jumpTable instanceof Operands.SelectList) {
+				Operands.SelectList typed_table = (Operands.SelectList)typed_insn.jumpTable;
+				emit(encodeValueJumpTable(typed_table));
+				emitAt(opcode_pos, select_val_1c_3L_2JV);
+			} else throw new Error("Unrecognized operand: "+typed_insn.jumpTable);
+		} else throw new Error("Unrecognized operand: "+typed_insn.defaultLabel);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: L*/if (typed_insn.defaultLabel instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.defaultLabel;
+			emit(encodeLabel(typed_lbl.nr));
+			/*Nonprim: JV*/if (typed_insn.jumpTable instanceof Operands.SelectList) {
+				Operands.SelectList typed_table = (Operands.SelectList)typed_insn.jumpTable;
+				emit(encodeValueJumpTable(typed_table));
+				emitAt(opcode_pos, select_val_1x_3L_2JV);
+			} else throw new Error("Unrecognized operand: "+typed_insn.jumpTable);
+		} else throw new Error("Unrecognized operand: "+typed_insn.defaultLabel);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: L*/if (typed_insn.defaultLabel instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.defaultLabel;
+			emit(encodeLabel(typed_lbl.nr));
+			/*Nonprim: JV*/if (typed_insn.jumpTable instanceof Operands.SelectList) {
+				Operands.SelectList typed_table = (Operands.SelectList)typed_insn.jumpTable;
+				emit(encodeValueJumpTable(typed_table));
+				emitAt(opcode_pos, select_val_1y_3L_2JV);
+			} else throw new Error("Unrecognized operand: "+typed_insn.jumpTable);
+		} else throw new Error("Unrecognized operand: "+typed_insn.defaultLabel);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case select_tuple_arity: {
+	Insn.Select typed_insn = (Insn.Select) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_src = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_src));
+		/*Nonprim: L*/if (typed_insn.defaultLabel instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.defaultLabel;
+			emit(encodeLabel(typed_lbl.nr));
+			/*Nonprim: JA*/if (typed_insn.jumpTable instanceof Operands.SelectList) {
+				Operands.SelectList typed_table = (Operands.SelectList)typed_insn.jumpTable;
+				emit(encodeArityJumpTable(typed_table));
+				emitAt(opcode_pos, select_tuple_arity_1c_3L_2JA);
+			} else throw new Error("Unrecognized operand: "+typed_insn.jumpTable);
+		} else throw new Error("Unrecognized operand: "+typed_insn.defaultLabel);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: L*/if (typed_insn.defaultLabel instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.defaultLabel;
+			emit(encodeLabel(typed_lbl.nr));
+			/*Nonprim: JA*/if (typed_insn.jumpTable instanceof Operands.SelectList) {
+				Operands.SelectList typed_table = (Operands.SelectList)typed_insn.jumpTable;
+				emit(encodeArityJumpTable(typed_table));
+				emitAt(opcode_pos, select_tuple_arity_1x_3L_2JA);
+			} else throw new Error("Unrecognized operand: "+typed_insn.jumpTable);
+		} else throw new Error("Unrecognized operand: "+typed_insn.defaultLabel);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.src;
+		emit(typed_src.nr);
+		/*Nonprim: L*/if (typed_insn.defaultLabel instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.defaultLabel;
+			emit(encodeLabel(typed_lbl.nr));
+			/*Nonprim: JA*/if (typed_insn.jumpTable instanceof Operands.SelectList) {
+				Operands.SelectList typed_table = (Operands.SelectList)typed_insn.jumpTable;
+				emit(encodeArityJumpTable(typed_table));
+				emitAt(opcode_pos, select_tuple_arity_1y_3L_2JA);
+			} else throw new Error("Unrecognized operand: "+typed_insn.jumpTable);
+		} else throw new Error("Unrecognized operand: "+typed_insn.defaultLabel);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case call_only: {
+	Insn.IL typed_insn = (Insn.IL) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_lbl.nr));
+		emitAt(opcode_pos, call_only_2L);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case call: {
+	Insn.IL typed_insn = (Insn.IL) insn;
+	/*Prim: I*/	int typed_keep = (int)typed_insn.i1;
+		emit(typed_keep);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, call_1I_2L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case call_ext: {
+	Insn.IE typed_insn = (Insn.IE) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_extfun = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_extfun));
+		emitAt(opcode_pos, call_ext_2E);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case call_ext_only: {
+	Insn.IE typed_insn = (Insn.IE) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_extfun = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_extfun));
+		emitAt(opcode_pos, call_ext_only_2E);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case call_ext_last: {
+	Insn.IEI typed_insn = (Insn.IEI) insn;
+	/*Prim: I*/	int typed_dealloc = (int)typed_insn.i3;
+		emit(typed_dealloc);
+		/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+			ExtFun typed_extfun = (ExtFun)typed_insn.ext_fun;
+			emit(encodeExtFun(typed_extfun));
+			emitAt(opcode_pos, call_ext_last_3I_2E);
+		} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+	// throw new Error("Unrecognized operand: "+typed_insn.i3);
+
+} break;
+case apply: {
+	Insn.I typed_insn = (Insn.I) insn;
+	/*Prim: I*/	int typed_arity = (int)typed_insn.i1;
+		emit(typed_arity);
+		emitAt(opcode_pos, apply_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case call_fun: {
+	Insn.I typed_insn = (Insn.I) insn;
+	/*Prim: I*/	int typed_arity = (int)typed_insn.i1;
+		emit(typed_arity);
+		emitAt(opcode_pos, call_fun_1I);
+	// throw new Error("Unrecognized operand: "+typed_insn.i1);
+
+} break;
+case apply_last: {
+	Insn.II typed_insn = (Insn.II) insn;
+	/*Prim: I*/	int typed_dealloc = (int)typed_insn.i2;
+		emit(typed_dealloc);
+		/*Prim: I*/	int typed_arity = (int)typed_insn.i1;
+			emit(typed_arity);
+			emitAt(opcode_pos, apply_last_2I_1I);
+		// throw new Error("Unrecognized operand: "+typed_insn.i1);
+	// throw new Error("Unrecognized operand: "+typed_insn.i2);
+
+} break;
+case call_last: {
+	Insn.ILI typed_insn = (Insn.ILI) insn;
+	/*Prim: I*/	int typed_dealloc = (int)typed_insn.i3;
+		emit(typed_dealloc);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_lbl.nr));
+			emitAt(opcode_pos, call_last_3I_2L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	// throw new Error("Unrecognized operand: "+typed_insn.i3);
+
+} break;
+case make_fun2: {
+	Insn.F typed_insn = (Insn.F) insn;
+	/*Prim: I*/	int typed_free_vars = (int)typed_insn.anon_fun.free_vars;
+		emit(typed_free_vars);
+		/*Prim: I*/	int typed_total_arity = (int)typed_insn.anon_fun.total_arity;
+			emit(typed_total_arity);
+			/*Prim: IL*/	int typed_label = (int)typed_insn.anon_fun.label;
+				emit(encodeLabel(typed_label));
+				emitAt(opcode_pos, make_fun2_2I_1I_3IL);
+			// throw new Error("Unrecognized operand: "+typed_insn.anon_fun.label);
+		// throw new Error("Unrecognized operand: "+typed_insn.anon_fun.total_arity);
+	// throw new Error("Unrecognized operand: "+typed_insn.anon_fun.free_vars);
+
+} break;
+case bif0: {
+	Insn.Bif typed_insn = (Insn.Bif) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_bif = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_bif));
+		/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+			Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+			emit(typed_dest.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_onFail.nr));
+				emitAt(opcode_pos, bif0_1E_2x_3L);
+			} else if (typed_insn.label == null) {
+				emitAt(opcode_pos, bif0_1E_2x_2nolabel);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+			Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+			emit(typed_dest.nr);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_onFail.nr));
+				emitAt(opcode_pos, bif0_1E_2y_3L);
+			} else if (typed_insn.label == null) {
+				emitAt(opcode_pos, bif0_1E_2y_2nolabel);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case bif1: {
+	Insn.Bif typed_insn = (Insn.Bif) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_bif = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_bif));
+		/*Nonprim: c*/if (typed_insn.args[0] instanceof Operands.Literal) {
+			Operands.Literal typed_arg1 = (Operands.Literal)typed_insn.args[0];
+			emit(encodeLiteral(typed_arg1));
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, bif1_1E_2c_3x_4L);
+				} else if (typed_insn.label == null) {
+					emitAt(opcode_pos, bif1_1E_2c_3x_3nolabel);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, bif1_1E_2c_3y_4L);
+				} else if (typed_insn.label == null) {
+					emitAt(opcode_pos, bif1_1E_2c_3y_3nolabel);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: x*/if (typed_insn.args[0] instanceof Operands.XReg) {
+			Operands.XReg typed_arg1 = (Operands.XReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, bif1_1E_2x_3x_4L);
+				} else if (typed_insn.label == null) {
+					emitAt(opcode_pos, bif1_1E_2x_3x_3nolabel);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, bif1_1E_2x_3y_4L);
+				} else if (typed_insn.label == null) {
+					emitAt(opcode_pos, bif1_1E_2x_3y_3nolabel);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: y*/if (typed_insn.args[0] instanceof Operands.YReg) {
+			Operands.YReg typed_arg1 = (Operands.YReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, bif1_1E_2y_3x_4L);
+				} else if (typed_insn.label == null) {
+					emitAt(opcode_pos, bif1_1E_2y_3x_3nolabel);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, bif1_1E_2y_3y_4L);
+				} else if (typed_insn.label == null) {
+					emitAt(opcode_pos, bif1_1E_2y_3y_3nolabel);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else throw new Error("Unrecognized operand: "+typed_insn.args[0]);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case bif2: {
+	Insn.Bif typed_insn = (Insn.Bif) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_bif = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_bif));
+		/*Nonprim: c*/if (typed_insn.args[0] instanceof Operands.Literal) {
+			Operands.Literal typed_arg1 = (Operands.Literal)typed_insn.args[0];
+			emit(encodeLiteral(typed_arg1));
+			/*Nonprim: c*/if (typed_insn.args[1] instanceof Operands.Literal) {
+				Operands.Literal typed_arg2 = (Operands.Literal)typed_insn.args[1];
+				emit(encodeLiteral(typed_arg2));
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2c_3c_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2c_3c_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2c_3c_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2c_3c_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: x*/if (typed_insn.args[1] instanceof Operands.XReg) {
+				Operands.XReg typed_arg2 = (Operands.XReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2c_3x_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2c_3x_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2c_3x_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2c_3x_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: y*/if (typed_insn.args[1] instanceof Operands.YReg) {
+				Operands.YReg typed_arg2 = (Operands.YReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2c_3y_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2c_3y_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2c_3y_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2c_3y_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else throw new Error("Unrecognized operand: "+typed_insn.args[1]);
+		} else /*Nonprim: x*/if (typed_insn.args[0] instanceof Operands.XReg) {
+			Operands.XReg typed_arg1 = (Operands.XReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: c*/if (typed_insn.args[1] instanceof Operands.Literal) {
+				Operands.Literal typed_arg2 = (Operands.Literal)typed_insn.args[1];
+				emit(encodeLiteral(typed_arg2));
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2x_3c_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2x_3c_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2x_3c_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2x_3c_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: x*/if (typed_insn.args[1] instanceof Operands.XReg) {
+				Operands.XReg typed_arg2 = (Operands.XReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2x_3x_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2x_3x_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2x_3x_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2x_3x_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: y*/if (typed_insn.args[1] instanceof Operands.YReg) {
+				Operands.YReg typed_arg2 = (Operands.YReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2x_3y_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2x_3y_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2x_3y_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2x_3y_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else throw new Error("Unrecognized operand: "+typed_insn.args[1]);
+		} else /*Nonprim: y*/if (typed_insn.args[0] instanceof Operands.YReg) {
+			Operands.YReg typed_arg1 = (Operands.YReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: c*/if (typed_insn.args[1] instanceof Operands.Literal) {
+				Operands.Literal typed_arg2 = (Operands.Literal)typed_insn.args[1];
+				emit(encodeLiteral(typed_arg2));
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2y_3c_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2y_3c_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2y_3c_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2y_3c_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: x*/if (typed_insn.args[1] instanceof Operands.XReg) {
+				Operands.XReg typed_arg2 = (Operands.XReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2y_3x_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2y_3x_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2y_3x_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2y_3x_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: y*/if (typed_insn.args[1] instanceof Operands.YReg) {
+				Operands.YReg typed_arg2 = (Operands.YReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2y_3y_4x_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2y_3y_4x_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, bif2_1E_2y_3y_4y_5L);
+					} else if (typed_insn.label == null) {
+						emitAt(opcode_pos, bif2_1E_2y_3y_4y_4nolabel);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else throw new Error("Unrecognized operand: "+typed_insn.args[1]);
+		} else throw new Error("Unrecognized operand: "+typed_insn.args[0]);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case gc_bif1: {
+	Insn.GcBif typed_insn = (Insn.GcBif) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_bif = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_bif));
+		/*Nonprim: c*/if (typed_insn.args[0] instanceof Operands.Literal) {
+			Operands.Literal typed_arg1 = (Operands.Literal)typed_insn.args[0];
+			emit(encodeLiteral(typed_arg1));
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, gc_bif1_1E_2c_3x_4L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, gc_bif1_1E_2c_3y_4L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: x*/if (typed_insn.args[0] instanceof Operands.XReg) {
+			Operands.XReg typed_arg1 = (Operands.XReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, gc_bif1_1E_2x_3x_4L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, gc_bif1_1E_2x_3y_4L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else /*Nonprim: y*/if (typed_insn.args[0] instanceof Operands.YReg) {
+			Operands.YReg typed_arg1 = (Operands.YReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, gc_bif1_1E_2y_3x_4L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_onFail.nr));
+					emitAt(opcode_pos, gc_bif1_1E_2y_3y_4L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+		} else throw new Error("Unrecognized operand: "+typed_insn.args[0]);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case gc_bif2: {
+	Insn.GcBif typed_insn = (Insn.GcBif) insn;
+	/*Nonprim: E*/if (typed_insn.ext_fun instanceof ExtFun) {
+		ExtFun typed_bif = (ExtFun)typed_insn.ext_fun;
+		emit(encodeExtFun(typed_bif));
+		/*Nonprim: c*/if (typed_insn.args[0] instanceof Operands.Literal) {
+			Operands.Literal typed_arg1 = (Operands.Literal)typed_insn.args[0];
+			emit(encodeLiteral(typed_arg1));
+			/*Nonprim: c*/if (typed_insn.args[1] instanceof Operands.Literal) {
+				Operands.Literal typed_arg2 = (Operands.Literal)typed_insn.args[1];
+				emit(encodeLiteral(typed_arg2));
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2c_3c_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2c_3c_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: x*/if (typed_insn.args[1] instanceof Operands.XReg) {
+				Operands.XReg typed_arg2 = (Operands.XReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2c_3x_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2c_3x_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: y*/if (typed_insn.args[1] instanceof Operands.YReg) {
+				Operands.YReg typed_arg2 = (Operands.YReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2c_3y_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2c_3y_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else throw new Error("Unrecognized operand: "+typed_insn.args[1]);
+		} else /*Nonprim: x*/if (typed_insn.args[0] instanceof Operands.XReg) {
+			Operands.XReg typed_arg1 = (Operands.XReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: c*/if (typed_insn.args[1] instanceof Operands.Literal) {
+				Operands.Literal typed_arg2 = (Operands.Literal)typed_insn.args[1];
+				emit(encodeLiteral(typed_arg2));
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2x_3c_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2x_3c_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: x*/if (typed_insn.args[1] instanceof Operands.XReg) {
+				Operands.XReg typed_arg2 = (Operands.XReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2x_3x_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2x_3x_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: y*/if (typed_insn.args[1] instanceof Operands.YReg) {
+				Operands.YReg typed_arg2 = (Operands.YReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2x_3y_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2x_3y_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else throw new Error("Unrecognized operand: "+typed_insn.args[1]);
+		} else /*Nonprim: y*/if (typed_insn.args[0] instanceof Operands.YReg) {
+			Operands.YReg typed_arg1 = (Operands.YReg)typed_insn.args[0];
+			emit(typed_arg1.nr);
+			/*Nonprim: c*/if (typed_insn.args[1] instanceof Operands.Literal) {
+				Operands.Literal typed_arg2 = (Operands.Literal)typed_insn.args[1];
+				emit(encodeLiteral(typed_arg2));
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2y_3c_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2y_3c_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: x*/if (typed_insn.args[1] instanceof Operands.XReg) {
+				Operands.XReg typed_arg2 = (Operands.XReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2y_3x_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2y_3x_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else /*Nonprim: y*/if (typed_insn.args[1] instanceof Operands.YReg) {
+				Operands.YReg typed_arg2 = (Operands.YReg)typed_insn.args[1];
+				emit(typed_arg2.nr);
+				/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2y_3y_4x_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_onFail = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_onFail.nr));
+						emitAt(opcode_pos, gc_bif2_1E_2y_3y_4y_5L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+			} else throw new Error("Unrecognized operand: "+typed_insn.args[1]);
+		} else throw new Error("Unrecognized operand: "+typed_insn.args[0]);
+	} else throw new Error("Unrecognized operand: "+typed_insn.ext_fun);
+
+} break;
+case loop_rec: {
+	Insn.LD typed_insn = (Insn.LD) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest;
+		emit(typed_dest.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_label = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_label.nr));
+			emitAt(opcode_pos, loop_rec_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest;
+		emit(typed_dest.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_label = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_label.nr));
+			emitAt(opcode_pos, loop_rec_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case wait: {
+	Insn.L typed_insn = (Insn.L) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_label = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_label.nr));
+		emitAt(opcode_pos, wait_1L);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case loop_rec_end: {
+	Insn.L typed_insn = (Insn.L) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_label = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_label.nr));
+		emitAt(opcode_pos, loop_rec_end_1L);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case recv_mark: {
+	Insn.L typed_insn = (Insn.L) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_label = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_label.nr));
+		emitAt(opcode_pos, recv_mark_1L);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case recv_set: {
+	Insn.L typed_insn = (Insn.L) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_label = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_label.nr));
+		emitAt(opcode_pos, recv_set_1L);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case wait_timeout: {
+	Insn.LS typed_insn = (Insn.LS) insn;
+	/*Nonprim: c*/if (typed_insn.src instanceof Operands.Literal) {
+		Operands.Literal typed_millis = (Operands.Literal)typed_insn.src;
+		emit(encodeLiteral(typed_millis));
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_label = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_label.nr));
+			emitAt(opcode_pos, wait_timeout_2c_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: x*/if (typed_insn.src instanceof Operands.XReg) {
+		Operands.XReg typed_millis = (Operands.XReg)typed_insn.src;
+		emit(typed_millis.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_label = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_label.nr));
+			emitAt(opcode_pos, wait_timeout_2x_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else /*Nonprim: y*/if (typed_insn.src instanceof Operands.YReg) {
+		Operands.YReg typed_millis = (Operands.YReg)typed_insn.src;
+		emit(typed_millis.nr);
+		/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+			Operands.Label typed_label = (Operands.Label)typed_insn.label;
+			emit(encodeLabel(typed_label.nr));
+			emitAt(opcode_pos, wait_timeout_2y_1L);
+		} else throw new Error("Unrecognized operand: "+typed_insn.label);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src);
+
+} break;
+case timeout: {
+	Insn typed_insn = (Insn) insn;
+	emitAt(opcode_pos, timeout);
+
+} break;
+case bs_start_match2: {
+	Insn.LDIID typed_insn = (Insn.LDIID) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Prim: I*/	int typed_slots = (int)typed_insn.i4;
+			emit(typed_slots);
+			/*Nonprim: x*/if (typed_insn.dest5 instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest5;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_failLabel.nr));
+					emitAt(opcode_pos, bs_start_match2_2x_4I_5x_1L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest5 instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest5;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_failLabel.nr));
+					emitAt(opcode_pos, bs_start_match2_2x_4I_5y_1L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest5);
+		// throw new Error("Unrecognized operand: "+typed_insn.i4);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Prim: I*/	int typed_slots = (int)typed_insn.i4;
+			emit(typed_slots);
+			/*Nonprim: x*/if (typed_insn.dest5 instanceof Operands.XReg) {
+				Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest5;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_failLabel.nr));
+					emitAt(opcode_pos, bs_start_match2_2y_4I_5x_1L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else /*Nonprim: y*/if (typed_insn.dest5 instanceof Operands.YReg) {
+				Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest5;
+				emit(typed_dest.nr);
+				/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+					Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+					emit(encodeLabel(typed_failLabel.nr));
+					emitAt(opcode_pos, bs_start_match2_2y_4I_5y_1L);
+				} else throw new Error("Unrecognized operand: "+typed_insn.label);
+			} else throw new Error("Unrecognized operand: "+typed_insn.dest5);
+		// throw new Error("Unrecognized operand: "+typed_insn.i4);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case bs_match_string: {
+	Insn.LDBi typed_insn = (Insn.LDBi) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Nonprim: c*/if (typed_insn.bin instanceof Operands.Literal) {
+			Operands.Literal typed_string = (Operands.Literal)typed_insn.bin;
+			emit(encodeLiteral(typed_string));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_failLabel.nr));
+				emitAt(opcode_pos, bs_match_string_2x_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.bin);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Nonprim: c*/if (typed_insn.bin instanceof Operands.Literal) {
+			Operands.Literal typed_string = (Operands.Literal)typed_insn.bin;
+			emit(encodeLiteral(typed_string));
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_failLabel.nr));
+				emitAt(opcode_pos, bs_match_string_2y_3c_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		} else throw new Error("Unrecognized operand: "+typed_insn.bin);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case bs_get_integer2: {
+	Insn.LDISIID typed_insn = (Insn.LDISIID) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Nonprim: c*/if (typed_insn.src4 instanceof Operands.Literal) {
+			Operands.Literal typed_bits = (Operands.Literal)typed_insn.src4;
+			emit(encodeLiteral(typed_bits));
+			/*Prim: I*/	int typed_flags = (int)typed_insn.i6;
+				emit(typed_flags);
+				/*Nonprim: x*/if (typed_insn.dest7 instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2x_4c_6I_7x_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest7 instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2x_4c_6I_7y_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest7);
+			// throw new Error("Unrecognized operand: "+typed_insn.i6);
+		} else /*Nonprim: x*/if (typed_insn.src4 instanceof Operands.XReg) {
+			Operands.XReg typed_bits = (Operands.XReg)typed_insn.src4;
+			emit(typed_bits.nr);
+			/*Prim: I*/	int typed_flags = (int)typed_insn.i6;
+				emit(typed_flags);
+				/*Nonprim: x*/if (typed_insn.dest7 instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2x_4x_6I_7x_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest7 instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2x_4x_6I_7y_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest7);
+			// throw new Error("Unrecognized operand: "+typed_insn.i6);
+		} else /*Nonprim: y*/if (typed_insn.src4 instanceof Operands.YReg) {
+			Operands.YReg typed_bits = (Operands.YReg)typed_insn.src4;
+			emit(typed_bits.nr);
+			/*Prim: I*/	int typed_flags = (int)typed_insn.i6;
+				emit(typed_flags);
+				/*Nonprim: x*/if (typed_insn.dest7 instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2x_4y_6I_7x_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest7 instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2x_4y_6I_7y_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest7);
+			// throw new Error("Unrecognized operand: "+typed_insn.i6);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src4);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Nonprim: c*/if (typed_insn.src4 instanceof Operands.Literal) {
+			Operands.Literal typed_bits = (Operands.Literal)typed_insn.src4;
+			emit(encodeLiteral(typed_bits));
+			/*Prim: I*/	int typed_flags = (int)typed_insn.i6;
+				emit(typed_flags);
+				/*Nonprim: x*/if (typed_insn.dest7 instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2y_4c_6I_7x_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest7 instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2y_4c_6I_7y_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest7);
+			// throw new Error("Unrecognized operand: "+typed_insn.i6);
+		} else /*Nonprim: x*/if (typed_insn.src4 instanceof Operands.XReg) {
+			Operands.XReg typed_bits = (Operands.XReg)typed_insn.src4;
+			emit(typed_bits.nr);
+			/*Prim: I*/	int typed_flags = (int)typed_insn.i6;
+				emit(typed_flags);
+				/*Nonprim: x*/if (typed_insn.dest7 instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2y_4x_6I_7x_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest7 instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2y_4x_6I_7y_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest7);
+			// throw new Error("Unrecognized operand: "+typed_insn.i6);
+		} else /*Nonprim: y*/if (typed_insn.src4 instanceof Operands.YReg) {
+			Operands.YReg typed_bits = (Operands.YReg)typed_insn.src4;
+			emit(typed_bits.nr);
+			/*Prim: I*/	int typed_flags = (int)typed_insn.i6;
+				emit(typed_flags);
+				/*Nonprim: x*/if (typed_insn.dest7 instanceof Operands.XReg) {
+					Operands.XReg typed_dest = (Operands.XReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2y_4y_6I_7x_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else /*Nonprim: y*/if (typed_insn.dest7 instanceof Operands.YReg) {
+					Operands.YReg typed_dest = (Operands.YReg)typed_insn.dest7;
+					emit(typed_dest.nr);
+					/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+						Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+						emit(encodeLabel(typed_failLabel.nr));
+						emitAt(opcode_pos, bs_get_integer2_2y_4y_6I_7y_1L);
+					} else throw new Error("Unrecognized operand: "+typed_insn.label);
+				} else throw new Error("Unrecognized operand: "+typed_insn.dest7);
+			// throw new Error("Unrecognized operand: "+typed_insn.i6);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src4);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case bs_test_tail2: {
+	Insn.LDI typed_insn = (Insn.LDI) insn;
+	/*Nonprim: x*/if (typed_insn.dest instanceof Operands.XReg) {
+		Operands.XReg typed_src = (Operands.XReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Prim: I*/	int typed_bits_left = (int)typed_insn.i;
+			emit(typed_bits_left);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_failLabel.nr));
+				emitAt(opcode_pos, bs_test_tail2_2x_3I_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else /*Nonprim: y*/if (typed_insn.dest instanceof Operands.YReg) {
+		Operands.YReg typed_src = (Operands.YReg)typed_insn.dest;
+		emit(typed_src.nr);
+		/*Prim: I*/	int typed_bits_left = (int)typed_insn.i;
+			emit(typed_bits_left);
+			/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+				Operands.Label typed_failLabel = (Operands.Label)typed_insn.label;
+				emit(encodeLabel(typed_failLabel.nr));
+				emitAt(opcode_pos, bs_test_tail2_2y_3I_1L);
+			} else throw new Error("Unrecognized operand: "+typed_insn.label);
+		// throw new Error("Unrecognized operand: "+typed_insn.i);
+	} else throw new Error("Unrecognized operand: "+typed_insn.dest);
+
+} break;
+case K_catch: {
+	Insn.YL typed_insn = (Insn.YL) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_lbl.nr));
+		/*Nonprim: y*/if (typed_insn.y instanceof Operands.YReg) {
+			Operands.YReg typed_y = (Operands.YReg)typed_insn.y;
+			emit(typed_y.nr);
+			emitAt(opcode_pos, K_catch_2L_1y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case K_try: {
+	Insn.YL typed_insn = (Insn.YL) insn;
+	/*Nonprim: L*/if (typed_insn.label instanceof Operands.Label) {
+		Operands.Label typed_lbl = (Operands.Label)typed_insn.label;
+		emit(encodeLabel(typed_lbl.nr));
+		/*Nonprim: y*/if (typed_insn.y instanceof Operands.YReg) {
+			Operands.YReg typed_y = (Operands.YReg)typed_insn.y;
+			emit(typed_y.nr);
+			emitAt(opcode_pos, K_try_2L_1y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.label);
+
+} break;
+case catch_end: {
+	Insn.Y typed_insn = (Insn.Y) insn;
+	/*Nonprim: y*/if (typed_insn.y instanceof Operands.YReg) {
+		Operands.YReg typed_y = (Operands.YReg)typed_insn.y;
+		emit(typed_y.nr);
+		emitAt(opcode_pos, catch_end_1y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.y);
+
+} break;
+case try_end: {
+	Insn.Y typed_insn = (Insn.Y) insn;
+	/*Nonprim: y*/if (typed_insn.y instanceof Operands.YReg) {
+		Operands.YReg typed_y = (Operands.YReg)typed_insn.y;
+		emit(typed_y.nr);
+		emitAt(opcode_pos, try_end_1y);
+	} else throw new Error("Unrecognized operand: "+typed_insn.y);
+
+} break;
+case try_case: {
+	Insn typed_insn = (Insn) insn;
+	emitAt(opcode_pos, try_case);
+
+} break;
+case raise: {
+	Insn.SS typed_insn = (Insn.SS) insn;
+	/*Nonprim: c*/if (typed_insn.src1 instanceof Operands.Literal) {
+		Operands.Literal typed_value = (Operands.Literal)typed_insn.src1;
+		emit(encodeLiteral(typed_value));
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_trace = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_trace));
+			emitAt(opcode_pos, raise_1c_2c);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_trace = (Operands.XReg)typed_insn.src2;
+			emit(typed_trace.nr);
+			emitAt(opcode_pos, raise_1c_2x);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_trace = (Operands.YReg)typed_insn.src2;
+			emit(typed_trace.nr);
+			emitAt(opcode_pos, raise_1c_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: x*/if (typed_insn.src1 instanceof Operands.XReg) {
+		Operands.XReg typed_value = (Operands.XReg)typed_insn.src1;
+		emit(typed_value.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_trace = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_trace));
+			emitAt(opcode_pos, raise_1x_2c);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_trace = (Operands.XReg)typed_insn.src2;
+			emit(typed_trace.nr);
+			emitAt(opcode_pos, raise_1x_2x);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_trace = (Operands.YReg)typed_insn.src2;
+			emit(typed_trace.nr);
+			emitAt(opcode_pos, raise_1x_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else /*Nonprim: y*/if (typed_insn.src1 instanceof Operands.YReg) {
+		Operands.YReg typed_value = (Operands.YReg)typed_insn.src1;
+		emit(typed_value.nr);
+		/*Nonprim: c*/if (typed_insn.src2 instanceof Operands.Literal) {
+			Operands.Literal typed_trace = (Operands.Literal)typed_insn.src2;
+			emit(encodeLiteral(typed_trace));
+			emitAt(opcode_pos, raise_1y_2c);
+		} else /*Nonprim: x*/if (typed_insn.src2 instanceof Operands.XReg) {
+			Operands.XReg typed_trace = (Operands.XReg)typed_insn.src2;
+			emit(typed_trace.nr);
+			emitAt(opcode_pos, raise_1y_2x);
+		} else /*Nonprim: y*/if (typed_insn.src2 instanceof Operands.YReg) {
+			Operands.YReg typed_trace = (Operands.YReg)typed_insn.src2;
+			emit(typed_trace.nr);
+			emitAt(opcode_pos, raise_1y_2y);
+		} else throw new Error("Unrecognized operand: "+typed_insn.src2);
+	} else throw new Error("Unrecognized operand: "+typed_insn.src1);
+
+} break;
+
+				} // switch
+			}
+		}
+	}
+
+    public static class Module extends AbstractInterpreter.Module {
+		final private short[] code;
+		final private EObject[] consts;
+		final private ValueJumpTable[] value_jump_tables;
+		final private ArityJumpTable[] arity_jump_tables;
+		final private List<FunIDWithEntry> exports;
+		final private List<FunID> imports;
+		final private EFun[] ext_funs;
+		private Function[] entries;
+
+		Module(String name,
+			   short[] code, EObject[] consts,
+			   ValueJumpTable[] value_jump_tables,
+			   ArityJumpTable[] arity_jump_tables,
+			   List<FunIDWithEntry> exports, List<FunID> imports)
+		{
+			super(name, true);
+			this.code = code;
+			this.consts = consts;
+			this.value_jump_tables = value_jump_tables;
+			this.arity_jump_tables = arity_jump_tables;
+			this.exports = exports;
+			this.imports = imports;
+			ext_funs = new EFun[imports.size()];
+			if (DEBUG) System.err.println("INT| Constructed module for "+this.name);
+			setup();
+		}
+
+		/**
+		 * This method is used by EModuleManager in function resolution.
+		 */
+		public void registerImportsAndExports() throws Exception {
+			for (int i=0; i<imports.size(); i++) {
+				FunID imp = imports.get(i);
+				if (DEBUG) System.err.println("INT| Import #"+i+": "+imp);
+
+				// If this is a BIF, resolve it right away:
+				BuiltInFunction bif =
+					BIFUtil.getMethod(imp.module.getName(),
+									  imp.function.getName(),
+									  imp.arity,
+									  false, false);
+				if (bif != null && java.lang.reflect.Modifier.isStatic(bif.javaMethod.getModifiers())) {
+					//TODO: make this work for virtual methods as well
+					ext_funs[i] = EFun.make(bif.javaMethod);
+				} else {
+					EModuleManager.add_import(imp, new VectorFunBinder(ext_funs, imp, i));
+				}
+			}
+
+			int j=0;
+			entries = new Function[exports.size()];
+			for (FunIDWithEntry fi : exports) {
+// 				System.err.println("INT| Export #"+(j++)+": "+fi);
+				Function entry = entries[j++] = new Function(fi.start_pc);
+				EFun fun = EFun.get_fun_with_handler(fi.arity, entry, getModuleClassLoader());
+				EModuleManager.add_export(this, fi, fun);
+			}
+
+			load_native_bifs();
+		}
+
+		public List<String> hot_functions(int max) {
+			final Function[] es = entries;
+			Integer[] order = new Integer[es == null ? 0 : es.length];
+			for (int i=0; i<order.length; i++) order[i] = i;
+			Arrays.sort(order, new Comparator<Integer>() {
+				public int compare(Integer a, Integer b) {
+					return es[b].calls - es[a].calls;
+				}});
+
+			List<String> res = new ArrayList<String>();
+			for (int i=0; i<order.length && i<max && es[order[i]].calls > 0; i++) {
+				res.add(exports.get(order[i]) + "=" + es[order[i]].calls);
+			}
+			return res;
+		}
+
+		@Override
+		public boolean owns(Object o) {
+			return o instanceof Function && ((Function) o).module() == this;
+		}
+
+		class Function implements EFunHandler {
+			final int start_pc;
+
+			/** external calls to this function; approximate */
+			int calls;
+
+			public Function(int start_pc) {
+				this.start_pc = start_pc;
+			}
+
+			Module module() {
+				return Module.this;
+			}
+
+			public EObject invoke(final EProc proc, final EObject[] args) throws Pausable {
+				calls++;
+				count_call();
+				int argCnt = args.length;
+				EObject[] reg = new EObject[1024]; //??
+				for (int i=0; i<argCnt; i++) {reg[i] = args[i];} //??
+				if (DEBUG) for (int i=0; i<argCnt; i++) System.err.println("INT| arg#"+i+"="+args[i]);
+				return interpret(proc, start_pc, reg);
+			}
+
+			/** Local call - with given PC and register array */
+			public EObject invoke_local(final EProc proc, final EObject[] reg, int argCnt, int pc) throws Pausable {
+				count_call();
+				if (DEBUG) System.err.println("INT| invoking "+name+"@"+pc+"...");
+				return interpret(proc, pc, reg);
+			}
+
+			public EObject interpret(final EProc proc, int pc, EObject[] reg) throws Pausable {
+				// A reduction on entry, as in compiled code:
+				proc.bump_reds(1);
+				final short[] code = Module.this.code;
+				EObject stack[] = proc.stack;
+				if (stack == null) stack = proc.stack = new EObject[10];
+				int sp = proc.sp;
+
+				// For exception handling:
+				ExceptionHandlerStackElement exh = null;
+
+				// For tuple construction:
+				ETuple curtuple = null;
+
+				while (true) try {
+						while (true) {
+							final int opcode = code[pc++];
+							//System.err.print("STACK| "); for (int i=0; i<=sp; i++) {System.err.print("  "+i+":"+stack[i]);} System.err.println();
+							//System.err.println("INTP|"+proc.self_handle()+" (pc="+(pc-1)+"; sp="+sp+")"+opcode+"   "+reg[0]);
+							switch (opcode) {
+							case ENSURE_REG_CAPACITY: {
+								int max_x = code[pc++];
+								if (DEBUG) System.err.println("INTP|"+proc.self_handle()+" Ensure reg capacity: "+max_x);
+								reg = ensureCapacity(reg, max_x);
+							} break;
+
+
+
+
+
+
+
+
+
+
+
+
+
+	case K_return: if (true) {
+		{proc.stack=stack; proc.sp=sp; stack=null;}; return reg[0];
+	} break;
+	case send: if (true) {
+		ERT.send(proc, reg[0], reg[1]);
+	} break;
+	case remove_message: if (true) {
+		ERT.remove_message(proc);
+	} break;
+	case if_end: if (true) {
+		return ERT.if_end();
+	} break;
+	case func_info_1c_2c_3I: if (true) {
+		int _mod = code[pc++];
+		int _fun = code[pc++];
+		int _arity = code[pc++];
+		{if (DEBUG) System.err.println("INT| func_info: "+consts[_mod]+":"+consts[_fun]+"/"+(_arity)+" called with "+xregsSeq(reg,(_arity))); {proc.stack=stack; proc.sp=sp; stack=null;}; return ERT.func_info((EAtom)consts[_mod], (EAtom)consts[_fun], xregsSeq(reg,(_arity)));}
+	} break;
+	case badmatch_1c: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.badmatch(consts[_src]);
+	} break;
+	case badmatch_1x: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.badmatch(reg[_src]);
+	} break;
+	case badmatch_1y: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.badmatch(stack[sp - (_src)]);
+	} break;
+	case case_end_1c: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.case_end(consts[_src]);
+	} break;
+	case case_end_1x: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.case_end(reg[_src]);
+	} break;
+	case case_end_1y: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.case_end(stack[sp - (_src)]);
+	} break;
+	case try_case_end_1c: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.try_case_end(consts[_src]);
+	} break;
+	case try_case_end_1x: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.try_case_end(reg[_src]);
+	} break;
+	case try_case_end_1y: if (true) {
+		int _src = code[pc++];
+		/*{proc.stack=stack; proc.sp=sp; stack=null;};*/ return ERT.try_case_end(stack[sp - (_src)]);
+	} break;
+	case allocate_1I: if (true) {
+		int _slots = code[pc++];
+		{stack = ensureCapacity(stack, sp+(_slots), sp+1); sp += (_slots);};
+	} break;
+	case deallocate_1I: if (true) {
+		int _slots = code[pc++];
+		{for (int _i=0; _i<(_slots); _i++) stack[sp--] = null;};
+	} break;
+	case allocate_zero_1I: if (true) {
+		int _slots = code[pc++];
+		{stack = ensureCapacity(stack, sp+(_slots), sp+1); sp += (_slots);};
+	} break;
+	case allocate_heap_1I: if (true) {
+		int _stacksize = code[pc++];
+		{stack = ensureCapacity(stack, sp+(_stacksize), sp+1); sp += (_stacksize);};
+	} break;
+	case allocate_heap_zero_1I: if (true) {
+		int _stacksize = code[pc++];
+		{stack = ensureCapacity(stack, sp+(_stacksize), sp+1); sp += (_stacksize);};
+	} break;
+	case init_1x: if (true) {
+		int _dest = code[pc++];
+		reg[_dest] = (null);
+	} break;
+	case init_1y: if (true) {
+		int _dest = code[pc++];
+		stack[sp - (_dest)] = (null);
+	} break;
+	case trim_1I: if (true) {
+		int _amount = code[pc++];
+		{for (int _i=0; _i<(_amount); _i++) stack[sp--] = null;};
+	} break;
+	case move_1c_2x: if (true) {
+		int _src = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (consts[_src]);
+	} break;
+	case move_1c_2y: if (true) {
+		int _src = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (consts[_src]);
+	} break;
+	case move_1x_2x: if (true) {
+		int _src = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (reg[_src]);
+	} break;
+	case move_1x_2y: if (true) {
+		int _src = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (reg[_src]);
+	} break;
+	case move_1y_2x: if (true) {
+		int _src = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (stack[sp - (_src)]);
+	} break;
+	case move_1y_2y: if (true) {
+		int _src = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (stack[sp - (_src)]);
+	} break;
+	case put_list_1c_2c_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(consts[_h], consts[_t]));
+	} break;
+	case put_list_1c_2c_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(consts[_h], consts[_t]));
+	} break;
+	case put_list_1c_2x_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(consts[_h], reg[_t]));
+	} break;
+	case put_list_1c_2x_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(consts[_h], reg[_t]));
+	} break;
+	case put_list_1c_2y_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(consts[_h], stack[sp - (_t)]));
+	} break;
+	case put_list_1c_2y_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(consts[_h], stack[sp - (_t)]));
+	} break;
+	case put_list_1x_2c_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(reg[_h], consts[_t]));
+	} break;
+	case put_list_1x_2c_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(reg[_h], consts[_t]));
+	} break;
+	case put_list_1x_2x_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(reg[_h], reg[_t]));
+	} break;
+	case put_list_1x_2x_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(reg[_h], reg[_t]));
+	} break;
+	case put_list_1x_2y_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(reg[_h], stack[sp - (_t)]));
+	} break;
+	case put_list_1x_2y_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(reg[_h], stack[sp - (_t)]));
+	} break;
+	case put_list_1y_2c_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(stack[sp - (_h)], consts[_t]));
+	} break;
+	case put_list_1y_2c_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(stack[sp - (_h)], consts[_t]));
+	} break;
+	case put_list_1y_2x_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(stack[sp - (_h)], reg[_t]));
+	} break;
+	case put_list_1y_2x_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(stack[sp - (_h)], reg[_t]));
+	} break;
+	case put_list_1y_2y_3x: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (ERT.cons(stack[sp - (_h)], stack[sp - (_t)]));
+	} break;
+	case put_list_1y_2y_3y: if (true) {
+		int _h = code[pc++];
+		int _t = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (ERT.cons(stack[sp - (_h)], stack[sp - (_t)]));
+	} break;
+	case get_list_1c_2x_3x: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = consts[_src].testNonEmptyList(); reg[_h] = (cons.head()); reg[_t] = (cons.tail());}
+	} break;
+	case get_list_1c_2x_3y: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = consts[_src].testNonEmptyList(); reg[_h] = (cons.head()); stack[sp - (_t)] = (cons.tail());}
+	} break;
+	case get_list_1c_2y_3x: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = consts[_src].testNonEmptyList(); stack[sp - (_h)] = (cons.head()); reg[_t] = (cons.tail());}
+	} break;
+	case get_list_1c_2y_3y: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = consts[_src].testNonEmptyList(); stack[sp - (_h)] = (cons.head()); stack[sp - (_t)] = (cons.tail());}
+	} break;
+	case get_list_1x_2x_3x: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = reg[_src].testNonEmptyList(); reg[_h] = (cons.head()); reg[_t] = (cons.tail());}
+	} break;
+	case get_list_1x_2x_3y: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = reg[_src].testNonEmptyList(); reg[_h] = (cons.head()); stack[sp - (_t)] = (cons.tail());}
+	} break;
+	case get_list_1x_2y_3x: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = reg[_src].testNonEmptyList(); stack[sp - (_h)] = (cons.head()); reg[_t] = (cons.tail());}
+	} break;
+	case get_list_1x_2y_3y: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = reg[_src].testNonEmptyList(); stack[sp - (_h)] = (cons.head()); stack[sp - (_t)] = (cons.tail());}
+	} break;
+	case get_list_1y_2x_3x: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = stack[sp - (_src)].testNonEmptyList(); reg[_h] = (cons.head()); reg[_t] = (cons.tail());}
+	} break;
+	case get_list_1y_2x_3y: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = stack[sp - (_src)].testNonEmptyList(); reg[_h] = (cons.head()); stack[sp - (_t)] = (cons.tail());}
+	} break;
+	case get_list_1y_2y_3x: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = stack[sp - (_src)].testNonEmptyList(); stack[sp - (_h)] = (cons.head()); reg[_t] = (cons.tail());}
+	} break;
+	case get_list_1y_2y_3y: if (true) {
+		int _src = code[pc++];
+		int _h = code[pc++];
+		int _t = code[pc++];
+		{ECons cons = stack[sp - (_src)].testNonEmptyList(); stack[sp - (_h)] = (cons.head()); stack[sp - (_t)] = (cons.tail());}
+	} break;
+	case get_tuple_element_1c_2I_3x: if (true) {
+		int _src = code[pc++];
+		int _pos = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (((ETuple)consts[_src]).elm(1+(_pos)));
+	} break;
+	case get_tuple_element_1c_2I_3y: if (true) {
+		int _src = code[pc++];
+		int _pos = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (((ETuple)consts[_src]).elm(1+(_pos)));
+	} break;
+	case get_tuple_element_1x_2I_3x: if (true) {
+		int _src = code[pc++];
+		int _pos = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (((ETuple)reg[_src]).elm(1+(_pos)));
+	} break;
+	case get_tuple_element_1x_2I_3y: if (true) {
+		int _src = code[pc++];
+		int _pos = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (((ETuple)reg[_src]).elm(1+(_pos)));
+	} break;
+	case get_tuple_element_1y_2I_3x: if (true) {
+		int _src = code[pc++];
+		int _pos = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (((ETuple)stack[sp - (_src)]).elm(1+(_pos)));
+	} break;
+	case get_tuple_element_1y_2I_3y: if (true) {
+		int _src = code[pc++];
+		int _pos = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (((ETuple)stack[sp - (_src)]).elm(1+(_pos)));
+	} break;
+	case put_tuple_1I_2x: if (true) {
+		int _size = code[pc++];
+		int _dst = code[pc++];
+		reg[_dst] = (curtuple = ETuple.make((_size)));
+	} break;
+	case put_tuple_1I_2y: if (true) {
+		int _size = code[pc++];
+		int _dst = code[pc++];
+		stack[sp - (_dst)] = (curtuple = ETuple.make((_size)));
+	} break;
+	case put_1c: if (true) {
+		int _index = code[pc++];
+		int _src = code[pc++];
+		curtuple.set(_index, consts[_src]);
+	} break;
+	case put_1x: if (true) {
+		int _index = code[pc++];
+		int _src = code[pc++];
+		curtuple.set(_index, reg[_src]);
+	} break;
+	case put_1y: if (true) {
+		int _index = code[pc++];
+		int _src = code[pc++];
+		curtuple.set(_index, stack[sp - (_src)]);
+	} break;
+	case set_tuple_element_2x_3I_1c: if (true) {
+		int _dest = code[pc++];
+		int _index = code[pc++];
+		int _src = code[pc++];
+		((ETuple)reg[_dest]).set((_index)+1, consts[_src]);
+	} break;
+	case set_tuple_element_2x_3I_1x: if (true) {
+		int _dest = code[pc++];
+		int _index = code[pc++];
+		int _src = code[pc++];
+		((ETuple)reg[_dest]).set((_index)+1, reg[_src]);
+	} break;
+	case set_tuple_element_2x_3I_1y: if (true) {
+		int _dest = code[pc++];
+		int _index = code[pc++];
+		int _src = code[pc++];
+		((ETuple)reg[_dest]).set((_index)+1, stack[sp - (_src)]);
+	} break;
+	case set_tuple_element_2y_3I_1c: if (true) {
+		int _dest = code[pc++];
+		int _index = code[pc++];
+		int _src = code[pc++];
+		((ETuple)stack[sp - (_dest)]).set((_index)+1, consts[_src]);
+	} break;
+	case set_tuple_element_2y_3I_1x: if (true) {
+		int _dest = code[pc++];
+		int _index = code[pc++];
+		int _src = code[pc++];
+		((ETuple)stack[sp - (_dest)]).set((_index)+1, reg[_src]);
+	} break;
+	case set_tuple_element_2y_3I_1y: if (true) {
+		int _dest = code[pc++];
+		int _index = code[pc++];
+		int _src = code[pc++];
+		((ETuple)stack[sp - (_dest)]).set((_index)+1, stack[sp - (_src)]);
+	} break;
+	case jump_1L: if (true) {
+		int _lbl = code[pc++];
+		pc = (_lbl);
+	} break;
+	case is_integer_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testInteger() 	   == null) pc = (_lbl);
+	} break;
+	case is_integer_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testInteger() 	   == null) pc = (_lbl);
+	} break;
+	case is_float_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testFloat()   	   == null) pc = (_lbl);
+	} break;
+	case is_float_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testFloat()   	   == null) pc = (_lbl);
+	} break;
+	case is_number_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testNumber()  	   == null) pc = (_lbl);
+	} break;
+	case is_number_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testNumber()  	   == null) pc = (_lbl);
+	} break;
+	case is_atom_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testAtom()    	   == null) pc = (_lbl);
+	} break;
+	case is_atom_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testAtom()    	   == null) pc = (_lbl);
+	} break;
+	case is_pid_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testPID() 		   == null) pc = (_lbl);
+	} break;
+	case is_pid_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testPID() 		   == null) pc = (_lbl);
+	} break;
+	case is_reference_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testReference() 	   == null) pc = (_lbl);
+	} break;
+	case is_reference_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testReference() 	   == null) pc = (_lbl);
+	} break;
+	case is_port_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testPort() 	   == null) pc = (_lbl);
+	} break;
+	case is_port_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testPort() 	   == null) pc = (_lbl);
+	} break;
+	case is_nil_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testNil() 		   == null) pc = (_lbl);
+	} break;
+	case is_nil_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testNil() 		   == null) pc = (_lbl);
+	} break;
+	case is_binary_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testBinary() 	   == null) pc = (_lbl);
+	} break;
+	case is_binary_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testBinary() 	   == null) pc = (_lbl);
+	} break;
+	case is_list_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testCons() 	   == null) pc = (_lbl);
+	} break;
+	case is_list_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testCons() 	   == null) pc = (_lbl);
+	} break;
+	case is_nonempty_list_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testNonEmptyList()    == null) pc = (_lbl);
+	} break;
+	case is_nonempty_list_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testNonEmptyList()    == null) pc = (_lbl);
+	} break;
+	case is_tuple_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testTuple() 	   == null) pc = (_lbl);
+	} break;
+	case is_tuple_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testTuple() 	   == null) pc = (_lbl);
+	} break;
+	case is_function_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testFunction() 	   == null) pc = (_lbl);
+	} break;
+	case is_function_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testFunction() 	   == null) pc = (_lbl);
+	} break;
+	case is_boolean_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testBoolean() 	   == null) pc = (_lbl);
+	} break;
+	case is_boolean_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testBoolean() 	   == null) pc = (_lbl);
+	} break;
+	case is_bitstr_2x_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testBitString() 	   == null) pc = (_lbl);
+	} break;
+	case is_bitstr_2y_1L: if (true) {
+		int _arg = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testBitString() 	   == null) pc = (_lbl);
+	} break;
+	case test_arity_2x_3I_1L: if (true) {
+		int _arg = code[pc++];
+		int _arity = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_arg].testTuple() == null || ((ETuple)reg[_arg]).arity() != (_arity)) pc = (_lbl);
+	} break;
+	case test_arity_2y_3I_1L: if (true) {
+		int _arg = code[pc++];
+		int _arity = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_arg)].testTuple() == null || ((ETuple)stack[sp - (_arg)]).arity() != (_arity)) pc = (_lbl);
+	} break;
+	case is_eq_exact_2c_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! consts[_a].equalsExactly(consts[_b])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2c_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! consts[_a].equalsExactly(reg[_b])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2c_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! consts[_a].equalsExactly(stack[sp - (_b)])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2x_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! reg[_a].equalsExactly(consts[_b])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2x_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! reg[_a].equalsExactly(reg[_b])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2x_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! reg[_a].equalsExactly(stack[sp - (_b)])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2y_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! stack[sp - (_a)].equalsExactly(consts[_b])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2y_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! stack[sp - (_a)].equalsExactly(reg[_b])) pc = (_lbl);
+	} break;
+	case is_eq_exact_2y_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (! stack[sp - (_a)].equalsExactly(stack[sp - (_b)])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2c_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].equalsExactly(consts[_b])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2c_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].equalsExactly(reg[_b])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2c_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].equalsExactly(stack[sp - (_b)])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2x_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].equalsExactly(consts[_b])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2x_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].equalsExactly(reg[_b])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2x_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].equalsExactly(stack[sp - (_b)])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2y_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].equalsExactly(consts[_b])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2y_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].equalsExactly(reg[_b])) pc = (_lbl);
+	} break;
+	case is_ne_exact_2y_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].equalsExactly(stack[sp - (_b)])) pc = (_lbl);
+	} break;
+	case is_eq_2c_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(consts[_b]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2c_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(reg[_b]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2c_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(stack[sp - (_b)]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2x_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(consts[_b]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2x_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(reg[_b]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2x_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(stack[sp - (_b)]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2y_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(consts[_b]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2y_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(reg[_b]) != 0) pc = (_lbl);
+	} break;
+	case is_eq_2y_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(stack[sp - (_b)]) != 0) pc = (_lbl);
+	} break;
+	case is_ne_2c_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(consts[_b]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2c_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(reg[_b]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2c_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(stack[sp - (_b)]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2x_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(consts[_b]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2x_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(reg[_b]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2x_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(stack[sp - (_b)]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2y_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(consts[_b]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2y_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(reg[_b]) == 0) pc = (_lbl);
+	} break;
+	case is_ne_2y_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(stack[sp - (_b)]) == 0) pc = (_lbl);
+	} break;
+	case is_lt_2c_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(consts[_b]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2c_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(reg[_b]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2c_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(stack[sp - (_b)]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2x_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(consts[_b]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2x_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(reg[_b]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2x_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(stack[sp - (_b)]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2y_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(consts[_b]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2y_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(reg[_b]) >= 0) pc = (_lbl);
+	} break;
+	case is_lt_2y_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(stack[sp - (_b)]) >= 0) pc = (_lbl);
+	} break;
+	case is_ge_2c_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(consts[_b]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2c_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(reg[_b]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2c_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (consts[_a].compareTo(stack[sp - (_b)]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2x_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(consts[_b]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2x_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(reg[_b]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2x_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (reg[_a].compareTo(stack[sp - (_b)]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2y_3c_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(consts[_b]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2y_3x_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(reg[_b]) < 0) pc = (_lbl);
+	} break;
+	case is_ge_2y_3y_1L: if (true) {
+		int _a = code[pc++];
+		int _b = code[pc++];
+		int _lbl = code[pc++];
+		if (stack[sp - (_a)].compareTo(stack[sp - (_b)]) < 0) pc = (_lbl);
+	} break;
+	case select_val_1c_3L_2JV: if (true) {
+		int _src = code[pc++];
+		int _lbl = code[pc++];
+		int _table = code[pc++];
+		pc = value_jump_tables[_table].lookup(consts[_src], (_lbl));
+	} break;
+	case select_val_1x_3L_2JV: if (true) {
+		int _src = code[pc++];
+		int _lbl = code[pc++];
+		int _table = code[pc++];
+		pc = value_jump_tables[_table].lookup(reg[_src], (_lbl));
+	} break;
+	case select_val_1y_3L_2JV: if (true) {
+		int _src = code[pc++];
+		int _lbl = code[pc++];
+		int _table = code[pc++];
+		pc = value_jump_tables[_table].lookup(stack[sp - (_src)], (_lbl));
+	} break;
+	case select_tuple_arity_1c_3L_2JA: if (true) {
+		int _src = code[pc++];
+		int _lbl = code[pc++];
+		int _table = code[pc++];
+		{ETuple tuple_val = consts[_src].testTuple(); if (tuple_val == null) pc = (_lbl); else {int arity=tuple_val.arity(); if (DEBUG) System.err.println("INT| select_tuple_arity: arity="+arity); pc = arity_jump_tables[_table].lookup(arity, (_lbl));}}
+	} break;
+	case select_tuple_arity_1x_3L_2JA: if (true) {
+		int _src = code[pc++];
+		int _lbl = code[pc++];
+		int _table = code[pc++];
+		{ETuple tuple_val = reg[_src].testTuple(); if (tuple_val == null) pc = (_lbl); else {int arity=tuple_val.arity(); if (DEBUG) System.err.println("INT| select_tuple_arity: arity="+arity); pc = arity_jump_tables[_table].lookup(arity, (_lbl));}}
+	} break;
+	case select_tuple_arity_1y_3L_2JA: if (true) {
+		int _src = code[pc++];
+		int _lbl = code[pc++];
+		int _table = code[pc++];
+		{ETuple tuple_val = stack[sp - (_src)].testTuple(); if (tuple_val == null) pc = (_lbl); else {int arity=tuple_val.arity(); if (DEBUG) System.err.println("INT| select_tuple_arity: arity="+arity); pc = arity_jump_tables[_table].lookup(arity, (_lbl));}}
+	} break;
+	case call_only_2L: if (true) {
+		int _lbl = code[pc++];
+		{count_call(); proc.bump_reds(1);}; pc = (_lbl);
+	} break;
+	case call_1I_2L: if (true) {
+		int _keep = code[pc++];
+		int _lbl = code[pc++];
+		{proc.stack=stack; proc.sp=sp; stack=null;}; reg[0] = invoke_local(proc, reg, (_keep), (_lbl)); {stack=proc.stack; assert(proc.sp==sp);};
+	} break;
+	case call_ext_2E: if (true) {
+		int _extfun = code[pc++];
+		{proc.stack=stack; proc.sp=sp; stack=null;}; reg[0] = ext_funs[_extfun].invoke(proc, xregsArray(reg, ext_funs[_extfun].arity())); {stack=proc.stack; assert(proc.sp==sp);};
+	} break;
+	case call_ext_only_2E: if (true) {
+		int _extfun = code[pc++];
+		{proc.stack=stack; proc.sp=sp; stack=null;}; return ext_funs[_extfun].invoke(proc, xregsArray(reg, ext_funs[_extfun].arity()));
+	} break;
+	case call_ext_last_3I_2E: if (true) {
+		int _dealloc = code[pc++];
+		int _extfun = code[pc++];
+		{for (int _i=0; _i<(_dealloc); _i++) stack[sp--] = null;}; {proc.stack=stack; proc.sp=sp; stack=null;}; return ext_funs[_extfun].invoke(proc, xregsArray(reg, ext_funs[_extfun].arity()));
+	} break;
+	case apply_1I: if (true) {
+		int _arity = code[pc++];
+		{proc.stack=stack; proc.sp=sp; stack=null;}; int ary=(_arity); reg[0] = ERT.resolve_fun(reg[ary], reg[ary+1], ary).invoke(proc, xregsArray(reg,ary)); {stack=proc.stack; assert(proc.sp==sp);};
+	} break;
+	case call_fun_1I: if (true) {
+		int _arity = code[pc++];
+		{proc.stack=stack; proc.sp=sp; stack=null;}; int ary=(_arity); reg[0] = ((EFun)reg[ary]).invoke(proc, xregsArray(reg,ary)); {stack=proc.stack; assert(proc.sp==sp);};
+	} break;
+	case apply_last_2I_1I: if (true) {
+		int _dealloc = code[pc++];
+		int _arity = code[pc++];
+		{for (int _i=0; _i<(_dealloc); _i++) stack[sp--] = null;}; int ary = (_arity); EFun fun = ERT.resolve_fun(reg[ary], reg[ary+1], ary); {proc.stack=stack; proc.sp=sp; stack=null;}; return fun.invoke(proc, xregsArray(reg,ary));
+	} break;
+	case call_last_3I_2L: if (true) {
+		int _dealloc = code[pc++];
+		int _lbl = code[pc++];
+		{for (int _i=0; _i<(_dealloc); _i++) stack[sp--] = null;}; {count_call(); proc.bump_reds(1);}; pc = (_lbl);
+	} break;
+	case make_fun2_2I_1I_3IL: if (true) {
+		int _free_vars = code[pc++];
+		int _total_arity = code[pc++];
+		int _label = code[pc++];
+		reg[0] = (EFun.get_fun_with_handler( (_total_arity)-(_free_vars), new Closure(xregsArray(reg,(_free_vars)),  (_label)), getModuleClassLoader()));
+	} break;
+	case bif0_1E_2x_3L: if (true) {
+		int _bif = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif0 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif0_1E_2x_2nolabel: if (true) {
+		int _bif = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif0 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif0_1E_2y_3L: if (true) {
+		int _bif = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif0 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif0_1E_2y_2nolabel: if (true) {
+		int _bif = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif0 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif1_1E_2c_3x_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif1_1E_2c_3x_3nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif1_1E_2c_3y_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif1_1E_2c_3y_3nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif1_1E_2x_3x_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif1_1E_2x_3x_3nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif1_1E_2x_3y_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif1_1E_2x_3y_3nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif1_1E_2y_3x_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif1_1E_2y_3x_3nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif1_1E_2y_3y_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif1_1E_2y_3y_3nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif1 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2c_3c_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2c_3c_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], consts[_arg2]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2c_3c_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2c_3c_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], consts[_arg2]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2c_3x_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2c_3x_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], reg[_arg2]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2c_3x_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2c_3x_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], reg[_arg2]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2c_3y_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2c_3y_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2c_3y_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2c_3y_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2x_3c_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2x_3c_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], consts[_arg2]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2x_3c_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2x_3c_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], consts[_arg2]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2x_3x_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2x_3x_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], reg[_arg2]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2x_3x_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2x_3x_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], reg[_arg2]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2x_3y_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2x_3y_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2x_3y_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2x_3y_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2y_3c_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], consts[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2y_3c_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], consts[_arg2]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2y_3c_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], consts[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2y_3c_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], consts[_arg2]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2y_3x_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], reg[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2y_3x_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], reg[_arg2]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2y_3x_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], reg[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2y_3x_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], reg[_arg2]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2y_3y_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2y_3y_4x_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], stack[sp - (_arg2)]}); if (tmp==null) pc = nofailLabel(); reg[_dest] = (tmp);}
+	} break;
+	case bif2_1E_2y_3y_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case bif2_1E_2y_3y_4y_4nolabel: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif2 "+ext_funs[_bif]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], stack[sp - (_arg2)]}); if (tmp==null) pc = nofailLabel(); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif1_1E_2c_3x_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif1_1E_2c_3y_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif1_1E_2x_3x_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif1_1E_2x_3y_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif1_1E_2y_3x_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif1_1E_2y_3y_4L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2c_3c_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]+","+consts[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2c_3c_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]+","+consts[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2c_3x_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]+","+reg[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2c_3x_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]+","+reg[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2c_3y_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]+","+stack[sp - (_arg2)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2c_3y_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+consts[_arg1]+","+stack[sp - (_arg2)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{consts[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2x_3c_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]+","+consts[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2x_3c_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]+","+consts[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], consts[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2x_3x_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]+","+reg[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2x_3x_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]+","+reg[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], reg[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2x_3y_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]+","+stack[sp - (_arg2)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2x_3y_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+reg[_arg1]+","+stack[sp - (_arg2)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{reg[_arg1], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2y_3c_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]+","+consts[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], consts[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2y_3c_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]+","+consts[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], consts[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2y_3x_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]+","+reg[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], reg[_arg2]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2y_3x_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]+","+reg[_arg2]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], reg[_arg2]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case gc_bif2_1E_2y_3y_4x_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]+","+stack[sp - (_arg2)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); reg[_dest] = (tmp);}
+	} break;
+	case gc_bif2_1E_2y_3y_4y_5L: if (true) {
+		int _bif = code[pc++];
+		int _arg1 = code[pc++];
+		int _arg2 = code[pc++];
+		int _dest = code[pc++];
+		int _onFail = code[pc++];
+		{if (DEBUG) System.err.println("INTP| invoking bif "+ext_funs[_bif]+" with "+stack[sp - (_arg1)]+","+stack[sp - (_arg2)]); EObject tmp = ext_funs[_bif].invoke(proc, new EObject[]{stack[sp - (_arg1)], stack[sp - (_arg2)]}); if (tmp==null) pc = (_onFail); stack[sp - (_dest)] = (tmp);}
+	} break;
+	case loop_rec_2x_1L: if (true) {
+		int _dest = code[pc++];
+		int _label = code[pc++];
+		EObject tmp = ERT.loop_rec(proc); if (tmp==null) pc = (_label); else reg[_dest] = (tmp);
+	} break;
+	case loop_rec_2y_1L: if (true) {
+		int _dest = code[pc++];
+		int _label = code[pc++];
+		EObject tmp = ERT.loop_rec(proc); if (tmp==null) pc = (_label); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case wait_1L: if (true) {
+		int _label = code[pc++];
+		ERT.wait(proc); pc = (_label);
+	} break;
+	case loop_rec_end_1L: if (true) {
+		int _label = code[pc++];
+		ERT.loop_rec_end(proc); pc = (_label);
+	} break;
+	case recv_mark_1L: if (true) {
+		int _label = code[pc++];
+		ERT.recv_mark(proc, Module.this, (_label));
+	} break;
+	case recv_set_1L: if (true) {
+		int _label = code[pc++];
+		ERT.recv_set(proc, Module.this, (_label));
+	} break;
+	case wait_timeout_2c_1L: if (true) {
+		int _millis = code[pc++];
+		int _label = code[pc++];
+		if (ERT.wait_timeout(proc, consts[_millis])) pc = (_label);
+	} break;
+	case wait_timeout_2x_1L: if (true) {
+		int _millis = code[pc++];
+		int _label = code[pc++];
+		if (ERT.wait_timeout(proc, reg[_millis])) pc = (_label);
+	} break;
+	case wait_timeout_2y_1L: if (true) {
+		int _millis = code[pc++];
+		int _label = code[pc++];
+		if (ERT.wait_timeout(proc, stack[sp - (_millis)])) pc = (_label);
+	} break;
+	case timeout: if (true) {
+		ERT.timeout(proc);
+	} break;
+	case bs_start_match2_2x_4I_5x_1L: if (true) {
+		int _src = code[pc++];
+		int _slots = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = EBinMatchState.bs_start_match2(reg[_src], (_slots)); if (tmp==null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_start_match2_2x_4I_5y_1L: if (true) {
+		int _src = code[pc++];
+		int _slots = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = EBinMatchState.bs_start_match2(reg[_src], (_slots)); if (tmp==null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_start_match2_2y_4I_5x_1L: if (true) {
+		int _src = code[pc++];
+		int _slots = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = EBinMatchState.bs_start_match2(stack[sp - (_src)], (_slots)); if (tmp==null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_start_match2_2y_4I_5y_1L: if (true) {
+		int _src = code[pc++];
+		int _slots = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = EBinMatchState.bs_start_match2(stack[sp - (_src)], (_slots)); if (tmp==null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_match_string_2x_3c_1L: if (true) {
+		int _src = code[pc++];
+		int _string = code[pc++];
+		int _failLabel = code[pc++];
+		if (((EBinMatchState)(reg[_src])).bs_match_string((EBitString)consts[_string]) == null) pc = (_failLabel);
+	} break;
+	case bs_match_string_2y_3c_1L: if (true) {
+		int _src = code[pc++];
+		int _string = code[pc++];
+		int _failLabel = code[pc++];
+		if (((EBinMatchState)(stack[sp - (_src)])).bs_match_string((EBitString)consts[_string]) == null) pc = (_failLabel);
+	} break;
+	case bs_get_integer2_2x_4c_6I_7x_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(reg[_src])).bs_get_integer2(((ESmall)consts[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_get_integer2_2x_4c_6I_7y_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(reg[_src])).bs_get_integer2(((ESmall)consts[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_get_integer2_2x_4x_6I_7x_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(reg[_src])).bs_get_integer2(((ESmall)reg[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_get_integer2_2x_4x_6I_7y_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(reg[_src])).bs_get_integer2(((ESmall)reg[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_get_integer2_2x_4y_6I_7x_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(reg[_src])).bs_get_integer2(((ESmall)stack[sp - (_bits)]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_get_integer2_2x_4y_6I_7y_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(reg[_src])).bs_get_integer2(((ESmall)stack[sp - (_bits)]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_get_integer2_2y_4c_6I_7x_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(stack[sp - (_src)])).bs_get_integer2(((ESmall)consts[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_get_integer2_2y_4c_6I_7y_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(stack[sp - (_src)])).bs_get_integer2(((ESmall)consts[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_get_integer2_2y_4x_6I_7x_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(stack[sp - (_src)])).bs_get_integer2(((ESmall)reg[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_get_integer2_2y_4x_6I_7y_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(stack[sp - (_src)])).bs_get_integer2(((ESmall)reg[_bits]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_get_integer2_2y_4y_6I_7x_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(stack[sp - (_src)])).bs_get_integer2(((ESmall)stack[sp - (_bits)]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else reg[_dest] = (tmp);
+	} break;
+	case bs_get_integer2_2y_4y_6I_7y_1L: if (true) {
+		int _src = code[pc++];
+		int _bits = code[pc++];
+		int _flags = code[pc++];
+		int _dest = code[pc++];
+		int _failLabel = code[pc++];
+		EObject tmp = ((EBinMatchState)(stack[sp - (_src)])).bs_get_integer2(((ESmall)stack[sp - (_bits)]).intValue(), (_flags)); if (tmp == null) pc = (_failLabel); else stack[sp - (_dest)] = (tmp);
+	} break;
+	case bs_test_tail2_2x_3I_1L: if (true) {
+		int _src = code[pc++];
+		int _bits_left = code[pc++];
+		int _failLabel = code[pc++];
+		if (! ((EBinMatchState)(reg[_src])).bs_test_tail2((_bits_left))) pc = (_failLabel);
+	} break;
+	case bs_test_tail2_2y_3I_1L: if (true) {
+		int _src = code[pc++];
+		int _bits_left = code[pc++];
+		int _failLabel = code[pc++];
+		if (! ((EBinMatchState)(stack[sp - (_src)])).bs_test_tail2((_bits_left))) pc = (_failLabel);
+	} break;
+	case K_catch_2L_1y: if (true) {
+		int _lbl = code[pc++];
+		int _y = code[pc++];
+		if (DEBUG) System.err.println("INT| push-exh: "+exh+"/"+(_lbl)); stack[sp - (_y)] = (exh); exh = ( false ? new TryExceptionHandler((_lbl), exh) : new CatchExceptionHandler((_lbl), exh));
+	} break;
+	case K_try_2L_1y: if (true) {
+		int _lbl = code[pc++];
+		int _y = code[pc++];
+		if (DEBUG) System.err.println("INT| push-exh: "+exh+"/"+(_lbl)); stack[sp - (_y)] = (exh); exh = ( true ? new TryExceptionHandler((_lbl), exh) : new CatchExceptionHandler((_lbl), exh));
+	} break;
+	case catch_end_1y: if (true) {
+		int _y = code[pc++];
+		if (DEBUG) System.err.println("INT| pop-exh: "+exh); {exh = (ExceptionHandlerStackElement) stack[sp - (_y)];};
+	} break;
+	case try_end_1y: if (true) {
+		int _y = code[pc++];
+		if (DEBUG) System.err.println("INT| pop-exh: "+exh); {exh = (ExceptionHandlerStackElement) stack[sp - (_y)];};
+	} break;
+	case try_case: if (true) {
+		{/* Work done by TryExceptionHandler. */}
+	} break;
+	case raise_1c_2c: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], consts[_value], consts[_trace]);
+	} break;
+	case raise_1c_2x: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], consts[_value], reg[_trace]);
+	} break;
+	case raise_1c_2y: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], consts[_value], stack[sp - (_trace)]);
+	} break;
+	case raise_1x_2c: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], reg[_value], consts[_trace]);
+	} break;
+	case raise_1x_2x: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], reg[_value], reg[_trace]);
+	} break;
+	case raise_1x_2y: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], reg[_value], stack[sp - (_trace)]);
+	} break;
+	case raise_1y_2c: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], stack[sp - (_value)], consts[_trace]);
+	} break;
+	case raise_1y_2x: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], stack[sp - (_value)], reg[_trace]);
+	} break;
+	case raise_1y_2y: if (true) {
+		int _value = code[pc++];
+		int _trace = code[pc++];
+		throw ERT.raise(reg[0], stack[sp - (_value)], stack[sp - (_trace)]);
+	} break;
+
+
+							default:
+								throw new Error("Unimplemented internal opcode: "+opcode+" at "+module_name()+"@"+(pc-1));
+							}
+						}
+					} catch (ErlangException e) {
+						if (stack==null) { // POST_CALL():
+							stack=proc.stack; assert(proc.sp==sp);
+						}
+
+						if (exh != null) {
+							proc.last_exception = e;
+							exh.catchAction(e,reg);
+							pc = exh.pc;
+							continue;
+						} else throw(e);
+					}
+			}
+		} // class Function
+
+		class Closure extends Function {
+			final EObject[] env;
+
+			public Closure(EObject[] env, int start_pc) {
+				super(start_pc);
+				this.env = env;
+			}
+
+			public EObject invoke(final EProc proc, final EObject[] args) throws Pausable {
+				count_call();
+				if (DEBUG) System.err.println("INT| Closure invoked @ "+start_pc);
+				int argCnt = args.length;
+				int envCnt = env.length;
+				EObject[] reg = new EObject[1024]; //??
+				for (int i=0; i<argCnt; i++) {reg[i] = args[i];} //??
+				for (int i=0; i<envCnt; i++) {reg[argCnt+i] = env[i];}
+				if (DEBUG) for (int i=0; i<argCnt+envCnt; i++) System.err.println("INT| reg#"+i+"="+reg[i]);
+				return interpret(proc, start_pc, reg);
+			}
+		}
+
+    } // class Module
+} // class Interpreter
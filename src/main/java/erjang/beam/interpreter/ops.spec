@@ -27,7 +27,7 @@ if_end:
 
 %class AAI(a1:A, a2:A, i3:I)
 func_info mod fun arity:
-	{System.err.println("INT| func_info: "+GET(mod)+":"+GET(fun)+"/"+GET(arity)+" called with "+REGS_AS_SEQ(GET(arity))); PRE_CALL(); return ERT.func_info((EAtom)GET(mod), (EAtom)GET(fun), REGS_AS_SEQ(GET(arity)));}
+	{if (DEBUG) System.err.println("INT| func_info: "+GET(mod)+":"+GET(fun)+"/"+GET(arity)+" called with "+REGS_AS_SEQ(GET(arity))); PRE_CALL(); return ERT.func_info((EAtom)GET(mod), (EAtom)GET(fun), REGS_AS_SEQ(GET(arity)));}
 
 %class S(src:S)
 badmatch src:
@@ -161,10 +161,10 @@ is_ne lbl a b:
 ##	(src1 instanceof Literal && src2 instanceof Literal && !src1.equals(src2)) => {}
 
 is_lt lbl a b:
-	if (GET(a).compareTo(GET(b)) < 0) GOTO(lbl);
+	if (GET(a).compareTo(GET(b)) >= 0) GOTO(lbl);
 
 is_ge lbl a b:
-	if (GET(a).compareTo(GET(b)) >= 0) GOTO(lbl);
+	if (GET(a).compareTo(GET(b)) < 0) GOTO(lbl);
 
 %class Select(src:S jumpTable:JV defaultLabel:L)
 select_val src table lbl:
@@ -172,13 +172,13 @@ select_val src table lbl:
 
 %class Select(src:S jumpTable:JA defaultLabel:L)
 select_tuple_arity src table lbl:
-	{ETuple tuple_val = GET(src).testTuple(); if (tuple_val == null) GOTO(lbl); else {int arity=tuple_val.arity(); System.err.println("INT| select_tuple_arity: arity="+arity); TABLEJUMP(table, arity, GET_PC(lbl));}}
+	{ETuple tuple_val = GET(src).testTuple(); if (tuple_val == null) GOTO(lbl); else {int arity=tuple_val.arity(); if (DEBUG) System.err.println("INT| select_tuple_arity: arity="+arity); TABLEJUMP(table, arity, GET_PC(lbl));}}
 
 ##########==========       FUNCTION CALLS   	  ==========##########
 
 %class IL(i1:I label:L)
 call_only keep lbl:
-	GOTO(lbl);
+	LOCAL_TAIL_CALL(); GOTO(lbl);
 
 call keep lbl:
 	PRE_CALL(); reg[0] = LOCAL_CALL(GET(keep), GET_PC(lbl)); POST_CALL();
@@ -208,7 +208,7 @@ apply_last arity dealloc:
 
 %class ILI(i1:I label:L i3:I)
 call_last keep lbl dealloc:
-	STACK_DEALLOC(GET(dealloc)); GOTO(lbl);
+	STACK_DEALLOC(GET(dealloc)); LOCAL_TAIL_CALL(); GOTO(lbl);
 
 %class F(anon_fun.total_arity:I, anon_fun.free_vars:I, anon_fun.label:IL)
 make_fun2 total_arity free_vars label:
@@ -220,25 +220,25 @@ make_fun2 total_arity free_vars label:
 
 %class Bif(ext_fun:E dest:D label:L0)
 bif0 bif dest onFail:
-	{System.err.println("INTP| invoking bif0 "+GET(bif)); EObject tmp = GET(bif).invoke(proc, new EObject[]{}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
+	{if (DEBUG) System.err.println("INTP| invoking bif0 "+GET(bif)); EObject tmp = GET(bif).invoke(proc, new EObject[]{}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
 
 %class Bif(ext_fun:E args[0]:S dest:D label:L0)
 bif1 bif arg1 dest onFail:
-	{System.err.println("INTP| invoking bif1 "+GET(bif)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
+	{if (DEBUG) System.err.println("INTP| invoking bif1 "+GET(bif)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
 
 %class Bif(ext_fun:E args[0]:S args[1]:S dest:D label:L0)
 bif2 bif arg1 arg2 dest onFail:
-	{System.err.println("INTP| invoking bif2 "+GET(bif)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1), GET(arg2)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
+	{if (DEBUG) System.err.println("INTP| invoking bif2 "+GET(bif)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1), GET(arg2)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
 
 %class GcBif(ext_fun:E args[0]:S dest:D label:L)
 
 gc_bif1 bif arg1 dest onFail:
-	{System.err.println("INTP| invoking bif "+GET(bif)+" with "+GET(arg1)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
+	{if (DEBUG) System.err.println("INTP| invoking bif "+GET(bif)+" with "+GET(arg1)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
 
 %class GcBif(ext_fun:E args[0]:S args[1]:S dest:D label:L)
 
 gc_bif2 bif arg1 arg2 dest onFail:
-	{System.err.println("INTP| invoking bif "+GET(bif)+" with "+GET(arg1)+","+GET(arg2)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1), GET(arg2)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
+	{if (DEBUG) System.err.println("INTP| invoking bif "+GET(bif)+" with "+GET(arg1)+","+GET(arg2)); EObject tmp = GET(bif).invoke(proc, new EObject[]{GET(arg1), GET(arg2)}); if (tmp==null) GOTO(onFail); SET(dest, tmp);}
 # TODO: Streamline these calls - e.g. cast to EFun2 instead of creating array
 
 
@@ -254,6 +254,12 @@ wait label:
 loop_rec_end label:
 	ERT.loop_rec_end(proc); GOTO(label);
 
+recv_mark label:
+	ERT.recv_mark(proc, Module.this, GET_PC(label));
+
+recv_set label:
+	ERT.recv_set(proc, Module.this, GET_PC(label));
+
 %class LS(label:L src:S)
 wait_timeout label millis:
 	if (ERT.wait_timeout(proc, GET(millis))) GOTO(label);
@@ -296,17 +302,17 @@ bs_test_tail2 failLabel src bits_left:
 
 %class YL(y:y, label:L)
 K_catch y lbl:
-	System.err.println("INT| push-exh: "+exh+"/"+GET_PC(lbl)); SET(y, exh); exh = MAKE_EXH_LINK(GET_PC(lbl), false);
+	if (DEBUG) System.err.println("INT| push-exh: "+exh+"/"+GET_PC(lbl)); SET(y, exh); exh = MAKE_EXH_LINK(GET_PC(lbl), false);
 
 K_try y lbl:
-	System.err.println("INT| push-exh: "+exh+"/"+GET_PC(lbl)); SET(y, exh); exh = MAKE_EXH_LINK(GET_PC(lbl), true);
+	if (DEBUG) System.err.println("INT| push-exh: "+exh+"/"+GET_PC(lbl)); SET(y, exh); exh = MAKE_EXH_LINK(GET_PC(lbl), true);
 
 %class Y(y:y)
 catch_end y:
-	System.err.println("INT| pop-exh: "+exh); RESTORE_EXH(GET(y));
+	if (DEBUG) System.err.println("INT| pop-exh: "+exh); RESTORE_EXH(GET(y));
 
 try_end y:
-	System.err.println("INT| pop-exh: "+exh); RESTORE_EXH(GET(y));
+	if (DEBUG) System.err.println("INT| pop-exh: "+exh); RESTORE_EXH(GET(y));
 
 %class Insn()
 try_case:
@@ -527,6 +527,8 @@ public class BeamLoader extends CodeTables {
 			case wait:
 			case jump:
 			case fcheckerror:
+			case recv_mark:
+			case recv_set:
 			{
 				Label lbl = readLabel();
 				return new Insn.L(opcode, lbl);
@@ -0,0 +1,66 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.bench;
+
+import erjang.EBinary;
+import erjang.EBitString;
+import erjang.EBitStringBuilder;
+import erjang.ESmall;
+
+/**
+ * Builds binaries of growing size one byte at a time, the way
+ * <code>&lt;&lt;Acc/binary, X:8&gt;&gt;</code> does in a loop, and prints
+ * the time per byte; it should stay flat as the size doubles.
+ *
+ * <pre>
+ *   java erjang.bench.BinaryAppendBench [max-megabytes]
+ * </pre>
+ */
+public class BinaryAppendBench {
+
+	static EBitString build(int size) {
+		EBitString acc = EBinary.EMPTY;
+		for (int i = 0; i < size; i++) {
+			EBitStringBuilder b = EBitStringBuilder.bs_append(acc, 8, 0);
+			b.put_integer(new ESmall(i & 0xff), 8, 0);
+			acc = b.bitstring();
+		}
+		return acc;
+	}
+
+	public static void main(String[] args) {
+		int max_mb = args.length > 0 ? Integer.parseInt(args[0]) : 16;
+
+		// warm up
+		build(1 << 20);
+
+		for (int mb = 1; mb <= max_mb; mb *= 2) {
+			int size = mb << 20;
+			long start = System.nanoTime();
+			EBitString res = build(size);
+			long time = System.nanoTime() - start;
+
+			if (res.byteSize() != size || res.octetAt(size - 1) != ((size - 1) & 0xff))
+				throw new Error("wrong result");
+
+			System.out.printf("%4d MB: %6d ms, %5.1f ns/byte%n", mb,
+					time / 1000000, (double) time / size);
+		}
+	}
+}
@@ -0,0 +1,157 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang.bench;
+
+import java.lang.reflect.Field;
+import java.util.concurrent.CountDownLatch;
+
+import kilim.Pausable;
+import kilim.Scheduler;
+import kilim.Task;
+import erjang.ECallSite;
+import erjang.EFun;
+import erjang.EModuleManager;
+import erjang.EObject;
+import erjang.ESmall;
+import erjang.FunID;
+
+/**
+ * Cost of a call to a function in another module, through a static
+ * <code>EFun</code> field per caller (each written by reflection when the
+ * callee is loaded) and through a shared {@link ECallSite}; and the cost
+ * of reloading a callee that <code>importers</code> modules call, which
+ * rewrites every caller's field but only one call site.
+ *
+ * <pre>
+ *   java erjang.bench.CallSiteBench [calls] [importers]
+ * </pre>
+ */
+public class CallSiteBench {
+
+	static final EObject[] ARGS = new EObject[] { ESmall.make(42) };
+
+	static EFun field;
+	static ECallSite site;
+
+	public static EObject identity(EObject x) {
+		return x;
+	}
+
+	static class Caller extends Task {
+		final int count;
+		final boolean use_site;
+		final CountDownLatch done = new CountDownLatch(1);
+		long time;
+
+		Caller(int count, boolean use_site) {
+			this.count = count;
+			this.use_site = use_site;
+		}
+
+		@Override
+		public void execute() throws Pausable {
+			long start = System.nanoTime();
+			if (use_site) {
+				for (int i = 0; i < count; i++) {
+					site.target.invoke(null, ARGS);
+				}
+			} else {
+				for (int i = 0; i < count; i++) {
+					field.invoke(null, ARGS);
+				}
+			}
+			time = System.nanoTime() - start;
+			done.countDown();
+		}
+	}
+
+	static long call(Scheduler s, int count, boolean use_site)
+			throws InterruptedException {
+		Caller c = new Caller(count, use_site);
+		c.setScheduler(s);
+		c.start();
+		c.done.await();
+		return c.time;
+	}
+
+	/** what a compiled module's import field binder used to do */
+	static class FieldBinder extends EModuleManager.FunctionBinder {
+		final Field field;
+		final FunID fun;
+
+		FieldBinder(Field field, FunID fun) {
+			this.field = field;
+			this.fun = fun;
+		}
+
+		@Override
+		public void bind(EFun value) throws Exception {
+			field.set(null, value);
+		}
+
+		@Override
+		public FunID getFunID() {
+			return fun;
+		}
+	}
+
+	public static void main(String[] args) throws Exception {
+		int calls = args.length > 0 ? Integer.parseInt(args[0]) : 10000000;
+		int importers = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+
+		EFun target = EFun.make(CallSiteBench.class.getMethod("identity",
+				EObject.class));
+		FunID by_field = new FunID("call_site_bench", "by_field", 1);
+		FunID by_site = new FunID("call_site_bench", "by_site", 1);
+
+		Field f = CallSiteBench.class.getDeclaredField("field");
+		for (int i = 0; i < importers; i++) {
+			// distinct binders, as each importing module has its own
+			EModuleManager.add_import(by_field, new FieldBinder(f, by_field));
+		}
+		for (int i = 0; i < importers; i++) {
+			site = EModuleManager.call_site(by_site);
+		}
+
+		for (int round = 0; round < 5; round++) {
+			long start = System.nanoTime();
+			EModuleManager.add_export(null, by_field, target);
+			long rebind_field = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			EModuleManager.add_export(null, by_site, target);
+			long rebind_site = System.nanoTime() - start;
+
+			System.out.printf("reload, %d importers: fields %8.1f us, "
+					+ "call site %6.1f us%n", importers, rebind_field / 1e3,
+					rebind_site / 1e3);
+		}
+
+		Scheduler s = new Scheduler(1);
+		for (int round = 0; round < 5; round++) {
+			long t_field = call(s, calls, false);
+			long t_site = call(s, calls, true);
+			System.out.printf("%d calls: field %5.2f ns/call, "
+					+ "call site %5.2f ns/call%n", calls, (double) t_field
+					/ calls, (double) t_site / calls);
+		}
+		s.shutdown();
+	}
+}
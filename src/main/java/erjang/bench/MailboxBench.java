@@ -0,0 +1,153 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.bench;
+
+import java.util.concurrent.CountDownLatch;
+
+import kilim.Mailbox;
+import kilim.Pausable;
+import kilim.Scheduler;
+import kilim.Task;
+import erjang.EMailbox;
+import erjang.EObject;
+import erjang.ESmall;
+
+/**
+ * Fan-in benchmark: many producer tasks send to a single consumer task,
+ * once through a kilim Mailbox (sized like the old process mailbox) and
+ * once through an EMailbox.
+ *
+ * <pre>
+ *   java erjang.bench.MailboxBench [producers] [messages-per-producer] [threads]
+ * </pre>
+ */
+public class MailboxBench {
+
+	static final EObject MSG = new ESmall(42);
+
+	static abstract class Consumer extends Task {
+		final int expect;
+		final CountDownLatch done = new CountDownLatch(1);
+
+		Consumer(int expect) {
+			this.expect = expect;
+		}
+
+		abstract void send(EObject msg) throws Pausable;
+	}
+
+	static class KilimConsumer extends Consumer {
+		final Mailbox<EObject> mbox = new Mailbox<EObject>(10, 1000);
+
+		KilimConsumer(int expect) {
+			super(expect);
+		}
+
+		@Override
+		void send(EObject msg) throws Pausable {
+			mbox.put(msg);
+		}
+
+		@Override
+		public void execute() throws Pausable {
+			for (int i = 0; i < expect; i++) {
+				mbox.get();
+			}
+			done.countDown();
+		}
+	}
+
+	static class EConsumer extends Consumer {
+		final EMailbox mbox = new EMailbox(this);
+
+		EConsumer(int expect) {
+			super(expect);
+		}
+
+		@Override
+		void send(EObject msg) throws Pausable {
+			mbox.put(msg);
+		}
+
+		@Override
+		public void execute() throws Pausable {
+			for (int i = 0; i < expect; i++) {
+				mbox.get();
+			}
+			done.countDown();
+		}
+	}
+
+	static class Producer extends Task {
+		final Consumer target;
+		final int count;
+
+		Producer(Consumer target, int count) {
+			this.target = target;
+			this.count = count;
+		}
+
+		@Override
+		public void execute() throws Pausable {
+			for (int i = 0; i < count; i++) {
+				target.send(MSG);
+			}
+		}
+	}
+
+	static long run(Scheduler s, Consumer c, int producers, int count)
+			throws InterruptedException {
+		long start = System.nanoTime();
+		c.setScheduler(s);
+		c.start();
+		for (int i = 0; i < producers; i++) {
+			Producer p = new Producer(c, count);
+			p.setScheduler(s);
+			p.start();
+		}
+		c.done.await();
+		return System.nanoTime() - start;
+	}
+
+	public static void main(String[] args) throws Exception {
+		int producers = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		int count = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int threads = args.length > 2 ? Integer.parseInt(args[2]) : Runtime
+				.getRuntime().availableProcessors();
+
+		Scheduler s = new Scheduler(threads);
+		int total = producers * count;
+
+		for (int round = 0; round < 5; round++) {
+			long k = run(s, new KilimConsumer(total), producers, count);
+			long e = run(s, new EConsumer(total), producers, count);
+			System.out.println("fan-in " + producers + "x" + count
+					+ " on " + threads + " threads: kilim.Mailbox "
+					+ (k / 1000000) + "ms (" + rate(total, k)
+					+ " msg/s), EMailbox " + (e / 1000000) + "ms ("
+					+ rate(total, e) + " msg/s)");
+		}
+
+		s.shutdown();
+	}
+
+	static long rate(int total, long nanos) {
+		return nanos == 0 ? 0 : total * 1000000000L / nanos;
+	}
+}
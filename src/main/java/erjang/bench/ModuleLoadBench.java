@@ -0,0 +1,84 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.bench;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.util.ArrayList;
+import java.util.List;
+
+import erjang.EAtom;
+import erjang.ERT;
+import erjang.beam.EUtil;
+
+/**
+ * Loads every .beam file in the given directories (the <code>erlang</code>
+ * module first, if present) and prints the time taken, which is what
+ * module loading adds to the boot.  Compare
+ * <code>-Derj.load=compile</code> with <code>-Derj.load=tiered</code>,
+ * and use an empty <code>-Derj.cache.dir</code> to see a cold start.
+ * Run with <code>-Djava.util.logging.config.file=...</code> and
+ * <code>erjang.EModuleLoader.level=FINE</code> to see modules being
+ * compiled as they get hot.
+ *
+ * <pre>
+ *   java -Derj.load=tiered erjang.bench.ModuleLoadBench ebin-dir...
+ * </pre>
+ */
+public class ModuleLoadBench {
+
+	public static void main(String[] args) throws Exception {
+		List<File> beams = new ArrayList<File>();
+		for (String dir : args) {
+			File[] files = new File(dir).listFiles(new FileFilter() {
+				@Override
+				public boolean accept(File f) {
+					return f.getName().endsWith(".beam");
+				}
+			});
+			if (files == null)
+				continue;
+			for (File f : files) {
+				if (f.getName().equals("erlang.beam"))
+					beams.add(0, f);
+				else
+					beams.add(f);
+			}
+		}
+
+		int failed = 0;
+		long start = System.nanoTime();
+		for (File beam : beams) {
+			String name = beam.getName();
+			name = name.substring(0, name.length() - 5);
+			try {
+				ERT.load_module(EAtom.intern(name), EUtil.readFile(beam));
+			} catch (Exception e) {
+				failed += 1;
+				System.err.println("cannot load " + beam + ": " + e);
+			}
+		}
+		long time = System.nanoTime() - start;
+
+		System.out.printf("%s: loaded %d modules in %.1f ms (%d failed)%n",
+				System.getProperty("erj.load", "compile"), beams.size()
+						- failed, time / 1e6, failed);
+		System.exit(0);
+	}
+}
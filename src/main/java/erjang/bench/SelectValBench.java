@@ -0,0 +1,127 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang.bench;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+
+import kilim.Pausable;
+import kilim.Scheduler;
+import kilim.Task;
+import erjang.EAtom;
+import erjang.EFun;
+import erjang.EModuleManager;
+import erjang.EObject;
+import erjang.EProc;
+import erjang.ERT;
+import erjang.FunID;
+import erjang.beam.EUtil;
+
+/**
+ * Cost of a <code>select_val</code> over many atoms: calls
+ * <code>prim_inet:is_sockopt_val/2</code>, which finds the type of a socket
+ * option in a case over 46 option names, with options spread over the
+ * clauses.  Run with the default <code>-Derj.load=compile</code>, and an
+ * empty <code>-Derj.cache.dir</code> when comparing compilers.
+ *
+ * <pre>
+ *   java erjang.bench.SelectValBench [preloaded-ebin-dir] [calls]
+ * </pre>
+ */
+public class SelectValBench {
+
+	/** options of type bool, set to true */
+	static final String[] BOOLS = { "reuseaddr", "keepalive", "dontroute",
+			"broadcast", "nodelay", "multicast_loop", "exit_on_close",
+			"delay_send", "send_timeout_close", "sctp_nodelay",
+			"sctp_disable_fragments", "sctp_i_want_mapped_v4_addr" };
+
+	/** options of type int, set to 1 */
+	static final String[] INTS = { "sndbuf", "recbuf", "priority", "tos",
+			"multicast_ttl", "high_watermark", "low_watermark",
+			"send_timeout", "packet_size", "read_packets", "sctp_autoclose",
+			"sctp_maxseg", "buffer", "header" };
+
+	static class Caller extends Task {
+		final EFun fun;
+		final EObject[][] args;
+		final int count;
+		final CountDownLatch done = new CountDownLatch(1);
+		long time;
+
+		Caller(EFun fun, EObject[][] args, int count) {
+			this.fun = fun;
+			this.args = args;
+			this.count = count;
+		}
+
+		@Override
+		public void execute() throws Pausable {
+			EProc proc = new EProc(null, EAtom.intern("select_val_bench"),
+					EAtom.intern("run"), ERT.NIL);
+			long start = System.nanoTime();
+			for (int i = 0; i < count; i++) {
+				fun.invoke(proc, args[i % args.length]);
+			}
+			time = System.nanoTime() - start;
+			done.countDown();
+		}
+	}
+
+	static double call(Scheduler s, EFun fun, EObject[][] args, int count)
+			throws InterruptedException {
+		Caller c = new Caller(fun, args, count);
+		c.setScheduler(s);
+		c.start();
+		c.done.await();
+		return (double) c.time / count;
+	}
+
+	public static void main(String[] args) throws Exception {
+		File dir = new File(args.length > 0 ? args[0]
+				: "src/main/erl/preloaded/ebin");
+		int calls = args.length > 1 ? Integer.parseInt(args[1]) : 10000000;
+
+		for (String mod : new String[] { "erlang", "prim_inet" }) {
+			ERT.load_module(EAtom.intern(mod), EUtil.readFile(new File(dir,
+					mod + ".beam")));
+		}
+		EFun is_sockopt_val = EModuleManager.resolve(new FunID("prim_inet",
+				"is_sockopt_val", 2));
+
+		// valid values only, as an invalid one costs an exception
+		EObject[][] opts = new EObject[BOOLS.length + INTS.length][];
+		for (int i = 0; i < BOOLS.length; i++) {
+			opts[i] = new EObject[] { EAtom.intern(BOOLS[i]), ERT.TRUE };
+		}
+		for (int i = 0; i < INTS.length; i++) {
+			opts[BOOLS.length + i] = new EObject[] { EAtom.intern(INTS[i]),
+					ERT.box(1) };
+		}
+
+		Scheduler s = new Scheduler(1);
+		for (int round = 0; round < 5; round++) {
+			System.out.printf("%d calls: %5.2f ns/call%n", calls, call(s,
+					is_sockopt_val, opts, calls));
+		}
+		s.shutdown();
+		System.exit(0);
+	}
+}
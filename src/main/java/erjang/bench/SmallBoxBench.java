@@ -0,0 +1,119 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.bench;
+
+import java.lang.management.ManagementFactory;
+
+import erjang.EObject;
+import erjang.ERT;
+import erjang.ESmall;
+import erjang.ETuple2;
+
+/**
+ * Integer boxing as done by the code compiled from
+ * <code>src/main/erl/fib.erl</code> (<code>fib:fibo/1</code>) and
+ * <code>src/main/erl/ring.erl</code> (the <code>{Source, Val+1}</code>
+ * hop), with <code>new</code> allocating an ESmall for every result (as
+ * ERT.box used to) and <code>cached</code> boxing through ERT.box.  Prints
+ * the time and the bytes allocated per operation.
+ *
+ * ring.erl counts to 10000 (<code>CYCLES</code>), past the default cache
+ * range; run with <code>-Derj.small_cache.high=10000</code> to see the
+ * whole ring cached.
+ *
+ * <pre>
+ *   java erjang.bench.SmallBoxBench [fib-n [ring-cycles [laps]]]
+ * </pre>
+ */
+public class SmallBoxBench {
+
+	static boolean cached;
+
+	static ESmall box(int value) {
+		return cached ? ERT.box(value) : new ESmall(value);
+	}
+
+	static long calls;
+
+	/** fibo(0) -> 0; fibo(1) -> 1; fibo(N) -> fibo(N-1) + fibo(N-2). */
+	static ESmall fibo(ESmall n) {
+		calls += 1;
+		if (n.value < 2)
+			return n;
+		return box(fibo(box(n.value - 1)).value + fibo(box(n.value - 2)).value);
+	}
+
+	/**
+	 * The work done per lap of the ring: the node that started the message
+	 * gets {Source, Val} back and sends on {Source, Val+1}; the other nodes
+	 * just forward the tuple, so they do not box anything.
+	 */
+	static EObject ring(int cycles) {
+		EObject self = ERT.TRUE;
+		EObject msg = new ETuple2(self, box(0));
+		for (;;) {
+			ESmall val = (ESmall) ((ETuple2) msg).elem2;
+			if (val.value + 1 == cycles)
+				return msg;
+			msg = new ETuple2(self, box(val.value + 1));
+		}
+	}
+
+	static long allocated() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean()).getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+
+	static void run(int n, int cycles, int laps, boolean cache) {
+		cached = cache;
+		String mode = cache ? "cached" : "new";
+
+		calls = 0;
+		long alloc = allocated();
+		long start = System.nanoTime();
+		ESmall res = fibo(box(n));
+		long time = System.nanoTime() - start;
+		alloc = allocated() - alloc;
+		System.out.printf("%-6s fibo(%d) = %d: %7.1f ms, %6.2f bytes allocated/call%n",
+				mode, n, res.value, time / 1e6, (double) alloc / calls);
+
+		alloc = allocated();
+		start = System.nanoTime();
+		for (int i = 0; i < laps; i++)
+			ring(cycles);
+		time = System.nanoTime() - start;
+		alloc = allocated() - alloc;
+		System.out.printf("%-6s ring(%d) x %d: %7.1f ms, %6.2f bytes allocated/lap%n",
+				mode, cycles, laps, time / 1e6, (double) alloc / ((long) laps * cycles));
+	}
+
+	public static void main(String[] args) {
+		int n = args.length > 0 ? Integer.parseInt(args[0]) : 27;
+		int cycles = args.length > 1 ? Integer.parseInt(args[1]) : 10000;
+		int laps = args.length > 2 ? Integer.parseInt(args[2]) : 1000;
+
+		// warm up
+		run(n - 5, cycles, laps / 10, false);
+		run(n - 5, cycles, laps / 10, true);
+
+		run(n, cycles, laps, false);
+		run(n, cycles, laps, true);
+	}
+}
@@ -0,0 +1,67 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.bench;
+
+import erjang.EAtom;
+import erjang.EProc;
+import erjang.ERT;
+
+/**
+ * Creates a million (or <code>count</code>) processes that have not run
+ * yet, which is what a mostly idle process costs before it has links,
+ * monitors or a dictionary.  Prints the retained heap per process, as
+ * measured after a GC, next to what <code>process_info(Pid, memory)</code>
+ * reports.  Run with a large enough heap, e.g. <code>-Xmx4g</code>.
+ *
+ * <pre>
+ *   java erjang.bench.SpawnBench [count]
+ * </pre>
+ */
+public class SpawnBench {
+
+	static long used() {
+		Runtime rt = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return rt.totalMemory() - rt.freeMemory();
+	}
+
+	public static void main(String[] args) {
+		int count = args.length > 0 ? Integer.parseInt(args[0]) : 1000000;
+		EAtom mod = EAtom.intern("spawn_bench");
+		EAtom fun = EAtom.intern("idle");
+
+		// warm up, and load what a process needs
+		new EProc(null, mod, fun, ERT.NIL);
+
+		EProc[] procs = new EProc[count];
+		long before = used();
+		long start = System.nanoTime();
+		for (int i = 0; i < count; i++) {
+			procs[i] = new EProc(null, mod, fun, ERT.NIL);
+		}
+		long time = System.nanoTime() - start;
+		long after = used();
+
+		System.out.printf("%d processes: %7.1f ms, %6.1f bytes retained/process, "
+				+ "process_info memory %d bytes%n", count, time / 1e6,
+				(double) (after - before) / count, procs[count - 1].memory());
+	}
+}
@@ -0,0 +1,115 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.bench;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+import erjang.driver.tcp_inet.TCPINet;
+
+/**
+ * Loopback echo, with the echo side receiving through the inet driver's
+ * {@link TCPINet#tcp_read_packet}: once with a <code>bufsz</code> within
+ * INET_MAX_BUFFER, which reads into the per-thread direct buffer and
+ * copies out exactly what arrived, and once with a <code>bufsz</code> above
+ * it, which reads into a <code>bufsz</code> heap buffer per read.  Prints
+ * the echo throughput and the bytes allocated by the echo thread per byte
+ * echoed.
+ *
+ * <pre>
+ *   java erjang.bench.TcpEchoBench [message-bytes [megabytes]]
+ * </pre>
+ */
+public class TcpEchoBench {
+
+	static long allocated() {
+		return ((com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean()).getThreadAllocatedBytes(Thread
+				.currentThread().getId());
+	}
+
+	static void run(final int msg, final int bufsz, final long total)
+			throws Exception {
+		final ServerSocketChannel server = ServerSocketChannel.open();
+		server.socket().bind(new InetSocketAddress("127.0.0.1", 0));
+		final long[] alloc = new long[1];
+
+		Thread echo = new Thread() {
+			@Override
+			public void run() {
+				try {
+					SocketChannel ch = server.accept();
+					long start = allocated();
+					ByteBuffer buf;
+					while ((buf = TCPINet.tcp_read_packet(ch, bufsz)) != null) {
+						buf.flip();
+						while (buf.hasRemaining())
+							ch.write(buf);
+					}
+					alloc[0] = allocated() - start;
+					ch.close();
+				} catch (IOException e) {
+					e.printStackTrace();
+				}
+			}
+		};
+		echo.start();
+
+		SocketChannel client = SocketChannel.open(server.socket()
+				.getLocalSocketAddress());
+		ByteBuffer out = ByteBuffer.allocate(msg);
+		ByteBuffer in = ByteBuffer.allocate(msg);
+
+		long start = System.nanoTime();
+		for (long done = 0; done < total; done += msg) {
+			out.clear();
+			while (out.hasRemaining())
+				client.write(out);
+			in.clear();
+			while (in.hasRemaining())
+				client.read(in);
+		}
+		long time = System.nanoTime() - start;
+		client.close();
+		echo.join();
+		server.close();
+
+		System.out.printf("bufsz %7d, %7d-byte messages: %8.1f MB/s, %6.2f bytes allocated/byte%n",
+				bufsz, msg, total * 1000.0 / time,
+				(double) alloc[0] / total);
+	}
+
+	public static void main(String[] args) throws Exception {
+		int msg = args.length > 0 ? Integer.parseInt(args[0]) : 100;
+		long total = (args.length > 1 ? Long.parseLong(args[1]) : 16) << 20;
+		int pooled = TCPINet.INET_MAX_BUFFER;
+		int heap = 4 * TCPINet.INET_MAX_BUFFER;
+
+		// warm up
+		run(msg, pooled, total / 4);
+		run(msg, heap, total / 4);
+
+		run(msg, pooled, total);
+		run(msg, heap, total);
+	}
+}
@@ -0,0 +1,170 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.driver;
+
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * The async thread pool (<code>+A N</code>) used for
+ * {@link EDriverInstance#driver_async(EAsync)}.
+ *
+ * Blocking driver work (file I/O, mostly) runs here rather than on the
+ * kilim scheduler threads, so a slow disk cannot stall Erlang processes.
+ * Each worker thread has its own queue, and all jobs for a given port go
+ * to the same worker, so a port's jobs run and complete in the order they
+ * were submitted.  When a job is done, {@link EDriverTask#async_done(EAsync)}
+ * posts it back to the port task, which calls {@link EAsync#ready()}.
+ *
+ * With a pool size of 0, jobs run directly on the calling thread, as in
+ * BEAM with <code>+A 0</code>.
+ */
+public final class EAsyncPool {
+
+	static Logger log = Logger.getLogger(EAsyncPool.class.getName());
+
+	static final int DEFAULT_SIZE = 10;
+
+	static final class Job {
+		final EAsync job;
+		final EDriverTask dt;
+		final long queued = System.nanoTime();
+
+		Job(EAsync job, EDriverTask dt) {
+			this.job = job;
+			this.dt = dt;
+		}
+	}
+
+	static final class Worker extends Thread {
+		final LinkedBlockingQueue<Job> queue = new LinkedBlockingQueue<Job>();
+
+		Worker(int n) {
+			super("erjang-async-" + n);
+			setDaemon(true);
+		}
+
+		@Override
+		public void run() {
+			while (true) {
+				Job j;
+				try {
+					j = queue.take();
+				} catch (InterruptedException e) {
+					continue;
+				}
+				execute(j);
+			}
+		}
+	}
+
+	private static final Worker[] workers;
+
+	private static final AtomicLong jobs_done = new AtomicLong();
+	private static final AtomicLong total_latency = new AtomicLong();
+	private static final AtomicLong max_latency = new AtomicLong();
+
+	static {
+		int n = DEFAULT_SIZE;
+		String prop = System.getProperty("erj.async_threads",
+				System.getProperty("erjang.beam.option.+A"));
+		if (prop != null) {
+			try {
+				n = Integer.parseInt(prop.trim());
+			} catch (NumberFormatException e) {
+				log.warning("bad async thread pool size: " + prop);
+			}
+		}
+		workers = new Worker[Math.max(0, Math.min(n, 1024))];
+		for (int i = 0; i < workers.length; i++) {
+			workers[i] = new Worker(i);
+			workers[i].start();
+		}
+	}
+
+	private EAsyncPool() {
+	}
+
+	/** @return the number of async threads */
+	public static int size() {
+		return workers.length;
+	}
+
+	/**
+	 * Run <code>job.async()</code> on the worker bound to <code>dt</code>'s
+	 * port, and then post the job back to the port.
+	 */
+	public static void submit(EAsync job, EDriverTask dt) {
+		Job j = new Job(job, dt);
+		if (workers.length == 0) {
+			execute(j);
+		} else {
+			int n = (dt.id & 0x7fffffff) % workers.length;
+			workers[n].queue.add(j);
+		}
+	}
+
+	static void execute(Job j) {
+		try {
+			j.job.async();
+		} catch (Throwable e) {
+			log.log(Level.SEVERE, "async job failed for " + j.dt, e);
+			return;
+		} finally {
+			record(System.nanoTime() - j.queued);
+		}
+		j.dt.async_done(j.job);
+	}
+
+	private static void record(long latency) {
+		jobs_done.incrementAndGet();
+		total_latency.addAndGet(latency);
+		long max;
+		while (latency > (max = max_latency.get())) {
+			if (max_latency.compareAndSet(max, latency))
+				break;
+		}
+	}
+
+	/** @return the number of jobs waiting in each worker's queue */
+	public static int[] queue_depths() {
+		int[] res = new int[workers.length];
+		for (int i = 0; i < workers.length; i++) {
+			res[i] = workers[i].queue.size();
+		}
+		return res;
+	}
+
+	/** @return the number of jobs run so far */
+	public static long jobs_done() {
+		return jobs_done.get();
+	}
+
+	/** @return the total time from submit to completion, in microseconds */
+	public static long total_latency() {
+		return total_latency.get() / 1000;
+	}
+
+	/** @return the longest time from submit to completion, in microseconds */
+	public static long max_latency() {
+		return max_latency.get() / 1000;
+	}
+}
@@ -21,14 +21,20 @@ package erjang.driver;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectableChannel;
+import java.util.List;
 
+import kilim.Mailbox;
 import kilim.Pausable;
 
+import erjang.EAtom;
 import erjang.EHandle;
 import erjang.EObject;
 import erjang.EPID;
+import erjang.ERT;
 import erjang.ERef;
+import erjang.ETuple2;
 
 /**
  * 
@@ -69,6 +75,40 @@ public abstract class EDriverControl {
 		
 	}
 
+	/**
+	 * Output several packets at once.  Each element of packets is framed as
+	 * if it had been passed to {@link #outputv(EHandle, ByteBuffer[])} by
+	 * itself; drivers that can write them all in one go should override this.
+	 * 
+	 * @throws IOException 
+	 * @throws Pausable 
+	 */
+	protected void outputv_packets(EHandle caller, List<ByteBuffer[]> packets) throws IOException, Pausable {
+		for (ByteBuffer[] ev : packets) {
+			outputv(caller, ev);
+		}
+	}
+
+	/**
+	 * Send <code>count</code> bytes of <code>file</code>, starting at
+	 * <code>offset</code>, on this port's socket.  The result,
+	 * <code>{ok, Sent}</code> or <code>{error, Reason}</code>, is put in
+	 * <code>reply</code> when the transfer is done.  Only socket drivers
+	 * support this.
+	 * 
+	 * @throws Pausable 
+	 */
+	protected void sendfile(FileChannel file, long offset, long count, Mailbox<EObject> reply) throws Pausable {
+		reply.putnb(new ETuple2(ERT.am_error, EAtom.intern("enotsup")));
+	}
+
+	/**
+	 * @return the file of a file driver instance, or null
+	 */
+	protected FileChannel file_channel() {
+		return null;
+	}
+
 	/**
 	 * @param pid TODO
 	 * @param op
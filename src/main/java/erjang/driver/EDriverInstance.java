@@ -34,10 +34,12 @@ import erjang.EHandle;
 import erjang.EInternalPort;
 import erjang.EObject;
 import erjang.EPID;
+import erjang.EPair;
 import erjang.EPeer;
 import erjang.EPort;
 import erjang.ERT;
 import erjang.ERef;
+import erjang.ESeq;
 import erjang.EString;
 import erjang.ETask;
 import erjang.ETuple;
@@ -147,6 +149,46 @@ public abstract class EDriverInstance extends EDriverControl {
 		task.output_from_driver(out);
 	}
 	
+	/**
+	 * Like {@link #driver_output2(ByteBuffer, ByteBuffer)}, but in binary
+	 * mode each buffer of <code>ev</code> is delivered as a binary of its
+	 * own, the last one as the tail of the list:
+	 * <code>[H1, ..., Hn, Bin1, ... | BinM]</code>.
+	 */
+	protected void driver_outputv(ByteBuffer header, ByteBuffer[] ev) throws Pausable {
+
+		int status = task.status;
+		
+		if ((status & EDriverTask.ERTS_PORT_SFLG_CLOSING) != 0) {
+			return;
+		}
+		
+		header.flip();
+		for (int i = 0; i < ev.length; i++) {
+			ev[i].flip();
+		}
+
+		if ((status & (EDriverTask.ERTS_PORT_SFLG_DISTRIBUTION | EDriverTask.ERTS_PORT_SFLG_LINEBUF_IO)) != 0) {
+			throw new NotImplemented();
+		}
+
+		EObject tail;
+		if (task.send_binary_data) {
+			if (ev.length == 0) {
+				tail = ERT.NIL;
+			} else {
+				tail = EBinary.make(ev[ev.length - 1]);
+				for (int i = ev.length - 2; i >= 0; i--) {
+					tail = new EPair(EBinary.make(ev[i]), tail);
+				}
+			}
+		} else {
+			tail = EString.make(flatten(ev));
+		}
+
+		task.output_from_driver(new EBinList(header, tail));
+	}
+	
 	protected void driver_output(ByteBuffer buf) throws Pausable {
 		
 		int status = task.status;
@@ -37,15 +37,20 @@ import static erjang.EPort.am_use_stdio;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectableChannel;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import kilim.Lock;
+import kilim.Mailbox;
 import kilim.Pausable;
 import kilim.Task;
 import erjang.EAbstractNode;
@@ -104,6 +109,9 @@ public class EDriverTask extends ETask<EInternalPort> implements
 		this.owner = ipid;
 	}
 	
+	private final ConcurrentHashMap<SelectableChannel, ReadyEvent> ready_events
+		= new ConcurrentHashMap<SelectableChannel, ReadyEvent>();
+
 	private	static ConcurrentHashMap<Integer,EDriverTask> all_ports 
 		= new ConcurrentHashMap<Integer,EDriverTask> ();
 
@@ -575,7 +583,7 @@ public class EDriverTask extends ETask<EInternalPort> implements
 		// TODO: do special things for reason=kill ?
 		
 		System.err.println("sending exit msg to self "+this);
-		mbox.putb(ETuple.make(ERT.am_EXIT, from, reason));
+		mbox.put(ETuple.make(ERT.am_EXIT, from, reason));
 	}
 
 	/* (non-Javadoc)
@@ -600,23 +608,55 @@ public class EDriverTask extends ETask<EInternalPort> implements
 	 */
 	@Override
 	public void ready(final SelectableChannel ch, final int readyOps) {
-		mbox.putb(new EPortControl() {
-			@Override
-			public void execute() throws Pausable {
-				if ((readyOps & EDriverInstance.ERL_DRV_READ) == EDriverInstance.ERL_DRV_READ) {
-					instance.readyInput(ch);
-				}
-				if ((readyOps & EDriverInstance.ERL_DRV_WRITE) == EDriverInstance.ERL_DRV_WRITE) {
-					instance.readyOutput(ch);
-				}
-				if ((readyOps & EDriverInstance.ERL_DRV_CONNECT) == EDriverInstance.ERL_DRV_CONNECT) {
-					instance.readyConnect(ch);
-				}
-				if ((readyOps & EDriverInstance.ERL_DRV_ACCEPT) == EDriverInstance.ERL_DRV_ACCEPT) {
-					instance.readyAccept(ch);
-				}
+		ReadyEvent ev = ready_events.get(ch);
+		if (ev == null) {
+			ev = new ReadyEvent(ch);
+			ReadyEvent old = ready_events.putIfAbsent(ch, ev);
+			if (old != null)
+				ev = old;
+		}
+		if (ev.add(readyOps)) {
+			mbox.put(ev);
+		}
+	}
+
+	/**
+	 * Readiness of one channel, reused for every select event on it.  While
+	 * it sits in the mailbox, further events are merged into it.
+	 */
+	private final class ReadyEvent extends EPortControl {
+		final SelectableChannel ch;
+		final AtomicInteger ops = new AtomicInteger();
+
+		ReadyEvent(SelectableChannel ch) {
+			this.ch = ch;
+		}
+
+		/** @return true if this event is not in the mailbox already */
+		boolean add(int readyOps) {
+			int old;
+			do {
+				old = ops.get();
+			} while (!ops.compareAndSet(old, old | readyOps));
+			return old == 0;
+		}
+
+		@Override
+		public void execute() throws Pausable {
+			int readyOps = ops.getAndSet(0);
+			if ((readyOps & EDriverInstance.ERL_DRV_READ) == EDriverInstance.ERL_DRV_READ) {
+				instance.readyInput(ch);
 			}
-		});
+			if ((readyOps & EDriverInstance.ERL_DRV_WRITE) == EDriverInstance.ERL_DRV_WRITE) {
+				instance.readyOutput(ch);
+			}
+			if ((readyOps & EDriverInstance.ERL_DRV_CONNECT) == EDriverInstance.ERL_DRV_CONNECT) {
+				instance.readyConnect(ch);
+			}
+			if ((readyOps & EDriverInstance.ERL_DRV_ACCEPT) == EDriverInstance.ERL_DRV_ACCEPT) {
+				instance.readyAccept(ch);
+			}
+		}
 	}
 
 	/*
@@ -627,7 +667,8 @@ public class EDriverTask extends ETask<EInternalPort> implements
 	 */
 	@Override
 	public void released(final SelectableChannel ch) {
-		mbox.putb(new EPortControl() {
+		ready_events.remove(ch);
+		mbox.put(new EPortControl() {
 			@Override
 			public void execute() throws Pausable {
 				instance.stopSelect(ch);
@@ -669,7 +710,7 @@ public class EDriverTask extends ETask<EInternalPort> implements
 	 */
 	public void async_done(final EAsync job) {
 
-		mbox.putb(new EPortControl() {
+		mbox.put(new EPortControl() {
 			@Override
 			public void execute() throws Pausable {
 				instance.readyAsync(job);
@@ -720,7 +761,7 @@ public class EDriverTask extends ETask<EInternalPort> implements
 	}
 
 	public void exit(final EObject reason) {
-		mbox.putb(new EPortControl() {
+		mbox.put(new EPortControl() {
 			@Override
 			public void execute() throws Pausable, IOException {
 				throw new ErlangExit(reason);
@@ -742,5 +783,48 @@ public class EDriverTask extends ETask<EInternalPort> implements
 		this.command(sender, ev);
 	}
 
+	/**
+	 * magic direct call !  Clears <code>scheduled</code> once this port gets
+	 * around to it, and then writes everything in <code>packets</code> as one
+	 * batch, so packets queued in the meantime share a single write.
+	 */
+	public void outputv_batch(final EHandle sender,
+			final Queue<ByteBuffer[]> packets, final AtomicBoolean scheduled)
+			throws Pausable {
+		mbox.put(new EPortControl() {
+			@Override
+			public void execute() throws Pausable, IOException {
+				scheduled.set(false);
+				List<ByteBuffer[]> batch = new ArrayList<ByteBuffer[]>();
+				ByteBuffer[] ev;
+				while ((ev = packets.poll()) != null) {
+					batch.add(ev);
+				}
+				if (!batch.isEmpty()) {
+					instance.outputv_packets(sender, batch);
+				}
+			}
+		});
+	}
+
+	/**
+	 * Have this (socket) port send part of a file, as
+	 * {@link EDriverControl#sendfile(FileChannel, long, long, Mailbox)}.
+	 */
+	public void sendfile(final FileChannel file, final long offset,
+			final long count, final Mailbox<EObject> reply) {
+		mbox.put(new EPortControl() {
+			@Override
+			public void execute() throws Pausable, IOException {
+				instance.sendfile(file, offset, count, reply);
+			}
+		});
+	}
+
+	/** @return the file of a file port, or null */
+	public FileChannel file_channel() {
+		return instance.file_channel();
+	}
+
 
 }
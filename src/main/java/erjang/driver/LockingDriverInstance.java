@@ -20,10 +20,13 @@ package erjang.driver;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
 import java.nio.channels.SelectableChannel;
+import java.util.List;
 import java.util.concurrent.locks.ReentrantLock;
 
 import kilim.Lock;
+import kilim.Mailbox;
 import kilim.Pausable;
 import kilim.Task;
 
@@ -86,6 +89,31 @@ class LockingDriverInstance extends EDriverControl {
 		}
 	}
 
+	@Override
+	protected void outputv_packets(EHandle caller, List<ByteBuffer[]> packets) throws IOException, Pausable {
+		lock.lock();
+		try {
+			target.outputv_packets(caller, packets);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	protected void sendfile(FileChannel file, long offset, long count, Mailbox<EObject> reply) throws Pausable {
+		lock.lock();
+		try {
+			target.sendfile(file, offset, count, reply);
+		} finally {
+			lock.unlock();
+		}
+	}
+
+	@Override
+	protected FileChannel file_channel() {
+		return target.file_channel();
+	}
+
 	@Override
 	public void processExit(ERef monitor) throws Pausable {
 		// System.err.println(Task.getCurrentTask() + ">>processExit");
@@ -25,21 +25,56 @@ import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
 import java.nio.channels.Selector;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
-import java.util.Set;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
+import erjang.ERT;
 import erjang.driver.NIOChannelInfo.Interest;
 
 /**
+ * A selector thread.  There is a pool of these, by default one per
+ * scheduler thread (<code>-Derj.selectors=N</code> to change that), and
+ * each channel always goes to the same one, chosen by its identity hash.
  * 
+ * Interest changes are queued and picked up at the top of the select loop;
+ * the selector is only woken up for the first change after it went to
+ * sleep, and not at all for changes made on its own thread.
  */
 public class NIOSelector extends Thread {
 
-	static final NIOSelector INSTANCE = new NIOSelector();
+	static Logger log = Logger.getLogger(NIOSelector.class.getName());
+
+	static final NIOSelector[] SELECTORS;
+	static {
+		int n = ERT.threadPoolSize();
+		String prop = System.getProperty("erj.selectors");
+		if (prop != null) {
+			try {
+				n = Integer.parseInt(prop.trim());
+			} catch (NumberFormatException e) {
+				log.warning("bad number of selectors: " + prop);
+			}
+		}
+		SELECTORS = new NIOSelector[Math.max(1, n)];
+		for (int i = 0; i < SELECTORS.length; i++) {
+			SELECTORS[i] = new NIOSelector(i);
+		}
+	}
+
 	private Selector selector;
 
-	public NIOSelector() {
+	/** true once someone has called selector.wakeup() since the last select */
+	private final AtomicBoolean woken = new AtomicBoolean();
+
+	/** keys cancelled since the last select; only used by this thread */
+	private final List<NIOChannelInfo> cancellations = new ArrayList<NIOChannelInfo>();
+
+	public NIOSelector(int n) {
+		super("erjang-selector-" + n);
 		setDaemon(true);
 		try {
 			selector = Selector.open();
@@ -49,8 +84,14 @@ public class NIOSelector extends Thread {
 		start();
 	}
 
+	/** @return the selector thread that handles ch */
+	static NIOSelector for_channel(SelectableChannel ch) {
+		int h = System.identityHashCode(ch) & 0x7fffffff;
+		return SELECTORS[h % SELECTORS.length];
+	}
+
 	static public SelectionKey interest(SelectableChannel ch) {
-		return ch.keyFor(INSTANCE.selector);
+		return ch.keyFor(for_channel(ch).selector);
 	}
 	
 	ConcurrentLinkedQueue<NIOChannelInfo.Interest> setting = new ConcurrentLinkedQueue<NIOChannelInfo.Interest>();
@@ -58,23 +99,24 @@ public class NIOSelector extends Thread {
 
 	@Override
 	public void run() {
-		List<NIOChannelInfo> cancellations = new ArrayList<NIOChannelInfo>();
 
 		select_loop: while (true) {
 
-			while (!setting.isEmpty()) {
-				process_add_interest_request(setting.remove());
+			woken.set(false);
+
+			Interest interest;
+			while ((interest = setting.poll()) != null) {
+				process_add_interest_request(interest);
 			}
 			
-			while(!clearing.isEmpty()) {
-				process_clear_interest_request(clearing.remove(), cancellations);
+			while ((interest = clearing.poll()) != null) {
+				process_clear_interest_request(interest, cancellations);
 			}
 
-			int num;
 			if (!cancellations.isEmpty()) {
 
 				try {
-					num = selector.selectNow();
+					selector.selectNow();
 				} catch (ClosedSelectorException e) {
 					// we're doomed!
 					e.printStackTrace();
@@ -93,24 +135,8 @@ public class NIOSelector extends Thread {
 
 			} else {
 
-				if (false) {
-					System.err.println("select loop");
-					
-					for (SelectionKey key : selector.keys()) {
-						if (key.isValid()) {
-							
-							SelectableChannel ch = key.channel();
-							int interst = key.interestOps();
-							System.err.println(Integer.toBinaryString(interst) + ":" 
-									+ ch);
-							
-						}
-					}
-				}
-				
-				
 				try {
-					num = selector.select();
+					selector.select();
 				} catch (ClosedSelectorException e) {
 					e.printStackTrace();
 					return;
@@ -122,13 +148,17 @@ public class NIOSelector extends Thread {
 
 			// now, process the readyset
 
-			Set<SelectionKey> ready = selector.selectedKeys();
+			Iterator<SelectionKey> ready = selector.selectedKeys().iterator();
+			while (ready.hasNext()) {
+				SelectionKey key = ready.next();
+				ready.remove();
 
-			for (SelectionKey key : ready) {
-				// System.err.println("READY: "+key.channel()+":"+Integer.toBinaryString(key.readyOps()));
-				
 				NIOChannelInfo req = (NIOChannelInfo) key.attachment();
-				req.ready(key);
+				try {
+					req.ready(key);
+				} catch (RuntimeException e) {
+					log.log(Level.WARNING, "failed to dispatch " + key.channel(), e);
+				}
 			}
 
 		}
@@ -214,24 +244,34 @@ public class NIOSelector extends Thread {
 	
 	static public void setInterest(SelectableChannel ch, int op, 
 			NIOHandler handler) {
-		INSTANCE._addInterest(ch, op, handler);
+		for_channel(ch)._addInterest(ch, op, handler);
 	}
 
 	void _addInterest(SelectableChannel ch, int op, 
 			NIOHandler handler) {
 		setting.add(new NIOChannelInfo.Interest(ch, handler, op, false));
-		selector.wakeup();
+		wakeup();
 	}
 	
 	static public void clearInterest(SelectableChannel ch, int op, boolean releaseNotify,
 			NIOHandler handler) {
-		INSTANCE._removeInterest(ch, op, releaseNotify, handler);
+		for_channel(ch)._removeInterest(ch, op, releaseNotify, handler);
 	}
 
 	void _removeInterest(SelectableChannel ch, int op, boolean releaseNotify,
 			NIOHandler handler) {
 		clearing.add(new NIOChannelInfo.Interest(ch, handler, op, releaseNotify));
-		selector.wakeup();
+		wakeup();
+	}
+
+	/**
+	 * Make sure the select loop sees newly queued interest changes.  On
+	 * our own thread, the loop gets to them before it selects again.
+	 */
+	private void wakeup() {
+		if (Thread.currentThread() != this && woken.compareAndSet(false, true)) {
+			selector.wakeup();
+		}
 	}
 
 }
@@ -30,6 +30,7 @@ import java.nio.ByteOrder;
 import java.nio.channels.FileChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.charset.Charset;
+import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.GregorianCalendar;
 import java.util.LinkedList;
@@ -73,6 +74,16 @@ public class EFile extends EDriverInstance {
 	public int posix_errno;
 	public boolean write_error;
 	private long write_delay;
+
+	/**
+	 * Read-ahead buffer; bytes <code>read_offset .. read_offset+read_size</code>
+	 * have been read from fd but not yet delivered.  The delivered part is
+	 * shared with binaries we have handed out, so the buffer is never written
+	 * to again; more data always goes into a fresh one (see ReadAsync).
+	 */
+	private int read_bufsize;
+	private ByteBuffer read_binp;
+	private int read_offset;
 	private int read_size;
 
 	/**
@@ -202,6 +213,84 @@ public class EFile extends EDriverInstance {
 		}
 	}
 
+	/**
+	 * FILE_READ and FILE_READ_LINE: read into a fresh buffer, starting with
+	 * what is left in the read-ahead buffer.  For a line, keep reading (and
+	 * doubling the buffer) until we see a newline or end of file.  Whatever
+	 * is not delivered stays around as the new read-ahead buffer.
+	 */
+	private final class ReadAsync extends FileAsync {
+		final int size;
+		ByteBuffer binp;
+
+		private ReadAsync(int command, int size, int alloc_size) {
+			super.command = command;
+			super.fd = EFile.this.fd;
+			super.level = 1;
+			super.reply = true;
+
+			this.size = size;
+			this.binp = ByteBuffer.allocate(Math.max(alloc_size, read_size));
+			if (read_size > 0) {
+				ByteBuffer rest = read_binp.duplicate();
+				rest.limit(read_offset + read_size).position(read_offset);
+				binp.put(rest);
+			}
+		}
+
+		@Override
+		public void async() {
+			try {
+				if (command == FILE_READ_LINE) {
+					int scan = binp.position();
+					while (true) {
+						if (!binp.hasRemaining()) {
+							ByteBuffer nb = ByteBuffer.allocate(binp.capacity() * 2);
+							binp.flip();
+							nb.put(binp);
+							binp = nb;
+						}
+						if (fd.read(binp) < 0
+								|| find_nl(binp, scan, binp.position()) >= 0) {
+							break;
+						}
+						scan = binp.position();
+					}
+				} else {
+					while (binp.position() < size && fd.read(binp) >= 0) {
+						/* keep reading */
+					}
+				}
+				result_ok = true;
+			} catch (IOException e) {
+				result_ok = false;
+				posix_errno = IO.exception_to_posix_code(e);
+			} catch (OutOfMemoryError e) {
+				result_ok = false;
+				posix_errno = Posix.ENOMEM;
+			}
+		}
+
+		@Override
+		public void ready() throws Pausable {
+			if (!result_ok) {
+				reply_posix_error(posix_errno);
+				return;
+			}
+
+			binp.flip();
+			read_binp = binp;
+			read_offset = 0;
+			read_size = binp.limit();
+
+			if (command == FILE_READ_LINE) {
+				reply_read_line();
+			} else {
+				reply_buf(read_consume(Math.min(size, read_size)));
+			}
+		}
+	}
+
 	/**
 	 * 
 	 */
@@ -337,6 +426,12 @@ public class EFile extends EDriverInstance {
 
 	/* Limits */
 
+	/** FILE_READ_FILE memory-maps files at least this large */
+	public static final int MMAP_THRESHOLD = 64 * 1024;
+
+	/** initial buffer for FILE_READ_LINE when there is no read_ahead */
+	public static final int DEFAULT_LINEBUF_SIZE = 512;
+
 	public static final int FILE_SEGMENT_READ = (256 * 1024);
 	public static final int FILE_SEGMENT_WRITE = (256 * 1024);
 
@@ -377,9 +472,9 @@ public class EFile extends EDriverInstance {
 		this.invoke = null;
 		this.cq = new LinkedList<FileAsync>();
 		this.timer_state = TimerState.IDLE;
-		// this.read_bufsize = 0;
-		// this.read_binp = (ByteBuffer) null;
-		// this.read_offset = 0;
+		this.read_bufsize = 0;
+		this.read_binp = (ByteBuffer) null;
+		this.read_offset = 0;
 		this.read_size = 0;
 		this.write_delay = 0L;
 		this.write_bufsize = 0;
@@ -492,7 +587,12 @@ public class EFile extends EDriverInstance {
 				return;
 			}
 
-			//TODO: Flush & check.
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
+			flush_read();
 
 			// Is this check necessary?
 			/*
@@ -547,68 +647,46 @@ public class EFile extends EDriverInstance {
 				return;
 			}
 
-			//TODO: Write-flush & check.
-
-			FileAsync d = new FileAsync() {
-				private ByteBuffer binp = null;
-				{
-					super.level = 2;
-					super.again = true;
-					this.fd = EFile.this.fd;
-				}
-
-				@Override
-				public void async() {
-					// first time only, initialize binp
-					if (binp == null) {
-						try {
-							binp = ByteBuffer.allocate((int) size);
-						} catch (OutOfMemoryError e) {
-							result_ok = false;
-							posix_errno = Posix.ENOMEM;
-							return;
-						}
-					}
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
 
-					if (binp != null && binp.hasRemaining()) {
-						try {
-							int bytes = fd.read(binp);
+			if (read_size >= size) {
+				/* we already have all the data */
+				reply_buf(read_consume((int) size));
+				break;
+			}
 
-							if (bytes == -1) {
-								result_ok = true;
-								again = false;
-								return;
-							}
+			cq_enq(new ReadAsync(FILE_READ, (int) size, Math.max((int) size,
+					read_bufsize)));
+			break;
+		}
 
-							if (binp.hasRemaining()) {
-								again = true;
-								return;
-							} else {
-								result_ok = true;
-							}
-						} catch (IOException e) {
-							result_ok = false;
-							posix_errno = IO.exception_to_posix_code(e);
-						}
-					}
+		case FILE_READ_LINE: {
+			if (ev.length > 1 || ev[0].hasRemaining()) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
 
-					again = false;
-				}
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
 
-				@Override
-				public void ready() throws Pausable {
-					if (!result_ok) {
-						reply_posix_error(posix_errno);
-						return;
-					}
+			if (read_size > 0
+					&& find_nl(read_binp, read_offset, read_offset + read_size) >= 0) {
+				reply_read_line();
+				break;
+			}
 
-					reply_buf(binp);
-					binp.flip();
-				}
-			};
-			cq_enq(d);
+			int alloc_size = read_bufsize > 0 ? read_bufsize : DEFAULT_LINEBUF_SIZE;
+			cq_enq(new ReadAsync(FILE_READ_LINE, 0, Math.max(alloc_size,
+					2 * read_size)));
 			break;
-		} //break;
+		}
 		case FILE_READ_FILE: {
 			if (ev.length > 1 && ev[0].hasRemaining()) {
 				reply_posix_error(Posix.EINVAL);
@@ -662,7 +740,20 @@ public class EFile extends EDriverInstance {
 						}
 					}
 
-					if (binp != null && binp.hasRemaining()) {
+					if (binp != null && binp.position() == 0
+							&& size >= MMAP_THRESHOLD) {
+						/* one copy from the page cache, rather than
+						 * going through a temporary direct buffer */
+						try {
+							binp.put(fd.map(FileChannel.MapMode.READ_ONLY, 0, size));
+						} catch (IOException e) {
+							/* fall back to reading it */
+						}
+					}
+
+					if (binp != null && !binp.hasRemaining()) {
+						result_ok = true;
+					} else if (binp != null) {
 
 						try {
 							int bytes = fd.read(binp);
@@ -670,9 +761,7 @@ public class EFile extends EDriverInstance {
 								// urgh, file change size under our feet!
 								result_ok = false;
 								posix_errno = Posix.EIO;
-							}
-
-							if (binp.hasRemaining()) {
+							} else if (binp.hasRemaining()) {
 								again = true;
 								return;
 							} else {
@@ -715,9 +804,12 @@ public class EFile extends EDriverInstance {
 		
 		case FILE_WRITE: {
 			int[] errp;
-			int reply_size = ev[0].remaining();
+			int reply_size = 0;
+			for (int i = 0; i < ev.length; i++) {
+				reply_size += ev[i].remaining();
+			}
 			
-			FileAsync d = null;
+			lseek_flush_read();
 			
 			q_mtx.lock();
 			driver_enqv(ev);
@@ -741,6 +833,312 @@ public class EFile extends EDriverInstance {
 			break;
 		}
 
+		case FILE_PWRITEV: {
+			ByteBuffer hdr = ev[0];
+			if (hdr.remaining() < 4) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			int n = hdr.getInt();
+			if (n < 0 || hdr.remaining() < 16L * n) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			final long[] offs = new long[n];
+			long[] sizes = new long[n];
+			for (int i = 0; i < n; i++) {
+				offs[i] = hdr.getLong();
+				sizes[i] = hdr.getLong();
+				if (offs[i] < 0 || sizes[i] < 0) {
+					reply_posix_error(Posix.EINVAL);
+					return;
+				}
+			}
+
+			final ByteBuffer[][] data = split_iov(ev, sizes);
+			if (data == null) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
+			lseek_flush_read();
+
+			cq_enq(new FileAsync() {
+				/** number of items written */
+				int cnt;
+				{
+					this.command = FILE_PWRITEV;
+					this.level = 1;
+					this.fd = EFile.this.fd;
+				}
+
+				@Override
+				public void async() {
+					try {
+						for (cnt = 0; cnt < offs.length; cnt++) {
+							long pos = offs[cnt];
+							for (ByteBuffer b : data[cnt]) {
+								while (b.hasRemaining()) {
+									pos += fd.write(b, pos);
+								}
+							}
+						}
+						result_ok = true;
+					} catch (IOException e) {
+						result_ok = false;
+						posix_errno = IO.exception_to_posix_code(e);
+					}
+				}
+
+				@Override
+				public void ready() throws Pausable {
+					if (result_ok) {
+						reply_Uint(cnt);
+					} else {
+						reply_Uint_posix_error(cnt, posix_errno);
+					}
+				}
+			});
+			break;
+		}
+
+		case FILE_PREADV: {
+			ByteBuffer buf = flatten(ev);
+			if (buf.remaining() < 8) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			buf.getInt(); /* reserved */
+			int n = buf.getInt();
+			if (n < 0 || buf.remaining() != 16L * n) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			final long[] offs = new long[n];
+			final int[] sizes = new int[n];
+			for (int i = 0; i < n; i++) {
+				offs[i] = buf.getLong();
+				long size = buf.getLong();
+				if (offs[i] < 0) {
+					reply_posix_error(Posix.EINVAL);
+					return;
+				}
+				if (size > Integer.MAX_VALUE || size < 0) {
+					reply_posix_error(Posix.ENOMEM);
+					return;
+				}
+				sizes[i] = (int) size;
+			}
+
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
+
+			cq_enq(new FileAsync() {
+				ByteBuffer[] data;
+				{
+					this.command = FILE_PREADV;
+					this.level = 1;
+					this.fd = EFile.this.fd;
+				}
+
+				@Override
+				public void async() {
+					try {
+						data = new ByteBuffer[offs.length];
+						for (int i = 0; i < offs.length; i++) {
+							ByteBuffer b = data[i] = ByteBuffer.allocate(sizes[i]);
+							while (b.hasRemaining()
+									&& fd.read(b, offs[i] + b.position()) > 0) {
+								/* keep reading */
+							}
+						}
+						result_ok = true;
+					} catch (IOException e) {
+						result_ok = false;
+						posix_errno = IO.exception_to_posix_code(e);
+					} catch (OutOfMemoryError e) {
+						data = null;
+						result_ok = false;
+						posix_errno = Posix.ENOMEM;
+					}
+				}
+
+				@Override
+				public void ready() throws Pausable {
+					if (!result_ok) {
+						reply_posix_error(posix_errno);
+						return;
+					}
+
+					/* [FILE_RESP_LDATA, <<0:32, N:32, Size1:64, ...>>, Data1, ...] */
+					ByteBuffer[] out = new ByteBuffer[1 + data.length];
+					ByteBuffer sizes = out[0] = ByteBuffer.allocate(4 + 4 + 8 * data.length);
+					sizes.putInt(0);
+					sizes.putInt(data.length);
+					for (int i = 0; i < data.length; i++) {
+						sizes.putLong(data[i].position());
+						out[i + 1] = data[i];
+					}
+
+					ByteBuffer header = ByteBuffer.allocate(1);
+					header.put(FILE_RESP_LDATA);
+					driver_outputv(header, out);
+				}
+			});
+			break;
+		}
+
+		case FILE_IPREAD: {
+			ByteBuffer buf = flatten(ev);
+			if (buf.remaining() != 1 + 8 + 4
+					|| buf.get() != IPREAD_S32BU_P32BU) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			final long offs = buf.getLong();
+			final long max_size = buf.getInt() & 0xffffffffL;
+
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
+
+			cq_enq(new FileAsync() {
+				boolean eof;
+				long size, pos;
+				ByteBuffer data;
+				{
+					this.command = FILE_IPREAD;
+					this.level = 1;
+					this.fd = EFile.this.fd;
+				}
+
+				@Override
+				public void async() {
+					try {
+						ByteBuffer hdr = ByteBuffer.allocate(8);
+						while (hdr.hasRemaining()
+								&& fd.read(hdr, offs + hdr.position()) > 0) {
+							/* keep reading */
+						}
+						result_ok = true;
+						if (hdr.hasRemaining()) {
+							eof = true;
+							return;
+						}
+
+						size = hdr.getInt(0) & 0xffffffffL;
+						pos = hdr.getInt(4) & 0xffffffffL;
+						if (size > max_size) {
+							eof = true;
+							return;
+						}
+						if (size == 0) {
+							return;
+						}
+
+						data = ByteBuffer.allocate((int) size);
+						while (data.hasRemaining()
+								&& fd.read(data, pos + data.position()) > 0) {
+							/* keep reading */
+						}
+					} catch (IOException e) {
+						result_ok = false;
+						posix_errno = IO.exception_to_posix_code(e);
+					} catch (OutOfMemoryError e) {
+						result_ok = false;
+						posix_errno = Posix.ENOMEM;
+					}
+				}
+
+				@Override
+				public void ready() throws Pausable {
+					if (!result_ok) {
+						reply_posix_error(posix_errno);
+						return;
+					}
+					if (eof) {
+						reply_eof();
+						return;
+					}
+
+					/* [FILE_RESP_N2DATA, Pos:64, ReadSize:64, Size:64 | Data] */
+					ByteBuffer header = ByteBuffer.allocate(1 + 3 * 8);
+					header.put(FILE_RESP_N2DATA);
+					header.putLong(pos);
+					header.putLong(data == null ? 0 : data.position());
+					header.putLong(size);
+					if (data == null || data.position() == 0) {
+						driver_output2(header, null);
+					} else {
+						driver_output2(header, data);
+					}
+				}
+			});
+			break;
+		}
+
+		case FILE_SETOPT: {
+			ByteBuffer buf = flatten(ev);
+			if (!buf.hasRemaining()) {
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+
+			switch (buf.get()) {
+			case FILE_OPT_DELAYED_WRITE: {
+				if (buf.remaining() != 16) {
+					reply_posix_error(Posix.EINVAL);
+					return;
+				}
+				long size = buf.getLong();
+				long delay = buf.getLong();
+				if (size < 0 || delay < 0) {
+					reply_posix_error(Posix.EINVAL);
+					return;
+				}
+				write_bufsize = (int) Math.min(size, Integer.MAX_VALUE);
+				write_delay = delay;
+				reply_ok();
+				break;
+			}
+
+			case FILE_OPT_READ_AHEAD: {
+				if (buf.remaining() != 8) {
+					reply_posix_error(Posix.EINVAL);
+					return;
+				}
+				long size = buf.getLong();
+				if (size < 0) {
+					reply_posix_error(Posix.EINVAL);
+					return;
+				}
+				read_bufsize = (int) Math.min(size, Integer.MAX_VALUE);
+				reply_ok();
+				break;
+			}
+
+			default:
+				reply_posix_error(Posix.EINVAL);
+				return;
+			}
+			break;
+		}
+
 		default:
 			// undo the get() we did to find command
 			ev[0].position(ev[0].position() - 1);
@@ -867,9 +1265,19 @@ public class EFile extends EDriverInstance {
 		}
 
 		case FILE_LSEEK: {
-			final long off = buf.getLong();
+			long offset = buf.getLong();
 			final int whence = buf.getInt();
 			final FileChannel fch = fd;
+
+			int[] errp = new int[1];
+			if (flush_write_check_error(errp) < 0) {
+				reply_posix_error(errp[0]);
+				return;
+			}
+
+			/* the file position is ahead of the caller's by read_size */
+			final long off = whence == EFILE_SEEK_CUR ? offset - read_size : offset;
+			flush_read();
 			
 			d = new FileAsync() {
 
@@ -886,46 +1294,50 @@ public class EFile extends EDriverInstance {
 					if ((flags & EFILE_COMPRESSED) != 0) {
 						this.result_ok = false;
 						this.posix_errno = Posix.EINVAL;
+						return;
 					}
 					
 					try {
 					
 						switch (whence) {
 						case EFILE_SEEK_SET:
-							fd.position(out_pos=off);
+							out_pos = off;
 							break;
 							
 						case EFILE_SEEK_CUR:
-							long cur = fd.position();
-							fd.position(out_pos= cur + off);
+							out_pos = fd.position() + off;
 							break;
 							
 						case EFILE_SEEK_END:
-							cur = fd.size();
-							fd.position(out_pos = cur - off);
+							out_pos = fd.size() + off;
 							break;
 							
 						default:
 							this.result_ok = false;
 							this.posix_errno = Posix.EINVAL;
+							return;
 						}
+
+						if (out_pos < 0) {
+							this.result_ok = false;
+							this.posix_errno = Posix.EINVAL;
+							return;
+						}
+
+						fd.position(out_pos);
+						this.result_ok = true;
 					
 					} catch (IOException e) {
 						this.result_ok = false;
 						this.posix_errno = IO.exception_to_posix_code(e);
 					}
-					
-					this.result_ok = true;
 				}
 
 				
 				@Override
 				public void ready() throws Pausable {
 					if (result_ok) {
-						EFile.this.fd = fd;
-						ByteBuffer response = ByteBuffer.allocate(8);
-						response.putLong(out_pos);
-						driver_output2(response, null);
+						reply_Sint64(out_pos);
 					} else {
 						reply_posix_error(posix_errno);
 					}
@@ -933,6 +1345,7 @@ public class EFile extends EDriverInstance {
 				
 
 			};
+			break;
 		}
 		
 		case FILE_OPEN: {
@@ -958,7 +1371,10 @@ public class EFile extends EDriverInstance {
 								fd = new RandomAccessFile(file,"r").getChannel();
 								break;
 							case EFILE_MODE_WRITE:
-								fd = new RandomAccessFile(file,"w").getChannel();
+								// as O_WRONLY|O_CREAT, truncating unless appending
+								fd = new RandomAccessFile(file,"rw").getChannel();
+								if (!append)
+									fd.truncate(0);
 								break;
 							case EFILE_MODE_READ_WRITE:
 								fd = new RandomAccessFile(file,"rw").getChannel();
@@ -967,10 +1383,14 @@ public class EFile extends EDriverInstance {
 								throw new NotImplemented();
 							}//switch
 
+							if (append)
+								fd.position(fd.size());
 							result_ok = true;
 						}
 					} catch (FileNotFoundException fnfe) {
 						posix_errno = fileNotFound_to_posixErrno(file, mode);
+					} catch (IOException e) {
+						posix_errno = IO.exception_to_posix_code(e);
 					}
 				}
 
@@ -1195,6 +1615,11 @@ public class EFile extends EDriverInstance {
 	
 	
 	
+	@Override
+	protected FileChannel file_channel() {
+		return fd;
+	}
+
 	@Override
 	public void processExit(ERef monitor) throws Pausable {
 		// TODO Auto-generated method stub
@@ -1292,6 +1717,156 @@ public class EFile extends EDriverInstance {
 		return result;
 	}
 
+	/**
+	 * Flush delayed writes, and report (once) the error from an earlier
+	 * delayed write, if any.
+	 */
+	private int flush_write_check_error(int[] errp) {
+		int r = flush_write(errp);
+		if (r != 0)
+			return r;
+		if (write_error) {
+			write_error = false;
+			errp[0] = posix_errno;
+			return -1;
+		}
+		return 0;
+	}
+
+	/** Drop the read-ahead buffer */
+	private void flush_read() {
+		read_binp = null;
+		read_offset = 0;
+		read_size = 0;
+	}
+
+	/**
+	 * Drop the read-ahead buffer, and move the file position back to where
+	 * the caller thinks it is.
+	 */
+	private void lseek_flush_read() {
+		final long back = read_size;
+		flush_read();
+		if (back == 0)
+			return;
+
+		cq_enq(new FileAsync() {
+			{
+				this.command = FILE_LSEEK;
+				this.level = 1;
+				this.fd = EFile.this.fd;
+			}
+
+			@Override
+			public void async() {
+				try {
+					fd.position(fd.position() - back);
+					result_ok = true;
+				} catch (IOException e) {
+					result_ok = false;
+					posix_errno = IO.exception_to_posix_code(e);
+				}
+			}
+
+			@Override
+			public void ready() throws Pausable {
+				if (!result_ok) {
+					EFile.this.write_error = true;
+					EFile.this.posix_errno = posix_errno;
+				}
+			}
+		});
+	}
+
+	/**
+	 * @return the next n bytes of the read-ahead buffer, positioned for
+	 *         {@link #reply_buf(ByteBuffer)}
+	 */
+	private ByteBuffer read_consume(int n) {
+		if (n == 0) {
+			return ByteBuffer.allocate(0);
+		}
+
+		ByteBuffer res = read_binp.duplicate();
+		res.limit(read_offset + n).position(read_offset);
+		res = res.slice();
+		res.position(n);
+
+		read_offset += n;
+		read_size -= n;
+		if (read_size == 0) {
+			flush_read();
+		}
+		return res;
+	}
+
+	/**
+	 * Reply with the next line in the read-ahead buffer, or with what is
+	 * left of it if there is no newline (i.e., at end of file).  As in BEAM,
+	 * a "\r\n" line ending is delivered as "\n".
+	 */
+	private void reply_read_line() throws Pausable {
+		int nl = find_nl(read_binp, read_offset, read_offset + read_size);
+		int len = nl < 0 ? read_size : nl - read_offset + 1;
+		ByteBuffer line = read_consume(len);
+
+		if (nl >= 0 && len >= 2 && line.get(len - 2) == '\r') {
+			ByteBuffer res = ByteBuffer.allocate(len - 1);
+			line.flip();
+			line.limit(len - 2);
+			res.put(line);
+			res.put((byte) '\n');
+			line = res;
+		}
+
+		reply_buf(line);
+	}
+
+	/** @return index of the first newline in buf[from..to), or -1 */
+	private static int find_nl(ByteBuffer buf, int from, int to) {
+		for (int i = from; i < to; i++) {
+			if (buf.get(i) == '\n')
+				return i;
+		}
+		return -1;
+	}
+
+	/**
+	 * Split what is left of ev into consecutive chunks of the given sizes,
+	 * without copying.
+	 * 
+	 * @return null if ev does not hold exactly that much data
+	 */
+	private static ByteBuffer[][] split_iov(ByteBuffer[] ev, long[] sizes) {
+		ByteBuffer[][] res = new ByteBuffer[sizes.length][];
+		ArrayList<ByteBuffer> item = new ArrayList<ByteBuffer>();
+		int p = 0;
+
+		for (int i = 0; i < sizes.length; i++) {
+			long need = sizes[i];
+			item.clear();
+			while (need > 0) {
+				while (p < ev.length && !ev[p].hasRemaining())
+					p++;
+				if (p == ev.length)
+					return null;
+
+				ByteBuffer b = ev[p];
+				int n = (int) Math.min(need, b.remaining());
+				ByteBuffer chunk = b.slice();
+				chunk.limit(n);
+				b.position(b.position() + n);
+				item.add(chunk);
+				need -= n;
+			}
+			res[i] = item.toArray(new ByteBuffer[item.size()]);
+		}
+
+		while (p < ev.length && !ev[p].hasRemaining())
+			p++;
+		return p == ev.length ? res : null;
+	}
+
 	// // CQ OPERATIONS //
 
 	/**
@@ -1352,6 +1927,21 @@ public class EFile extends EDriverInstance {
 		driver_output2(header, buf);
 	}
 
+	void reply_Sint64(long value) throws Pausable {
+		ByteBuffer response = ByteBuffer.allocate(1 + 8);
+		response.put(FILE_RESP_NUMBER);
+		response.putLong(value);
+		driver_output2(response, null);
+	}
+
+	void reply_Uint_posix_error(long value, int posix_errno) throws Pausable {
+		ByteBuffer response = ByteBuffer.allocate(256);
+		response.put(FILE_RESP_NUMERR);
+		response.putLong(value);
+		IO.putstr(response, Posix.errno_id(posix_errno), false);
+		driver_output2(response, null);
+	}
+
 	void reply_eof() throws Pausable {
 		ByteBuffer header = ByteBuffer.allocate(1);
 		header.put(FILE_RESP_EOF);
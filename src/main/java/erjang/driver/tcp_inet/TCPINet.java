@@ -38,15 +38,18 @@ import java.nio.channels.AsynchronousCloseException;
 import java.nio.channels.CancelledKeyException;
 import java.nio.channels.ClosedByInterruptException;
 import java.nio.channels.ClosedChannelException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.GatheringByteChannel;
 import java.nio.channels.ReadableByteChannel;
 import java.nio.channels.SelectableChannel;
 import java.nio.channels.SelectionKey;
+import java.nio.channels.WritableByteChannel;
 import java.nio.charset.Charset;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
+import kilim.Mailbox;
 import kilim.Pausable;
 import kilim.RingQueue;
 import erjang.EAtom;
@@ -401,6 +404,14 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 	private ActiveType active = ActiveType.PASSIVE;
 	private RingQueue<AsyncOp> opt = new RingQueue<AsyncOp>(1);
 	private boolean busy_on_send;
+
+	/** state of an ongoing sendfile, see {@link #sendfile_continue()} */
+	private Mailbox<EObject> sendfile_reply;
+	private FileChannel sendfile_file;
+	private long sendfile_offset;
+	private long sendfile_left;
+	private long sendfile_sent;
+
 	private EHandle caller;
 	private EHandle busy_caller;
 	private int i_remain;
@@ -529,29 +540,170 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 
 	}
 
-	private int tcp_sendv(ByteBuffer[] ev) throws Pausable {
-		int sz;
-		EPort ix = port();
-		long len = remaining(ev);
-		ByteBuffer hbuf = null;
+	@Override
+	protected void outputv_packets(EHandle caller, List<ByteBuffer[]> packets)
+			throws IOException, Pausable {
+
+		if (packets.size() == 1) {
+			outputv(caller, packets.get(0));
+			return;
+		}
+
+		this.caller = caller;
+
+		if (!is_connected()) {
+			if ((tcp_add_flags & TCP_ADDF_DELAYED_CLOSE_SEND) != 0) {
+				tcp_add_flags &= ~TCP_ADDF_DELAYED_CLOSE_SEND;
+				inet_reply_error(am_closed);
+			} else {
+				inet_reply_error(Posix.ENOTCONN);
+			}
+			return;
+		}
+
+		// frame each packet, and send them all with one gathering write
+		List<ByteBuffer> out = new ArrayList<ByteBuffer>();
+		long len = 0;
+		for (ByteBuffer[] ev : packets) {
+			long plen = remaining(ev);
+			ByteBuffer hbuf = packet_header(plen);
+			if (hbuf != null) {
+				out.add(hbuf);
+				len += hbuf.remaining();
+			}
+			for (ByteBuffer b : ev) {
+				out.add(b);
+			}
+			len += plen;
+		}
+
+		if (ERT.DEBUG_INET) {
+			System.err.println("TCPIP::outputv_packets " + packets.size());
+		}
+
+		if (len == 0 || tcp_send(out.toArray(new ByteBuffer[out.size()]), len) == 0) {
+			inet_reply_ok();
+		}
+	}
+
+	@Override
+	protected void sendfile(FileChannel file, long offset, long count,
+			Mailbox<EObject> reply) throws Pausable {
+		if (!is_connected()) {
+			reply.putnb(new ETuple2(ERT.am_error, EAtom.intern(Posix
+					.errno_id(Posix.ENOTCONN))));
+			return;
+		}
+		if (sendfile_reply != null) {
+			reply.putnb(new ETuple2(ERT.am_error, EAtom.intern(Posix
+					.errno_id(Posix.EALREADY))));
+			return;
+		}
+
+		if (count == 0) {
+			try {
+				count = Math.max(0, file.size() - offset);
+			} catch (IOException e) {
+				reply.putnb(new ETuple2(ERT.am_error, EAtom.intern(Posix
+						.errno_id(IO.exception_to_posix_code(e)))));
+				return;
+			}
+		}
+
+		sendfile_reply = reply;
+		sendfile_file = file;
+		sendfile_offset = offset;
+		sendfile_left = count;
+		sendfile_sent = 0;
+
+		if (has_queued_output()) {
+			// readyOutput continues once the queue is written
+			sock_select(ERL_DRV_WRITE, SelectMode.SET);
+		} else {
+			sendfile_continue();
+		}
+	}
+
+	/**
+	 * Move file data straight to the socket with transferTo, until it is all
+	 * sent or the socket would block; in the latter case readyOutput calls
+	 * us again when the socket is writable.
+	 */
+	private void sendfile_continue() {
+		try {
+			WritableByteChannel out = (WritableByteChannel) fd.channel();
+			while (sendfile_left > 0) {
+				long n = sendfile_file.transferTo(sendfile_offset,
+						sendfile_left, out);
+				if (n == 0) {
+					if (sendfile_offset >= sendfile_file.size()) {
+						break;
+					}
+					sock_select(ERL_DRV_WRITE, SelectMode.SET);
+					return;
+				}
+				sendfile_offset += n;
+				sendfile_left -= n;
+				sendfile_sent += n;
+			}
+			if (!has_queued_output()) {
+				sock_select(ERL_DRV_WRITE, SelectMode.CLEAR);
+			}
+			sendfile_done(new ETuple2(ERT.am_ok, ERT.box(sendfile_sent)));
+		} catch (IOException e) {
+			sendfile_done(new ETuple2(ERT.am_error, EAtom.intern(Posix
+					.errno_id(IO.exception_to_posix_code(e)))));
+		}
+	}
+
+	private void sendfile_done(EObject result) {
+		Mailbox<EObject> reply = sendfile_reply;
+		sendfile_reply = null;
+		sendfile_file = null;
+		if (reply != null) {
+			reply.putnb(result);
+		}
+	}
 
+	/** @return true if there is data queued for output */
+	private boolean has_queued_output() {
+		ByteBuffer[] q = driver_peekq();
+		if (q != null) {
+			for (int i = 0; i < q.length; i++) {
+				if (q[i] != null && q[i].hasRemaining())
+					return true;
+			}
+		}
+		return false;
+	}
+
+	/** @return the packet header for a packet of len bytes, or null if none */
+	private ByteBuffer packet_header(long len) {
+		ByteBuffer hbuf;
 		switch (htype) {
 		case TCP_PB_1:
 			hbuf = ByteBuffer.allocate(1);
 			hbuf.put(0, (byte) (len & 0xff));
-			break;
+			return hbuf;
 		case TCP_PB_2:
 			hbuf = ByteBuffer.allocate(2);
 			hbuf.putShort(0, (short) (len & 0xffff));
-			break;
+			return hbuf;
 		case TCP_PB_4:
 			hbuf = ByteBuffer.allocate(4);
 			hbuf.putInt(0, (int) len);
-			break;
+			return hbuf;
 		default:
-			if (len == 0) {
-				return 0;
-			}
+			return null;
+		}
+	}
+
+	private int tcp_sendv(ByteBuffer[] ev) throws Pausable {
+		long len = remaining(ev);
+		ByteBuffer hbuf = packet_header(len);
+
+		if (hbuf == null && len == 0) {
+			return 0;
 		}
 
 		if (hbuf != null) {
@@ -567,6 +719,13 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 			}
 		}
 
+		return tcp_send(ev, len);
+	}
+
+	/** send already framed data, or queue it if the socket is busy */
+	private int tcp_send(ByteBuffer[] ev, long len) throws Pausable {
+		int sz;
+
 		if ((sz = driver_sizeq()) > 0) {
 			driver_enqv(ev);
 			if (sz + len >= high) {
@@ -805,22 +964,17 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 		int n, len, nread;
 
 		if (i_buf == null) {
-			/* allocate a read buffer */
-			int sz = (request_len > 0) ? request_len : this.bufsz;
-
-			try {
-				i_buf = ByteBuffer.allocate(sz);
-			} catch (OutOfMemoryError e) {
-				return -1;
-			}
-
-			i_ptr_start = 0;
-			nread = sz;
 			if (request_len > 0) {
+				/* allocate a read buffer */
+				try {
+					i_buf = ByteBuffer.allocate(request_len);
+				} catch (OutOfMemoryError e) {
+					return -1;
+				}
+				i_ptr_start = 0;
 				i_remain = request_len;
-			} else {
-				i_remain = 0;
 			}
+			/* otherwise tcp_read_pooled makes one, once we know how much came in */
 
 		} else if (request_len > 0) {
 			n = i_buf.position() - i_ptr_start;
@@ -848,7 +1002,11 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 
 		try {
 			ReadableByteChannel rbc = (ReadableByteChannel) fd.channel();
-			n = rbc.read(i_buf);
+			if (i_buf == null) {
+				n = tcp_read_pooled(rbc);
+			} else {
+				n = rbc.read(i_buf);
+			}
 			if (ERT.DEBUG_INET)
 				System.err.println("did read " + n + " bytes");
 			if (n == 0)
@@ -893,6 +1051,73 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 		return 0;
 	}
 
+	/**
+	 * Per-thread direct buffers that new input is read into first, so that
+	 * the JDK does not have to copy through a temporary buffer of its own,
+	 * and i_buf can be allocated at the size of what actually arrived
+	 * rather than at bufsz.  It is usually handed on as the data of the
+	 * delivered packet, so it should not be bigger than necessary.
+	 * 
+	 * They are never shrunk, so they are only used up to INET_MAX_BUFFER
+	 * (the largest <code>buffer</code> option); a bigger bufsz, which a big
+	 * <code>recbuf</code> can give, is read straight into a heap buffer.
+	 */
+	private static final ThreadLocal<ByteBuffer> recv_buffer = new ThreadLocal<ByteBuffer>();
+
+	private static ByteBuffer recv_buffer(int size) {
+		ByteBuffer buf = recv_buffer.get();
+		if (buf == null || buf.capacity() < size) {
+			buf = ByteBuffer.allocateDirect(Math.max(size, INET_DEF_BUFFER));
+			recv_buffer.set(buf);
+		}
+		buf.clear();
+		buf.limit(size);
+		return buf;
+	}
+
+	/**
+	 * Read up to bufsz bytes from rbc into a fresh heap buffer, which is
+	 * exactly as large as the number of bytes read when bufsz is at most
+	 * INET_MAX_BUFFER.
+	 * 
+	 * @return the buffer, positioned after the bytes read, or null at end of
+	 *         stream
+	 */
+	public static ByteBuffer tcp_read_packet(ReadableByteChannel rbc, int bufsz)
+			throws IOException {
+		if (bufsz > INET_MAX_BUFFER) {
+			ByteBuffer buf = ByteBuffer.allocate(bufsz);
+			return rbc.read(buf) < 0 ? null : buf;
+		}
+
+		ByteBuffer rb = recv_buffer(bufsz);
+		int n = rbc.read(rb);
+		if (n < 0)
+			return null;
+		rb.flip();
+		ByteBuffer buf = ByteBuffer.allocate(n);
+		buf.put(rb);
+		return buf;
+	}
+
+	/**
+	 * Read up to bufsz bytes into a fresh i_buf.
+	 * 
+	 * @return the number of bytes read, or -1 at end of stream
+	 */
+	private int tcp_read_pooled(ReadableByteChannel rbc) throws IOException {
+		ByteBuffer buf = tcp_read_packet(rbc, bufsz);
+		if (buf == null)
+			return -1;
+		int n = buf.position();
+		if (n > 0) {
+			i_buf = buf;
+			i_ptr_start = 0;
+			i_remain = 0;
+		}
+		return n;
+	}
+
 	private int tcp_recv_closed() throws Pausable {
 		if (is_busy()) {
 			caller = busy_caller;
@@ -1000,6 +1225,10 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 
 		if (is_connected()) {
 			ByteBuffer[] iov;
+			if (sendfile_reply != null && !has_queued_output()) {
+				sendfile_continue();
+				return;
+			}
 			if ((iov = driver_peekq()) == null) {
 				select(evt, ERL_DRV_WRITE, SelectMode.CLEAR);
 				send_empty_out_q_msgs();
@@ -1314,6 +1543,7 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 
 	private void desc_close() {
 
+		sendfile_done(new ETuple2(ERT.am_error, am_closed));
 		sock_select(ERL_DRV_USE, SelectMode.CLEAR);
 		fd = null;
 		event_mask = 0;
@@ -2560,6 +2790,13 @@ public class TCPINet extends EDriverInstance implements java.lang.Cloneable {
 			}
 		} else if (tlen == 0) {
 			lenp[0] = 0;
+			if (nsz == 0 && i_buf.capacity() < i_ptr_start + bufsz) {
+				/* i_buf was sized to what came in; make room for the rest */
+				if (tcp_expand_buffer(bufsz) < 0) {
+					return -1;
+				}
+				nsz = i_buf.remaining();
+			}
 			if (nsz == 0) {
 				if (nfill == n) {
 					return -1;
@@ -36,7 +36,6 @@ import java.math.BigDecimal;
 import java.nio.ByteBuffer;
 
 import kilim.Pausable;
-import kilim.Task;
 import erjang.BIF;
 import erjang.EAtom;
 import erjang.EBinary;
@@ -69,6 +68,7 @@ import erjang.ErlangUndefined;
 import erjang.FunID;
 import erjang.Module;
 import erjang.NotImplemented;
+import erjang.driver.EAsyncPool;
 import erjang.BIF.Type;
 
 /** bifs for the module erlang */
@@ -85,6 +85,14 @@ public class ErlBif {
 	private static EAtom am_garbage_collection = EAtom.intern("garbage_collection");
 	private static EAtom am_runtime = EAtom.intern("runtime");
 	private static final EAtom am_run_queue = EAtom.intern("run_queue");
+	private static final EAtom am_scheduler_wall_time = EAtom.intern("scheduler_wall_time");
+	private static final EAtom am_async_pool = EAtom.intern("async_pool");
+	private static final EAtom am_threads = EAtom.intern("threads");
+	private static final EAtom am_queue_depth = EAtom.intern("queue_depth");
+	private static final EAtom am_jobs = EAtom.intern("jobs");
+	private static final EAtom am_total_latency = EAtom.intern("total_latency");
+	private static final EAtom am_max_latency = EAtom.intern("max_latency");
+	private static final EAtom am_not_purged = EAtom.intern("not_purged");
 	
 	@BIF
 	static EObject apply(EProc proc, EObject fun, EObject args) throws Pausable {
@@ -162,12 +170,12 @@ public class ErlBif {
 
 		EBinary bin;
 		if ((bin=val.testBinary()) != null) {
-			return new ESmall(bin.byteSize());
+			return ESmall.make(bin.byteSize());
 		}
 		
 		EString str;
 		if ((str=val.testString()) != null) {
-			return new ESmall(str.length());
+			return ESmall.make(str.length());
 		}
 		
 		
@@ -184,7 +192,7 @@ public class ErlBif {
 			size += al.get(i).remaining();
 		}
 		
-		return new ESmall(size);
+		return ESmall.make(size);
 	}
 
 	@BIF
@@ -609,7 +617,7 @@ public class ErlBif {
 			return ETuple.make(ERT.box(since_epoch), ERT.box(since_last));
 
 		} else if (spec == am_reductions) {
-			long current_reds = proc.reds;
+			long current_reds = ERT.reductions.get() + proc.reds;
 			long since_last = current_reds - last_reductions;
 			last_reductions = current_reds;
 			
@@ -642,7 +650,35 @@ public class ErlBif {
 			return ETuple.make(ERT.box(num_gcs), ERT.box(time_gcs), ERT.box(0));
 			
 		} else if (spec == am_run_queue) {
-			return ERT.box(0);
+			return ERT.box(ERT.scheduler().run_queue());
+			
+		} else if (spec == am_scheduler_wall_time) {
+			
+			// times are in nanoseconds
+			
+			long[][] times = ERT.scheduler().wall_time();
+			ESeq res = ERT.NIL;
+			for (int i = times.length-1; i >= 0; i--) {
+				res = res.cons(ETuple.make(ERT.box(i+1), ERT.box(times[i][0]), ERT.box(times[i][1])));
+			}
+			return res;
+			
+		} else if (spec == am_async_pool) {
+			
+			// erjang extension; latencies are in microseconds
+			
+			int[] depths = EAsyncPool.queue_depths();
+			ESeq queues = ERT.NIL;
+			for (int i = depths.length-1; i >= 0; i--) {
+				queues = queues.cons(ERT.box(depths[i]));
+			}
+			
+			return ERT.NIL
+				.cons(new ETuple2(am_max_latency, ERT.box(EAsyncPool.max_latency())))
+				.cons(new ETuple2(am_total_latency, ERT.box(EAsyncPool.total_latency())))
+				.cons(new ETuple2(am_jobs, ERT.box(EAsyncPool.jobs_done())))
+				.cons(new ETuple2(am_queue_depth, queues))
+				.cons(new ETuple2(am_threads, ERT.box(EAsyncPool.size())));
 		}
 		
 		throw new NotImplemented("erlang:statistics("+spec+")");
@@ -1363,6 +1399,9 @@ public class ErlBif {
 		if (mod == null || bin == null)
 			throw ERT.badarg();
 
+		if (EModuleManager.check_old_code(mod))
+			return new ETuple2(ERT.am_error, am_not_purged);
+
 		try {
 			ERT.load_module(mod, bin);
 		} catch (ErlangException e) {
@@ -1618,9 +1657,10 @@ public class ErlBif {
 
 	@BIF
 	public static EObject bump_reductions(EProc self, EObject howmuch) throws Pausable {
-		// yield?
-		Task.yield();
-		return ERT.box(1);
+		ESmall n = howmuch.testSmall();
+		if (n == null || n.value < 1) throw ERT.badarg(howmuch);
+		self.bump_reds(n.value);
+		return ERT.TRUE;
 	}
 	
 	@BIF
@@ -59,6 +59,7 @@ public class ErlConvert {
 		EBinary bin;
 		if ((bin=arg.testBinary()) == null) throw ERT.badarg(arg);
 		EInputStream in = bin.getInputStream();
+		in.setImmutable(true);
 		try {
 			EObject val = in.read_any();
 			//System.out.println("DECODED:"+val);
@@ -70,9 +71,12 @@ public class ErlConvert {
 
 	@BIF
 	public static EBinary term_to_binary(EObject obj) {
-		EOutputStream eos = new EOutputStream();
-		eos.write_any(obj);
-		return eos.getBinaryContent();		
+		return EOutputStream.encode_binary(obj);
+	}
+
+	@BIF
+	public static ESmall external_size(EObject obj) {
+		return ERT.box(EOutputStream.encoded_size(obj));
 	}
 	
 	@BIF
@@ -127,13 +131,13 @@ public class ErlConvert {
 			throw new NotImplemented("encoding with minor_version=0");
 		}
 		
-		EOutputStream eos = new EOutputStream();
-		if (compression != 0) {
-			eos.write_compressed(obj, compression);
-		} else {
-			eos.write_any(obj);
+		if (compression == 0) {
+			return EOutputStream.encode_binary(obj);
 		}
-		return eos.getBinaryContent();		
+
+		EOutputStream eos = EOutputStream.scratch(0);
+		eos.write_compressed(obj, compression);
+		return new EBinary(eos.toByteArray());
 	}
 
 	@BIF
@@ -24,7 +24,6 @@ import java.lang.management.MemoryPoolMXBean;
 import java.lang.management.MemoryType;
 import java.lang.management.MemoryUsage;
 import java.util.List;
-import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import kilim.Pausable;
@@ -34,6 +33,7 @@ import erjang.EAtom;
 import erjang.ECons;
 import erjang.EFun;
 import erjang.EHandle;
+import erjang.EInternalPID;
 import erjang.EModuleManager;
 import erjang.ENode;
 import erjang.EObject;
@@ -54,6 +54,7 @@ import erjang.ErlangError;
 import erjang.ErlangExit;
 import erjang.Import;
 import erjang.NotImplemented;
+import erjang.driver.EAsyncPool;
 import erjang.driver.EDriverTask;
 
 /**
@@ -517,8 +518,7 @@ public class ErlProc {
 			
 		} else if (type == am_thread_pool_size) {
 			
-			// TODO: hook up to thread pool
-			return new ESmall(ERT.threadPoolSize());
+			return ESmall.make(EAsyncPool.size());
 			
 		} else if (type == am_os_type) {
 			String os = System.getProperty("os.name");
@@ -540,7 +540,7 @@ public class ErlProc {
 			return new EString("R13B");
 			
 		} else if (type == am_wordsize) {
-			return new ESmall(32);
+			return ESmall.make(32);
 			
 		} else if (type == am_hipe_architecture) {
 			return am_undefined;
@@ -575,24 +575,54 @@ public class ErlProc {
 		throw new NotImplemented();
 	}
 	
+	/**
+	 * Whether the process runs old code of the module, judged by the
+	 * frames it saved when it last suspended (see
+	 * {@link EProc#runs_code_of}).  A process that is running, rather than
+	 * suspended in a receive or a yield, has no saved frames, so it is
+	 * reported as not running old code; purge_module/1 then does not kill
+	 * it, and can drop code it is still executing.
+	 */
 	@BIF
 	public static EAtom check_process_code(EObject pid_arg, EObject mod_arg) {
-		EPID pid = pid_arg.testPID();
+		EInternalPID pid = pid_arg.testInternalPID();
 		EAtom mod = mod_arg.testAtom();
 		
 		if (pid == null || mod == null) { throw ERT.badarg(pid_arg, mod_arg); }
 		
-		log.log(Level.FINE, "check_process_code not implemented (" + pid + ", " + mod + ")");
+		EProc proc = pid.task();
+		if (proc == null || !proc.is_alive())
+			return ERT.FALSE;
 	
-		return ERT.FALSE;
+		return ERT.box(EModuleManager.check_process_code(proc, mod));
 	}
 	
 	@BIF
-	public static EAtom purge_module(EObject mod_arg) {
-		
-		log.log(Level.FINE, "purge_module not implemented (" + mod_arg + ")");
+	public static EAtom check_old_code(EObject mod_arg) {
+		EAtom mod = mod_arg.testAtom();
+		if (mod == null) throw ERT.badarg(mod_arg);
+
+		return ERT.box(EModuleManager.check_old_code(mod));
+	}
+	
+	@BIF
+	public static EAtom purge_module(EProc proc, EObject mod_arg) {
+		EAtom mod = mod_arg.testAtom();
+		if (mod == null) throw ERT.badarg(mod_arg);
+
+		if (!EModuleManager.purge_module(proc.self_handle(), mod))
+			throw ERT.badarg(mod_arg);
 
 		return ERT.TRUE;
 	}
 	
+	@BIF
+	public static EAtom delete_module(EObject mod_arg) {
+		EAtom mod = mod_arg.testAtom();
+		if (mod == null || EModuleManager.check_old_code(mod))
+			throw ERT.badarg(mod_arg);
+
+		return EModuleManager.delete_module(mod) ? ERT.TRUE : am_undefined;
+	}
+	
 }
@@ -0,0 +1,448 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.m.ets;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+import erjang.EObject;
+
+/**
+ * Concurrent hash table for set, bag and duplicate_bag tables.
+ * 
+ * Keys are kept in <em>split order</em>: by their hash value with the bits
+ * reversed.  Doubling the table splits every bucket into two buckets that
+ * are adjacent in that order, so the order does not depend on the size of
+ * the table.  That gives {@link #next_key(EObject)} a stable cursor: it
+ * hashes the previous key to find its position, and continues from there,
+ * even if the key has been deleted or the table has grown since.  A
+ * traversal with first/next thus visits every object that stays in the
+ * table exactly once, at amortised constant cost per step.
+ * 
+ * Readers never lock; chains are immutable and are replaced as a whole.
+ * Writers lock one of a number of stripes, chosen by the key's hash.
+ */
+final class EHashTable<V> extends AbstractMap<EObject, V> implements
+		ConcurrentMap<EObject, V> {
+
+	static final int MIN_CAPACITY = 16;
+
+	static final class Node<V> implements Map.Entry<EObject, V> {
+		final int hash;
+		final int order;
+		final EObject key;
+		final V value;
+		final Node<V> next;
+
+		Node(int hash, EObject key, V value, Node<V> next) {
+			this.hash = hash;
+			this.order = Integer.reverse(hash);
+			this.key = key;
+			this.value = value;
+			this.next = next;
+		}
+
+		@Override
+		public EObject getKey() {
+			return key;
+		}
+
+		@Override
+		public V getValue() {
+			return value;
+		}
+
+		@Override
+		public V setValue(V value) {
+			throw new UnsupportedOperationException();
+		}
+	}
+
+	@SuppressWarnings("serial")
+	static final class Stripe extends ReentrantLock {
+		/** number of keys guarded by this stripe */
+		int count;
+	}
+
+	private volatile AtomicReferenceArray<Node<V>> table;
+	private final Stripe[] stripes;
+
+	/**
+	 * @param concurrency
+	 *            number of writers expected to run at the same time
+	 */
+	EHashTable(int concurrency) {
+		int n = 1;
+		while (n < concurrency)
+			n <<= 1;
+		stripes = new Stripe[n];
+		for (int i = 0; i < n; i++) {
+			stripes[i] = new Stripe();
+		}
+		table = new AtomicReferenceArray<Node<V>>(Math.max(MIN_CAPACITY, n));
+	}
+
+	static int spread(int h) {
+		h ^= h >>> 16;
+		h *= 0x85ebca6b;
+		h ^= h >>> 13;
+		h *= 0xc2b2ae35;
+		return h ^ (h >>> 16);
+	}
+
+	/** compare the position of (order, key) with that of node e */
+	static int compare(int order, EObject key, Node<?> e) {
+		if (order != e.order) {
+			return (order ^ 0x80000000) < (e.order ^ 0x80000000) ? -1 : 1;
+		}
+		return key.compareTo(e.key);
+	}
+
+	@Override
+	public V get(Object k) {
+		EObject key = (EObject) k;
+		int h = spread(key.hashCode());
+		int o = Integer.reverse(h);
+		AtomicReferenceArray<Node<V>> t = table;
+		for (Node<V> e = t.get(h & (t.length() - 1)); e != null; e = e.next) {
+			int c = compare(o, key, e);
+			if (c == 0)
+				return e.value;
+			if (c < 0)
+				break;
+		}
+		return null;
+	}
+
+	@Override
+	public boolean containsKey(Object key) {
+		return get(key) != null;
+	}
+
+	/** @return the first key in split order, or null if the table is empty */
+	EObject first_key() {
+		Node<V> e = first_entry();
+		return e == null ? null : e.key;
+	}
+
+	/**
+	 * @return the key following <code>from</code> in split order, or null
+	 *         if there is none; <code>from</code> need not be in the table
+	 */
+	EObject next_key(EObject from) {
+		Node<V> e = next_entry(from);
+		return e == null ? null : e.key;
+	}
+
+	/** @return the first entry in split order, or null */
+	Node<V> first_entry() {
+		AtomicReferenceArray<Node<V>> t = table;
+		int n = t.length();
+		int shift = 32 - Integer.numberOfTrailingZeros(n);
+		for (int r = 0; r < n; r++) {
+			Node<V> e = t.get(Integer.reverse(r) >>> shift);
+			if (e != null)
+				return e;
+		}
+		return null;
+	}
+
+	/** @return the entry following <code>from</code> in split order, or null */
+	Node<V> next_entry(EObject from) {
+		int h = spread(from.hashCode());
+		int o = Integer.reverse(h);
+		AtomicReferenceArray<Node<V>> t = table;
+		int n = t.length();
+		int shift = 32 - Integer.numberOfTrailingZeros(n);
+
+		for (Node<V> e = t.get(h & (n - 1)); e != null; e = e.next) {
+			if (compare(o, from, e) < 0)
+				return e;
+		}
+
+		for (int r = (o >>> shift) + 1; r < n; r++) {
+			Node<V> e = t.get(Integer.reverse(r) >>> shift);
+			if (e != null)
+				return e;
+		}
+		return null;
+	}
+
+	//
+	// writers
+	//
+
+	private static final int PUT = 0, PUT_IF_ABSENT = 1, REPLACE = 2,
+			REPLACE_IF = 3, REMOVE = 4, REMOVE_IF = 5;
+
+	/** returned by write() when a conditional update does not apply */
+	private static final Object NO_CHANGE = new Object();
+
+	/**
+	 * @return the previous value (null if there was none), or NO_CHANGE
+	 */
+	private Object write(EObject key, int mode, V expect, V value) {
+		int h = spread(key.hashCode());
+		int o = Integer.reverse(h);
+		Stripe s = stripes[h & (stripes.length - 1)];
+		boolean grow = false;
+		V old;
+
+		s.lock();
+		try {
+			AtomicReferenceArray<Node<V>> t = table;
+			int i = h & (t.length() - 1);
+			Node<V> head = t.get(i);
+
+			Node<V> e = head;
+			int c = 1;
+			while (e != null && (c = compare(o, key, e)) > 0)
+				e = e.next;
+			boolean found = e != null && c == 0;
+			old = found ? e.value : null;
+
+			V upd;
+			switch (mode) {
+			case PUT:
+				upd = value;
+				break;
+			case PUT_IF_ABSENT:
+				if (found)
+					return old;
+				upd = value;
+				break;
+			case REPLACE:
+				if (!found)
+					return null;
+				upd = value;
+				break;
+			case REPLACE_IF:
+				if (!found || !expect.equals(old))
+					return NO_CHANGE;
+				upd = value;
+				break;
+			case REMOVE:
+				if (!found)
+					return null;
+				upd = null;
+				break;
+			case REMOVE_IF:
+				if (!found || !expect.equals(old))
+					return NO_CHANGE;
+				upd = null;
+				break;
+			default:
+				throw new IllegalArgumentException();
+			}
+
+			Node<V> rest = found ? e.next : e;
+			if (upd != null)
+				rest = new Node<V>(h, key, upd, rest);
+			t.set(i, copy_prefix(head, e, rest));
+
+			if (!found && upd != null) {
+				s.count += 1;
+				grow = s.count * stripes.length > t.length() - t.length() / 4;
+			} else if (found && upd == null) {
+				s.count -= 1;
+			}
+		} finally {
+			s.unlock();
+		}
+
+		if (grow)
+			resize();
+		return old;
+	}
+
+	/** @return a copy of the chain from head up to stop, followed by rest */
+	private static <V> Node<V> copy_prefix(Node<V> head, Node<V> stop,
+			Node<V> rest) {
+		if (head == stop)
+			return rest;
+		List<Node<V>> prefix = new ArrayList<Node<V>>();
+		for (Node<V> e = head; e != stop; e = e.next)
+			prefix.add(e);
+		for (int i = prefix.size() - 1; i >= 0; i--) {
+			Node<V> e = prefix.get(i);
+			rest = new Node<V>(e.hash, e.key, e.value, rest);
+		}
+		return rest;
+	}
+
+	private void resize() {
+		for (Stripe s : stripes)
+			s.lock();
+		try {
+			AtomicReferenceArray<Node<V>> t = table;
+			int n = t.length();
+			if (size() <= n - n / 4)
+				return;
+
+			AtomicReferenceArray<Node<V>> nt = new AtomicReferenceArray<Node<V>>(
+					n * 2);
+			for (int i = 0; i < n; i++) {
+				// split the chain, keeping the order in both halves
+				List<Node<V>> lo = new ArrayList<Node<V>>();
+				List<Node<V>> hi = new ArrayList<Node<V>>();
+				for (Node<V> e = t.get(i); e != null; e = e.next) {
+					((e.hash & n) == 0 ? lo : hi).add(e);
+				}
+				nt.set(i, chain(lo));
+				nt.set(i + n, chain(hi));
+			}
+			table = nt;
+		} finally {
+			for (Stripe s : stripes)
+				s.unlock();
+		}
+	}
+
+	private static <V> Node<V> chain(List<Node<V>> nodes) {
+		Node<V> res = null;
+		for (int i = nodes.size() - 1; i >= 0; i--) {
+			Node<V> e = nodes.get(i);
+			res = new Node<V>(e.hash, e.key, e.value, res);
+		}
+		return res;
+	}
+
+	@Override
+	public V put(EObject key, V value) {
+		return cast(write(key, PUT, null, value));
+	}
+
+	@Override
+	public V putIfAbsent(EObject key, V value) {
+		return cast(write(key, PUT_IF_ABSENT, null, value));
+	}
+
+	@Override
+	public V replace(EObject key, V value) {
+		return cast(write(key, REPLACE, null, value));
+	}
+
+	@Override
+	public boolean replace(EObject key, V expect, V value) {
+		return write(key, REPLACE_IF, expect, value) != NO_CHANGE;
+	}
+
+	@Override
+	public V remove(Object key) {
+		return cast(write((EObject) key, REMOVE, null, null));
+	}
+
+	@SuppressWarnings("unchecked")
+	@Override
+	public boolean remove(Object key, Object expect) {
+		return write((EObject) key, REMOVE_IF, (V) expect, null) != NO_CHANGE;
+	}
+
+	@SuppressWarnings("unchecked")
+	private V cast(Object o) {
+		return (V) o;
+	}
+
+	@Override
+	public int size() {
+		int n = 0;
+		for (Stripe s : stripes)
+			n += s.count;
+		return n;
+	}
+
+	@Override
+	public void clear() {
+		for (Stripe s : stripes)
+			s.lock();
+		try {
+			table = new AtomicReferenceArray<Node<V>>(Math.max(MIN_CAPACITY,
+					stripes.length));
+			for (Stripe s : stripes)
+				s.count = 0;
+		} finally {
+			for (Stripe s : stripes)
+				s.unlock();
+		}
+	}
+
+	/** weakly consistent view, in no particular order */
+	@Override
+	public Set<Map.Entry<EObject, V>> entrySet() {
+		return new AbstractSet<Map.Entry<EObject, V>>() {
+			@Override
+			public Iterator<Map.Entry<EObject, V>> iterator() {
+				return new EntryIterator();
+			}
+
+			@Override
+			public int size() {
+				return EHashTable.this.size();
+			}
+		};
+	}
+
+	final class EntryIterator implements Iterator<Map.Entry<EObject, V>> {
+		final AtomicReferenceArray<Node<V>> t = table;
+		int bucket;
+		Node<V> next, last;
+
+		EntryIterator() {
+			advance(null);
+		}
+
+		private void advance(Node<V> e) {
+			while (e == null && bucket < t.length()) {
+				e = t.get(bucket++);
+			}
+			next = e;
+		}
+
+		@Override
+		public boolean hasNext() {
+			return next != null;
+		}
+
+		@Override
+		public Map.Entry<EObject, V> next() {
+			if (next == null)
+				throw new NoSuchElementException();
+			last = next;
+			advance(next.next);
+			return last;
+		}
+
+		@Override
+		public void remove() {
+			if (last == null)
+				throw new IllegalStateException();
+			EHashTable.this.remove(last.key);
+			last = null;
+		}
+	}
+}
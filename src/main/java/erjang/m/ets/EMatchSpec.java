@@ -19,7 +19,6 @@
 package erjang.m.ets;
 
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -27,11 +26,10 @@ import java.util.Map;
 import java.util.Set;
 import java.util.TreeSet;
 
-import javax.swing.event.ListSelectionEvent;
-
 import erjang.EAtom;
 import erjang.EBitString;
 import erjang.ECons;
+import erjang.EDouble;
 import erjang.ENumber;
 import erjang.EObject;
 import erjang.EPID;
@@ -40,9 +38,12 @@ import erjang.EPseudoTerm;
 import erjang.ERT;
 import erjang.ERef;
 import erjang.ESeq;
+import erjang.ESmall;
 import erjang.ETuple;
 import erjang.ETuple3;
 import erjang.NotImplemented;
+import erjang.m.erlang.ErlBif;
+import erjang.m.erlang.ErlDist;
 
 /**
  * Base class for a parsed match_spec.
@@ -125,7 +126,7 @@ public class EMatchSpec extends EPseudoTerm {
 	static final EAtom am_band = EAtom.intern("band");
 	static final EAtom am_bor = EAtom.intern("bor");
 	static final EAtom am_bxor = EAtom.intern("bxor");
-	static final EAtom am_bnor = EAtom.intern("bnor");
+	static final EAtom am_bnot = EAtom.intern("bnot");
 	static final EAtom am_bsl = EAtom.intern("bsl");
 	static final EAtom am_bsr = EAtom.intern("bsr");
 	static final EAtom am_GT = EAtom.intern(">");
@@ -145,7 +146,7 @@ public class EMatchSpec extends EPseudoTerm {
 		Collections.addAll(GuardFunctions, am_abs, am_element, am_hd,
 				am_length, am_node, am_round, am_size, am_tl, am_trunc,
 				am_PLUS, am_MINUS, am_ASTERISK, am_div, am_rem, am_band,
-				am_bor, am_bxor, am_bsl, am_bsr, am_GT, am_GE, am_LT, am_LE,
+				am_bor, am_bxor, am_bnot, am_bsl, am_bsr, am_GT, am_GE, am_LT, am_LE,
 				am_EEQ, am_EQ, am_ENE, am_NE, am_self, am_get_tcw);
 	}
 
@@ -355,8 +356,9 @@ public class EMatchSpec extends EPseudoTerm {
 				return ctx.value;
 			} else if (idx0 == EXPR_ALL_VARS) {
 				ESeq res = ERT.NIL;
-				for (int i = 0; i < ctx.vars.length; i++) {
-					res = res.cons(ctx.vars[idx0]);
+				for (int i = ctx.vars.length - 1; i >= 0; i--) {
+					if (ctx.vars[i] != null)
+						res = res.cons(ctx.vars[i]);
 				}
 				return res;
 			} else {
@@ -387,17 +389,15 @@ public class EMatchSpec extends EPseudoTerm {
 		}
 
 		/**
-		 * @param prev
-		 *            is the list of previous matches
 		 * @param value
 		 *            is the value to match
-		 * @return (cons <code>result</code> prev) if value matches; otherwise
-		 *         prev
+		 * @return the result of the body if value matches the head and
+		 *         the guards; otherwise null
 		 * */
 		EObject match(EObject value) {
 			EMatchContext ctx = new EMatchContext(nvars, value);
 			if (!value.match(head, ctx)) {
-				return ERT.FALSE;
+				return null;
 			}
 
 			// exception during condition evaluation
@@ -405,10 +405,10 @@ public class EMatchSpec extends EPseudoTerm {
 			try {
 				for (int i = 0; i < cond.length; i++) {
 					if (!cond[i].test(ctx))
-						return ERT.FALSE;
+						return null;
 				}
 			} catch (Exception e) {
-				return ERT.FALSE;
+				return null;
 			}
 
 			EObject out = value;
@@ -452,34 +452,114 @@ public class EMatchSpec extends EPseudoTerm {
 		 * @return
 		 */
 		public boolean test(EMatchContext ctx) {
-			EObject[] vals = new EObject[args.length];
-			for (int i = 0; i < vals.length; i++) {
-				vals[i] = args[i].eval(ctx);
-			}
-
-			// for debug output
-			List<EObject> aa = new ArrayList<EObject>();
-			for (int i = 0; i < vals.length; i++) {
-				aa.add(vals[i]);
-			}
-			throw new NotImplemented("GuardCall:test " + guard + " " + aa);
+			return eval(ctx) == ERT.TRUE;
 		}
 
 		public static final GuardCall[] EMPTY_ARR = new GuardCall[0];
 
 		@Override
 		public EObject eval(EMatchContext ctx) {
+			if (guard == am_andalso || guard == am_orelse) {
+				EObject stop = guard == am_andalso ? ERT.FALSE : ERT.TRUE;
+				for (int i = 0; i < args.length; i++) {
+					EObject val = args[i].eval(ctx);
+					if (val == stop)
+						return stop;
+					if (val.testBoolean() == null)
+						throw ERT.badarg(val);
+				}
+				return stop == ERT.TRUE ? ERT.FALSE : ERT.TRUE;
+			}
+
 			EObject[] vals = new EObject[args.length];
 			for (int i = 0; i < vals.length; i++) {
 				vals[i] = args[i].eval(ctx);
 			}
 
-			// for debug output
-			List<EObject> aa = new ArrayList<EObject>();
-			for (int i = 0; i < vals.length; i++) {
-				aa.add(vals[i]);
+			switch (vals.length) {
+			case 0:
+				if (guard == am_node) return ErlDist.node();
+				break;
+			case 1:
+				return eval1(vals[0]);
+			case 2:
+				return eval2(vals[0], vals[1]);
+			case 3:
+				if (guard == am_is_record) {
+					ETuple t = vals[0].testTuple();
+					ESmall arity = vals[2].testSmall();
+					return ERT.box(t != null && arity != null
+							&& t.arity() == arity.value && t.arity() > 0
+							&& t.elm(1) == vals[1]);
+				}
+				break;
 			}
-			throw new NotImplemented("GuardCall:eval " + guard + " " + aa);
+
+			// self, get_tcw, is_seq_trace
+			throw new NotImplemented("match spec guard " + guard + "/"
+					+ vals.length);
+		}
+
+		private EObject eval1(EObject x) {
+			if (guard == am_is_atom) return ErlBif.is_atom(x);
+			if (guard == am_is_constant)
+				return ERT.box(x.testTuple() == null
+						&& (x.isNil() || x.testCons() == null));
+			if (guard == am_is_float) return ErlBif.is_float(x);
+			if (guard == am_is_integer) return ErlBif.is_integer(x);
+			if (guard == am_is_list) return ErlBif.is_list(x);
+			if (guard == am_is_number) return ErlBif.is_number(x);
+			if (guard == am_is_pid) return ErlBif.is_pid(x);
+			if (guard == am_is_port) return ErlBif.is_port(x);
+			if (guard == am_is_reference) return ErlBif.is_reference(x);
+			if (guard == am_is_tuple) return ErlBif.is_tuple(x);
+			if (guard == am_is_binary) return ErlBif.is_binary(x);
+			if (guard == am_is_function) return ErlBif.is_function(x);
+			if (guard == am_not) {
+				if (x.testBoolean() == null) throw ERT.badarg(x);
+				return ErlBif.not(x);
+			}
+			if (guard == am_abs) return ErlBif.abs(x);
+			if (guard == am_hd) return ErlBif.hd(x);
+			if (guard == am_tl) return ErlBif.tl(x);
+			if (guard == am_length) return ErlBif.length(x);
+			if (guard == am_node) return ErlDist.node(x);
+			if (guard == am_round) return ErlBif.round(x);
+			if (guard == am_size) return ErlBif.size(x);
+			if (guard == am_trunc) return ErlBif.trunc(x);
+			if (guard == am_bnot) return ErlBif.bnot(x);
+			if (guard == am_MINUS) return ErlBif.minus(ERT.box(0), x);
+			if (guard == am_PLUS) {
+				if (x.testNumber() == null) throw ERT.badarg(x);
+				return x;
+			}
+			throw new NotImplemented("match spec guard " + guard + "/1");
+		}
+
+		private EObject eval2(EObject x, EObject y) {
+			if (guard == am_element) return ErlBif.element(x, y);
+			if (guard == am_PLUS) return ErlBif.plus(x, y);
+			if (guard == am_MINUS) return ErlBif.minus(x, y);
+			if (guard == am_ASTERISK) return ErlBif.multiply(x, y);
+			if (guard == am_div) return ErlBif.div(x, y);
+			if (guard == am_rem) return ErlBif.rem(x, y);
+			if (guard == am_band) return ErlBif.band(x, y);
+			if (guard == am_bor) return ErlBif.bor(x, y);
+			if (guard == am_bxor) return ErlBif.bxor(x, y);
+			if (guard == am_bsl) return ErlBif.bsl(x, y);
+			if (guard == am_bsr) return ErlBif.bsr(x, y);
+			if (guard == am_GT) return ERT.box(x.compareTo(y) > 0);
+			if (guard == am_GE) return ERT.box(x.compareTo(y) >= 0);
+			if (guard == am_LT) return ERT.box(x.compareTo(y) < 0);
+			if (guard == am_LE) return ERT.box(x.compareTo(y) <= 0);
+			if (guard == am_EEQ) return ERT.box(x.equalsExactly(y));
+			if (guard == am_EQ) return ERT.box(x.compareTo(y) == 0);
+			if (guard == am_ENE) return ERT.box(!x.equalsExactly(y));
+			if (guard == am_NE) return ERT.box(x.compareTo(y) != 0);
+			if (guard == am_and) return ErlBif.and(x, y);
+			if (guard == am_or) return ErlBif.or(x, y);
+			if (guard == am_xor) return ErlBif.xor(x, y);
+			throw new NotImplemented("match spec guard " + guard + "/2");
 		}
 	}
 
@@ -515,13 +595,7 @@ public class EMatchSpec extends EPseudoTerm {
 				max = Math.max(max, i);
 			}
 
-			for (int i = 0; i < max + 1; i++) {
-				if (!bound.contains(i)) {
-					throw new IllegalStateException("variable " + i
-							+ " not bound in match head");
-				}
-			}
-
+			// variables are numbered from '$1', and need not be contiguous
 			return max + 1;
 		}
 
@@ -818,39 +892,42 @@ public class EMatchSpec extends EPseudoTerm {
 			ctx.bind(this, idx0);
 		}
 
+		/** bind the variable, or check the value it is already bound to */
+		private boolean bind(EObject value, EMatchContext r) {
+			EObject old = r.vars[idx0];
+			if (old == null) {
+				r.vars[idx0] = value;
+				return true;
+			}
+			return old.equalsExactly(value);
+		}
+
 		public boolean match(ETuple t, EMatchContext r) {
-			r.vars[idx0] = t;
-			return true;
+			return bind(t, r);
 		}
 
 		public boolean match(ENumber n, EMatchContext r) {
-			r.vars[idx0] = n;
-			return true;
+			return bind(n, r);
 		}
 
 		public boolean match(EAtom a, EMatchContext r) {
-			r.vars[idx0] = a;
-			return true;
+			return bind(a, r);
 		}
 
 		public boolean match(ECons c, EMatchContext r) {
-			r.vars[idx0] = c;
-			return true;
+			return bind(c, r);
 		}
 
 		public boolean match(EPID p, EMatchContext r) {
-			r.vars[idx0] = p;
-			return true;
+			return bind(p, r);
 		}
 
 		public boolean match(EPort p, EMatchContext r) {
-			r.vars[idx0] = p;
-			return true;
+			return bind(p, r);
 		}
 
 		public boolean match(EBitString bs, EMatchContext r) {
-			r.vars[idx0] = bs;
-			return true;
+			return bind(bs, r);
 		}
 	}
 
@@ -920,38 +997,137 @@ public class EMatchSpec extends EPseudoTerm {
 
 	/**
 	 * @param candidate
-	 * @return
+	 * @return true if the first match function that matches candidate
+	 *         returns true
 	 */
 	public boolean match(EObject candidate) {
+		return run(candidate) == ERT.TRUE;
+	}
+
+	/**
+	 * @param candidate
+	 * @return the result of the first match function that matches
+	 *         candidate, or null if none does
+	 */
+	public EObject run(EObject candidate) {
 		for (int i = 0; i < funs.length; i++) {
 			EObject val = funs[i].match(candidate);
-			if (val == ERT.TRUE) {
-				return true;
+			if (val != null) {
+				return val;
 			}
 		}
 
-		return false;
+		return null;
 	}
 
+	/** smaller than any term that can be stored in a table */
+	static final EObject MIN_TERM = new EDouble(Double.NEGATIVE_INFINITY);
+
 	/**
-	 * @param vals
-	 * @param map
-	 * @return
+	 * If the match head is a tuple, and the element at keypos is a term
+	 * or a tuple or list pattern, return the smallest key it can match.
+	 * In an ordered_set, a select can start there, and stop at the first
+	 * key that is {@link #past_key_range(int, EObject) past} the range.
+	 * 
+	 * @return the lower bound, or null if any key can match
 	 */
-	public ESeq matching_values_bag(ESeq vals,
-			Map<EObject, Collection<ETuple>> map) {
-		
-		for (Map.Entry<EObject, Collection<ETuple>> ent : map.entrySet()) {
-
-			Collection<ETuple> values = ent.getValue();
-			for (ETuple val : values) {
-				if (match(val)) {
-					vals = vals.cons(val);
-				}
+	public EObject key_lower_bound(int keypos1) {
+		Pattern key = key_pattern(keypos1);
+		return key == null ? null : lower_bound(key);
+	}
+
+	/**
+	 * @return true if key, and every key after it, is too large to match
+	 *         the key pattern
+	 */
+	public boolean past_key_range(int keypos1, EObject key) {
+		Pattern p = key_pattern(keypos1);
+		return p != null && range_compare(p, key) > 0;
+	}
+
+	private Pattern key_pattern(int keypos1) {
+		if (funs.length == 1 && funs[0].head instanceof TuplePattern) {
+			TuplePattern tp = (TuplePattern) funs[0].head;
+			if (keypos1 <= tp.elems.length)
+				return tp.elems[keypos1 - 1];
+		}
+		return null;
+	}
+
+	/** @return the smallest term that p can match, or null for any term */
+	private static EObject lower_bound(Pattern p) {
+		if (p instanceof EqualsPattern) {
+			return ((EqualsPattern) p).value;
+		} else if (p instanceof NilPattern) {
+			return ERT.NIL;
+		} else if (p instanceof TuplePattern) {
+			Pattern[] elems = ((TuplePattern) p).elems;
+			ETuple res = ETuple.make(elems.length);
+			for (int idx0 = 0; idx0 < elems.length; idx0++) {
+				EObject elm = lower_bound(elems[idx0]);
+				res.set(idx0 + 1, elm == null ? MIN_TERM : elm);
 			}
+			return res;
+		} else if (p instanceof ConsPattern) {
+			ConsPattern cp = (ConsPattern) p;
+			EObject head = lower_bound(cp.head_p);
+			EObject tail = lower_bound(cp.tail_p);
+			return ERT.cons(head == null ? MIN_TERM : head,
+					tail == null ? MIN_TERM : tail);
 		}
+		return null;
+	}
 
-		return vals;
+	/** @return true if p matches exactly one term */
+	private static boolean is_bound(Pattern p) {
+		if (p instanceof EqualsPattern || p instanceof NilPattern) {
+			return true;
+		} else if (p instanceof TuplePattern) {
+			for (Pattern elm : ((TuplePattern) p).elems) {
+				if (!is_bound(elm))
+					return false;
+			}
+			return true;
+		} else if (p instanceof ConsPattern) {
+			ConsPattern cp = (ConsPattern) p;
+			return is_bound(cp.head_p) && is_bound(cp.tail_p);
+		}
+		return false;
+	}
+
+	/**
+	 * @return negative if term is smaller than anything p can match,
+	 *         positive if it is larger, or 0 if it may match; in term order
+	 */
+	private static int range_compare(Pattern p, EObject term) {
+		if (p instanceof EqualsPattern) {
+			return term.compareTo(((EqualsPattern) p).value);
+		} else if (p instanceof NilPattern) {
+			return term.compareTo(ERT.NIL);
+		} else if (p instanceof TuplePattern) {
+			Pattern[] elems = ((TuplePattern) p).elems;
+			ETuple t = term.testTuple();
+			if (t == null)
+				return term.compareTo(lower_bound(p));
+			if (t.arity() != elems.length)
+				return t.arity() < elems.length ? -1 : 1;
+			for (int idx0 = 0; idx0 < elems.length; idx0++) {
+				int c = range_compare(elems[idx0], t.elm(idx0 + 1));
+				if (c != 0 || !is_bound(elems[idx0]))
+					return c;
+			}
+			return 0;
+		} else if (p instanceof ConsPattern) {
+			ConsPattern cp = (ConsPattern) p;
+			ECons c = term.testCons();
+			if (c == null || c.isNil())
+				return term.compareTo(lower_bound(p));
+			int hc = range_compare(cp.head_p, c.head());
+			if (hc != 0 || !is_bound(cp.head_p))
+				return hc;
+			return range_compare(cp.tail_p, c.tail());
+		}
+		return 0;
 	}
 
 }
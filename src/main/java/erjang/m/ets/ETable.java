@@ -19,17 +19,8 @@
 package erjang.m.ets;
 
 import java.lang.ref.WeakReference;
-import java.util.concurrent.Callable;
-
-import clojure.lang.APersistentMap;
-import clojure.lang.IMapEntry;
-import clojure.lang.IPersistentMap;
-import clojure.lang.ISeq;
-import clojure.lang.LockingTransaction;
-import clojure.lang.PersistentTreeMap;
-import clojure.lang.RT;
-import clojure.lang.Ref;
-import clojure.lang.Var;
+import java.util.List;
+
 import erjang.EAtom;
 import erjang.EInteger;
 import erjang.EInternalPID;
@@ -40,29 +31,25 @@ import erjang.ERT;
 import erjang.ESeq;
 import erjang.ETuple;
 import erjang.ETuple2;
-import erjang.ErlangError;
 import erjang.ExitHook;
 import erjang.NotImplemented;
 
 /**
- * Abstract super class for an ETS table.  We implement ETS by using
- * Clojure's persistent data types.  
+ * Abstract super class for an ETS table.  Tables are built on the
+ * concurrent collections in java.util.concurrent, so readers never
+ * block and writers only contend when they touch the same part of
+ * the table.
  * 
- * set:           PersistentHashMap [key, value]
- * ordered_set:   PersistentTreeMap [key, value]
- * bag			  PersistentHashMap [key, PersistentSet [value]]
- * duplicate_bag: PersistentHashMap [key, PersistentList [value]]
+ * set:           ConcurrentHashMap [key, value]
+ * ordered_set:   ConcurrentSkipListMap [key, value]
+ * bag			  ConcurrentHashMap [key, value[]] 
+ * duplicate_bag: ConcurrentHashMap [key, value[]]
  * 
+ * Operations on a single object are atomic.  Operations on several
+ * objects (insert of a list, select_delete, ...) are atomic per object.
  */
 abstract class ETable implements ExitHook {
 
-	static {
-		Object o = RT.IN;
-	}
-	
-
-	public static final EAtom am_stm = EAtom.intern("stm");
-	
 	protected final WeakReference<EProc> owner;
 	protected final EAtom access;
 	protected final int keypos1;
@@ -72,11 +59,9 @@ abstract class ETable implements ExitHook {
 	protected final EAtom aname;
 	protected final boolean is_named;
 	protected final EAtom type;
-	protected final APersistentMap empty;
-	private Ref mapRef;
 
 	ETable(EProc owner, EAtom type, EInteger tid, EAtom aname, EAtom access, int keypos,
-			boolean is_named, EPID heir_pid, EObject heir_data, APersistentMap map) {
+			boolean is_named, EPID heir_pid, EObject heir_data) {
 		this.type = type;
 		this.is_named = is_named;
 		this.owner = new WeakReference<EProc>(owner);
@@ -86,12 +71,6 @@ abstract class ETable implements ExitHook {
 		this.keypos1 = keypos;
 		this.heirPID = heir_pid;
 		this.heirData = heir_data;
-		try {
-			this.mapRef = new Ref(map);
-		} catch (Exception e) {
-			throw new ErlangError(am_stm);
-		}
-		empty = map;
 		owner.add_exit_hook(this);
 	}
 
@@ -186,38 +165,15 @@ abstract class ETable implements ExitHook {
 		return value.elm(keypos1);
 	}
 	
-	IPersistentMap deref() {
-		return (IPersistentMap) mapRef.deref();
-	}
-	
-
-	abstract class WithMap<T> implements Callable<T> {
-		
-		@Override
-		public final T call() throws Exception {
-			return run((IPersistentMap)mapRef.deref());
-		}
-
-		protected abstract T run(IPersistentMap map);
-
-		protected void set(IPersistentMap map) {
-			mapRef.set(map);
-		}
-		
-	}
-	
-	@SuppressWarnings("unchecked")
-	<X> X in_tx(Callable<X> run) {
-		try {
-			return (X) LockingTransaction.runInTransaction(run);
-		} catch (Exception e) {
-			// STM Failure
-			throw new ErlangError(am_stm);
-		}
+	/**
+	 * Number of lock stripes to use for a hash table; with
+	 * write_concurrency, writers to different keys rarely contend.
+	 */
+	static int stripes(boolean write_concurrency) {
+		return write_concurrency
+			? 16 * Runtime.getRuntime().availableProcessors()
+			: 1;
 	}
-	
-	
-
 
 	protected abstract void insert_one(ETuple value);
 
@@ -237,51 +193,22 @@ abstract class ETable implements ExitHook {
 
 	protected abstract EInteger select_delete(EMatchSpec matcher);
 
-	protected void delete_all_objects() {
-		in_tx(new WithMap<Object>() {
+	/**
+	 * Run matcher over the objects following the key <code>from</code>
+	 * (or from the start of the table, if from is null), adding the
+	 * results to out, until there are at least limit results.
+	 * 
+	 * @return the last key looked at, from which to continue; or null if
+	 *         the end of the table was reached
+	 */
+	protected abstract EObject select(EMatchSpec matcher, EObject from,
+			int limit, List<EObject> out);
 
-			@Override
-			protected Object run(IPersistentMap map) {
-				set(empty);
-				return null;
-			}
-		});
-	}
+	protected abstract void delete_all_objects();
 
 	protected abstract EObject first();
 
-	protected EObject next(EObject from) {
-		IPersistentMap map = deref();
-
-		if (map instanceof PersistentTreeMap) {
-			PersistentTreeMap ptm = (PersistentTreeMap) map;
-			ISeq seq = ptm.seqFrom(from, true);
-			if (seq == null) return Native.am_$end_of_table;
-			seq = seq.next();
-			if (seq == null) return Native.am_$end_of_table;
-			IMapEntry ent = (IMapEntry) seq.first();
-			if (ent == null) return Native.am_$end_of_table;
-			return (EObject) ent.getKey();
-			
-		} else {
-			
-			for (ISeq seq = map.seq();seq != null;seq = seq.next()) {
-				IMapEntry ent = (IMapEntry) seq.first(); 
-				if (ent == null) return Native.am_$end_of_table;
-				EObject key = (EObject) ent.getKey();
-				if (key.equals(from)) {
-					seq = seq.next();
-					if (seq == null) return Native.am_$end_of_table;
-					ent = (IMapEntry) seq.first(); 
-					if (ent == null) return Native.am_$end_of_table;
-					return (EObject) ent.getKey();
-				}
-			}
-				 
-			return Native.am_$end_of_table;
-			
-		}
-	}
+	protected abstract EObject next(EObject from);
 
 	protected abstract void delete_object(ETuple obj);
 	
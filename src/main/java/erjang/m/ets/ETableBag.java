@@ -18,20 +18,10 @@
 
 package erjang.m.ets;
 
-import java.util.Collection;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import clojure.lang.IMapEntry;
-import clojure.lang.IPersistentCollection;
-import clojure.lang.IPersistentMap;
-import clojure.lang.IPersistentSet;
-import clojure.lang.ISeq;
-import clojure.lang.PersistentHashSet;
-import clojure.lang.PersistentTreeMap;
-import clojure.lang.RT;
-import clojure.lang.Ref;
-import clojure.lang.Seqable;
-import clojure.lang.Var;
 import erjang.EAtom;
 import erjang.EInteger;
 import erjang.EObject;
@@ -40,19 +30,22 @@ import erjang.EProc;
 import erjang.ERT;
 import erjang.ESeq;
 import erjang.ETuple;
-import erjang.NotImplemented;
 
 /**
  * 
  */
 public class ETableBag extends ETable {
 
-	static {
-		Var in = RT.IN;
-	}
-	
-	/** holds an Integer with the bag size */
-	Ref sizeRef;
+	static final ETuple[] NONE = new ETuple[0];
+
+	/**
+	 * Objects with the same key, in insertion order.  Buckets are never
+	 * modified; writers replace them with compare-and-set.
+	 */
+	private final EHashTable<ETuple[]> map;
+
+	/** number of objects in the bag */
+	private final AtomicInteger count = new AtomicInteger();
 	
 	ETableBag(EProc owner, 
 			  EAtom type, 
@@ -66,293 +59,259 @@ public class ETableBag extends ETable {
 			  EObject heirData)
 	{
 		super(owner, type, tid, aname, access, keypos, isNamed, heirPid,
-				heirData, PersistentTreeMap.EMPTY);
-		try {
-			sizeRef = new Ref(new Integer(0));
-		} catch (Exception e) {
-			throw new Error(e);
-		}
+				heirData);
+		map = new EHashTable<ETuple[]>(stripes(writeConcurrency));
 	}
-	
+
 	//
 	// A bag is implemented as a map (of keys), that refer to 
-	// a collection of values with that key.  This function creates
-	// an empty one of those nested collections depending on
-	// the ets type.
+	// an array of values with that key.  In a normal bag, 
+	// there can be several elements with the same key, but no 
+	// duplicates (i.e. == each other); a duplicate bag allows
+	// duplicate elements with the same key.
 	//
-	
-	IPersistentCollection empty() {
-		return type==Native.am_bag 
-
-			// normal bag; there can be several elements with the
-			// same key, but no duplicates (i.e. == each other)
-			? PersistentHashSet.EMPTY 
-					
-			// duplicate bag, allows duplicate elements with the
-			// same key; just hold values as a list
-			: PersistentBag.EMPTY;
+
+	/** replace bucket old (NONE if absent) with upd (NONE to remove) */
+	private boolean swap(EObject key, ETuple[] old, ETuple[] upd) {
+		if (old == NONE) {
+			return upd == NONE || map.putIfAbsent(key, upd) == null;
+		} else if (upd == NONE) {
+			return map.remove(key, old);
+		} else {
+			return map.replace(key, old, upd);
+		}
+	}
+
+	private ETuple[] bucket(EObject key) {
+		ETuple[] b = map.get(key);
+		return b == null ? NONE : b;
+	}
+
+	private static int index_of(ETuple[] b, ETuple value) {
+		for (int i = 0; i < b.length; i++) {
+			if (b[i].equalsExactly(value))
+				return i;
+		}
+		return -1;
 	}
 
 	@Override
 	protected void insert_many(final ESeq values) {
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {
-				int count = 0;
-				for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
-					ETuple value = seq.head().testTuple();
-					if (value == null) throw ERT.badarg(values);
-					EObject key = get_key(value);
-					IPersistentCollection c = 
-						(IPersistentCollection) map.valAt(key, empty());
-					map = map.assoc(key, c.cons(value));
-					count += 1;
-				}
-				sizeRef.set(count + (Integer)sizeRef.deref());
-				set(map);
-				return null;
-			}
-		});
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			if (seq.head().testTuple() == null) throw ERT.badarg(values);
+		}
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			insert_one(seq.head().testTuple());
+		}
 	}
 
 	@Override
 	protected void insert_new_many(ESeq values) {
-		throw new NotImplemented();
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			ETuple value = seq.head().testTuple();
+			if (value == null) throw ERT.badarg(values);
+			if (map.containsKey(get_key(value))) return;
+		}
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			insert_new_one(seq.head().testTuple());
+		}
 	}
 
 	@Override
 	protected void insert_new_one(ETuple value) {
-		throw new NotImplemented();
+		if (map.putIfAbsent(get_key(value), new ETuple[] { value }) == null) {
+			count.incrementAndGet();
+		}
 	}
 
 	@Override
 	protected void insert_one(final ETuple value) {
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {
-				IPersistentCollection empty = empty();
-				EObject key = get_key(value);
-				IPersistentCollection c = 
-					(IPersistentCollection) map.valAt(key, empty);
-				map = map.assoc(key, c.cons(value));
-				set(map);
-				sizeRef.set(1 + (Integer)sizeRef.deref());
-				return null;
-			}
-		});
+		EObject key = get_key(value);
+		ETuple[] old, upd;
+		do {
+			old = bucket(key);
+			if (type == Native.am_bag && index_of(old, value) != -1)
+				return;
+			upd = new ETuple[old.length + 1];
+			System.arraycopy(old, 0, upd, 0, old.length);
+			upd[old.length] = value;
+		} while (!swap(key, old, upd));
+		count.incrementAndGet();
 	}
 
 	/** return a list of elements at given key */
 	@Override
 	protected ESeq lookup(EObject key) {
-		IPersistentMap ipm = deref();
-		IPersistentCollection set = (IPersistentCollection) ipm.valAt(key);
+		ETuple[] b = bucket(key);
 		ESeq res = ERT.NIL;
-		if (set == null) return res;
-		for(ISeq s = set.seq(); s != null; s = s.next())
-		{
-			res = res.cons((EObject) s.first());
+		for (int i = b.length - 1; i >= 0; i--) {
+			res = res.cons(b[i]);
 		}
 		return res;
 	}
 
 	@Override
 	protected EObject first() {
-		// no need to run in_tx if we're only reading
-		IPersistentMap map = deref();
-		
-		if (map.count() == 0) {
-			return Native.am_$end_of_table;
-		} else {
-			ISeq entseq = map.seq();
-			IMapEntry ent = (IMapEntry) entseq.first();
-			return (EObject) ent.getKey();
-		}
+		EObject key = map.first_key();
+		return key == null ? Native.am_$end_of_table : key;
+	}
+
+	@Override
+	protected EObject next(EObject from) {
+		EObject key = map.next_key(from);
+		return key == null ? Native.am_$end_of_table : key;
 	}
 	
 	@Override
 	int size() {
-		return (Integer)sizeRef.deref();
+		return count.get();
+	}
+
+	@Override
+	protected EObject select(EMatchSpec matcher, EObject from, int limit,
+			List<EObject> out) {
+		EObject key = matcher.getTupleKey(keypos1);
+		if (key != null) {
+			if (from == null) {
+				for (ETuple val : bucket(key)) {
+					EObject res = matcher.run(val);
+					if (res != null)
+						out.add(res);
+				}
+			}
+			return null;
+		}
+
+		EHashTable.Node<ETuple[]> e = from == null ? map.first_entry()
+				: map.next_entry(from);
+		for (; e != null; e = map.next_entry(e.key)) {
+			for (ETuple val : e.value) {
+				EObject res = matcher.run(val);
+				if (res != null)
+					out.add(res);
+			}
+			if (out.size() >= limit)
+				return e.key;
+		}
+		return null;
 	}
 
 	@Override
 	public ESeq match(EPattern matcher) {		
-		throw new NotImplemented();
+		ESeq res = ERT.NIL;
+		EObject key = matcher.getKey(keypos1);
+		if (key == null) {
+			for (ETuple[] b : map.values()) {
+				for (ETuple val : b) {
+					res = matcher.match(res, val);
+				}
+			}
+		} else {
+			for (ETuple val : bucket(key)) {
+				res = matcher.match(res, val);
+			}
+		}
+		return res;
 	}
 
 	@Override
 	public ESeq match_object(final EPattern matcher) {		
-		
+		ESeq res = ERT.NIL;
 		EObject key = matcher.getKey(keypos1);
 		if (key == null) {
-			
-			// oops, .. tablescan
-			ESeq res = ERT.NIL;
-			
-			IPersistentMap map = deref();
-			for (ISeq entseq = map.seq(); entseq != null; entseq = entseq.next()) {
-				IMapEntry ent = (IMapEntry) entseq.first();
-
-				if (ent == null) break;
-				
-				Seqable coll = (Seqable)ent.getValue();
-				res = matcher.match_members(ERT.NIL, coll.seq());
+			for (ETuple[] b : map.values()) {
+				for (ETuple val : b) {
+					res = matcher.match_members(res, val);
+				}
+			}
+		} else {
+			for (ETuple val : bucket(key)) {
+				res = matcher.match_members(res, val);
 			}
-			
-			return res;
 		}
-		
-		IPersistentMap map = deref();
-		IPersistentCollection coll = (IPersistentCollection) map.valAt(key);
-		if (coll == null) return ERT.NIL;
-		
-		return matcher.match_members(ERT.NIL, coll.seq());
+		return res;
 	}
 
 	@Override
 	protected void delete(final EObject key) {
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {
-				IPersistentCollection empty = empty();
-				IPersistentCollection c =
-					(IPersistentCollection) map.valAt(key, empty);
-				try {
-				    map = map.without(key);
-				} catch (Exception e) {
-				    // should not happen!
-				    throw new Error(e);
-				}
-				set(map);
-				sizeRef.set((Integer)sizeRef.deref() - c.count());
-				return null;
-			}
-		});
+		ETuple[] old = map.remove(key);
+		if (old != null) {
+			count.addAndGet(-old.length);
+		}
 	}
 
 	@Override
 	protected void delete_object(final ETuple obj) {
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {
-				EObject key = get_key(obj);
-				IPersistentCollection empty = empty();
-				IPersistentCollection c =
-					(IPersistentCollection) map.valAt(key, empty);
-				
-				if (c == null || c.count()==0)
-					return null;
-				
-				IPersistentCollection out = empty();
-				int deleted = 0;
-				
-				for (ISeq s = c.seq(); s != null; s = s.next()) {
-					EObject val = (EObject) s.first();
-					if (val == null) break;
-					
-					if (! obj.equals(val)) {
-						out = out.cons(val);
-					} else {
-						deleted += 1;
-					}
-				}
-				
-				if (out.count() == 0) {
-					try {
-						map = map.without(key);
-					} catch (Exception e) {
-						throw new Error(e);
-					}
-				} else {
-					map = map.assoc(key, out);
-				}
-				
-				set(map);
-				sizeRef.set((Integer)sizeRef.deref() - deleted);
-				return null;
-			}
-		});
+		EObject key = get_key(obj);
+		ETuple[] old, upd;
+		do {
+			old = bucket(key);
+			upd = without(old, obj);
+			if (upd == old) return;
+		} while (!swap(key, old, upd));
+		count.addAndGet(upd.length - old.length);
+	}
 
-	
+	/** @return b without elements equal to obj, or b if there are none */
+	private static ETuple[] without(ETuple[] b, ETuple obj) {
+		int n = 0;
+		for (ETuple val : b) {
+			if (!val.equalsExactly(obj)) n += 1;
+		}
+		if (n == b.length) return b;
+		if (n == 0) return NONE;
+
+		ETuple[] res = new ETuple[n];
+		int i = 0;
+		for (ETuple val : b) {
+			if (!val.equalsExactly(obj)) res[i++] = val;
+		}
+		return res;
 	}
 	
 	@Override
 	protected EInteger select_delete(final EMatchSpec matcher) {
+		EObject key = matcher.getTupleKey(keypos1);
+		int deleted = 0;
 
-		int delete_count = in_tx(new WithMap<Integer>() {
-
-			@Override
-			protected Integer run(IPersistentMap map) {
-				ESeq vals = ERT.NIL;
-				int initial_count = (Integer) sizeRef.deref();
-				
-				EObject key = matcher.getTupleKey(keypos1);
-				
-				if (key == null) {
-					vals = matcher.matching_values_bag(vals, (Map<EObject, java.util.Collection <ETuple>>) map);
-				} else {
-					ETuple candidate = (ETuple) map.valAt(key);
-					if (candidate != null && matcher.match(candidate)) {
-						vals = vals.cons(key);
-					}
-				}
-				
-				int count = 0;
-				for (; !vals.isNil(); vals = vals.tail()) {
-					try {
-						ETuple val = (ETuple) vals.head();
-						key = val.elm(keypos1);
-						IPersistentCollection coll = (IPersistentCollection) map.valAt(key);
-
-						if (coll instanceof IPersistentSet) {
-							IPersistentSet set = (IPersistentSet) coll;
-							set = set.disjoin(val);
-							if (set != coll) {
-								count += 1;
-							if (set.count() == 0) {
-								map = map.without(key);
-							} else {
-								map = map.assoc(key, set);
-							}
-							}
-						} else if (coll instanceof IPersistentBag) {
-							IPersistentBag bag = (IPersistentBag)coll;
-							bag = bag.disjoin(val);
-							if (bag != coll) {
-								count += 1;
-								if (bag.count() == 0) {
-								map = map.without(key);
-							} else {
-								map = map.assoc(key, bag);
-							}
-							}
-							
-						}
-					} catch (Exception e) {
-						// should not happen!
-						throw new Error(e);
-					}
-				}
-				
-				set(map);
-				sizeRef.set(new Integer(initial_count-count));
-				return count;
-			}});
-		
-		return ERT.box(delete_count);
-	}
+		if (key == null) {
+			for (Map.Entry<EObject, ETuple[]> ent : map.entrySet()) {
+				deleted += select_delete(ent.getKey(), matcher);
+			}
+		} else {
+			deleted = select_delete(key, matcher);
+		}
 
-	protected void delete_all_objects() {
-		in_tx(new WithMap<Object>() {
+		return ERT.box(deleted);
+	}
 
-			@Override
-			protected Object run(IPersistentMap map) {
-				set(empty);
-				sizeRef.set(new Integer(0));
-				return null;
+	private int select_delete(EObject key, EMatchSpec matcher) {
+		ETuple[] old, upd;
+		do {
+			old = bucket(key);
+			int n = 0;
+			ETuple[] keep = new ETuple[old.length];
+			for (ETuple val : old) {
+				if (!matcher.match(val)) keep[n++] = val;
 			}
-		});
+			if (n == old.length) return 0;
+			if (n == 0) {
+				upd = NONE;
+			} else {
+				upd = new ETuple[n];
+				System.arraycopy(keep, 0, upd, 0, n);
+			}
+		} while (!swap(key, old, upd));
+
+		count.addAndGet(upd.length - old.length);
+		return old.length - upd.length;
 	}
 
+	@Override
+	protected void delete_all_objects() {
+		for (EObject key : map.keySet()) {
+			delete(key);
+		}
+	}
 
 }
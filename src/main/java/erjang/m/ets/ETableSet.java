@@ -16,16 +16,14 @@
  * limitations under the License.
  **/
 
-
 package erjang.m.ets;
 
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
 
-import clojure.lang.IMapEntry;
-import clojure.lang.IPersistentMap;
-import clojure.lang.ISeq;
-import clojure.lang.PersistentHashMap;
-import clojure.lang.PersistentTreeMap;
 import erjang.EAtom;
 import erjang.EInteger;
 import erjang.EObject;
@@ -43,52 +41,66 @@ import erjang.m.erlang.ErlBif;
  */
 public class ETableSet extends ETable {
 
+	/** all objects, by key */
+	private final ConcurrentMap<EObject, ETuple> map;
+
+	/** same as map for ordered_set, null for set */
+	private final ConcurrentSkipListMap<EObject, ETuple> sorted;
+
+	/** same as map for set, null for ordered_set */
+	private final EHashTable<ETuple> hashed;
+
+	/** size of an ordered_set; ConcurrentSkipListMap.size() is O(n) */
+	private final AtomicInteger count = new AtomicInteger();
+
 	ETableSet(EProc owner, EAtom type, EInteger tid, EAtom aname, EAtom access, int keypos,
 			boolean write_concurrency, boolean is_named, EPID heirPID, EObject heirData) {
 		super(owner, type, tid, aname, access, keypos, 
-				is_named, heirPID, heirData, 
-				type == Native.am_set 
-						? PersistentHashMap.EMPTY 
-						: PersistentTreeMap.EMPTY);
+				is_named, heirPID, heirData);
+		if (type == Native.am_set) {
+			map = hashed = new EHashTable<ETuple>(stripes(write_concurrency));
+			sorted = null;
+		} else {
+			map = sorted = new ConcurrentSkipListMap<EObject, ETuple>();
+			hashed = null;
+		}
 	}
 	
 	@Override
 	int size() {
-		return deref().count();
+		return sorted == null ? map.size() : count.get();
+	}
+
+	private void added() {
+		if (sorted != null) count.incrementAndGet();
+	}
+
+	private void removed() {
+		if (sorted != null) count.decrementAndGet();
 	}
 
 	@Override
 	protected void insert_one(final ETuple value) {
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {
-				set(map.assoc(get_key(value), value));
-				return null;
-			}
-		});
+		if (map.put(get_key(value), value) == null) {
+			added();
+		}
 	}
 
 	@Override
 	protected void insert_many(final ESeq values) {
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {		
-				for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
-					ETuple value = values.head().testTuple();
-					if (value == null) throw ERT.badarg(values);
-					map = map.assoc(get_key(value), value);
-				}
-				set(map);
-				return null;
-			}});
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			if (seq.head().testTuple() == null) throw ERT.badarg(values);
+		}
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			insert_one(seq.head().testTuple());
+		}
 	}
 	
 	@Override
 	protected ESeq lookup(EObject key) {
 		ESeq res = ERT.NIL;
 		
-		// no need to run in_tx if we're only reading
-		EObject val = (EObject) deref().valAt(key);
+		EObject val = map.get(key);
 		if (val != null) {
 			return res.cons(val);
 		} else {
@@ -98,67 +110,54 @@ public class ETableSet extends ETable {
 	
 	@Override
 	protected EObject first() {
-		// no need to run in_tx if we're only reading
-		IPersistentMap map = deref();
-		
-		if (map.count() == 0) {
-			return Native.am_$end_of_table;
-		} else {
-			ISeq entseq = map.seq();
-			if (entseq == null) return Native.am_$end_of_table;
-			IMapEntry ent = (IMapEntry) entseq.first();
-			if (ent == null) return Native.am_$end_of_table;
-			return (EObject) ent.getKey();
+		if (sorted != null) {
+			Map.Entry<EObject, ETuple> ent = sorted.firstEntry();
+			return ent == null ? Native.am_$end_of_table : ent.getKey();
 		}
+
+		EObject key = hashed.first_key();
+		return key == null ? Native.am_$end_of_table : key;
 	}
 
+	@Override
+	protected EObject next(EObject from) {
+		if (sorted != null) {
+			EObject key = sorted.higherKey(from);
+			return key == null ? Native.am_$end_of_table : key;
+		}
+
+		EObject key = hashed.next_key(from);
+		return key == null ? Native.am_$end_of_table : key;
+	}
 
 	@Override
 	protected void insert_new_many(final ESeq values) {	
-		in_tx(new WithMap<Object>() {
-			@Override
-			protected Object run(IPersistentMap map) {
-				for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
-					ETuple value = values.head().testTuple();
-					if (value == null) throw ERT.badarg(values);
-					EObject key = get_key(value);
-					if (!map.containsKey(key)) {
-						map = map.assoc(key, value);
-					}
-				}
-	
-				set(map);
-				return null;
-			}
-	});
-}
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			ETuple value = seq.head().testTuple();
+			if (value == null) throw ERT.badarg(values);
+			if (map.containsKey(get_key(value))) return;
+		}
+		for (ESeq seq = values; !seq.isNil(); seq = seq.tail()) {
+			insert_new_one(seq.head().testTuple());
+		}
+	}
 
 	@Override
 	protected void insert_new_one(final ETuple value) {
-		final EObject key = get_key(value);
-		if (!deref().containsKey(key)) {
-			in_tx(new WithMap<Object>() {
-				@Override
-				protected Object run(IPersistentMap map) {
-					if (!map.containsKey(key)) {
-						set(map.assoc(key, value));
-					}
-					return null;
-				}
-			});
+		if (map.putIfAbsent(get_key(value), value) == null) {
+			added();
 		}
 	}
 	
 	@Override
 	public ESeq match(EPattern matcher) {		
-		IPersistentMap map = deref();
 		ESeq res = ERT.NIL;
 		
 		EObject key = matcher.getKey(keypos1);
 		if (key == null) {
-			res = matcher.match(res, (Map<EObject, ETuple>) map);
+			res = matcher.match(res, map);
 		} else {
-			ETuple candidate = (ETuple) map.valAt(key);
+			ETuple candidate = map.get(key);
 			if (candidate != null) {
 				res =  matcher.match(res, candidate);
 			}
@@ -169,14 +168,13 @@ public class ETableSet extends ETable {
 	
 	@Override
 	public ESeq match_object(EPattern matcher) {		
-		IPersistentMap map = deref();
 		ESeq res = ERT.NIL;
 		
 		EObject key = matcher.getKey(keypos1);
 		if (key == null) {
-			res = matcher.match_members(res, (Map<EObject, ETuple>) map);
+			res = matcher.match_members(res, map);
 		} else {
-			ETuple candidate = (ETuple) map.valAt(key);
+			ETuple candidate = map.get(key);
 			if (candidate != null) {
 				res =  matcher.match_members(res, candidate);
 			}
@@ -185,147 +183,149 @@ public class ETableSet extends ETable {
 		return res;
 	}
 
-
 	@Override
 	protected void delete(final EObject key) {
-		in_tx(new WithMap<Object>() {
-			@Override
-				protected Object run(IPersistentMap map) {
-			    try {
-					map = map.without(key);
-			    } catch (Exception e) {
-					// should not happen!
-					throw new Error(e);
-			    }
-			    set(map);
-			    return null;
-			}
-		});
+		if (map.remove(key) != null) {
+			removed();
+		}
 	}
 
 	@Override
 	protected void delete_object(final ETuple obj) {
-		in_tx(new WithMap<Object>() {
+		EObject key = get_key(obj);
+		ETuple candidate = map.get(key);
+		if (candidate != null && obj.equalsExactly(candidate)
+				&& map.remove(key, candidate)) {
+			removed();
+		}
+	}
 
-			@Override
-			protected Object run(IPersistentMap map) {
-			
-				EObject key = get_key(obj);
-				
-				EObject candidate = (EObject)map.entryAt(key);
-				if (obj.equals(candidate)) {
-					try {
-						map = map.without(key);
-						set(map);
-					} catch (Exception e) {
-						throw new Error(e);
-					}
-				}
-				
-				return null;
-			}
-		});
+	@Override
+	protected void delete_all_objects() {
+		for (EObject key : map.keySet()) {
+			delete(key);
+		}
 	}
 	
 	@Override
 	public EInteger select_delete(final EMatchSpec matcher) {		
-		int delete_count = in_tx(new WithMap<Integer>() {
-
-			@Override
-			protected Integer run(IPersistentMap map) {
-				ESeq vals = ERT.NIL;
-				
-				EObject key = matcher.getTupleKey(keypos1);
+		ESeq vals = ERT.NIL;
 				
-				if (key == null) {
-					vals = matcher.matching_values_set(vals, (Map<EObject, ETuple>) map);
-				} else {
-					ETuple candidate = (ETuple) map.valAt(key);
-					if (candidate != null && matcher.match(candidate)) {
-						vals = vals.cons(key);
-					}
-				}
+		EObject key = matcher.getTupleKey(keypos1);
 				
-				int count = 0;
-				for (; !vals.isNil(); vals = vals.tail()) {
-					try {
-						ETuple val = (ETuple) vals.head();
-						key = val.elm(keypos1);
-						map = map.without(key);
-					} catch (Exception e) {
-						// should not happen!
-						throw new Error(e);
-					}
-					count += 1;
-				}
+		if (key == null) {
+			vals = matcher.matching_values_set(vals, map);
+		} else {
+			ETuple candidate = map.get(key);
+			if (candidate != null && matcher.match(candidate)) {
+				vals = vals.cons(candidate);
+			}
+		}
 				
-				set(map);
-				return count;
-			}});
+		int count = 0;
+		for (; !vals.isNil(); vals = vals.tail()) {
+			ETuple val = (ETuple) vals.head();
+			if (map.remove(get_key(val), val)) {
+				removed();
+				count += 1;
+			}
+		}
 		
-		return ERT.box(delete_count);
+		return ERT.box(count);
 	}
 
-	public EObject update_counter(final EObject key, final EObject upd) {
-		return in_tx(new WithMap<EObject>() {
+	@Override
+	protected EObject select(EMatchSpec matcher, EObject from, int limit,
+			List<EObject> out) {
+		EObject key = matcher.getTupleKey(keypos1);
+		if (key != null) {
+			ETuple candidate = from == null ? map.get(key) : null;
+			EObject val;
+			if (candidate != null && (val = matcher.run(candidate)) != null) {
+				out.add(val);
+			}
+			return null;
+		}
 
-			@Override
-			protected EObject run(IPersistentMap map) {
-				ETuple rec = (ETuple) map.valAt(key);
-				if (rec == null)
-					return null; // fail with badarg
-				
-				// TODO: figure out match/equals semantics
-				if (type == Native.am_set) {
-					if (!key.equalsExactly( get_key(rec) )) {
-						return null;
-					}
+		if (sorted != null) {
+			Map<EObject, ETuple> range = sorted;
+			if (from != null) {
+				range = sorted.tailMap(from, false);
+			} else if ((key = matcher.key_lower_bound(keypos1)) != null) {
+				range = sorted.tailMap(key, true);
+			}
+
+			for (Map.Entry<EObject, ETuple> ent : range.entrySet()) {
+				key = ent.getKey();
+				if (matcher.past_key_range(keypos1, key))
+					return null;
+				EObject val = matcher.run(ent.getValue());
+				if (val != null) {
+					out.add(val);
+					if (out.size() >= limit)
+						return key;
 				}
+			}
+			return null;
+		}
 
-				EInteger incr;
-				ETuple one;
-				if ((incr=upd.testInteger()) != null) {
-					int idx = keypos1+1;
-					
-					rec = update(rec, idx, incr);
-					if (rec == null) return null;
-					map = map.assoc(get_key(rec), rec);
-					
-					set(map);
-					return rec.elm(idx);
-					
-				} else if ((one=upd.testTuple()) != null) {
-					
-					if (one.arity() == 2) {
-						ESmall eidx = one.elm(1).testSmall();
-						if (eidx == null || eidx.value > rec.arity()) return null;
-						int idx = eidx.value;
-						
-						rec = update(rec, idx, incr);
-						if (rec == null) return null;
-						map = map.assoc(get_key(rec), rec);
-						
-						set(map);
-						return rec.elm(idx);
+		EHashTable.Node<ETuple> e = from == null ? hashed.first_entry()
+				: hashed.next_entry(from);
+		for (; e != null; e = hashed.next_entry(e.key)) {
+			EObject val = matcher.run(e.value);
+			if (val != null) {
+				out.add(val);
+				if (out.size() >= limit)
+					return e.key;
+			}
+		}
+		return null;
+	}
 
-					} else {
-						throw new NotImplemented();
-					}
-					
-				} else {
-					throw new NotImplemented();
-				}
+	/**
+	 * Atomically add to an integer element of the object with the given key.
+	 * 
+	 * @return the new value, or null if the update is not possible
+	 */
+	public EObject update_counter(final EObject key, final EObject upd) {
+		int idx;
+		EInteger incr;
+		ETuple one;
+		if ((incr = upd.testInteger()) != null) {
+			idx = keypos1 + 1;
+		} else if ((one = upd.testTuple()) != null && one.arity() == 2) {
+			ESmall eidx = one.elm(1).testSmall();
+			incr = one.elm(2).testInteger();
+			if (eidx == null || incr == null) return null;
+			idx = eidx.value;
+		} else {
+			throw new NotImplemented();
+		}
+
+		if (idx == keypos1) return null;
+
+		while (true) {
+			ETuple rec = map.get(key);
+			if (rec == null)
+				return null; // fail with badarg
 				
+			// TODO: figure out match/equals semantics
+			if (type == Native.am_set) {
+				if (!key.equalsExactly( get_key(rec) )) {
+					return null;
+				}
 			}
 
-			private ETuple update(ETuple rec, int idx, EInteger incr) {
+			if (idx < 1 || idx > rec.arity()) return null;
+			EInteger old = rec.elm(idx).testInteger();
+			if (old == null) return null;
 
-				EInteger old = rec.elm(idx).testInteger();
-				if (old == null) return null;
-				EObject val = old.add(incr);
-				rec = ErlBif.setelement(keypos1+1, rec, val);
+			EObject val = old.add(incr);
+			ETuple upd_rec = ErlBif.setelement(idx, rec, val);
 
-				return rec;
-			}});
+			if (map.replace(key, rec, upd_rec)) {
+				return val;
+			}
+		}
 	}
 }
@@ -18,6 +18,8 @@
 
 package erjang.m.ets;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.atomic.AtomicLong;
@@ -35,6 +37,7 @@ import erjang.ESmall;
 import erjang.ETuple;
 import erjang.ETuple2;
 import erjang.ETuple3;
+import erjang.ETuple4;
 import erjang.NotImplemented;
 
 /**
@@ -66,6 +69,8 @@ public class Native extends ENative {
 	public static final EAtom am_named_table = EAtom.intern("named_table");
 	public static final EAtom am_write_concurrency = EAtom
 			.intern("write_concurrency");
+	public static final EAtom am_read_concurrency = EAtom
+			.intern("read_concurrency");
 	public static final EAtom am_type = EAtom.intern("type");
 	public static final EAtom am_none = EAtom.intern("none");
 	public static final EAtom am_protection = EAtom.intern("protection");
@@ -151,6 +156,9 @@ public class Native extends ENative {
 				} else if (t2.elem1 == am_write_concurrency) {
 					write_concurrency = (t2.elem2 == ERT.TRUE);
 					continue;
+				} else if (t2.elem1 == am_read_concurrency) {
+					// reads never lock, so there is nothing to tune
+					continue;
 				}
 			} else if ((t3 = ETuple3.cast(option)) != null) {
 				if (t3.elem1 == am_heir
@@ -415,24 +423,103 @@ public class Native extends ENative {
 		return table.next(key);
 	}
 
-	@BIF static public EObject safe_fixtable(EObject obj, EObject obj2) {
-		throw new NotImplemented(); 
+	/**
+	 * Traversals with first/next never miss or repeat an object that
+	 * stays in the table, whether or not it is fixed: ordered_set walks
+	 * the key order, and the hash tables walk a hash order that does not
+	 * change when the table grows (see EHashTable).  So there is nothing
+	 * to do here but check the arguments.
+	 */
+	@BIF static public EObject safe_fixtable(EProc proc, EObject tab, EObject fix) {
+		ETable table = resolve(proc, tab, false);
+		if (table == null || !fix.isBoolean()) {
+			throw ERT.badarg(tab, fix);
+		}
+		return ERT.TRUE;
 	}
 
-	@BIF static public EObject select(EObject obj1) {
-		throw new NotImplemented(); 
+	@BIF static public EObject select(EProc proc, EObject cont) {
+		if (cont == am_$end_of_table) {
+			return am_$end_of_table;
+		}
+
+		ETuple4 c = ETuple4.cast(cont);
+		ESmall limit;
+		if (c == null || !(c.elem4 instanceof EMatchSpec)
+				|| (limit = c.elem3.testSmall()) == null) {
+			throw ERT.badarg(cont);
+		}
+
+		return select_chunk(proc, c.elem1, (EMatchSpec) c.elem4, c.elem2,
+				limit.value);
 	}
 
-	@BIF static public EObject select(EObject obj1, EObject obj2) {
-		throw new NotImplemented(); 
+	@BIF static public EObject select(EProc proc, EObject tab, EObject spec) {
+		ESeq lspec = spec.testSeq();
+		ETable table = resolve(proc, tab, false);
+		if (lspec == null || table == null) throw ERT.badarg(tab, spec);
+
+		EMatchSpec matcher = EMatchSpec.compile(lspec);
+
+		List<EObject> out = new ArrayList<EObject>();
+		table.select(matcher, null, Integer.MAX_VALUE, out);
+		return to_list(out);
 	}
 
-	@BIF static public EObject select(EObject obj1, EObject obj2, EObject obj3) {
-		throw new NotImplemented(); 
+	@BIF static public EObject select(EProc proc, EObject tab, EObject spec, EObject limit) {
+		ESeq lspec = spec.testSeq();
+		ESmall n = limit.testSmall();
+		if (lspec == null || n == null || n.value <= 0) {
+			throw ERT.badarg(tab, spec, limit);
+		}
+
+		return select_chunk(proc, tab, EMatchSpec.compile(lspec), null,
+				n.value);
 	}
 
-	@BIF static public EObject match_spec_run_r(EObject obj1, EObject obj2, EObject obj3) {
-		throw new NotImplemented(); 
+	/**
+	 * Select at least limit results, starting after key from.  The
+	 * continuation is {Tab, LastKey, Limit, CompiledMatchSpec}.
+	 */
+	private static EObject select_chunk(EProc proc, EObject tab,
+			EMatchSpec matcher, EObject from, int limit) {
+		ETable table = resolve(proc, tab, false);
+		if (table == null) throw ERT.badarg(tab);
+
+		List<EObject> out = new ArrayList<EObject>();
+		EObject last = table.select(matcher, from, limit, out);
+		if (out.isEmpty()) {
+			return am_$end_of_table;
+		}
+
+		EObject cont = last == null ? am_$end_of_table
+				: ETuple.make(tab, last, ERT.box(limit), matcher);
+		return new ETuple2(to_list(out), cont);
+	}
+
+	private static ESeq to_list(List<EObject> values) {
+		ESeq res = ERT.NIL;
+		for (int i = values.size() - 1; i >= 0; i--) {
+			res = res.cons(values.get(i));
+		}
+		return res;
+	}
+
+	@BIF static public EObject match_spec_run_r(EObject list, EObject spec, EObject acc) {
+		ESeq seq = list.testSeq();
+		ESeq res = acc.testSeq();
+		if (seq == null || res == null || !(spec instanceof EMatchSpec)) {
+			throw ERT.badarg(list, spec, acc);
+		}
+
+		EMatchSpec matcher = (EMatchSpec) spec;
+		for (; !seq.isNil(); seq = seq.tail()) {
+			EObject val = matcher.run(seq.head());
+			if (val != null) {
+				res = res.cons(val);
+			}
+		}
+		return res;
 	}
 
 	@BIF static public EObject info(EObject obj) {
@@ -0,0 +1,140 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang.m.file;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileChannel;
+
+import kilim.Mailbox;
+import kilim.Pausable;
+import erjang.BIF;
+import erjang.EAtom;
+import erjang.EInteger;
+import erjang.EInternalPort;
+import erjang.ENative;
+import erjang.EObject;
+import erjang.EProc;
+import erjang.ERT;
+import erjang.EString;
+import erjang.ETuple;
+import erjang.ETuple2;
+import erjang.driver.EDriverTask;
+import erjang.driver.efile.Posix;
+
+/**
+ * Native methods (BIFs) for the Erlang module 'file'.
+ * 
+ * <code>sendfile/2,5</code> are as in later OTP releases: file data goes
+ * from the file's channel straight to the socket's channel with
+ * <code>FileChannel.transferTo</code>, so it is never copied onto the heap.
+ */
+public class Native extends ENative {
+
+	private static final EAtom am_file_descriptor = EAtom.intern("file_descriptor");
+
+	/* (non-Javadoc)
+	 * @see erjang.ENative#getNativeClasses()
+	 */
+	@Override
+	public Class<?>[] getNativeClasses() {
+		return new Class[] { Native.class };
+	}
+
+	/**
+	 * <code>sendfile(RawFile, Socket, Offset, Bytes, Opts) -> {ok, Sent} |
+	 * {error, Reason}</code>; with <code>Bytes = 0</code>, sends
+	 * everything from <code>Offset</code> to the end of the file.
+	 */
+	@BIF
+	public static EObject sendfile(EProc proc, EObject raw_file, EObject socket,
+			EObject offset, EObject bytes, EObject opts) throws Pausable {
+		EDriverTask file = file_task(raw_file);
+		EInteger off = offset.testInteger();
+		EInteger len = bytes.testInteger();
+		if (file == null || off == null || len == null || off.longValue() < 0
+				|| len.longValue() < 0 || opts.testSeq() == null)
+			throw ERT.badarg(raw_file, socket, offset, bytes, opts);
+
+		FileChannel fc = file.file_channel();
+		if (fc == null || !fc.isOpen())
+			return new ETuple2(ERT.am_error, EAtom.intern("einval"));
+
+		return sendfile(fc, socket, off.longValue(), len.longValue());
+	}
+
+	/**
+	 * <code>sendfile(Filename, Socket) -> {ok, Sent} | {error, Reason}</code>
+	 */
+	@BIF
+	public static EObject sendfile(EProc proc, EObject filename, EObject socket)
+			throws Pausable {
+		EString name = filename.testString();
+		if (name == null)
+			throw ERT.badarg(filename, socket);
+
+		File file = new File(name.stringValue());
+		FileChannel fc;
+		try {
+			fc = new RandomAccessFile(file, "r").getChannel();
+		} catch (FileNotFoundException e) {
+			return new ETuple2(ERT.am_error, EAtom.intern(file.exists() ? "eacces" : "enoent"));
+		}
+
+		try {
+			return sendfile(fc, socket, 0, 0);
+		} finally {
+			try {
+				fc.close();
+			} catch (IOException e) {
+				// ignore //
+			}
+		}
+	}
+
+	static EObject sendfile(FileChannel fc, EObject socket, long offset, long count)
+			throws Pausable {
+		EInternalPort port = socket.testInternalPort();
+		if (port == null)
+			throw ERT.badarg(socket);
+		if (!port.isOpen())
+			return new ETuple2(ERT.am_error, EAtom.intern(Posix.errno_id(Posix.ENOTCONN)));
+
+		Mailbox<EObject> reply = new Mailbox<EObject>(1);
+		port.task().sendfile(fc, offset, count, reply);
+		return reply.get();
+	}
+
+	/** @return the port task of a raw file, <code>{file_descriptor, prim_file, {Port, _}}</code> */
+	private static EDriverTask file_task(EObject raw_file) {
+		ETuple fd = raw_file.testTuple();
+		if (fd == null || fd.arity() != 3 || fd.elm(1) != am_file_descriptor)
+			return null;
+
+		ETuple data = fd.elm(3).testTuple();
+		EInternalPort port;
+		if (data == null || data.arity() != 2
+				|| (port = data.elm(1).testInternalPort()) == null)
+			return null;
+
+		return port.task();
+	}
+}
@@ -0,0 +1,51 @@
+-module(code_purge_tests).
+
+-export([test/0, check/2, wait/0]).
+
+%% Reloads this module, then checks which processes run old code.  A
+%% process suspended in a receive in the old code is reported by
+%% check_process_code and killed before the purge, as code:purge/1 does;
+%% one started in the new code is not, and survives the purge.
+%%
+%% There is no code server when run under erjang, so the object code is
+%% read from where TestRunFile compiles it.  The test process goes on in
+%% the code it has just loaded through a remote tail call, so that it
+%% never runs code that is purged.
+
+-define(BEAM, "target/test-beam/code_purge_tests.beam").
+
+test() ->
+    {ok, Bin} = prim_file:read_file(?BEAM),
+    Old = spawn_waiting(),
+    {module, ?MODULE} = erlang:load_module(?MODULE, Bin),
+    ?MODULE:check(Old, Bin).
+
+check(Old, Bin) ->
+    NotPurged = erlang:load_module(?MODULE, Bin),
+    New = spawn_waiting(),
+    Pids = [Old, New],
+    OldCode = [erlang:check_process_code(P, ?MODULE) || P <- Pids],
+    Killed = [kill(P) || P <- Pids, erlang:check_process_code(P, ?MODULE)],
+    true = erlang:purge_module(?MODULE),
+    Alive = [is_process_alive(P) || P <- Pids],
+    New ! stop,
+    {NotPurged, OldCode, Killed, Alive}.
+
+spawn_waiting() ->
+    Pid = spawn(?MODULE, wait, []),
+    suspended(Pid),
+    Pid.
+
+suspended(Pid) ->
+    case process_info(Pid, status) of
+	{status, waiting} -> ok;
+	_ -> receive after 1 -> suspended(Pid) end
+    end.
+
+wait() ->
+    receive stop -> ok end.
+
+kill(Pid) ->
+    Ref = erlang:monitor(process, Pid),
+    exit(Pid, kill),
+    receive {'DOWN', Ref, process, Pid, Reason} -> Reason end.
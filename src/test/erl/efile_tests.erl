@@ -0,0 +1,131 @@
+-module(efile_tests).
+
+-export([test/0]).
+
+%% Drives the efile driver through prim_file: read_ahead and
+%% delayed_write buffering, read_line, positional I/O and seeks while
+%% data is buffered.  Only prim_file is used, as there is no file server
+%% when run under erjang.
+
+-define(FILE, "target/efile_tests.tmp").
+
+test() ->
+    Result = [{read_ahead, read_ahead()},
+	      {read_line, read_line([binary])},
+	      {read_line_ahead, read_line([binary, {read_ahead, 4}])},
+	      {read_line_list, read_line([{read_ahead, 4}])},
+	      {pread_pwrite, pread_pwrite([binary])},
+	      {pread_pwrite_list, pread_pwrite([])},
+	      {ipread, ipread()},
+	      {delayed_write, delayed_write()},
+	      {append, append()},
+	      {position, position()}],
+    ok = prim_file:delete(?FILE),
+    Result.
+
+%% reads smaller than, straddling and larger than the read-ahead buffer
+read_ahead() ->
+    ok = prim_file:write_file(?FILE, <<"0123456789abcdef">>),
+    {ok, F} = prim_file:open(?FILE, [read, binary, {read_ahead, 4}]),
+    R = [prim_file:read(F, N) || N <- [3, 3, 5, 1, 10, 1]],
+    ok = prim_file:close(F),
+    R.
+
+%% an empty line, lines longer than the buffer and a last line without
+%% a newline
+read_line(Mode) ->
+    Long = lists:duplicate(1000, $x),
+    ok = prim_file:write_file(?FILE, ["one\n\ntwo three\n", Long, "\nlast"]),
+    {ok, F} = prim_file:open(?FILE, [read | Mode]),
+    First = prim_file:read(F, 2),
+    Lines = read_lines(F),
+    ok = prim_file:close(F),
+    {First, Lines}.
+
+read_lines(F) ->
+    case prim_file:read_line(F) of
+	{ok, Line} -> [Line | read_lines(F)];
+	Other -> [Other]
+    end.
+
+pread_pwrite(Mode) ->
+    ok = prim_file:write_file(?FILE, <<>>),
+    {ok, F} = prim_file:open(?FILE, [read, write | Mode]),
+    W1 = prim_file:pwrite(F, [{0, <<"abcdef">>}, {10, "xyz"}, {3, [$D, <<"E">>]}]),
+    R1 = prim_file:pread(F, [{0, 3}, {4, 4}, {10, 3}, {12, 5}, {20, 5}]),
+    W2 = prim_file:pwrite(F, 1, "BC"),
+    R2 = prim_file:pread(F, 0, 6),
+    R3 = prim_file:pread(F, 100, 1),
+    R4 = prim_file:pread(F, []),
+    %% positional I/O leaves the file position alone
+    R5 = prim_file:read(F, 2),
+    ok = prim_file:close(F),
+    [W1, R1, W2, R2, R3, R4, R5, prim_file:read_file(?FILE)].
+
+%% Size:32, Pointer:32 headers at 0, 8, 16, 24, 32 and one cut short
+ipread() ->
+    ok = prim_file:write_file(?FILE, <<5:32, 40:32,
+				      100:32, 40:32,
+				      0:32, 40:32,
+				      5:32, 1000:32,
+				      8:32, 48:32,
+				      "hello world",
+				      1:16>>),
+    {ok, F} = prim_file:open(?FILE, [read, binary]),
+    R = [prim_file:ipread_s32bu_p32bu(F, 0, infinity),
+	 prim_file:ipread_s32bu_p32bu(F, 0, 5),
+	 prim_file:ipread_s32bu_p32bu(F, 0, 4),
+	 prim_file:ipread_s32bu_p32bu(F, 8, 10),
+	 prim_file:ipread_s32bu_p32bu(F, 16, infinity),
+	 prim_file:ipread_s32bu_p32bu(F, 24, infinity),
+	 prim_file:ipread_s32bu_p32bu(F, 32, infinity),
+	 prim_file:ipread_s32bu_p32bu(F, 52, infinity),
+	 prim_file:ipread_s32bu_p32bu(F, 100, infinity)],
+    ok = prim_file:close(F),
+    R.
+
+%% writes stay buffered until the buffer fills, the file is positioned
+%% or it is closed; opening for write only truncates
+delayed_write() ->
+    ok = prim_file:write_file(?FILE, <<"old contents">>),
+    {ok, F} = prim_file:open(?FILE, [write, binary, {delayed_write, 10, 60000}]),
+    Opened = prim_file:read_file(?FILE),
+    ok = prim_file:write(F, <<"abc">>),
+    ok = prim_file:write(F, "def"),
+    Buffered = prim_file:read_file(?FILE),
+    P = prim_file:position(F, cur),
+    Positioned = prim_file:read_file(?FILE),
+    ok = prim_file:write(F, "ghi"),
+    ok = prim_file:write(F, <<"jklmnopq">>),
+    Full = prim_file:read_file(?FILE),
+    ok = prim_file:write(F, "rs"),
+    ok = prim_file:close(F),
+    [Opened, Buffered, P, Positioned, Full, prim_file:read_file(?FILE)].
+
+append() ->
+    ok = prim_file:write_file(?FILE, <<"abc">>),
+    {ok, F} = prim_file:open(?FILE, [append, binary]),
+    ok = prim_file:write(F, <<"def">>),
+    ok = prim_file:close(F),
+    prim_file:read_file(?FILE).
+
+%% seeks and writes are relative to what has been read, not to what the
+%% read-ahead buffer has taken from the file
+position() ->
+    ok = prim_file:write_file(?FILE, <<"0123456789">>),
+    {ok, F} = prim_file:open(?FILE, [read, write, binary, {read_ahead, 6}]),
+    R = [prim_file:read(F, 2),
+	 prim_file:position(F, cur),
+	 prim_file:read(F, 2),
+	 prim_file:write(F, <<"XY">>),
+	 prim_file:position(F, cur),
+	 prim_file:read(F, 10),
+	 prim_file:position(F, {bof, 1}),
+	 prim_file:read(F, 3),
+	 prim_file:position(F, {cur, -2}),
+	 prim_file:read(F, 2),
+	 prim_file:position(F, {eof, -1}),
+	 prim_file:read(F, 2),
+	 prim_file:position(F, eof)],
+    ok = prim_file:close(F),
+    [R, prim_file:read_file(?FILE)].
@@ -0,0 +1,107 @@
+-module(select_val_tests).
+
+-export([test/0]).
+
+%% select_val and select_tuple_arity dispatch on the type of the input
+%% before switching: atoms on their hash, then identity, small ints on
+%% their value, anything else by equality.
+
+test() ->
+    [{small, [{X, small(X)} || X <- numbers()]},
+     {sparse, [{X, sparse(X)} || X <- numbers()]},
+     {big, [{X, big(X)} || X <- numbers()]},
+     {bucket, [{X, bucket(X)} || X <- atoms()]},
+     {mixed, [{X, mixed(X)} || X <- mixed_inputs()]},
+     {dense_arity, [{size(X), dense_arity(X)} || X <- tuples()]},
+     {sparse_arity, [{size(X), sparse_arity(X)} || X <- tuples()]},
+     {not_tuple, [{X, dense_arity(X), sparse_arity(X)} || X <- numbers()]}].
+
+numbers() ->
+    [-1, 0, 1, 2, 3, 4, 5, 6, 7, 99, 100, 101, 1000000, -1000000,
+     1 bsl 27, (1 bsl 27) - 1, -(1 bsl 27), 1 bsl 31, (1 bsl 31) - 1,
+     -(1 bsl 31), (-(1 bsl 31)) - 1, 1 bsl 32, 1 bsl 64, -(1 bsl 64),
+     (1 bsl 64) + 1, 0.0, 1.0, 2.0, -1.0, 1000000.0, 1.5,
+     a, 'Aa', [], {1}, <<1>>].
+
+%% Java's String.hashCode gives 'Aa' and 'BB' the same hash, and so all
+%% four-letter combinations of them.
+atoms() ->
+    ['Aa', 'BB', 'AaAa', 'AaBB', 'BBAa', 'BBBB', 'Ab', 'BC', a, b, c,
+     true, false, undefined, 0, 1.0, "Aa", <<"Aa">>, {'Aa'}].
+
+mixed_inputs() ->
+    [a, b, c, d, 'Aa', 'BB', 0, 1, 2, 3, 1 bsl 64, 1.0, 2.0,
+     {}, {a}, {a, b}, {b, a}, {a, b, c}, {1, 2}, {1.0, 2}, [a], [], "a"].
+
+tuples() ->
+    [erlang:make_tuple(N, x) || N <- [0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10,
+				      15, 16, 17, 31, 32, 33, 100, 255]].
+
+%% dense small ints: a tableswitch
+small(0) -> zero;
+small(1) -> one;
+small(2) -> two;
+small(3) -> three;
+small(4) -> four;
+small(5) -> five;
+small(6) -> six;
+small(-1) -> minus_one;
+small(_) -> other.
+
+%% sparse small ints: a lookupswitch
+sparse(-1000000) -> minus_million;
+sparse(-1) -> minus_one;
+sparse(1) -> one;
+sparse(100) -> hundred;
+sparse(1000000) -> million;
+sparse(134217727) -> max_small27;
+sparse(2147483647) -> max_int;
+sparse(-2147483648) -> min_int;
+sparse(_) -> other.
+
+%% bignum clauses among small ones
+big(0) -> zero;
+big(1) -> one;
+big(4294967296) -> two_32;
+big(18446744073709551616) -> two_64;
+big(-18446744073709551616) -> minus_two_64;
+big(2147483648) -> two_31;
+big(_) -> other.
+
+%% clauses whose atoms share a hash bucket, inputs that share it but
+%% match no clause ('BB' and 'BBBB' against 'Aa' and 'AaBB')
+bucket('Aa') -> aa;
+bucket('AaBB') -> aabb;
+bucket('BBAa') -> bbaa;
+bucket('Ab') -> ab;
+bucket(a) -> a;
+bucket(true) -> true;
+bucket(_) -> other.
+
+mixed(a) -> atom_a;
+mixed(0) -> int_0;
+mixed(b) -> atom_b;
+mixed(1) -> int_1;
+mixed({a, b}) -> tuple_ab;
+mixed('Aa') -> atom_aa;
+mixed(18446744073709551616) -> big;
+mixed({a}) -> tuple_a;
+mixed(2) -> int_2;
+mixed({1, 2}) -> tuple_12;
+mixed([]) -> nil;
+mixed(_) -> other.
+
+dense_arity({}) -> 0;
+dense_arity({_}) -> 1;
+dense_arity({_, _}) -> 2;
+dense_arity({_, _, _}) -> 3;
+dense_arity({_, _, _, _}) -> 4;
+dense_arity({_, _, _, _, _}) -> 5;
+dense_arity(_) -> other.
+
+sparse_arity({_}) -> 1;
+sparse_arity({_, _, _, _, _, _, _, _, _, _}) -> 10;
+sparse_arity({_, _, _, _, _, _, _, _, _, _, _, _, _, _, _, _}) -> 16;
+sparse_arity({_, _, _, _, _, _, _, _, _, _, _, _, _, _, _, _,
+	      _, _, _, _, _, _, _, _, _, _, _, _, _, _, _, _}) -> 32;
+sparse_arity(_) -> other.
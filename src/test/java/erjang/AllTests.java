@@ -21,6 +21,8 @@ package erjang;
 
 import java.io.File;
 
+import erjang.beam.CodeCacheTest;
+
 import junit.framework.Test;
 import junit.framework.TestSuite;
 
@@ -47,6 +49,15 @@ public class AllTests {
 
 		suite.addTest(coverageRunSuite);
 
+		suite.addTest(new TestBootArchive(new File("src/main/erl/preloaded/ebin")));
+		suite.addTest(new TestRecvMark());
+		suite.addTest(new TestInterpreterReds());
+		suite.addTestSuite(EPeerTest.class);
+		suite.addTestSuite(CodeCacheTest.class);
+		suite.addTestSuite(EFileTest.class);
+		suite.addTestSuite(CodePurgeTest.class);
+		suite.addTestSuite(SelectValTest.class);
+
 		return suite;
 	}
 
@@ -0,0 +1,137 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+import static erjang.TestRecvMark.A;
+import static erjang.TestRecvMark.F;
+import static erjang.TestRecvMark.U;
+import static erjang.TestRecvMark.X;
+import static erjang.TestRecvMark.beam;
+import static erjang.TestRecvMark.op;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+import erjang.beam.BeamOpcode;
+import erjang.m.erlang.ErlBif;
+import erjang.m.erlang.ErlProc;
+
+import junit.framework.TestCase;
+
+/**
+ * The sequence of <code>src/test/erl/code_purge_tests.erl</code> on
+ * erjang, with a module assembled here:
+ *
+ * <pre>
+ * wait() -> receive _ -> ok end.
+ * </pre>
+ *
+ * A process suspended in the code a reload makes old is reported by
+ * check_process_code and killed by the purge; one started in the new code
+ * is not.
+ */
+public class CodePurgeTest extends TestCase {
+
+	static final String MODULE = "code_purge_test";
+
+	static final EAtom am_module = EAtom.intern(MODULE);
+	static final EAtom am_wait = EAtom.intern("wait");
+	static final EAtom am_status = EAtom.intern("status");
+	static final EAtom am_waiting = EAtom.intern("waiting");
+	static final EAtom am_not_purged = EAtom.intern("not_purged");
+
+	public void testReloadAndPurge() throws Exception {
+		EBinary bin = new EBinary(assemble());
+		EProc self = new EProc(null, am_module, am_wait, ERT.NIL);
+
+		assertEquals(ETuple.make(ERT.am_module, am_module), ErlBif
+				.load_module(self, am_module, bin));
+		assertFalse(ErlProc.check_old_code(am_module) == ERT.TRUE);
+		EProc old = spawn_waiting();
+
+		assertEquals(ETuple.make(ERT.am_module, am_module), ErlBif
+				.load_module(self, am_module, bin));
+		assertEquals(ETuple.make(ERT.am_error, am_not_purged), ErlBif
+				.load_module(self, am_module, bin));
+		EProc current = spawn_waiting();
+
+		assertEquals(ERT.TRUE, ErlProc.check_process_code(old.self_handle(),
+				am_module));
+		assertEquals(ERT.FALSE, ErlProc.check_process_code(current
+				.self_handle(), am_module));
+
+		assertEquals(ERT.TRUE, ErlProc.purge_module(self, am_module));
+		await_exit(old);
+		assertTrue(current.is_alive());
+		assertFalse(ErlProc.check_old_code(am_module) == ERT.TRUE);
+
+		try {
+			ErlProc.purge_module(self, am_module);
+			fail("purge without old code");
+		} catch (ErlangError e) {
+			assertEquals(ERT.am_badarg, e.reason().testTuple().elm(1));
+		}
+
+		current.mbox.put(am_wait);
+		await_exit(current);
+	}
+
+	/** @return a process running wait(), once it waits for a message */
+	static EProc spawn_waiting() throws InterruptedException {
+		EProc proc = new EProc(null, am_module, am_wait, ERT.NIL);
+		ERT.run(proc);
+		EObject status = ETuple.make(am_status, am_waiting);
+		for (int i = 0; !status.equals(ErlProc.process_info(proc
+				.self_handle(), am_status)); i++) {
+			if (i == 1000)
+				fail("process not suspended");
+			Thread.sleep(1);
+		}
+		return proc;
+	}
+
+	static void await_exit(EProc proc) throws InterruptedException {
+		for (int i = 0; proc.is_alive(); i++) {
+			if (i == 1000)
+				fail("process still alive");
+			Thread.sleep(1);
+		}
+	}
+
+	/*==================== ASSEMBLY ====================*/
+
+	static byte[] assemble() throws IOException {
+		final int MOD = 1, WAIT = 2, OK = 3;
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		op(code, BeamOpcode.label, U, 1);
+		op(code, BeamOpcode.func_info, A, MOD, A, WAIT, U, 0);
+		op(code, BeamOpcode.label, U, 2);
+		op(code, BeamOpcode.loop_rec, F, 3, X, 0);
+		op(code, BeamOpcode.remove_message);
+		op(code, BeamOpcode.move, A, OK, X, 0);
+		op(code, BeamOpcode.K_return);
+		op(code, BeamOpcode.label, U, 3);
+		op(code, BeamOpcode.wait, F, 2);
+		code.write(BeamOpcode.int_code_end.encoding);
+
+		return beam(new String[] { MODULE, "wait", "ok" }, code
+				.toByteArray(), 4, new int[0], new int[] { WAIT, 0, 2 });
+	}
+}
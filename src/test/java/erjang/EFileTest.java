@@ -0,0 +1,393 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import erjang.driver.Drivers;
+import erjang.driver.efile.Driver;
+
+import junit.framework.TestCase;
+import kilim.Pausable;
+
+/**
+ * Runs the scenarios of <code>src/test/erl/efile_tests.erl</code> through
+ * prim_file on erjang, and checks the results BEAM gives for them.
+ */
+public class EFileTest extends TestCase {
+
+	static final EAtom am_ok = EAtom.intern("ok");
+	static final EAtom am_eof = EAtom.intern("eof");
+	static final EAtom am_read = EAtom.intern("read");
+	static final EAtom am_write = EAtom.intern("write");
+	static final EAtom am_append = EAtom.intern("append");
+	static final EAtom am_binary = EAtom.intern("binary");
+	static final EAtom am_read_ahead = EAtom.intern("read_ahead");
+	static final EAtom am_delayed_write = EAtom.intern("delayed_write");
+	static final EAtom am_infinity = EAtom.intern("infinity");
+	static final EAtom am_cur = EAtom.intern("cur");
+	static final EAtom am_bof = EAtom.intern("bof");
+
+	static boolean loaded;
+
+	private EString file;
+
+	@Override
+	protected void setUp() throws Exception {
+		synchronized (EFileTest.class) {
+			if (!loaded) {
+				System.setProperty("erjpath", "src/main/erl/preloaded/ebin");
+				EModuleLoader.find_and_load_module("prim_file");
+				Drivers.register(new Driver());
+				loaded = true;
+			}
+		}
+		File tmp = File.createTempFile("efile", ".tmp");
+		tmp.deleteOnExit();
+		file = EString.fromString(tmp.getAbsolutePath());
+	}
+
+	/** reads smaller than, straddling and larger than the read-ahead buffer */
+	public void testReadAhead() throws Throwable {
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, bin("0123456789abcdef"));
+				EObject f = open(proc, am_read, am_binary, tuple(am_read_ahead,
+						ERT.box(4)));
+				List<EObject> r = new ArrayList<EObject>();
+				for (int size : new int[] { 3, 3, 5, 1, 10, 1 }) {
+					EObject data = read(proc, f, size);
+					r.add(data);
+				}
+				close(proc, f);
+				return EList.make(r.toArray());
+			}
+		});
+
+		assertEquals(EList.make(ok(bin("012")), ok(bin("345")),
+				ok(bin("6789a")), ok(bin("b")), ok(bin("cdef")), am_eof), res);
+	}
+
+	public void testReadLine() throws Throwable {
+		check_read_line(true, am_binary);
+	}
+
+	public void testReadLineReadAhead() throws Throwable {
+		check_read_line(true, am_binary, tuple(am_read_ahead, ERT.box(4)));
+	}
+
+	public void testReadLineList() throws Throwable {
+		check_read_line(false, tuple(am_read_ahead, ERT.box(4)));
+	}
+
+	/**
+	 * an empty line, lines longer than the buffer and a last line without
+	 * a newline
+	 */
+	private void check_read_line(boolean binary, final EObject... mode)
+			throws Throwable {
+		StringBuilder sb = new StringBuilder();
+		for (int i = 0; i < 1000; i++)
+			sb.append('x');
+		final String x = sb.toString();
+
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, bin("one\n\ntwo three\n" + x + "\nlast"));
+				EObject[] opts = new EObject[mode.length + 1];
+				opts[0] = am_read;
+				System.arraycopy(mode, 0, opts, 1, mode.length);
+				EObject f = open(proc, opts);
+				EObject first = call(proc, "read", f, ERT.box(2));
+				List<EObject> lines = new ArrayList<EObject>();
+				EObject line;
+				do {
+					line = call(proc, "read_line", f);
+					lines.add(line);
+				} while (line.testTuple() != null
+						&& line.testTuple().elm(1) == am_ok);
+				close(proc, f);
+				return tuple(first, EList.make(lines.toArray()));
+			}
+		});
+
+		assertEquals(tuple(ok(data(binary, "on")), EList.make(
+				ok(data(binary, "e\n")), ok(data(binary, "\n")), ok(data(
+						binary, "two three\n")), ok(data(binary, x + "\n")),
+				ok(data(binary, "last")), am_eof)), res);
+	}
+
+	public void testPreadPwrite() throws Throwable {
+		check_pread_pwrite(true, am_binary);
+	}
+
+	public void testPreadPwriteList() throws Throwable {
+		check_pread_pwrite(false);
+	}
+
+	private void check_pread_pwrite(boolean binary, final EObject... mode)
+			throws Throwable {
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, bin(""));
+				EObject[] opts = new EObject[mode.length + 2];
+				opts[0] = am_read;
+				opts[1] = am_write;
+				System.arraycopy(mode, 0, opts, 2, mode.length);
+				EObject f = open(proc, opts);
+				EObject w1 = call(proc, "pwrite", f, EList.make(tuple(ERT
+						.box(0), bin("abcdef")), tuple(ERT.box(10), EString
+						.fromString("xyz")), tuple(ERT.box(3), EList.make(ERT
+						.box('D'), bin("E")))));
+				EObject r1 = call(proc, "pread", f, EList.make(pos(0, 3), pos(
+						4, 4), pos(10, 3), pos(12, 5), pos(20, 5)));
+				EObject w2 = call(proc, "pwrite", f, ERT.box(1), EString
+						.fromString("BC"));
+				EObject r2 = call(proc, "pread", f, ERT.box(0), ERT.box(6));
+				EObject r3 = call(proc, "pread", f, ERT.box(100), ERT.box(1));
+				EObject r4 = call(proc, "pread", f, ERT.NIL);
+				EObject r5 = call(proc, "read", f, ERT.box(2));
+				close(proc, f);
+				return EList.make(w1, r1, w2, r2, r3, r4, r5, read_file(proc));
+			}
+		});
+
+		assertEquals(EList.make(am_ok, ok(EList.make(data(binary, "abc"),
+				data(binary, "Ef\0\0"), data(binary, "xyz"), data(binary, "z"),
+				am_eof)), am_ok, ok(data(binary, "aBCDEf")), am_eof,
+				ok(ERT.NIL), ok(data(binary, "aB")),
+				ok(bin("aBCDEf\0\0\0\0xyz"))), res);
+	}
+
+	/** Size:32, Pointer:32 headers at 0, 8, 16, 24, 32 and one cut short */
+	public void testIpread() throws Throwable {
+		ByteBuffer b = ByteBuffer.allocate(53);
+		b.putInt(5).putInt(40);
+		b.putInt(100).putInt(40);
+		b.putInt(0).putInt(40);
+		b.putInt(5).putInt(1000);
+		b.putInt(8).putInt(48);
+		b.put("hello world".getBytes());
+		b.putShort((short) 1);
+		final EBinary contents = new EBinary(b.array());
+
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, contents);
+				EObject f = open(proc, am_read, am_binary);
+				EObject r = EList.make(ipread(proc, f, 0, am_infinity),
+						ipread(proc, f, 0, ERT.box(5)), ipread(proc, f, 0, ERT
+								.box(4)), ipread(proc, f, 8, ERT.box(10)),
+						ipread(proc, f, 16, am_infinity), ipread(proc, f, 24,
+								am_infinity), ipread(proc, f, 32, am_infinity),
+						ipread(proc, f, 52, am_infinity), ipread(proc, f, 100,
+								am_infinity));
+				close(proc, f);
+				return r;
+			}
+		});
+
+		EObject hello = ok(tuple(ERT.box(5), ERT.box(40), bin("hello")));
+		assertEquals(EList.make(hello, hello, am_eof, am_eof, ok(tuple(ERT
+				.box(0), ERT.box(40), am_eof)), ok(tuple(ERT.box(5), ERT
+				.box(1000), am_eof)), ok(tuple(ERT.box(8), ERT.box(48),
+				bin("rld\0\1"))), am_eof, am_eof), res);
+	}
+
+	/**
+	 * writes stay buffered until the buffer fills, the file is positioned
+	 * or it is closed; opening for write only truncates
+	 */
+	public void testDelayedWrite() throws Throwable {
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, bin("old contents"));
+				EObject f = open(proc, am_write, am_binary, tuple(
+						am_delayed_write, ERT.box(10), ERT.box(60000)));
+				EObject opened = read_file(proc);
+				assert_ok(call(proc, "write", f, bin("abc")));
+				assert_ok(call(proc, "write", f, EString.fromString("def")));
+				EObject buffered = read_file(proc);
+				EObject p = call(proc, "position", f, am_cur);
+				EObject positioned = read_file(proc);
+				assert_ok(call(proc, "write", f, EString.fromString("ghi")));
+				assert_ok(call(proc, "write", f, bin("jklmnopq")));
+				EObject full = read_file(proc);
+				assert_ok(call(proc, "write", f, EString.fromString("rs")));
+				close(proc, f);
+				return EList.make(opened, buffered, p, positioned, full,
+						read_file(proc));
+			}
+		});
+
+		assertEquals(EList.make(ok(bin("")), ok(bin("")), ok(ERT.box(6)),
+				ok(bin("abcdef")), ok(bin("abcdefghijklmnopq")),
+				ok(bin("abcdefghijklmnopqrs"))), res);
+	}
+
+	public void testAppend() throws Throwable {
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, bin("abc"));
+				EObject f = open(proc, am_append, am_binary);
+				assert_ok(call(proc, "write", f, bin("def")));
+				close(proc, f);
+				return read_file(proc);
+			}
+		});
+
+		assertEquals(ok(bin("abcdef")), res);
+	}
+
+	/**
+	 * seeks and writes are relative to what has been read, not to what the
+	 * read-ahead buffer has taken from the file
+	 */
+	public void testPosition() throws Throwable {
+		EObject res = run(new Scenario() {
+			EObject run(EProc proc) throws Pausable {
+				write_file(proc, bin("0123456789"));
+				EObject f = open(proc, am_read, am_write, am_binary, tuple(
+						am_read_ahead, ERT.box(6)));
+				EObject r = EList.make(read(proc, f, 2), call(proc,
+						"position", f, am_cur), read(proc, f, 2), call(proc,
+						"write", f, bin("XY")), call(proc, "position", f,
+						am_cur), read(proc, f, 10), call(proc, "position", f,
+						tuple(am_bof, ERT.box(1))), read(proc, f, 3), call(
+						proc, "position", f, tuple(am_cur, ERT.box(-2))),
+						read(proc, f, 2), call(proc, "position", f, tuple(
+								am_eof, ERT.box(-1))), read(proc, f, 2),
+						call(proc, "position", f, am_eof));
+				close(proc, f);
+				return EList.make(r, read_file(proc));
+			}
+		});
+
+		assertEquals(EList.make(EList.make(ok(bin("01")), ok(ERT.box(2)),
+				ok(bin("23")), am_ok, ok(ERT.box(6)), ok(bin("6789")), ok(ERT
+						.box(1)), ok(bin("123")), ok(ERT.box(2)),
+				ok(bin("23")), ok(ERT.box(9)), ok(bin("9")), ok(ERT.box(10))),
+				ok(bin("0123XY6789"))), res);
+	}
+
+	/*==================== HELPERS ====================*/
+
+	static abstract class Scenario {
+		abstract EObject run(EProc proc) throws Pausable;
+	}
+
+	/**
+	 * Runs body in a process of its own, as the ports it opens send their
+	 * replies to the process that owns them.
+	 */
+	private static EObject run(final Scenario body) throws Throwable {
+		final EObject[] res = new EObject[1];
+		final Throwable[] failure = new Throwable[1];
+		final CountDownLatch finished = new CountDownLatch(1);
+		EFun fun = EFun.get_fun_with_handler(0, new EFunHandler() {
+			public EObject invoke(EProc proc, EObject[] args) throws Pausable {
+				try {
+					res[0] = body.run(proc);
+				} catch (Throwable e) {
+					failure[0] = e;
+				}
+				finished.countDown();
+				return am_ok;
+			}
+		}, EFileTest.class.getClassLoader());
+
+		EProc p = new EProc(null, EAtom.intern("erlang"), EAtom
+				.intern("apply"), EList.make(fun, ERT.NIL));
+		ERT.run(p);
+		if (!finished.await(10, TimeUnit.SECONDS))
+			fail("timeout");
+		if (failure[0] != null)
+			throw failure[0];
+		return res[0];
+	}
+
+	static EObject call(EProc proc, String fun, EObject... args)
+			throws Pausable {
+		return EModuleManager.resolve(new FunID("prim_file", fun, args.length))
+				.invoke(proc, args);
+	}
+
+	EObject open(EProc proc, EObject... mode) throws Pausable {
+		EObject res = call(proc, "open", file, EList.make((Object[]) mode));
+		ETuple t = res.testTuple();
+		if (t == null || t.elm(1) != am_ok)
+			throw new AssertionError("open: " + res);
+		return t.elm(2);
+	}
+
+	static void close(EProc proc, EObject f) throws Pausable {
+		assert_ok(call(proc, "close", f));
+	}
+
+	static EObject read(EProc proc, EObject f, int size) throws Pausable {
+		return call(proc, "read", f, ERT.box(size));
+	}
+
+	static EObject ipread(EProc proc, EObject f, int offs, EObject max)
+			throws Pausable {
+		return call(proc, "ipread_s32bu_p32bu", f, ERT.box(offs), max);
+	}
+
+	void write_file(EProc proc, EObject data) throws Pausable {
+		assert_ok(call(proc, "write_file", file, data));
+	}
+
+	EObject read_file(EProc proc) throws Pausable {
+		return call(proc, "read_file", file);
+	}
+
+	static void assert_ok(EObject res) {
+		if (res != am_ok)
+			throw new AssertionError(res);
+	}
+
+	static EBinary bin(String s) {
+		byte[] b = new byte[s.length()];
+		for (int i = 0; i < b.length; i++)
+			b[i] = (byte) s.charAt(i);
+		return new EBinary(b);
+	}
+
+	static EObject data(boolean binary, String s) {
+		return binary ? bin(s) : EString.fromString(s);
+	}
+
+	static ETuple ok(EObject value) {
+		return tuple(am_ok, value);
+	}
+
+	static ETuple pos(int offs, int size) {
+		return tuple(ERT.box(offs), ERT.box(size));
+	}
+
+	static ETuple tuple(EObject... elems) {
+		return ETuple.make(elems);
+	}
+}
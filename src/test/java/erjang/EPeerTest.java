@@ -0,0 +1,220 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2009 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+
+import junit.framework.TestCase;
+
+import com.ericsson.otp.erlang.OtpErlangAtom;
+import com.ericsson.otp.erlang.OtpErlangBinary;
+import com.ericsson.otp.erlang.OtpErlangList;
+import com.ericsson.otp.erlang.OtpErlangLong;
+import com.ericsson.otp.erlang.OtpErlangObject;
+import com.ericsson.otp.erlang.OtpErlangTuple;
+import com.ericsson.otp.erlang.OtpInputStream;
+
+/**
+ * Frames sent to a peer that did not negotiate the atom cache, read back
+ * with jinterface, and frames sent to one that did, read back the way the
+ * other node does.
+ */
+public class EPeerTest extends TestCase {
+
+	static final EAtom am_to = EAtom.intern("to");
+
+	public void testPassThroughFrame() throws Exception {
+		ETuple hdr = ETuple.make(ERT.box(EPeer.REG_SEND), EAtom.intern(""),
+				am_to);
+		EObject payload = ETuple.make(EAtom.intern("hello"), ESeq
+				.fromArray(new EObject[] { ERT.box(1), ERT.box(2) }),
+				new EBinary(new byte[] { 1, 2, 3 }));
+
+		OtpInputStream in = new OtpInputStream(frame(hdr, payload));
+		assertEquals(0x70, in.read1());
+
+		assertEquals(EExternal.versionTag, in.read1());
+		assertEquals(new OtpErlangTuple(new OtpErlangObject[] {
+				new OtpErlangLong(EPeer.REG_SEND), new OtpErlangAtom(""),
+				new OtpErlangAtom("to") }), in.read_any());
+
+		assertEquals(EExternal.versionTag, in.read1());
+		assertEquals(new OtpErlangTuple(new OtpErlangObject[] {
+				new OtpErlangAtom("hello"),
+				new OtpErlangList(new OtpErlangObject[] {
+						new OtpErlangLong(1), new OtpErlangLong(2) }),
+				new OtpErlangBinary(new byte[] { 1, 2, 3 }) }), in.read_any());
+
+		assertEquals(0, in.available());
+	}
+
+	public void testPassThroughControlOnly() throws Exception {
+		ETuple hdr = ETuple.make(ERT.box(EPeer.LINK), am_to, am_to);
+
+		OtpInputStream in = new OtpInputStream(frame(hdr, null));
+		assertEquals(0x70, in.read1());
+		assertEquals(EExternal.versionTag, in.read1());
+		assertEquals(new OtpErlangTuple(new OtpErlangObject[] {
+				new OtpErlangLong(EPeer.LINK), new OtpErlangAtom("to"),
+				new OtpErlangAtom("to") }), in.read_any());
+		assertEquals(0, in.available());
+	}
+
+	public void testAtomCache() throws Exception {
+		EPeer peer = new EPeer(EAtom.intern("peer@localhost"), 1, null,
+				EAbstractNode.dFDistHdrAtomCache
+						| EAbstractNode.dFlagSmallAtoms, 5);
+		EAtom[] cache = new EAtom[EOutputStream.ATOM_CACHE_SIZE];
+
+		// 'Aa' and 'BB' have the same hash, and so the same cache slot
+		EAtom am_ = EAtom.intern(""), am_hello = EAtom.intern("hello"), am_Aa = EAtom
+				.intern("Aa"), am_BB = EAtom.intern("BB");
+		char[] name = new char[EExternal.maxAtomLength];
+		Arrays.fill(name, 'x');
+		EAtom am_long = EAtom.intern(new String(name));
+		assertEquals(EOutputStream.atom_cache_index(am_Aa), EOutputStream
+				.atom_cache_index(am_BB));
+
+		ETuple hdr = ETuple.make(ERT.box(EPeer.REG_SEND), am_, am_to);
+		EObject payload = ETuple.make(am_hello, am_Aa, am_BB, am_long, ESeq
+				.fromArray(new EObject[] { am_Aa, ERT.box(1) }));
+
+		// every atom is new; 'BB' is written in full, as its slot is taken
+		Frame f = read_frame(frame(peer, hdr, payload), cache);
+		assertEquals(Arrays.asList(am_, am_to, am_hello, am_Aa, am_long),
+				Arrays.asList(f.refs));
+		assertEquals("NNNNN", f.kinds);
+		assertEquals(hdr, f.hdr);
+		assertEquals(payload, f.payload);
+
+		// sent again, the same atoms are old refs without their text
+		byte[] again = frame(peer, hdr, payload);
+		f = read_frame(again, cache);
+		assertEquals(Arrays.asList(am_, am_to, am_hello, am_Aa, am_long),
+				Arrays.asList(f.refs));
+		assertEquals("OOOOO", f.kinds);
+		assertEquals(hdr, f.hdr);
+		assertEquals(payload, f.payload);
+		assertEquals(3 + 3 + 5 * 1, f.header_size);
+
+		// 'BB' on its own takes over the slot of 'Aa'
+		payload = ETuple.make(am_hello, am_BB);
+		f = read_frame(frame(peer, hdr, payload), cache);
+		assertEquals(Arrays.asList(am_, am_to, am_hello, am_BB), Arrays
+				.asList(f.refs));
+		assertEquals("OOON", f.kinds);
+		assertEquals(payload, f.payload);
+
+		payload = ETuple.make(am_Aa);
+		f = read_frame(frame(peer, hdr, payload), cache);
+		assertEquals("OON", f.kinds);
+		assertEquals(payload, f.payload);
+
+		// a control message alone, and one without atoms
+		ETuple link = ETuple.make(ERT.box(EPeer.LINK), am_to, am_to);
+		f = read_frame(frame(peer, link, null), cache);
+		assertEquals("O", f.kinds);
+		assertEquals(link, f.hdr);
+		assertNull(f.payload);
+
+		ETuple nums = ETuple.make(ERT.box(1), ERT.box(2));
+		f = read_frame(frame(peer, nums, null), cache);
+		assertEquals(0, f.refs.length);
+		assertEquals(3, f.header_size);
+		assertEquals(nums, f.hdr);
+	}
+
+	/** A frame as decoded by the receiving node */
+	static class Frame {
+		EAtom[] refs;
+		/** N or O for each new or old atom cache ref */
+		String kinds = "";
+		int header_size;
+		EObject hdr, payload;
+	}
+
+	/**
+	 * Decode a frame starting with a distribution header, updating the
+	 * receiving node's atom cache.
+	 */
+	static Frame read_frame(byte[] frame, EAtom[] cache) throws IOException {
+		EInputStream in = new EInputStream(frame, EAbstractNode.dFlagSmallAtoms);
+		Frame f = new Frame();
+		assertEquals(131, in.read1());
+		assertEquals(68, in.read1());
+		int n = in.read1();
+		f.refs = new EAtom[n];
+
+		if (n > 0) {
+			// two flags per byte, low nibble first, then one for the header
+			int[] flags = new int[n + 1];
+			for (int i = 0; i < n / 2 + 1; i++) {
+				int b = in.read1();
+				flags[2 * i] = b & 0xf;
+				if (2 * i + 1 <= n)
+					flags[2 * i + 1] = b >> 4;
+			}
+			boolean long_atoms = (flags[n] & 1) != 0;
+			assertFalse(long_atoms);
+
+			for (int i = 0; i < n; i++) {
+				int idx = (flags[i] & 7) << 8 | in.read1();
+				if ((flags[i] & 8) != 0) {
+					int len = long_atoms ? in.read2BE() : in.read1();
+					byte[] text = new byte[len];
+					in.readFully(text);
+					cache[idx] = EAtom.intern(new String(text, "ISO-8859-1"));
+					f.kinds += "N";
+				} else {
+					assertNotNull("old ref to empty slot " + idx, cache[idx]);
+					f.kinds += "O";
+				}
+				f.refs[i] = cache[idx];
+			}
+		}
+		f.header_size = frame.length - in.available();
+
+		in.setAtomCacheRefs(f.refs);
+		f.hdr = in.read_any();
+		if (in.available() > 0)
+			f.payload = in.read_any();
+		assertEquals(0, in.available());
+		return f;
+	}
+
+	/** @return what a peer without the atom cache is sent for a message */
+	static byte[] frame(ETuple hdr, EObject payload) {
+		return frame(new EPeer(EAtom.intern("peer@localhost"), 1, null, 0, 5),
+				hdr, payload);
+	}
+
+	/** @return what is sent to peer for a message */
+	static byte[] frame(EPeer peer, ETuple hdr, EObject payload) {
+		EOutputStream eos = peer.encode_message(hdr, payload);
+		byte[] body = eos.toByteArray();
+		ByteBuffer head = peer.frame_head(eos.atom_cache_refs());
+
+		ByteBuffer res = ByteBuffer.allocate(head.remaining() + body.length);
+		res.put(head).put(body);
+		return res.array();
+	}
+}
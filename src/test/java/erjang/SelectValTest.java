@@ -0,0 +1,369 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+import static erjang.TestRecvMark.A;
+import static erjang.TestRecvMark.F;
+import static erjang.TestRecvMark.U;
+import static erjang.TestRecvMark.X;
+import static erjang.TestRecvMark.I;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+
+import erjang.beam.BeamOpcode;
+
+import junit.framework.TestCase;
+import kilim.Pausable;
+import kilim.Task;
+
+/**
+ * Runs the clause sets of <code>src/test/erl/select_val_tests.erl</code>,
+ * assembled here, compiled and interpreted, and checks each result against
+ * the clause an exact match picks.  The select_val lists include one
+ * mixing atoms, small integers and a bignum, which erlc does not emit but
+ * the type dispatch must handle.
+ */
+public class SelectValTest extends TestCase {
+
+	static final String MODULE = "select_val_test";
+
+	/** built on use, as the weaver loads this class without the runtime */
+	static Clauses[] funs() {
+		return new Clauses[] {
+				new Clauses("small", false, 0, "zero", 1, "one", 2, "two", 3,
+						"three", 4, "four", 5, "five", 6, "six", -1, "minus_one"),
+				new Clauses("sparse", false, -1000000, "minus_million", -1,
+						"minus_one", 1, "one", 100, "hundred", 1000000, "million",
+						134217727, "max_small27", 2147483647, "max_int",
+						-2147483648, "min_int"),
+				new Clauses("big", false, 0, "zero", 1, "one", pow2(32), "two_32",
+						pow2(64), "two_64", pow2(64).negate(), "minus_two_64",
+						pow2(31), "two_31"),
+				new Clauses("bucket", false, atom("Aa"), "aa", atom("AaBB"),
+						"aabb", atom("BBAa"), "bbaa", atom("Ab"), "ab", atom("a"),
+						"a", atom("true"), "true"),
+				new Clauses("mixed", false, atom("a"), "atom_a", 0, "int_0",
+						atom("b"), "atom_b", 1, "int_1", atom("Aa"), "atom_aa",
+						pow2(64), "big", 2, "int_2"),
+				new Clauses("dense_arity", true, 0, "a0", 1, "a1", 2, "a2", 3,
+						"a3", 4, "a4", 5, "a5"),
+				new Clauses("sparse_arity", true, 1, "a1", 10, "a10", 16, "a16",
+						32, "a32") };
+	}
+
+	public void testCompiled() throws Throwable {
+		TestRecvMark.load_compiled(MODULE, new EBinary(assemble()));
+		check("compiled");
+	}
+
+	public void testInterpreted() throws Throwable {
+		TestRecvMark.load_interpreted(new EBinary(assemble()));
+		check("interpreted");
+	}
+
+	private void check(String how) throws Throwable {
+		List<EObject> inputs = new ArrayList<EObject>();
+		inputs.addAll(numbers());
+		inputs.addAll(atoms());
+		inputs.addAll(mixed_inputs());
+		inputs.addAll(tuples());
+
+		StringBuilder expected = new StringBuilder();
+		StringBuilder actual = new StringBuilder();
+		for (Clauses fun : funs()) {
+			EObject[] res = call(fun.name, inputs);
+			for (int i = 0; i < res.length; i++) {
+				String call = fun.name + "(" + inputs.get(i) + ") -> ";
+				expected.append(call).append(fun.expected(inputs.get(i)))
+						.append('\n');
+				actual.append(call).append(res[i]).append('\n');
+			}
+		}
+		assertEquals(how, expected.toString(), actual.toString());
+	}
+
+	static List<EObject> numbers() {
+		List<EObject> res = new ArrayList<EObject>();
+		for (long n : new long[] { -1, 0, 1, 2, 3, 4, 5, 6, 7, 99, 100, 101,
+				1000000, -1000000, 1 << 27, (1 << 27) - 1, -(1 << 27),
+				1L << 31, (1L << 31) - 1, -(1L << 31), -(1L << 31) - 1,
+				1L << 32 }) {
+			res.add(ERT.box(n));
+		}
+		res.add(ERT.box(pow2(64)));
+		res.add(ERT.box(pow2(64).negate()));
+		res.add(ERT.box(pow2(64).add(BigInteger.ONE)));
+		for (double d : new double[] { 0.0, 1.0, 2.0, -1.0, 1000000.0, 1.5 }) {
+			res.add(ERT.box(d));
+		}
+		res.add(atom("a"));
+		res.add(atom("Aa"));
+		res.add(ERT.NIL);
+		res.add(ETuple.make(ERT.box(1)));
+		res.add(new EBinary(new byte[] { 1 }));
+		return res;
+	}
+
+	/** 'Aa' and 'BB' share a hash, and so all their combinations */
+	static List<EObject> atoms() {
+		List<EObject> res = new ArrayList<EObject>();
+		for (String name : new String[] { "Aa", "BB", "AaAa", "AaBB",
+				"BBAa", "BBBB", "Ab", "BC", "a", "b", "c", "true", "false",
+				"undefined" }) {
+			res.add(atom(name));
+		}
+		res.add(EString.fromString("Aa"));
+		res.add(new EBinary("Aa".getBytes()));
+		res.add(ETuple.make(atom("Aa")));
+		return res;
+	}
+
+	static List<EObject> mixed_inputs() {
+		List<EObject> res = new ArrayList<EObject>();
+		for (String name : new String[] { "a", "b", "c", "d", "Aa", "BB" }) {
+			res.add(atom(name));
+		}
+		for (int n = 0; n < 4; n++) {
+			res.add(ERT.box(n));
+		}
+		res.add(ERT.box(pow2(64)));
+		res.add(ERT.box(1.0));
+		res.add(ERT.box(2.0));
+		res.add(ETuple.make(atom("a"), atom("b")));
+		res.add(ETuple.make(ERT.box(1.0), ERT.box(2)));
+		res.add(EList.make(atom("a")));
+		res.add(EString.fromString("a"));
+		return res;
+	}
+
+	static List<EObject> tuples() {
+		List<EObject> res = new ArrayList<EObject>();
+		for (int n : new int[] { 0, 1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 15, 16,
+				17, 31, 32, 33, 100, 255 }) {
+			EObject[] elems = new EObject[n];
+			Arrays.fill(elems, atom("x"));
+			res.add(ETuple.make(elems));
+		}
+		return res;
+	}
+
+	/** call fun with each of inputs in turn, from a task */
+	static EObject[] call(final String fun, final List<EObject> inputs)
+			throws Throwable {
+		final EProc proc = new EProc(null, EAtom.intern(MODULE), EAtom
+				.intern(fun), EList.make(ERT.NIL));
+		final EObject[] res = new EObject[inputs.size()];
+		final Throwable[] failure = new Throwable[1];
+		final CountDownLatch finished = new CountDownLatch(1);
+		Task t = new Task() {
+			@Override
+			public void execute() throws Pausable {
+				try {
+					EFun f = EModuleManager.resolve(new FunID(MODULE, fun, 1));
+					for (int i = 0; i < res.length; i++) {
+						EObject r = f.invoke(proc, new EObject[] { inputs
+								.get(i) });
+						res[i] = r;
+					}
+				} catch (Throwable e) {
+					failure[0] = e;
+				}
+				finished.countDown();
+			}
+		};
+		t.start();
+		finished.await();
+		if (failure[0] != null)
+			throw failure[0];
+		return res;
+	}
+
+	static EAtom atom(String name) {
+		return EAtom.intern(name);
+	}
+
+	static BigInteger pow2(int n) {
+		return BigInteger.ONE.shiftLeft(n);
+	}
+
+	/** a function with one clause per value, and a catch-all */
+	static class Clauses {
+		final String name;
+		final boolean arity;
+		final EObject[] values;
+		final String[] results;
+
+		/** values and the atoms they return, alternately */
+		Clauses(String name, boolean arity, Object... clauses) {
+			this.name = name;
+			this.arity = arity;
+			values = new EObject[clauses.length / 2];
+			results = new String[clauses.length / 2];
+			for (int i = 0; i < values.length; i++) {
+				Object v = clauses[2 * i];
+				if (v instanceof Integer)
+					values[i] = ERT.box((Integer) v);
+				else if (v instanceof BigInteger)
+					values[i] = ERT.box((BigInteger) v);
+				else
+					values[i] = (EObject) v;
+				results[i] = (String) clauses[2 * i + 1];
+			}
+		}
+
+		/** @return what an exact match on values gives for x */
+		EAtom expected(EObject x) {
+			for (int i = 0; i < values.length; i++) {
+				if (arity ? x.testTuple() != null
+						&& x.testTuple().arity() == values[i].asInt()
+						: exactly_equal(values[i], x))
+					return atom(results[i]);
+			}
+			return atom("other");
+		}
+
+		static boolean exactly_equal(EObject value, EObject x) {
+			if (value.testAtom() != null)
+				return value == x;
+			return x.testInteger() != null && value.compareTo(x) == 0;
+		}
+	}
+
+	/*==================== ASSEMBLY ====================*/
+
+	static byte[] assemble() throws IOException {
+		Asm asm = new Asm();
+		int mod = asm.atom(MODULE);
+		List<Integer> exports = new ArrayList<Integer>();
+
+		for (Clauses fun : funs()) {
+			int name = asm.atom(fun.name);
+			int info = asm.label++, entry = asm.label++;
+			int first = asm.label;
+			asm.label += fun.values.length;
+			int other = asm.label++;
+
+			asm.op(BeamOpcode.label).arg(U, info);
+			asm.op(BeamOpcode.func_info).arg(A, mod).arg(A, name).arg(U, 1);
+			asm.op(BeamOpcode.label).arg(U, entry);
+			if (fun.arity) {
+				asm.op(BeamOpcode.is_tuple).arg(F, other).arg(X, 0);
+				asm.op(BeamOpcode.select_tuple_arity);
+			} else {
+				asm.op(BeamOpcode.select_val);
+			}
+			asm.arg(X, 0).arg(F, other).list(2 * fun.values.length);
+			for (int i = 0; i < fun.values.length; i++) {
+				if (fun.arity)
+					asm.arg(U, fun.values[i].asInt());
+				else
+					asm.value(fun.values[i]);
+				asm.arg(F, first + i);
+			}
+
+			for (int i = 0; i < fun.values.length; i++) {
+				asm.op(BeamOpcode.label).arg(U, first + i);
+				asm.op(BeamOpcode.move).arg(A, asm.atom(fun.results[i]))
+						.arg(X, 0);
+				asm.op(BeamOpcode.K_return);
+			}
+			asm.op(BeamOpcode.label).arg(U, other);
+			asm.op(BeamOpcode.move).arg(A, asm.atom("other")).arg(X, 0);
+			asm.op(BeamOpcode.K_return);
+
+			exports.add(name);
+			exports.add(1);
+			exports.add(entry);
+		}
+		asm.code.write(BeamOpcode.int_code_end.encoding);
+
+		int[] exp = new int[exports.size()];
+		for (int i = 0; i < exp.length; i++)
+			exp[i] = exports.get(i);
+		return TestRecvMark.beam(asm.atoms.toArray(new String[0]), asm.code
+				.toByteArray(), asm.label, new int[0], exp);
+	}
+
+	/** instructions with operands in the compact term format */
+	static class Asm {
+		final ByteArrayOutputStream code = new ByteArrayOutputStream();
+		final List<String> atoms = new ArrayList<String>();
+		int label = 1;
+
+		int atom(String name) {
+			int idx = atoms.indexOf(name);
+			if (idx < 0) {
+				atoms.add(name);
+				idx = atoms.size() - 1;
+			}
+			return idx + 1;
+		}
+
+		Asm op(BeamOpcode opcode) {
+			code.write(opcode.encoding);
+			return this;
+		}
+
+		Asm arg(int tag, long value) {
+			return arg(tag, BigInteger.valueOf(value));
+		}
+
+		Asm arg(int tag, BigInteger value) {
+			if (value.signum() >= 0 && value.bitLength() <= 4) {
+				code.write(value.intValue() << 4 | tag);
+			} else if (value.signum() >= 0 && value.bitLength() <= 11) {
+				int v = value.intValue();
+				code.write((v >> 3) & 0xe0 | 0x08 | tag);
+				code.write(v & 0xff);
+			} else {
+				byte[] bytes = value.toByteArray();
+				if (bytes.length < 2)
+					bytes = new byte[] { (byte) (bytes[0] >> 7), bytes[0] };
+				if (bytes.length <= 8) {
+					code.write((bytes.length - 2) << 5 | 0x18 | tag);
+				} else {
+					code.write(0xf8 | tag);
+					arg(U, bytes.length - 9);
+				}
+				code.write(bytes, 0, bytes.length);
+			}
+			return this;
+		}
+
+		Asm value(EObject value) {
+			EAtom a = value.testAtom();
+			if (a != null)
+				return arg(A, atom(a.getName()));
+			return arg(I, value.testInteger().bigintValue());
+		}
+
+		/** the head of an extended list of n operands */
+		Asm list(int n) {
+			code.write(1 << 4 | 7);
+			return arg(U, n);
+		}
+	}
+}
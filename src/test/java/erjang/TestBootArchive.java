@@ -0,0 +1,128 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+package erjang;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import erjang.beam.CodeArchive;
+import erjang.beam.CodeCache;
+import erjang.beam.EUtil;
+import erjang.beam.loader.ErjangBeamDisLoader;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.Test;
+import junit.framework.TestResult;
+
+/**
+ * Builds a code archive from the modules in a directory, then loads every
+ * module both from the per-module jars in the code cache and from the
+ * archive, and prints the wall-clock time of each.
+ */
+public class TestBootArchive implements Test {
+
+	private final File dir;
+
+	public TestBootArchive(File dir) {
+		this.dir = dir;
+	}
+
+	@Override
+	public String toString() {
+		return "boot archive of " + dir;
+	}
+
+	@Override
+	public int countTestCases() {
+		return 1;
+	}
+
+	@Override
+	public void run(TestResult result) {
+		result.startTest(this);
+		try {
+			run_test();
+		} catch (AssertionFailedError e) {
+			result.addFailure(this, e);
+		} catch (Throwable e) {
+			result.addError(this, e);
+		}
+		result.endTest(this);
+	}
+
+	private void run_test() throws Exception {
+		List<String> modules = new ArrayList<String>();
+		for (File f : dir.listFiles()) {
+			String name = f.getName();
+			if (name.endsWith(".beam"))
+				modules.add(name.substring(0, name.length() - 5));
+		}
+		Collections.sort(modules);
+
+		File file = File.createTempFile("erjang-boot", ".jar");
+		try {
+			long start = System.nanoTime();
+			int failed = CodeArchive.build(Collections.singletonList(dir), file);
+			long build_time = System.nanoTime() - start;
+			if (failed != 0)
+				throw new AssertionFailedError(failed + " modules failed to compile");
+
+			// make sure the per-module jars are there, so only loading is timed
+			List<File> jars = new ArrayList<File>();
+			for (String mod : modules) {
+				jars.add(CodeCache.compile(mod, EUtil.readFile(beam(mod)),
+						new ErjangBeamDisLoader()));
+			}
+
+			start = System.nanoTime();
+			for (int i = 0; i < modules.size(); i++) {
+				EModuleLoader.load_compiled_module(modules.get(i), jars.get(i)
+						.toURI().toURL());
+			}
+			long jar_time = System.nanoTime() - start;
+
+			start = System.nanoTime();
+			CodeArchive archive = new CodeArchive(file);
+			try {
+				for (String mod : modules) {
+					if (!archive.contains(mod, EUtil.readFile(beam(mod))))
+						throw new AssertionFailedError(mod + " is not in " + file);
+					EModuleLoader.load_compiled_module(mod,
+							new EModuleClassLoader(archive));
+				}
+			} finally {
+				archive.close();
+			}
+			long archive_time = System.nanoTime() - start;
+
+			System.out.printf("%d modules: archive built in %.1f ms; "
+					+ "loaded from jars in %.1f ms, from archive in %.1f ms%n",
+					modules.size(), build_time / 1e6, jar_time / 1e6,
+					archive_time / 1e6);
+		} finally {
+			file.delete();
+		}
+	}
+
+	private File beam(String mod) {
+		return new File(dir, mod + ".beam");
+	}
+}
@@ -0,0 +1,168 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+import static erjang.TestRecvMark.A;
+import static erjang.TestRecvMark.F;
+import static erjang.TestRecvMark.U;
+import static erjang.TestRecvMark.X;
+import static erjang.TestRecvMark.assert_equals;
+import static erjang.TestRecvMark.beam;
+import static erjang.TestRecvMark.op;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import erjang.beam.BeamOpcode;
+import erjang.beam.Compiler;
+import erjang.beam.interpreter.AbstractInterpreter;
+import erjang.beam.interpreter.Interpreter;
+import erjang.beam.loader.ErjangBeamDisLoader;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.Test;
+import junit.framework.TestResult;
+import kilim.Pausable;
+import kilim.Task;
+
+/**
+ * Runs a local tail-call loop compiled and interpreted, and checks that
+ * both use the same reductions, yield when the budget is spent, and that
+ * the interpreter counts each iteration toward compiling the module:
+ *
+ * <pre>
+ * loop([_|T]) -> loop(T);
+ * loop(_) -> done.
+ * </pre>
+ */
+public class TestInterpreterReds implements Test {
+
+	static final String MODULE = "reds_test";
+
+	static final EAtom am_done = EAtom.intern("done");
+
+	static final int LENGTH = 3 * ERT.MAX_REDS + 1;
+
+	@Override
+	public String toString() {
+		return "interpreter reductions";
+	}
+
+	@Override
+	public int countTestCases() {
+		return 1;
+	}
+
+	@Override
+	public void run(TestResult result) {
+		result.startTest(this);
+		try {
+			run_test();
+		} catch (AssertionFailedError e) {
+			result.addFailure(this, e);
+		} catch (Throwable e) {
+			result.addError(this, e);
+		}
+		result.endTest(this);
+	}
+
+	private void run_test() throws Throwable {
+		EBinary beam = new EBinary(assemble());
+
+		EModuleLoader.load_compiled_module(MODULE, Compiler.compile(MODULE,
+				beam, new ErjangBeamDisLoader()).toURI().toURL());
+		check_loop("compiled");
+
+		AbstractInterpreter.Module module = (AbstractInterpreter.Module) Interpreter
+				.beamFileToEModule(new ErjangBeamDisLoader().load(beam
+						.getByteArray()));
+		final boolean[] hot = new boolean[1];
+		module.on_hot(LENGTH, new Runnable() {
+			public void run() {
+				hot[0] = true;
+			}
+		});
+		check_loop("interpreted");
+		if (!hot[0])
+			throw new AssertionFailedError("interpreted loop not hot after "
+					+ module.calls() + " calls");
+	}
+
+	private void check_loop(String how) throws Throwable {
+		final EProc proc = new EProc(null, EAtom.intern(MODULE), EAtom
+				.intern("loop"), ERT.NIL);
+		ESeq list = ERT.NIL;
+		for (int i = 0; i < LENGTH; i++) {
+			list = list.cons(ERT.box(i));
+		}
+		final EObject arg = list;
+
+		final EObject[] res = new EObject[1];
+		final Throwable[] failure = new Throwable[1];
+		final CountDownLatch finished = new CountDownLatch(1);
+		Task t = new Task() {
+			@Override
+			public void execute() throws Pausable {
+				try {
+					res[0] = EModuleManager.resolve(
+							new FunID(MODULE, "loop", 1)).invoke(proc,
+							new EObject[] { arg });
+				} catch (Throwable e) {
+					failure[0] = e;
+				}
+				finished.countDown();
+			}
+		};
+		t.start();
+		finished.await();
+		if (failure[0] != null)
+			throw failure[0];
+
+		assert_equals(how + " result", am_done, res[0]);
+		// one on entry, one per tail call
+		assert_equals(how + " reductions", Long.valueOf(LENGTH + 1), Long
+				.valueOf(proc.reductions()));
+		if (proc.reds >= ERT.MAX_REDS)
+			throw new AssertionFailedError(how + " loop did not yield");
+	}
+
+	/*==================== ASSEMBLY ====================*/
+
+	// atom indices
+	static final int MOD = 1, LOOP = 2, DONE = 3;
+
+	static byte[] assemble() throws IOException {
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		op(code, BeamOpcode.label, U, 1);
+		op(code, BeamOpcode.func_info, A, MOD, A, LOOP, U, 1);
+		op(code, BeamOpcode.label, U, 2);
+		op(code, BeamOpcode.is_nonempty_list, F, 3, X, 0);
+		op(code, BeamOpcode.get_list, X, 0, X, 1, X, 0);
+		op(code, BeamOpcode.call_only, U, 1, F, 2);
+		op(code, BeamOpcode.label, U, 3);
+		op(code, BeamOpcode.move, A, DONE, X, 0);
+		op(code, BeamOpcode.K_return);
+		code.write(BeamOpcode.int_code_end.encoding);
+
+		return beam(new String[] { MODULE, "loop", "done" }, code
+				.toByteArray(), 4, new int[0], new int[] { LOOP, 1, 2 });
+	}
+}
@@ -0,0 +1,379 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2010 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.concurrent.CountDownLatch;
+
+import erjang.beam.BeamOpcode;
+import erjang.beam.Compiler;
+import erjang.beam.interpreter.Interpreter;
+import erjang.beam.loader.ErjangBeamDisLoader;
+
+import junit.framework.AssertionFailedError;
+import junit.framework.Test;
+import junit.framework.TestResult;
+import kilim.Pausable;
+import kilim.Task;
+
+/**
+ * Loads modules using <code>recv_mark</code> and <code>recv_set</code>,
+ * compiled and interpreted, and checks that a receive after a mark does
+ * not look at the messages that were queued before it, and that a mark in
+ * another module with the same label does not disturb it.  The modules
+ * are assembled here, since the reference erlc does not emit the two
+ * opcodes:
+ *
+ * <pre>
+ * marked() ->                  % recv_mark, recv_set before the receive
+ *     receive M -> M after 0 -> timeout end.
+ * plain() ->
+ *     receive M -> M after 0 -> timeout end.
+ *
+ * outer() ->                   % recv_mark at label 3
+ *     recv_mark_inner:inner(),
+ *     receive M -> M after 0 -> timeout end.   % recv_set at label 3
+ *
+ * inner() ->
+ *     self() ! reply,
+ *     receive M -> M after 0 -> timeout end.   % marked at label 3 too
+ * </pre>
+ */
+public class TestRecvMark implements Test {
+
+	static final String MODULE = "recv_mark_test";
+	static final String OUTER = "recv_mark_outer";
+	static final String INNER = "recv_mark_inner";
+
+	static final EAtom am_timeout = EAtom.intern("timeout");
+	static final EAtom am_queued = EAtom.intern("queued");
+	static final EAtom am_reply = EAtom.intern("reply");
+
+	@Override
+	public String toString() {
+		return "recv_mark/recv_set";
+	}
+
+	@Override
+	public int countTestCases() {
+		return 1;
+	}
+
+	@Override
+	public void run(TestResult result) {
+		result.startTest(this);
+		try {
+			run_test();
+		} catch (AssertionFailedError e) {
+			result.addFailure(this, e);
+		} catch (Throwable e) {
+			result.addError(this, e);
+		}
+		result.endTest(this);
+	}
+
+	private void run_test() throws Throwable {
+		check_mailbox();
+
+		EBinary beam = new EBinary(assemble());
+		EBinary inner = new EBinary(assemble_inner());
+		EBinary outer = new EBinary(assemble_outer());
+
+		load_compiled(MODULE, beam);
+		check_receive("compiled");
+		load_compiled(INNER, inner);
+		load_compiled(OUTER, outer);
+		check_nested("compiled");
+
+		load_interpreted(beam);
+		check_receive("interpreted");
+		load_interpreted(inner);
+		load_interpreted(outer);
+		check_nested("interpreted");
+	}
+
+	static void load_compiled(String module, EBinary beam) throws Exception {
+		EModuleLoader.load_compiled_module(module, Compiler.compile(module,
+				beam, new ErjangBeamDisLoader()).toURI().toURL());
+	}
+
+	static void load_interpreted(EBinary beam) throws Exception {
+		Interpreter.beamFileToEModule(new ErjangBeamDisLoader().load(beam
+				.getByteArray()));
+	}
+
+	/** the mark stays on the first message not queued at the time */
+	private void check_mailbox() {
+		EProc proc = new EProc(null, EAtom.intern(MODULE), EAtom
+				.intern("marked"), ERT.NIL);
+		for (int i = 0; i < 3; i++) {
+			proc.mbox.put(ERT.box(i));
+		}
+		Object code = new Object();
+		ERT.recv_mark(proc, code, 7);
+		proc.mbox.put(ERT.box(3));
+		proc.mbox.remove(1);
+
+		ERT.recv_set(proc, code, 7);
+		assert_equals("index after removal", 2, proc.midx);
+		assert_equals("first message seen", ERT.box(3), ERT.loop_rec(proc));
+
+		ERT.recv_set(proc, code, 8);
+		assert_equals("index for another receive", 0, proc.midx);
+
+		ERT.recv_set(proc, new Object(), 7);
+		assert_equals("index for the same label in other code", 0, proc.midx);
+	}
+
+	private void check_receive(String how) throws Throwable {
+		EProc proc = new EProc(null, EAtom.intern(MODULE), EAtom
+				.intern("marked"), ERT.NIL);
+		proc.mbox.put(am_queued);
+
+		EObject[] res = call(proc, new FunID(MODULE, "marked", 0), new FunID(
+				MODULE, "plain", 0));
+		assert_equals(how + " marked()", am_timeout, res[0]);
+		assert_equals(how + " plain()", am_queued, res[1]);
+	}
+
+	/** the inner mark must not be taken for the outer one */
+	private void check_nested(String how) throws Throwable {
+		EProc proc = new EProc(null, EAtom.intern(OUTER), EAtom
+				.intern("outer"), ERT.NIL);
+
+		EObject[] res = call(proc, new FunID(OUTER, "outer", 0));
+		assert_equals(how + " outer()", am_reply, res[0]);
+	}
+
+	/** call each of funs in turn from a task, as proc */
+	static EObject[] call(final EProc proc, final FunID... funs)
+			throws Throwable {
+		final EObject[] res = new EObject[funs.length];
+		final Throwable[] failure = new Throwable[1];
+		final CountDownLatch finished = new CountDownLatch(1);
+		Task t = new Task() {
+			@Override
+			public void execute() throws Pausable {
+				try {
+					for (int i = 0; i < funs.length; i++) {
+						res[i] = EModuleManager.resolve(funs[i]).invoke(proc,
+								new EObject[0]);
+					}
+				} catch (Throwable e) {
+					failure[0] = e;
+				}
+				finished.countDown();
+			}
+		};
+		t.start();
+		finished.await();
+		if (failure[0] != null)
+			throw failure[0];
+		return res;
+	}
+
+	static void assert_equals(String what, Object expected, Object actual) {
+		if (!expected.equals(actual))
+			throw new AssertionFailedError(what + ": expected " + expected
+					+ ", got " + actual);
+	}
+
+	/*==================== ASSEMBLY ====================*/
+
+	// compact term tags
+	static final int U = 0, I = 1, A = 2, X = 3, F = 5;
+
+	// atom indices
+	static final int MOD = 1, MARKED = 2, PLAIN = 3, TIMEOUT = 4;
+
+	static byte[] assemble() throws IOException {
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		int plain = receive(code, MARKED, 1, true);
+		int labels = receive(code, PLAIN, plain, false);
+		code.write(BeamOpcode.int_code_end.encoding);
+
+		return beam(new String[] { MODULE, "marked", "plain", "timeout" },
+				code.toByteArray(), labels, new int[0], new int[] { MARKED,
+						0, 2, PLAIN, 0, plain + 1 });
+	}
+
+	/** outer(), with a mark at label 3 around a call to inner() */
+	static byte[] assemble_outer() throws IOException {
+		final int OUTER_FUN = 2, TIMEOUT_ATOM = 3, INNER_MOD = 4, INNER_FUN = 5;
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		op(code, BeamOpcode.label, U, 1);
+		op(code, BeamOpcode.func_info, A, MOD, A, OUTER_FUN, U, 0);
+		op(code, BeamOpcode.label, U, 2);
+		op(code, BeamOpcode.allocate, U, 0, U, 0);
+		op(code, BeamOpcode.recv_mark, F, 3);
+		op(code, BeamOpcode.call_ext, U, 0, U, 0);
+		op(code, BeamOpcode.recv_set, F, 3);
+		op(code, BeamOpcode.label, U, 3);
+		op(code, BeamOpcode.loop_rec, F, 4, X, 0);
+		op(code, BeamOpcode.remove_message);
+		op(code, BeamOpcode.deallocate, U, 0);
+		op(code, BeamOpcode.K_return);
+		op(code, BeamOpcode.label, U, 4);
+		op(code, BeamOpcode.wait_timeout, F, 3, I, 0);
+		op(code, BeamOpcode.timeout);
+		op(code, BeamOpcode.move, A, TIMEOUT_ATOM, X, 0);
+		op(code, BeamOpcode.deallocate, U, 0);
+		op(code, BeamOpcode.K_return);
+		code.write(BeamOpcode.int_code_end.encoding);
+
+		return beam(new String[] { OUTER, "outer", "timeout", INNER, "inner" },
+				code.toByteArray(), 5, new int[] { INNER_MOD, INNER_FUN, 0 },
+				new int[] { OUTER_FUN, 0, 2 });
+	}
+
+	/** inner(), which queues a reply and then receives after a mark at 3 */
+	static byte[] assemble_inner() throws IOException {
+		final int INNER_FUN = 2, TIMEOUT_ATOM = 3, ERLANG = 4, SELF = 5, REPLY = 6;
+		ByteArrayOutputStream code = new ByteArrayOutputStream();
+		op(code, BeamOpcode.label, U, 1);
+		op(code, BeamOpcode.func_info, A, MOD, A, INNER_FUN, U, 0);
+		op(code, BeamOpcode.label, U, 2);
+		op(code, BeamOpcode.bif0, U, 0, X, 0);
+		op(code, BeamOpcode.move, A, REPLY, X, 1);
+		op(code, BeamOpcode.send);
+		op(code, BeamOpcode.recv_mark, F, 3);
+		op(code, BeamOpcode.recv_set, F, 3);
+		op(code, BeamOpcode.label, U, 3);
+		op(code, BeamOpcode.loop_rec, F, 4, X, 0);
+		op(code, BeamOpcode.remove_message);
+		op(code, BeamOpcode.K_return);
+		op(code, BeamOpcode.label, U, 4);
+		op(code, BeamOpcode.wait_timeout, F, 3, I, 0);
+		op(code, BeamOpcode.timeout);
+		op(code, BeamOpcode.move, A, TIMEOUT_ATOM, X, 0);
+		op(code, BeamOpcode.K_return);
+		code.write(BeamOpcode.int_code_end.encoding);
+
+		return beam(new String[] { INNER, "inner", "timeout", "erlang",
+				"self", "reply" }, code.toByteArray(), 5, new int[] { ERLANG,
+				SELF, 0 }, new int[] { INNER_FUN, 0, 2 });
+	}
+
+	/**
+	 * A BEAM file with the given atoms (the module first), code, and
+	 * imports and exports as (atom, atom or arity, arity or label) triples.
+	 */
+	static byte[] beam(String[] names, byte[] code, int labels,
+			int[] imports, int[] exports) throws IOException {
+		ByteArrayOutputStream beam = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(beam);
+		out.writeBytes("BEAM");
+
+		ByteArrayOutputStream atoms = new ByteArrayOutputStream();
+		DataOutputStream a = new DataOutputStream(atoms);
+		a.writeInt(names.length);
+		for (String name : names) {
+			a.writeByte(name.length());
+			a.writeBytes(name);
+		}
+		chunk(out, "Atom", atoms.toByteArray());
+
+		ByteArrayOutputStream header = new ByteArrayOutputStream();
+		DataOutputStream h = new DataOutputStream(header);
+		h.writeInt(16);
+		h.writeInt(0);
+		h.writeInt(BeamOpcode.recv_set.encoding);
+		h.writeInt(labels);
+		h.writeInt(exports.length / 3);
+		header.write(code);
+		chunk(out, "Code", header.toByteArray());
+
+		chunk(out, "StrT", new byte[0]);
+		chunk(out, "ImpT", table(imports));
+		chunk(out, "ExpT", table(exports));
+		chunk(out, "LocT", new byte[4]);
+		chunk(out, "Attr", new byte[] { (byte) 131, 106 });
+		chunk(out, "CInf", new byte[] { (byte) 131, 106 });
+		out.close();
+
+		ByteArrayOutputStream file = new ByteArrayOutputStream();
+		DataOutputStream f = new DataOutputStream(file);
+		f.writeBytes("FOR1");
+		f.writeInt(beam.size());
+		f.write(beam.toByteArray());
+		f.close();
+		return file.toByteArray();
+	}
+
+	/**
+	 * A function from label l that returns the first message it sees, or
+	 * <code>timeout</code> if there is none.
+	 * 
+	 * @return the next free label
+	 */
+	static int receive(ByteArrayOutputStream code, int fun, int l,
+			boolean mark) {
+		op(code, BeamOpcode.label, U, l);
+		op(code, BeamOpcode.func_info, A, MOD, A, fun, U, 0);
+		op(code, BeamOpcode.label, U, l + 1);
+		int loop = l + 1;
+		if (mark) {
+			loop = l + 2;
+			op(code, BeamOpcode.recv_mark, F, loop);
+			op(code, BeamOpcode.recv_set, F, loop);
+			op(code, BeamOpcode.label, U, loop);
+		}
+		op(code, BeamOpcode.loop_rec, F, loop + 1, X, 0);
+		op(code, BeamOpcode.remove_message);
+		op(code, BeamOpcode.K_return);
+		op(code, BeamOpcode.label, U, loop + 1);
+		op(code, BeamOpcode.wait_timeout, F, loop, I, 0);
+		op(code, BeamOpcode.timeout);
+		op(code, BeamOpcode.move, A, TIMEOUT, X, 0);
+		op(code, BeamOpcode.K_return);
+		return loop + 2;
+	}
+
+	/** an instruction with operands given as tag, value pairs below 16 */
+	static void op(ByteArrayOutputStream code, BeamOpcode opcode,
+			int... operands) {
+		code.write(opcode.encoding);
+		for (int i = 0; i < operands.length; i += 2) {
+			code.write(operands[i + 1] << 4 | operands[i]);
+		}
+	}
+
+	static byte[] table(int[] ints) throws IOException {
+		ByteArrayOutputStream res = new ByteArrayOutputStream();
+		DataOutputStream out = new DataOutputStream(res);
+		out.writeInt(ints.length / 3);
+		for (int i : ints) {
+			out.writeInt(i);
+		}
+		return res.toByteArray();
+	}
+
+	static void chunk(DataOutputStream out, String tag, byte[] data)
+			throws IOException {
+		out.writeBytes(tag);
+		out.writeInt(data.length);
+		out.write(data);
+		for (int i = data.length; (i & 3) != 0; i++) {
+			out.writeByte(0);
+		}
+	}
+}
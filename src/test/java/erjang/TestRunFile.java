@@ -32,6 +32,7 @@ import erjang.EBinary;
 import erjang.beam.DirClassRepo;
 import erjang.beam.BeamLoader;
 import erjang.beam.loader.ErjangBeamDisLoader;
+import erjang.driver.Drivers;
 
 import erjang.m.erlang.ErlConvert;
 
@@ -53,6 +54,7 @@ public class TestRunFile implements Test {
 
 	static final EAtom ERJANG_ATOM = EAtom.intern("erjang");
 	static final EAtom ERLANG_ATOM = EAtom.intern("erlang");
+	static final EAtom PRIM_FILE_ATOM = EAtom.intern("prim_file");
 	static final EAtom RUN_WRAPPER_ATOM = EAtom.intern("run_wrapper");
 	static final String RUN_WRAPPER_HOME = "src/test/erl";
 	static final String BEAM_DIR = "target/test-beam";
@@ -107,6 +109,8 @@ public class TestRunFile implements Test {
 						 trimExtension(file.getName())+".beam");
 
 			if (! EModuleManager.module_loaded(ERLANG_ATOM)) load("erlang");
+			if (! EModuleManager.module_loaded(PRIM_FILE_ATOM)) load("prim_file");
+			if (Drivers.getDriver("efile") == null) Drivers.register(new erjang.driver.efile.Driver());
 			if (! EModuleManager.module_loaded(RUN_WRAPPER_ATOM)) load(wrapperBeamFile);
 			load(beamFile);
 
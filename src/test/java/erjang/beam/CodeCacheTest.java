@@ -0,0 +1,58 @@
+/**
+ * This file is part of Erjang - A JVM-based Erlang VM
+ *
+ * Copyright (c) 2009 by Trifork
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *  
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ **/
+
+
+package erjang.beam;
+
+import java.util.SortedSet;
+
+import junit.framework.TestCase;
+
+/**
+ * The cache key must change with any class that affects the compiled
+ * code, wherever those classes are loaded from.
+ */
+public class CodeCacheTest extends TestCase {
+
+	public void testKeyCoversInnerClasses() {
+		SortedSet<String> classes = compiler_classes("erjang/beam/");
+		assertTrue(classes.contains("erjang/beam/CompilerVisitor.class"));
+		assertTrue(classes
+				.contains("erjang/beam/CompilerVisitor$ASMFunctionAdapter.class"));
+		assertTrue(classes
+				.contains("erjang/beam/CompilerVisitor$ASMFunctionAdapter$ASMBlockVisitor.class"));
+		assertTrue(classes.contains("erjang/beam/EUtil.class"));
+		assertTrue(classes
+				.contains("erjang/beam/analysis/BeamTypeAnalysis.class"));
+	}
+
+	public void testKeyCoversWeaverJar() {
+		SortedSet<String> classes = compiler_classes("kilim/analysis/");
+		assertTrue(classes.contains("kilim/analysis/ClassWeaver.class"));
+		assertTrue(classes.contains("kilim/analysis/MethodWeaver.class"));
+	}
+
+	static SortedSet<String> compiler_classes(String prefix) {
+		for (String[] pkg : CodeCache.COMPILER_PACKAGES) {
+			if (pkg[0].equals(prefix))
+				return CodeCache.compiler_classes(CodeCache.class
+						.getClassLoader(), pkg[0], pkg[1]);
+		}
+		throw new AssertionError(prefix);
+	}
+}